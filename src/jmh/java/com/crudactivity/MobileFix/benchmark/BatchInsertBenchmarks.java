@@ -0,0 +1,86 @@
+package com.crudactivity.MobileFix.benchmark;
+
+import com.crudactivity.MobileFix.dto.RepairRequestDTO;
+import com.crudactivity.MobileFix.dto.RepairResponseDTO;
+import com.crudactivity.MobileFix.service.RepairService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compara la creación masiva (RepairService.createRepairs) con el bucle
+ * de createRepair por fila que usaban los kioscos de recepción.
+ *
+ * Ejecución: ./mvnw -Pbenchmark verify -Djmh.args="-prof gc BatchInsertBenchmarks"
+ */
+@BenchmarkMode({Mode.AverageTime, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 10)
+@Fork(value = 1, jvmArgsAppend = {"-Xms1g", "-Xmx2g"})
+public class BatchInsertBenchmarks {
+
+    @State(Scope.Benchmark)
+    public static class BatchState {
+
+        @Param({"10", "100", "500"})
+        public int batchSize;
+
+        BenchmarkContext context;
+        RepairService repairService;
+        BenchmarkDataset dataset;
+        List<RepairRequestDTO> requests;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            context = BenchmarkContext.start("mobilefix-batch-bench", 10_000);
+
+            repairService = context.getBean(RepairService.class);
+            dataset = context.dataset();
+        }
+
+        @Setup(Level.Invocation)
+        public void prepareRequests() {
+            requests = new ArrayList<>(batchSize);
+            for (int i = 0; i < batchSize; i++) {
+                requests.add(new RepairRequestDTO(
+                        "Pantalla rota", LocalDate.now().plusDays(5), null, 120.0,
+                        dataset.randomDeviceId(), dataset.randomTechnicianId()));
+            }
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            context.close();
+        }
+    }
+
+    @Benchmark
+    public List<RepairResponseDTO> createRepairsBatch(BatchState state) {
+        return state.repairService.createRepairs(state.requests);
+    }
+
+    @Benchmark
+    public List<RepairResponseDTO> createRepairPerRow(BatchState state) {
+        List<RepairResponseDTO> created = new ArrayList<>(state.requests.size());
+        for (RepairRequestDTO request : state.requests) {
+            created.add(state.repairService.createRepair(request));
+        }
+        return created;
+    }
+}
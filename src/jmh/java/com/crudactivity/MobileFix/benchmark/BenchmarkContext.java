@@ -0,0 +1,83 @@
+package com.crudactivity.MobileFix.benchmark;
+
+import com.crudactivity.MobileFix.MobileFixApplication;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.context.event.ApplicationStartedEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Contexto Spring de los benchmarks con el dataset ya sembrado
+ *
+ * El dataset se siembra en ApplicationStartedEvent: después del refresh (el esquema ya existe)
+ * pero antes de ApplicationReadyEvent, así los agregados, la cola de despacho, el índice de carga
+ * por técnico y los filtros de Bloom se construyen con los datos sembrados y no con la base vacía.
+ *
+ * Se desactiva lo que trabaja en segundo plano y ensuciaría las mediciones: el dispatcher del
+ * outbox, el calentamiento de arranque, el archivado del historial y la indexación Lucene
+ * automática en cada escritura (los benchmarks no buscan).
+ */
+final class BenchmarkContext implements AutoCloseable {
+
+    private final ConfigurableApplicationContext context;
+    private final BenchmarkDataset dataset;
+
+    private BenchmarkContext(ConfigurableApplicationContext context, BenchmarkDataset dataset) {
+        this.context = context;
+        this.dataset = dataset;
+    }
+
+    /**
+     * Arranca la aplicación contra una H2 en memoria y siembra el dataset antes de que esté lista
+     *
+     * @param databaseName nombre de la base H2 en memoria
+     * @param repairs      número de reparaciones a sembrar
+     */
+    static BenchmarkContext start(String databaseName, int repairs) {
+        DatasetSeeder seeder = new DatasetSeeder(repairs);
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(MobileFixApplication.class)
+                .web(WebApplicationType.NONE)
+                .listeners(seeder)
+                .properties(
+                        "spring.datasource.url=jdbc:h2:mem:" + databaseName + ";DB_CLOSE_DELAY=-1",
+                        "spring.jpa.open-in-view=false",
+                        "spring.jpa.properties.hibernate.search.indexing.listeners.enabled=false",
+                        "spring.jpa.properties.hibernate.search.backend.directory.type=local-heap",
+                        "mobilefix.outbox.enabled=false",
+                        "mobilefix.warmup.enabled=false",
+                        "mobilefix.history.rollup-enabled=false",
+                        "logging.level.root=WARN")
+                .run();
+        return new BenchmarkContext(context, seeder.dataset);
+    }
+
+    <T> T getBean(Class<T> type) {
+        return context.getBean(type);
+    }
+
+    BenchmarkDataset dataset() {
+        return dataset;
+    }
+
+    @Override
+    public void close() {
+        context.close();
+    }
+
+    private static final class DatasetSeeder implements ApplicationListener<ApplicationStartedEvent> {
+
+        private final int repairs;
+        private BenchmarkDataset dataset;
+
+        private DatasetSeeder(int repairs) {
+            this.repairs = repairs;
+        }
+
+        @Override
+        public void onApplicationEvent(ApplicationStartedEvent event) {
+            dataset = BenchmarkDataset.seed(event.getApplicationContext().getBean(JdbcTemplate.class), repairs);
+        }
+    }
+}
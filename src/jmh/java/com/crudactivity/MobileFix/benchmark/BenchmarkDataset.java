@@ -0,0 +1,142 @@
+package com.crudactivity.MobileFix.benchmark;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Datos sembrados para los benchmarks
+ * Se insertan con JDBC por lotes (no con JPA) para que sembrar 1M de reparaciones tarde segundos.
+ *
+ * Forma del dataset para N reparaciones:
+ * - TECHNICIANS técnicos (ids 1..TECHNICIANS)
+ * - N / 10 propietarios, cada uno con 2 dispositivos
+ * - N reparaciones repartidas entre los dispositivos (~5 por dispositivo)
+ */
+public final class BenchmarkDataset {
+
+    static final int TECHNICIANS = 50;
+
+    private static final int BATCH_SIZE = 10_000;
+    private static final int ID_ALLOCATION_SIZE = 50;
+    private static final String[] BRANDS = {"Apple", "Samsung", "Xiaomi", "Huawei", "Motorola"};
+    private static final String[] PROBLEMS = {"Pantalla rota", "Batería no carga", "Problemas con cámara",
+            "No enciende", "Puerto de carga dañado"};
+    private static final String[] STATUSES = {"PENDING", "IN_PROGRESS", "COMPLETED", "CANCELLED"};
+
+    private final long firstOwnerId;
+    private final long owners;
+    private final long devices;
+    private final long repairs;
+
+    private BenchmarkDataset(long firstOwnerId, long owners, long devices, long repairs) {
+        this.firstOwnerId = firstOwnerId;
+        this.owners = owners;
+        this.devices = devices;
+        this.repairs = repairs;
+    }
+
+    /**
+     * Siembra el dataset en una base de datos vacía
+     *
+     * @param jdbcTemplate acceso JDBC a la base de datos de la aplicación
+     * @param repairs      número de reparaciones a crear
+     * @return descripción del dataset para elegir ids aleatorios válidos
+     */
+    public static BenchmarkDataset seed(JdbcTemplate jdbcTemplate, int repairs) {
+        long owners = Math.max(1, repairs / 10);
+        long devices = owners * 2;
+        long users = TECHNICIANS + owners;
+
+        insertInBatches(jdbcTemplate,
+                "INSERT INTO users (id, username, email, password, role, version) VALUES (?, ?, ?, ?, ?, 0)",
+                users, id -> new Object[]{
+                        id, "user" + id, "user" + id + "@mobilefix.com", "secret123",
+                        id <= TECHNICIANS ? "TECH" : "USER"});
+
+        insertInBatches(jdbcTemplate,
+                "INSERT INTO devices (id, brand, model, owner_id, version) VALUES (?, ?, ?, ?, 0)",
+                devices, id -> new Object[]{
+                        id, BRANDS[(int) (id % BRANDS.length)], "Model " + (id % 40),
+                        TECHNICIANS + 1 + (id - 1) / 2});
+
+        LocalDate today = LocalDate.now();
+        insertInBatches(jdbcTemplate,
+                "INSERT INTO repairs (id, description, request_date, estimated_date, status, cost, device_id, technician_id, version)"
+                        + " VALUES (?, ?, ?, ?, ?, ?, ?, ?, 0)",
+                repairs, id -> {
+                    String status = STATUSES[(int) (id % STATUSES.length)];
+                    LocalDate requestDate = today.minusDays(id % 730);
+                    return new Object[]{
+                            id, PROBLEMS[(int) (id % PROBLEMS.length)], Date.valueOf(requestDate),
+                            Date.valueOf(requestDate.plusDays(7)), status, 50.0 + (id % 500),
+                            1 + (id % devices), "PENDING".equals(status) ? null : 1 + (id % TECHNICIANS)};
+                });
+
+        restartSequence(jdbcTemplate, "users_seq", users + 1);
+        restartSequence(jdbcTemplate, "devices_seq", devices + 1);
+        restartSequence(jdbcTemplate, "repairs_seq", repairs + 1L);
+
+        return new BenchmarkDataset(TECHNICIANS + 1, owners, devices, repairs);
+    }
+
+    public long randomOwnerId() {
+        return firstOwnerId + ThreadLocalRandom.current().nextLong(owners);
+    }
+
+    public long randomDeviceId() {
+        return 1 + ThreadLocalRandom.current().nextLong(devices);
+    }
+
+    public long randomRepairId() {
+        return 1 + ThreadLocalRandom.current().nextLong(repairs);
+    }
+
+    /**
+     * Id aleatorio de una reparación abierta (PENDING o IN_PROGRESS: id % 4 es 0 o 1),
+     * las únicas a las que se puede asignar un técnico
+     */
+    public long randomOpenRepairId() {
+        long maxBlock = (repairs - 1) / STATUSES.length;
+        long id;
+        do {
+            id = STATUSES.length * ThreadLocalRandom.current().nextLong(maxBlock + 1)
+                    + ThreadLocalRandom.current().nextInt(2);
+        } while (id < 1 || id > repairs);
+        return id;
+    }
+
+    public long randomTechnicianId() {
+        return 1 + ThreadLocalRandom.current().nextLong(TECHNICIANS);
+    }
+
+    @FunctionalInterface
+    private interface RowFactory {
+        Object[] row(long id);
+    }
+
+    private static void insertInBatches(JdbcTemplate jdbcTemplate, String sql, long rows, RowFactory factory) {
+        List<Object[]> batch = new ArrayList<>(BATCH_SIZE);
+        for (long id = 1; id <= rows; id++) {
+            batch.add(factory.row(id));
+            if (batch.size() == BATCH_SIZE) {
+                jdbcTemplate.batchUpdate(sql, batch);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            jdbcTemplate.batchUpdate(sql, batch);
+        }
+    }
+
+    // Los ids se insertaron explícitamente: la secuencia debe continuar después del último.
+    // Con el optimizador pooled el valor leído es el extremo superior del bloque de ids,
+    // por eso se suma el tamaño de bloque
+    private static void restartSequence(JdbcTemplate jdbcTemplate, String sequence, long nextId) {
+        jdbcTemplate.execute("ALTER SEQUENCE " + sequence + " RESTART WITH " + (nextId + ID_ALLOCATION_SIZE));
+    }
+}
@@ -0,0 +1,132 @@
+package com.crudactivity.MobileFix.benchmark;
+
+import com.crudactivity.MobileFix.dto.DeviceResponseDTO;
+import com.crudactivity.MobileFix.dto.RepairRequestDTO;
+import com.crudactivity.MobileFix.dto.RepairResponseDTO;
+import com.crudactivity.MobileFix.dto.UserRequestDTO;
+import com.crudactivity.MobileFix.dto.UserResponseDTO;
+import com.crudactivity.MobileFix.model.Role;
+import com.crudactivity.MobileFix.service.DeviceService;
+import com.crudactivity.MobileFix.service.RepairService;
+import com.crudactivity.MobileFix.service.RepairViewCache;
+import com.crudactivity.MobileFix.service.UserService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Benchmarks JMH de los caminos calientes de la capa de servicio
+ * Arranca el contexto Spring completo contra H2 en memoria y siembra datasets
+ * de 1k, 100k y 1M reparaciones antes de que la aplicación esté lista (BenchmarkContext).
+ *
+ * Informa throughput (ops/ms), percentiles de latencia (modo SampleTime) y,
+ * con -prof gc (activado por defecto en el perfil), la tasa de asignación.
+ *
+ * Ejecución: ./mvnw -Pbenchmark verify
+ * Solo un tamaño: ./mvnw -Pbenchmark verify -Djmh.args="-prof gc -p repairs=1000"
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 10)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx4g"})
+public class ServiceBenchmarks {
+
+    @State(Scope.Benchmark)
+    public static class ServiceState {
+
+        @Param({"1000", "100000", "1000000"})
+        public int repairs;
+
+        BenchmarkContext context;
+        RepairService repairService;
+        RepairViewCache repairViewCache;
+        UserService userService;
+        DeviceService deviceService;
+        BenchmarkDataset dataset;
+
+        final AtomicLong sequence = new AtomicLong();
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            context = BenchmarkContext.start("mobilefix-bench", repairs);
+
+            repairService = context.getBean(RepairService.class);
+            repairViewCache = context.getBean(RepairViewCache.class);
+            userService = context.getBean(UserService.class);
+            deviceService = context.getBean(DeviceService.class);
+            dataset = context.dataset();
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            context.close();
+        }
+    }
+
+    @Benchmark
+    public List<RepairResponseDTO> getAllRepairs(ServiceState state) {
+        return state.repairService.getAllRepairs();
+    }
+
+    /**
+     * Con la caché caliente casi todas las llamadas son aciertos de RepairViewCache
+     */
+    @Benchmark
+    public List<RepairResponseDTO> getRepairsByOwnerId(ServiceState state) {
+        return state.repairService.getRepairsByOwnerId(state.dataset.randomOwnerId());
+    }
+
+    /**
+     * La misma lectura sin caché: se invalida la entrada antes de cada llamada
+     * (mide la consulta; la invalidación de una clave cuesta microsegundos)
+     */
+    @Benchmark
+    public List<RepairResponseDTO> getRepairsByOwnerIdUncached(ServiceState state) {
+        Long ownerId = state.dataset.randomOwnerId();
+        state.repairViewCache.invalidate(List.of(), List.of(ownerId));
+        return state.repairService.getRepairsByOwnerId(ownerId);
+    }
+
+    @Benchmark
+    public RepairResponseDTO createRepair(ServiceState state) {
+        RepairRequestDTO request = new RepairRequestDTO(
+                "Pantalla rota", LocalDate.now().plusDays(5), null, 120.0,
+                state.dataset.randomDeviceId(), null);
+        return state.repairService.createRepair(request);
+    }
+
+    @Benchmark
+    public RepairResponseDTO assignTechnician(ServiceState state) {
+        return state.repairService.assignTechnician(
+                state.dataset.randomOpenRepairId(), state.dataset.randomTechnicianId());
+    }
+
+    @Benchmark
+    public UserResponseDTO createUser(ServiceState state) {
+        long n = state.sequence.incrementAndGet();
+        UserRequestDTO request = new UserRequestDTO(
+                "bench" + n, "bench" + n + "@mobilefix.com", "secret123", Role.USER);
+        return state.userService.createUser(request);
+    }
+
+    @Benchmark
+    public List<DeviceResponseDTO> getDevicesByOwnerId(ServiceState state) {
+        return state.deviceService.getDevicesByOwnerId(state.dataset.randomOwnerId());
+    }
+}
@@ -0,0 +1,216 @@
+package com.crudactivity.MobileFix.loadtest;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Prueba de carga HTTP de lazo cerrado contra una instancia ya arrancada
+ *
+ * Cada cliente virtual envía una petición, espera la respuesta y envía la siguiente.
+ * Las peticiones son asíncronas (HttpClient.sendAsync), así que se pueden simular
+ * miles de clientes concurrentes con pocos hilos en el generador.
+ * Para cada nivel de concurrencia informa throughput, p50, p99, máximo y errores.
+ *
+ * Comparar hilos de plataforma y virtuales:
+ * 1. ./mvnw spring-boot:run
+ *    ./mvnw -Pload-test verify
+ * 2. ./mvnw -Pjava21 spring-boot:run -Dspring-boot.run.profiles=virtual-threads
+ *    ./mvnw -Pload-test verify
+ *
+ * La vista combinada (tres lecturas en paralelo, respuesta asíncrona) se mide igual en
+ * los dos modos, contra un usuario sembrado:
+ *    ./mvnw -Pload-test verify -Dloadtest.args="path=/api/users/1/overview"
+ *
+ * Opciones (clave=valor): baseUrl, path, clients (lista separada por comas),
+ * warmup y duration (segundos), seedUsers.
+ * Por defecto se ataca /api/users/page, que no está cacheado y siempre va a JDBC.
+ */
+public final class HttpLoadTest {
+
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+
+    private HttpLoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parseOptions(args);
+        String baseUrl = options.getOrDefault("baseUrl", "http://localhost:8080");
+        String path = options.getOrDefault("path", "/api/users/page?size=20");
+        int[] levels = Arrays.stream(options.getOrDefault("clients", "500,1000,2500,5000").split(","))
+                .map(String::trim).mapToInt(Integer::parseInt).toArray();
+        Duration warmup = Duration.ofSeconds(Long.parseLong(options.getOrDefault("warmup", "10")));
+        Duration duration = Duration.ofSeconds(Long.parseLong(options.getOrDefault("duration", "30")));
+        int seedUsers = Integer.parseInt(options.getOrDefault("seedUsers", "200"));
+
+        ExecutorService executor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors() * 2);
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .executor(executor)
+                .build();
+
+        try {
+            seedUsers(client, baseUrl, seedUsers);
+
+            HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                    .timeout(REQUEST_TIMEOUT)
+                    .GET()
+                    .build();
+
+            System.out.printf("GET %s%s (warmup %ds, medición %ds)%n",
+                    baseUrl, path, warmup.toSeconds(), duration.toSeconds());
+            System.out.printf("%8s %12s %10s %10s %10s %8s%n", "clients", "req/s", "p50 ms", "p99 ms", "max ms", "errors");
+            for (int clients : levels) {
+                LevelResult result = runLevel(client, request, clients, warmup, duration);
+                System.out.printf("%8d %12.1f %10.2f %10.2f %10.2f %8d%n",
+                        clients, result.throughput(), result.percentileMillis(0.50),
+                        result.percentileMillis(0.99), result.percentileMillis(1.0), result.errors);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    // ============== MÉTODOS AUXILIARES ==============
+
+    private static LevelResult runLevel(HttpClient client, HttpRequest request, int clients,
+                                        Duration warmup, Duration duration) throws InterruptedException {
+        long measureFrom = System.nanoTime() + warmup.toNanos();
+        long end = measureFrom + duration.toNanos();
+        CountDownLatch finished = new CountDownLatch(clients);
+
+        VirtualClient[] virtualClients = new VirtualClient[clients];
+        for (int i = 0; i < clients; i++) {
+            virtualClients[i] = new VirtualClient(client, request, measureFrom, end, finished);
+            virtualClients[i].next();
+        }
+        finished.await();
+
+        LevelResult result = new LevelResult(duration);
+        for (VirtualClient virtualClient : virtualClients) {
+            result.add(virtualClient);
+        }
+        return result;
+    }
+
+    private static void seedUsers(HttpClient client, String baseUrl, int users) throws Exception {
+        for (int i = 0; i < users; i++) {
+            String body = String.format(
+                    "{\"username\":\"load%d\",\"email\":\"load%d@mobilefix.com\",\"password\":\"secret123\",\"role\":\"USER\"}",
+                    i, i);
+            HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/api/users"))
+                    .timeout(REQUEST_TIMEOUT)
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(body))
+                    .build();
+            // 400 si el usuario ya existe de una ejecución anterior: se ignora
+            client.send(request, HttpResponse.BodyHandlers.discarding());
+        }
+    }
+
+    private static Map<String, String> parseOptions(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            int separator = arg.indexOf('=');
+            if (separator > 0) {
+                options.put(arg.substring(0, separator), arg.substring(separator + 1));
+            }
+        }
+        return options;
+    }
+
+    /**
+     * Cliente de lazo cerrado: encadena una petición tras otra hasta el final del nivel
+     * Sus campos solo se modifican desde la cadena de callbacks, que es secuencial
+     */
+    private static final class VirtualClient {
+
+        private final HttpClient client;
+        private final HttpRequest request;
+        private final long measureFrom;
+        private final long end;
+        private final CountDownLatch finished;
+
+        private long[] latencies = new long[256];
+        private int count;
+        private int errors;
+
+        VirtualClient(HttpClient client, HttpRequest request, long measureFrom, long end, CountDownLatch finished) {
+            this.client = client;
+            this.request = request;
+            this.measureFrom = measureFrom;
+            this.end = end;
+            this.finished = finished;
+        }
+
+        void next() {
+            long start = System.nanoTime();
+            if (start >= end) {
+                finished.countDown();
+                return;
+            }
+            client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                    .whenComplete((response, error) -> {
+                        if (start >= measureFrom) {
+                            if (error != null || response.statusCode() >= 400) {
+                                errors++;
+                            } else {
+                                record(System.nanoTime() - start);
+                            }
+                        }
+                        next();
+                    });
+        }
+
+        private void record(long latencyNanos) {
+            if (count == latencies.length) {
+                latencies = Arrays.copyOf(latencies, count * 2);
+            }
+            latencies[count++] = latencyNanos;
+        }
+    }
+
+    /**
+     * Resultado agregado de todos los clientes de un nivel de concurrencia
+     */
+    private static final class LevelResult {
+
+        private final Duration duration;
+        private long[] latencies = new long[0];
+        private int errors;
+
+        LevelResult(Duration duration) {
+            this.duration = duration;
+        }
+
+        void add(VirtualClient client) {
+            int previous = latencies.length;
+            latencies = Arrays.copyOf(latencies, previous + client.count);
+            System.arraycopy(client.latencies, 0, latencies, previous, client.count);
+            errors += client.errors;
+        }
+
+        double throughput() {
+            return latencies.length / (double) duration.toSeconds();
+        }
+
+        double percentileMillis(double percentile) {
+            if (latencies.length == 0) {
+                return 0.0;
+            }
+            long[] sorted = latencies.clone();
+            Arrays.sort(sorted);
+            int index = (int) Math.ceil(percentile * sorted.length) - 1;
+            return sorted[Math.max(0, index)] / 1_000_000.0;
+        }
+    }
+}
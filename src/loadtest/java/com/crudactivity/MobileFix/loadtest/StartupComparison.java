@@ -0,0 +1,147 @@
+package com.crudactivity.MobileFix.loadtest;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compara el arranque de la build JVM y la nativa: tiempo hasta estar lista y RSS
+ *
+ * Arranca cada build varias veces, mide desde el lanzamiento del proceso hasta que
+ * /actuator/health/readiness responde UP y lee VmRSS de /proc/&lt;pid&gt;/status en ese momento
+ * (solo Linux; en otros sistemas el RSS sale como n/d). Entre ejecuciones el proceso se detiene.
+ *
+ * 1. ./mvnw -DskipTests package                 (target/MobileFix-0.0.1-SNAPSHOT.jar)
+ * 2. ./mvnw -Pnative -DskipTests native:compile (target/MobileFix)
+ * 3. ./mvnw -Pload-test verify -Dloadtest.main=com.crudactivity.MobileFix.loadtest.StartupComparison \
+ *        -Dloadtest.args="jar=target/MobileFix-0.0.1-SNAPSHOT.jar native=target/MobileFix"
+ *
+ * Opciones (clave=valor): jar, native (se omite la que no se indique), runs, port y timeout (segundos).
+ */
+public final class StartupComparison {
+
+    private static final String READINESS_PATH = "/actuator/health/readiness";
+    private static final Duration POLL_INTERVAL = Duration.ofMillis(10);
+
+    private StartupComparison() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parseOptions(args);
+        int runs = Integer.parseInt(options.getOrDefault("runs", "5"));
+        int port = Integer.parseInt(options.getOrDefault("port", "18080"));
+        Duration timeout = Duration.ofSeconds(Long.parseLong(options.getOrDefault("timeout", "120")));
+
+        Map<String, List<String>> builds = new LinkedHashMap<>();
+        if (options.containsKey("jar")) {
+            builds.put("jvm", List.of(Path.of(System.getProperty("java.home"), "bin", "java").toString(),
+                    "-jar", options.get("jar")));
+        }
+        if (options.containsKey("native")) {
+            builds.put("native", List.of(options.get("native")));
+        }
+        if (builds.isEmpty()) {
+            throw new IllegalArgumentException("Indique jar=<ruta del jar> y/o native=<ruta del ejecutable>");
+        }
+
+        HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(1)).build();
+        System.out.printf("%-8s %6s %12s %10s%n", "build", "run", "ready ms", "RSS MB");
+        for (Map.Entry<String, List<String>> build : builds.entrySet()) {
+            long[] readyMillis = new long[runs];
+            long[] rssKb = new long[runs];
+            for (int run = 0; run < runs; run++) {
+                List<String> command = new ArrayList<>(build.getValue());
+                command.add("--server.port=" + port);
+                command.add("--management.endpoint.health.probes.enabled=true");
+
+                long start = System.nanoTime();
+                Process process = new ProcessBuilder(command)
+                        .redirectErrorStream(true)
+                        .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                        .start();
+                try {
+                    awaitReady(client, port, process, timeout);
+                    readyMillis[run] = (System.nanoTime() - start) / 1_000_000;
+                    rssKb[run] = rssKb(process.pid());
+                } finally {
+                    process.destroy();
+                    process.waitFor();
+                }
+                System.out.printf("%-8s %6d %12d %10s%n", build.getKey(), run + 1, readyMillis[run], megabytes(rssKb[run]));
+            }
+            System.out.printf("%-8s %6s %12d %10s%n", build.getKey(), "p50", median(readyMillis), megabytes(median(rssKb)));
+        }
+    }
+
+    // ============== MÉTODOS AUXILIARES ==============
+
+    private static void awaitReady(HttpClient client, int port, Process process, Duration timeout) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + READINESS_PATH))
+                .timeout(Duration.ofSeconds(1))
+                .GET()
+                .build();
+        long deadline = System.nanoTime() + timeout.toNanos();
+        while (System.nanoTime() < deadline) {
+            if (!process.isAlive()) {
+                throw new IllegalStateException("El proceso terminó antes de estar listo (código " + process.exitValue() + ")");
+            }
+            try {
+                HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+                if (response.statusCode() == 200 && response.body().contains("\"UP\"")) {
+                    return;
+                }
+            } catch (IOException ex) {
+                // Todavía no escucha en el puerto
+            }
+            Thread.sleep(POLL_INTERVAL.toMillis());
+        }
+        throw new IllegalStateException("La aplicación no estuvo lista en " + timeout.toSeconds() + " s");
+    }
+
+    // VmRSS de /proc/<pid>/status en kB, o -1 si no está disponible
+    private static long rssKb(long pid) {
+        Path status = Path.of("/proc", Long.toString(pid), "status");
+        try {
+            for (String line : Files.readAllLines(status)) {
+                if (line.startsWith("VmRSS:")) {
+                    return Long.parseLong(line.replaceAll("[^0-9]", ""));
+                }
+            }
+        } catch (IOException | NumberFormatException ex) {
+            return -1;
+        }
+        return -1;
+    }
+
+    private static String megabytes(long kb) {
+        return kb < 0 ? "n/d" : String.format("%.1f", kb / 1024.0);
+    }
+
+    private static long median(long[] values) {
+        long[] sorted = values.clone();
+        Arrays.sort(sorted);
+        return sorted[sorted.length / 2];
+    }
+
+    private static Map<String, String> parseOptions(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            int separator = arg.indexOf('=');
+            if (separator > 0) {
+                options.put(arg.substring(0, separator), arg.substring(separator + 1));
+            }
+        }
+        return options;
+    }
+}
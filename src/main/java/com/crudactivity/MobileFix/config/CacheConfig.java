@@ -0,0 +1,26 @@
+package com.crudactivity.MobileFix.config;
+
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuración de la caché de aplicación (Spring Cache + Caffeine)
+ *
+ * Las cachés se declaran en application.properties (spring.cache.cache-names)
+ * para que existan desde el arranque y Micrometer registre sus métricas
+ * (cache.gets con result=hit/miss, cache.evictions, cache.size).
+ * Tamaño máximo y TTL se controlan con spring.cache.caffeine.spec.
+ */
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    // Usuarios (UserResponseDTO) por ID, username y email
+    public static final String USERS_BY_ID = "users-by-id";
+    public static final String USERS_BY_USERNAME = "users-by-username";
+    public static final String USERS_BY_EMAIL = "users-by-email";
+
+    // Resultados de existsByUsername / existsByEmail
+    public static final String USER_EXISTS_BY_USERNAME = "user-exists-by-username";
+    public static final String USER_EXISTS_BY_EMAIL = "user-exists-by-email";
+}
@@ -0,0 +1,80 @@
+package com.crudactivity.MobileFix.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+/**
+ * Instrumentación con Micrometer, publicada en /actuator/prometheus
+ *
+ * Lo que registra Spring Boot por su cuenta:
+ * - http.server.requests: latencia por endpoint
+ * - spring.data.repository.invocations: latencia de cada método de repositorio
+ * - hikaricp.connections.*: conexiones activas, en espera y tiempo de adquisición del pool
+ * - hibernate.*: estadísticas de Hibernate (cargas de entidades, flushes, caché L2, consultas),
+ *   con hibernate.generate_statistics=true y hibernate-micrometer en el classpath
+ *
+ * Lo que se añade aquí:
+ * - mobilefix.service: latencia de cada método público de los servicios (@Timed de clase)
+ * - mobilefix.http.jdbc.statements: sentencias SQL por petición (QueryCountFilter)
+ * - mobilefix.query.guard.violations: posibles N+1 y exceso de sentencias (QueryGuard)
+ * - mobilefix.http.serialization: tiempo de serialización JSON por endpoint
+ *
+ * Los percentiles e histogramas se configuran en application.properties
+ * (management.metrics.distribution.*).
+ */
+@Configuration
+public class MetricsConfig {
+
+    /**
+     * Nombre del timer de los métodos de servicio (usar en @Timed)
+     */
+    public static final String SERVICE_TIMER = "mobilefix.service";
+
+    /**
+     * Hace efectivas las anotaciones @Timed (tags class y method)
+     */
+    @Bean
+    public TimedAspect timedAspect(MeterRegistry meterRegistry) {
+        return new TimedAspect(meterRegistry);
+    }
+
+    @Bean
+    public QueryCountInspector queryCountInspector() {
+        return new QueryCountInspector();
+    }
+
+    /**
+     * Registra el contador de sentencias en la SessionFactory de Hibernate
+     */
+    @Bean
+    public HibernatePropertiesCustomizer queryCountInspectorCustomizer(QueryCountInspector queryCountInspector) {
+        return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, queryCountInspector);
+    }
+
+    @Bean
+    public FilterRegistrationBean<QueryCountFilter> queryCountFilter(QueryCountInspector queryCountInspector,
+                                                                     QueryGuard queryGuard,
+                                                                     MeterRegistry meterRegistry) {
+        FilterRegistrationBean<QueryCountFilter> registration =
+                new FilterRegistrationBean<>(new QueryCountFilter(queryCountInspector, queryGuard, meterRegistry));
+        registration.addUrlPatterns("/api/*");
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 10);
+        return registration;
+    }
+
+    /**
+     * Sustituye al conversor JSON por defecto de Spring Boot (se retira al existir este bean)
+     */
+    @Bean
+    public TimedJacksonHttpMessageConverter timedJacksonHttpMessageConverter(ObjectMapper objectMapper,
+                                                                             MeterRegistry meterRegistry) {
+        return new TimedJacksonHttpMessageConverter(objectMapper, meterRegistry);
+    }
+}
@@ -0,0 +1,98 @@
+package com.crudactivity.MobileFix.config;
+
+import com.crudactivity.MobileFix.dto.BulkUpdateResultDTO;
+import com.crudactivity.MobileFix.dto.CursorPageDTO;
+import com.crudactivity.MobileFix.dto.CycleTimeStatsDTO;
+import com.crudactivity.MobileFix.dto.DeviceRequestDTO;
+import com.crudactivity.MobileFix.dto.DeviceResponseDTO;
+import com.crudactivity.MobileFix.dto.RepairAggregateDTO;
+import com.crudactivity.MobileFix.dto.RepairRequestDTO;
+import com.crudactivity.MobileFix.dto.RepairResponseDTO;
+import com.crudactivity.MobileFix.dto.RepairStatusHistoryDTO;
+import com.crudactivity.MobileFix.dto.TechnicianWorkloadDTO;
+import com.crudactivity.MobileFix.dto.UserOverviewDTO;
+import com.crudactivity.MobileFix.dto.UserRequestDTO;
+import com.crudactivity.MobileFix.dto.UserResponseDTO;
+import com.crudactivity.MobileFix.event.RepairSnapshot;
+import com.crudactivity.MobileFix.model.Device;
+import com.crudactivity.MobileFix.model.JobLock;
+import com.crudactivity.MobileFix.model.OutboxEvent;
+import com.crudactivity.MobileFix.model.Repair;
+import com.crudactivity.MobileFix.model.RepairStatusArchive;
+import com.crudactivity.MobileFix.model.RepairStatusEvent;
+import com.crudactivity.MobileFix.model.User;
+import com.crudactivity.MobileFix.repositories.RepairRepository;
+import com.crudactivity.MobileFix.repositories.RepairStatusEventRepository;
+import com.crudactivity.MobileFix.repositories.UserRepository;
+import org.springframework.aop.framework.AopProxyUtils;
+import org.springframework.aot.hint.BindingReflectionHintsRegistrar;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.ImportRuntimeHints;
+import org.springframework.data.projection.TargetAware;
+
+import java.util.List;
+
+/**
+ * Pistas de alcanzabilidad para la imagen nativa (perfil Maven native)
+ *
+ * El procesado AOT de Spring Boot ya registra los beans, las entidades JPA y los
+ * repositorios; aquí se añade lo que solo se usa por reflexión en tiempo de ejecución:
+ * - DTOs que Jackson serializa y deserializa en los controladores (también dentro de genéricos)
+ * - Clases creadas con "SELECT new ..." en JPQL (Hibernate invoca el constructor por reflexión)
+ * - Proyecciones por interfaz de los repositorios (proxies JDK de Spring Data)
+ * - Clases que Hibernate Search instancia por nombre desde application.properties
+ *
+ * Las entidades se registran también para que Hibernate pueda leer y escribir sus campos
+ * aunque el enhancement en tiempo de compilación no esté activo.
+ */
+@Configuration(proxyBeanMethods = false)
+@ImportRuntimeHints(NativeHintsConfig.MobileFixRuntimeHints.class)
+public class NativeHintsConfig {
+
+    static final List<Class<?>> DTOS = List.of(
+            BulkUpdateResultDTO.class, CursorPageDTO.class, CycleTimeStatsDTO.class,
+            DeviceRequestDTO.class, DeviceResponseDTO.class, RepairAggregateDTO.class,
+            RepairRequestDTO.class, RepairResponseDTO.class, RepairStatusHistoryDTO.class,
+            TechnicianWorkloadDTO.class, UserOverviewDTO.class, UserRequestDTO.class, UserResponseDTO.class);
+
+    static final List<Class<?>> ENTITIES = List.of(
+            Device.class, JobLock.class, OutboxEvent.class, Repair.class, RepairStatusArchive.class,
+            RepairStatusEvent.class, User.class);
+
+    // Destinos de "SELECT new ..." en RepairRepository y RepairStatusEventRepository
+    static final List<Class<?>> JPQL_CONSTRUCTOR_RESULTS = List.of(
+            RepairResponseDTO.class, RepairSnapshot.class, RepairStatusHistoryDTO.class);
+
+    static final List<Class<?>> PROJECTIONS = List.of(
+            RepairRepository.StatusTotals.class, RepairRepository.TechnicianAssignment.class,
+            RepairRepository.RepairStateView.class, UserRepository.UserKeys.class,
+            RepairStatusEventRepository.RepairTimeline.class, RepairStatusEventRepository.StatusDuration.class);
+
+    static class MobileFixRuntimeHints implements RuntimeHintsRegistrar {
+
+        private final BindingReflectionHintsRegistrar bindingHints = new BindingReflectionHintsRegistrar();
+
+        @Override
+        public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+            bindingHints.registerReflectionHints(hints.reflection(), DTOS.toArray(Class<?>[]::new));
+
+            ENTITIES.forEach(entity -> hints.reflection().registerType(entity,
+                    MemberCategory.INVOKE_DECLARED_CONSTRUCTORS, MemberCategory.INVOKE_DECLARED_METHODS,
+                    MemberCategory.DECLARED_FIELDS));
+
+            JPQL_CONSTRUCTOR_RESULTS.forEach(result -> hints.reflection().registerType(result,
+                    MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS, MemberCategory.INVOKE_PUBLIC_METHODS));
+
+            PROJECTIONS.forEach(projection -> {
+                hints.reflection().registerType(projection, MemberCategory.INVOKE_PUBLIC_METHODS);
+                hints.proxies().registerJdkProxy(AopProxyUtils.completeJdkProxyInterfaces(projection, TargetAware.class));
+            });
+
+            // spring.jpa.properties.hibernate.search.backend.analysis.configurer=class:...
+            hints.reflection().registerType(SearchAnalysisConfigurer.class, MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS);
+        }
+    }
+}
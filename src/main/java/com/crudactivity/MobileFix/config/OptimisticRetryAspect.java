@@ -0,0 +1,80 @@
+package com.crudactivity.MobileFix.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Reintenta los métodos @RetryOnConflict que fallan por bloqueo optimista
+ *
+ * Se ejecuta antes que el interceptor de transacciones (y que QueryGuardAspect),
+ * así que cada intento es una transacción nueva que relee la fila. Si el método se
+ * llama dentro de una transacción ya abierta no se reintenta: esa transacción ya
+ * está marcada para rollback y es quien la abrió el que debe decidir.
+ *
+ * Métrica mobilefix.optimistic.conflicts, tags method y outcome:
+ * - retried: conflicto resuelto con un nuevo intento
+ * - exhausted: se agotaron los intentos (la petición devuelve 409)
+ */
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class OptimisticRetryAspect {
+
+    private static final Logger log = LoggerFactory.getLogger(OptimisticRetryAspect.class);
+
+    static final String CONFLICTS_METRIC = "mobilefix.optimistic.conflicts";
+
+    // Espera antes de reintentar: aleatoria hasta 10 ms, 20 ms, 40 ms... (máximo 200 ms)
+    // para que los rivales se desincronicen aunque la transacción sea más larga que la espera
+    private static final long BASE_BACKOFF_MILLIS = 10;
+    private static final long MAX_BACKOFF_MILLIS = 200;
+
+    private final MeterRegistry meterRegistry;
+
+    public OptimisticRetryAspect(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    // La anotación se lee de la firma: con la máxima precedencia no se pueden enlazar argumentos del pointcut
+    @Around("@annotation(com.crudactivity.MobileFix.config.RetryOnConflict)")
+    public Object retry(ProceedingJoinPoint joinPoint) throws Throwable {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return joinPoint.proceed();
+        }
+
+        MethodSignature signature = (MethodSignature) joinPoint.getSignature();
+        String name = signature.getDeclaringType().getSimpleName() + "." + signature.getName();
+        int maxAttempts = Math.max(1, signature.getMethod().getAnnotation(RetryOnConflict.class).maxAttempts());
+
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return joinPoint.proceed();
+            } catch (OptimisticLockingFailureException ex) {
+                if (attempt >= maxAttempts) {
+                    meterRegistry.counter(CONFLICTS_METRIC, "method", name, "outcome", "exhausted").increment();
+                    throw ex;
+                }
+                meterRegistry.counter(CONFLICTS_METRIC, "method", name, "outcome", "retried").increment();
+                log.debug("Conflicto de versión en {} (intento {} de {}), se reintenta", name, attempt, maxAttempts);
+                Thread.sleep(backoffMillis(attempt));
+            }
+        }
+    }
+
+    private static long backoffMillis(int attempt) {
+        long ceiling = Math.min(MAX_BACKOFF_MILLIS, BASE_BACKOFF_MILLIS << Math.min(attempt - 1, 10));
+        return 1 + ThreadLocalRandom.current().nextLong(ceiling);
+    }
+}
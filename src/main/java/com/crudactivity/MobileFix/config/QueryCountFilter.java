@@ -0,0 +1,65 @@
+package com.crudactivity.MobileFix.config;
+
+import com.crudactivity.MobileFix.config.QueryCountInspector.StatementScope;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+
+/**
+ * Publica cuántas sentencias SQL ejecutó cada petición HTTP
+ *
+ * Métrica: mobilefix.http.jdbc.statements (resumen de distribución con p50/p95/p99)
+ * Tags: method y uri (el patrón del endpoint, p. ej. /api/users/{id})
+ * Un valor que crece con el tamaño de la respuesta delata un problema N+1;
+ * QueryGuard además lo registra como infracción si supera los umbrales.
+ */
+public class QueryCountFilter extends OncePerRequestFilter {
+
+    static final String METRIC_NAME = "mobilefix.http.jdbc.statements";
+
+    private final QueryCountInspector queryCountInspector;
+    private final QueryGuard queryGuard;
+    private final MeterRegistry meterRegistry;
+
+    public QueryCountFilter(QueryCountInspector queryCountInspector, QueryGuard queryGuard,
+                            MeterRegistry meterRegistry) {
+        this.queryCountInspector = queryCountInspector;
+        this.queryGuard = queryGuard;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        StatementScope scope = queryCountInspector.open(StatementScope.REQUEST);
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            queryCountInspector.close(scope);
+            String uri = uriPattern(request);
+            DistributionSummary.builder(METRIC_NAME)
+                    .description("Sentencias SQL ejecutadas por petición HTTP")
+                    .baseUnit("statements")
+                    .tag("method", request.getMethod())
+                    .tag("uri", uri)
+                    .register(meterRegistry)
+                    .record(scope.getCount());
+            queryGuard.checkRequest(scope, request.getMethod() + " " + uri);
+        }
+    }
+
+    /**
+     * Patrón del endpoint que atendió la petición (no la URI real, para no crear una serie por id)
+     */
+    static String uriPattern(HttpServletRequest request) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        return pattern != null ? pattern.toString() : "UNKNOWN";
+    }
+}
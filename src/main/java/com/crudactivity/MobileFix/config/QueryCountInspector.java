@@ -0,0 +1,127 @@
+package com.crudactivity.MobileFix.config;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Cuenta las sentencias SQL que Hibernate prepara en el hilo actual
+ *
+ * Se registra como hibernate.session_factory.statement_inspector (ver MetricsConfig).
+ * Las sentencias se acumulan en los ámbitos abiertos en el hilo:
+ * - la petición HTTP (QueryCountFilter)
+ * - el método @Transactional de servicio más externo (QueryGuardAspect)
+ * Al cerrar un ámbito, QueryGuard revisa el total y los SELECT repetidos.
+ * No modifica el SQL.
+ */
+public class QueryCountInspector implements StatementInspector {
+
+    private static final ThreadLocal<Deque<StatementScope>> SCOPES = new ThreadLocal<>();
+
+    @Override
+    public String inspect(String sql) {
+        Deque<StatementScope> scopes = SCOPES.get();
+        if (scopes != null) {
+            boolean select = isEntitySelect(sql);
+            for (StatementScope scope : scopes) {
+                scope.record(sql, select);
+            }
+        }
+        return sql;
+    }
+
+    /**
+     * Abre un ámbito de conteo en el hilo actual
+     *
+     * @param kind tipo de ámbito (StatementScope.REQUEST o StatementScope.METHOD)
+     */
+    public StatementScope open(String kind) {
+        Deque<StatementScope> scopes = SCOPES.get();
+        if (scopes == null) {
+            scopes = new ArrayDeque<>();
+            SCOPES.set(scopes);
+        }
+        StatementScope scope = new StatementScope(kind);
+        scopes.push(scope);
+        return scope;
+    }
+
+    /**
+     * Cierra un ámbito abierto con open() (los hilos del servidor se reutilizan)
+     */
+    public void close(StatementScope scope) {
+        Deque<StatementScope> scopes = SCOPES.get();
+        if (scopes == null) {
+            return;
+        }
+        scopes.remove(scope);
+        if (scopes.isEmpty()) {
+            SCOPES.remove();
+        }
+    }
+
+    /**
+     * Indica si hay un ámbito del tipo indicado abierto en el hilo actual
+     */
+    public boolean isOpen(String kind) {
+        Deque<StatementScope> scopes = SCOPES.get();
+        return scopes != null && scopes.stream().anyMatch(scope -> scope.getKind().equals(kind));
+    }
+
+    /**
+     * SELECT sobre tablas (no cuenta "select next value for ..." de las secuencias)
+     * Solo estos se vigilan como posibles repeticiones N+1
+     */
+    private static boolean isEntitySelect(String sql) {
+        String normalized = sql.stripLeading().toLowerCase(Locale.ROOT);
+        return normalized.startsWith("select") && normalized.contains(" from ");
+    }
+
+    /**
+     * Sentencias preparadas dentro de un ámbito
+     * Los SELECT se agrupan por texto SQL: con parámetros "?", la misma carga LAZY
+     * repetida para N entidades produce N veces el mismo texto.
+     */
+    public static final class StatementScope {
+
+        public static final String REQUEST = "request";
+        public static final String METHOD = "method";
+
+        private final String kind;
+        private final Map<String, Integer> selects = new HashMap<>();
+        private long count;
+
+        StatementScope(String kind) {
+            this.kind = kind;
+        }
+
+        void record(String sql, boolean select) {
+            count++;
+            if (select) {
+                selects.merge(sql, 1, Integer::sum);
+            }
+        }
+
+        public String getKind() {
+            return kind;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        /**
+         * SELECT ejecutados más veces que el máximo indicado, con su número de repeticiones
+         */
+        public Map<String, Integer> getRepeatedSelects(int maxRepeats) {
+            return selects.entrySet().stream()
+                    .filter(entry -> entry.getValue() > maxRepeats)
+                    .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package com.crudactivity.MobileFix.config;
+
+import com.crudactivity.MobileFix.config.QueryCountInspector.StatementScope;
+import com.crudactivity.MobileFix.exception.QueryGuardViolationException;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Detector de N+1 y de exceso de sentencias SQL
+ *
+ * Revisa cada ámbito cerrado por QueryCountFilter (petición HTTP) y QueryGuardAspect
+ * (método @Transactional de servicio) y marca dos tipos de infracción:
+ * - statements: el ámbito superó el máximo de sentencias configurado
+ * - repeated-select: el mismo SELECT se repitió más veces de las permitidas
+ *
+ * Cada infracción se registra en el log (WARN) y en la métrica mobilefix.query.guard.violations.
+ * Con mobilefix.query-guard.strict=true (tests) los métodos de servicio infractores
+ * lanzan QueryGuardViolationException para que el test falle (antes del commit: la
+ * transacción del método hace rollback, ver QueryGuardAspect).
+ *
+ * Las consultas lentas las registra Hibernate con hibernate.log_slow_query.
+ */
+@Component
+public class QueryGuard {
+
+    private static final Logger log = LoggerFactory.getLogger(QueryGuard.class);
+
+    static final String VIOLATIONS_METRIC = "mobilefix.query.guard.violations";
+
+    // Longitud máxima del SQL incluido en logs y mensajes
+    private static final int MAX_SQL_LENGTH = 200;
+
+    private final MeterRegistry meterRegistry;
+    private final int maxStatementsPerRequest;
+    private final int maxStatementsPerMethod;
+    private final int maxRepeatedSelects;
+    private final boolean strict;
+
+    public QueryGuard(MeterRegistry meterRegistry,
+                      @Value("${mobilefix.query-guard.max-statements-per-request:30}") int maxStatementsPerRequest,
+                      @Value("${mobilefix.query-guard.max-statements-per-method:20}") int maxStatementsPerMethod,
+                      @Value("${mobilefix.query-guard.max-repeated-selects:3}") int maxRepeatedSelects,
+                      @Value("${mobilefix.query-guard.strict:false}") boolean strict) {
+        this.meterRegistry = meterRegistry;
+        this.maxStatementsPerRequest = maxStatementsPerRequest;
+        this.maxStatementsPerMethod = maxStatementsPerMethod;
+        this.maxRepeatedSelects = maxRepeatedSelects;
+        this.strict = strict;
+    }
+
+    /**
+     * Revisar las sentencias de una petición HTTP (nunca lanza excepción: la respuesta ya se envió)
+     *
+     * @param scope ámbito cerrado de la petición
+     * @param name  método y patrón del endpoint, p. ej. "GET /api/devices"
+     */
+    public void checkRequest(StatementScope scope, String name) {
+        report(scope, name, maxStatementsPerRequest);
+    }
+
+    /**
+     * Revisar las sentencias de un método de servicio
+     *
+     * @param scope          ámbito cerrado del método
+     * @param name           clase y método, p. ej. "DeviceService.getAllDevices"
+     * @param failOnViolation si es false solo se informa (el método ya terminó con excepción)
+     * @throws QueryGuardViolationException en modo estricto si hubo infracciones
+     */
+    public void checkMethod(StatementScope scope, String name, boolean failOnViolation) {
+        List<String> violations = report(scope, name, maxStatementsPerMethod);
+        if (strict && failOnViolation && !violations.isEmpty()) {
+            throw new QueryGuardViolationException(name + ": " + String.join("; ", violations));
+        }
+    }
+
+    public boolean isStrict() {
+        return strict;
+    }
+
+    // ============== MÉTODOS AUXILIARES ==============
+
+    private List<String> report(StatementScope scope, String name, int maxStatements) {
+        List<String> violations = new ArrayList<>();
+
+        if (scope.getCount() > maxStatements) {
+            violations.add(scope.getCount() + " sentencias SQL (máximo " + maxStatements + ")");
+            record(scope, name, "statements");
+        }
+
+        for (Map.Entry<String, Integer> repeated : scope.getRepeatedSelects(maxRepeatedSelects).entrySet()) {
+            violations.add("SELECT repetido " + repeated.getValue() + " veces (posible N+1): "
+                    + abbreviate(repeated.getKey()));
+            record(scope, name, "repeated-select");
+        }
+
+        if (!violations.isEmpty()) {
+            log.warn("QueryGuard [{} {}]: {}", scope.getKind(), name, String.join("; ", violations));
+        }
+        return violations;
+    }
+
+    private void record(StatementScope scope, String name, String type) {
+        meterRegistry.counter(VIOLATIONS_METRIC, "scope", scope.getKind(), "name", name, "type", type).increment();
+    }
+
+    private static String abbreviate(String sql) {
+        return sql.length() <= MAX_SQL_LENGTH ? sql : sql.substring(0, MAX_SQL_LENGTH) + "...";
+    }
+}
@@ -0,0 +1,142 @@
+package com.crudactivity.MobileFix.config;
+
+import com.crudactivity.MobileFix.config.QueryCountInspector.StatementScope;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.lang.Nullable;
+import org.springframework.orm.jpa.EntityManagerFactoryUtils;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.TransactionExecution;
+import org.springframework.transaction.TransactionExecutionListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.ClassUtils;
+
+/**
+ * Cuenta las sentencias SQL de cada método @Transactional público de los servicios
+ *
+ * Solo se mide el método más externo (el que abre la transacción); las llamadas
+ * anidadas cuentan dentro de él. Se ejecuta antes que el interceptor de transacciones
+ * para incluir también el flush del commit, y después de OptimisticRetryAspect para
+ * medir cada reintento por separado.
+ *
+ * En modo estricto la revisión se hace antes del commit (beforeCommit de la transacción
+ * del propio método, tras forzar el flush): si hay infracciones, la excepción provoca el
+ * rollback y el llamante no recibe un error por una escritura que sí se guardó.
+ * Spring Boot registra este bean como TransactionExecutionListener del gestor de transacciones.
+ */
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 1)
+public class QueryGuardAspect implements TransactionExecutionListener {
+
+    private final QueryCountInspector queryCountInspector;
+    private final QueryGuard queryGuard;
+    private final ObjectProvider<EntityManagerFactory> entityManagerFactory;
+
+    // Método vigilado en curso en el hilo actual
+    private final ThreadLocal<GuardedCall> current = new ThreadLocal<>();
+
+    public QueryGuardAspect(QueryCountInspector queryCountInspector, QueryGuard queryGuard,
+                            ObjectProvider<EntityManagerFactory> entityManagerFactory) {
+        this.queryCountInspector = queryCountInspector;
+        this.queryGuard = queryGuard;
+        this.entityManagerFactory = entityManagerFactory;
+    }
+
+    @Around("execution(public * com.crudactivity.MobileFix.service..*(..)) && "
+            + "(@within(org.springframework.transaction.annotation.Transactional) || "
+            + "@annotation(org.springframework.transaction.annotation.Transactional))")
+    public Object guard(ProceedingJoinPoint joinPoint) throws Throwable {
+        if (queryCountInspector.isOpen(StatementScope.METHOD)) {
+            return joinPoint.proceed();
+        }
+
+        String name = joinPoint.getSignature().getDeclaringType().getSimpleName()
+                + "." + joinPoint.getSignature().getName();
+        // Mismo nombre que da TransactionInterceptor a la transacción del método
+        String transactionName = ClassUtils.getQualifiedMethodName(
+                ((MethodSignature) joinPoint.getSignature()).getMethod(), joinPoint.getTarget().getClass());
+        StatementScope scope = queryCountInspector.open(StatementScope.METHOD);
+        GuardedCall call = new GuardedCall(scope, name, transactionName);
+        current.set(call);
+
+        Object result;
+        try {
+            result = joinPoint.proceed();
+        } catch (Throwable ex) {
+            close(call);
+            if (!call.checked) {
+                queryGuard.checkMethod(scope, name, false);
+            }
+            throw ex;
+        }
+
+        close(call);
+        if (!call.checked) {
+            queryGuard.checkMethod(scope, name, true);
+        }
+        return result;
+    }
+
+    /**
+     * Al empezar la transacción del método vigilado, programa la revisión antes del commit
+     */
+    @Override
+    public void afterBegin(TransactionExecution transaction, @Nullable Throwable beginFailure) {
+        GuardedCall call = current.get();
+        if (beginFailure != null || call == null || !queryGuard.isStrict()
+                || !call.transactionName.equals(transaction.getTransactionName())
+                || !TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void beforeCommit(boolean readOnly) {
+                if (!readOnly) {
+                    flush();
+                }
+                call.checked = true;
+                queryGuard.checkMethod(call.scope, call.name, true);
+            }
+        });
+    }
+
+    // ============== MÉTODOS AUXILIARES ==============
+
+    private void close(GuardedCall call) {
+        current.remove();
+        queryCountInspector.close(call.scope);
+    }
+
+    // El flush del commit se adelanta para que sus sentencias cuenten en la revisión
+    private void flush() {
+        EntityManagerFactory factory = entityManagerFactory.getIfAvailable();
+        EntityManager entityManager = factory == null ? null
+                : EntityManagerFactoryUtils.getTransactionalEntityManager(factory);
+        if (entityManager != null) {
+            entityManager.flush();
+        }
+    }
+
+    private static final class GuardedCall {
+
+        final StatementScope scope;
+        final String name;
+        final String transactionName;
+        boolean checked;
+
+        GuardedCall(StatementScope scope, String name, String transactionName) {
+            this.scope = scope;
+            this.name = name;
+            this.transactionName = transactionName;
+        }
+    }
+}
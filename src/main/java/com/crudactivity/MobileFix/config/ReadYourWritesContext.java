@@ -0,0 +1,146 @@
+package com.crudactivity.MobileFix.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.time.Duration;
+import java.util.function.Supplier;
+
+/**
+ * Lectura de las propias escrituras con réplicas de lectura
+ *
+ * Una réplica puede ir hasta lag-tolerance por detrás de la primaria. Para que un cliente
+ * que acaba de escribir no lea datos antiguos, sus lecturas van a la primaria:
+ * - durante el resto de la misma petición, en cuanto hace commit de una escritura
+ * - durante lag-tolerance en las peticiones siguientes de la misma sesión
+ *
+ * La sesión se identifica con la cabecera X-Session-Id o con la HttpSession si existe
+ * (ReadYourWritesFilter). Las marcas de escritura viven en memoria de cada instancia,
+ * así que entre instancias hace falta afinidad de sesión en el balanceador.
+ *
+ * El contexto es por hilo: las tareas que la petición lanza en applicationTaskExecutor
+ * o en el pool de streams SSE lo heredan con propagate() (TaskDecorator de ReplicaRoutingConfig).
+ *
+ * Las cargas de cachés compartidas (RepairViewCache) leen siempre de la primaria con
+ * readFromPrimary(): lo que cargan se sirve a todos los clientes, también al que acaba de escribir.
+ */
+public class ReadYourWritesContext {
+
+    private final ThreadLocal<State> current = new ThreadLocal<>();
+
+    // Lecturas forzadas a la primaria en el hilo actual (readFromPrimary)
+    private final ThreadLocal<Boolean> primaryOnly = new ThreadLocal<>();
+
+    // Última escritura de cada sesión; la entrada caduca pasado lag-tolerance
+    private final Cache<String, Long> lastWriteBySession;
+
+    public ReadYourWritesContext(Duration lagTolerance, long maxSessions) {
+        this.lastWriteBySession = Caffeine.newBuilder()
+                .expireAfterWrite(lagTolerance)
+                .maximumSize(maxSessions)
+                .build();
+    }
+
+    /**
+     * Abrir el contexto de una petición; cerrarlo al terminar (try-with-resources)
+     *
+     * @param sessionKey identificador de la sesión del cliente, o null si no tiene
+     */
+    public Scope open(String sessionKey) {
+        State previous = current.get();
+        current.set(new State(sessionKey));
+        return () -> {
+            if (previous != null) {
+                current.set(previous);
+            } else {
+                current.remove();
+            }
+        };
+    }
+
+    /**
+     * Envolver una tarea para que se ejecute con el contexto del hilo que la crea
+     * (las escrituras de la tarea cuentan también para la petición que la lanzó)
+     */
+    public Runnable propagate(Runnable task) {
+        State state = current.get();
+        if (state == null) {
+            return task;
+        }
+        return () -> {
+            State previous = current.get();
+            current.set(state);
+            try {
+                task.run();
+            } finally {
+                if (previous != null) {
+                    current.set(previous);
+                } else {
+                    current.remove();
+                }
+            }
+        };
+    }
+
+    /**
+     * Ejecutar lecturas contra la primaria aunque vayan en transacciones readOnly
+     * Para cargas de cachés compartidas: una réplica retrasada dejaría en caché datos
+     * anteriores a una invalidación, y se servirían a todos hasta que expiren.
+     */
+    public <T> T readFromPrimary(Supplier<T> reads) {
+        if (primaryOnly.get() != null) {
+            return reads.get();
+        }
+        primaryOnly.set(Boolean.TRUE);
+        try {
+            return reads.get();
+        } finally {
+            primaryOnly.remove();
+        }
+    }
+
+    /**
+     * true si las lecturas del hilo actual deben ir a la primaria
+     */
+    boolean mustReadFromPrimary() {
+        if (primaryOnly.get() != null) {
+            return true;
+        }
+        State state = current.get();
+        if (state == null) {
+            return false;
+        }
+        return state.wrote || (state.sessionKey != null && lastWriteBySession.getIfPresent(state.sessionKey) != null);
+    }
+
+    /**
+     * Registrar que el hilo actual hizo commit de una escritura
+     */
+    void recordWrite() {
+        State state = current.get();
+        if (state == null) {
+            return;
+        }
+        state.wrote = true;
+        if (state.sessionKey != null) {
+            lastWriteBySession.put(state.sessionKey, System.currentTimeMillis());
+        }
+    }
+
+    /**
+     * Ámbito abierto con open(); close() restaura el contexto anterior
+     */
+    public interface Scope extends AutoCloseable {
+        @Override
+        void close();
+    }
+
+    private static final class State {
+        private final String sessionKey;
+        private volatile boolean wrote; // Puede compartirse con tareas en otros hilos (propagate)
+
+        private State(String sessionKey) {
+            this.sessionKey = sessionKey;
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.crudactivity.MobileFix.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpSession;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Abre el ReadYourWritesContext de cada petición HTTP
+ * La sesión es la cabecera X-Session-Id; si no viene, la HttpSession existente (no se crea ninguna)
+ */
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+
+    public static final String SESSION_HEADER = "X-Session-Id";
+
+    private final ReadYourWritesContext readYourWritesContext;
+
+    public ReadYourWritesFilter(ReadYourWritesContext readYourWritesContext) {
+        this.readYourWritesContext = readYourWritesContext;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String sessionKey = request.getHeader(SESSION_HEADER);
+        if (sessionKey == null || sessionKey.isBlank()) {
+            HttpSession session = request.getSession(false);
+            sessionKey = session != null ? session.getId() : null;
+        }
+
+        try (ReadYourWritesContext.Scope scope = readYourWritesContext.open(sessionKey)) {
+            filterChain.doFilter(request, response);
+        }
+    }
+}
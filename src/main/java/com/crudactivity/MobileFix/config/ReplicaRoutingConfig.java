@@ -0,0 +1,104 @@
+package com.crudactivity.MobileFix.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.Ordered;
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * Réplica de lectura: las transacciones @Transactional(readOnly = true) leen de la réplica
+ *
+ * Se activa con mobilefix.datasource.replica.enabled=true (perfil "replica").
+ * - Primaria: spring.datasource.* y spring.datasource.hikari.* (como sin réplica)
+ * - Réplica: mobilefix.datasource.replica.url/username/password y mobilefix.datasource.replica.hikari.*
+ * - lag-tolerance: retraso máximo esperado de la réplica; durante ese tiempo tras escribir,
+ *   las lecturas de la misma sesión siguen yendo a la primaria (ReadYourWritesContext)
+ *
+ * Sin la propiedad, Spring Boot configura el DataSource único de siempre.
+ */
+@Configuration
+@ConditionalOnProperty(name = "mobilefix.datasource.replica.enabled", havingValue = "true")
+public class ReplicaRoutingConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    /**
+     * Pool de la réplica (solo se inyecta por nombre: no compite con el DataSource principal)
+     */
+    @Bean(defaultCandidate = false)
+    @ConfigurationProperties("mobilefix.datasource.replica.hikari")
+    public HikariDataSource replicaDataSource(
+            @Value("${mobilefix.datasource.replica.url}") String url,
+            @Value("${mobilefix.datasource.replica.username:${spring.datasource.username:sa}}") String username,
+            @Value("${mobilefix.datasource.replica.password:${spring.datasource.password:}}") String password) {
+        HikariDataSource dataSource = DataSourceBuilder.create()
+                .type(HikariDataSource.class)
+                .url(url)
+                .username(username)
+                .password(password)
+                .build();
+        dataSource.setPoolName("replica");
+        dataSource.setReadOnly(true);
+        return dataSource;
+    }
+
+    @Bean
+    public ReadYourWritesContext readYourWritesContext(
+            @Value("${mobilefix.datasource.replica.lag-tolerance:2s}") Duration lagTolerance,
+            @Value("${mobilefix.datasource.replica.max-sessions:100000}") long maxSessions) {
+        return new ReadYourWritesContext(lagTolerance, maxSessions);
+    }
+
+    /**
+     * DataSource que usan JPA y el resto de la aplicación
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("primaryDataSource") DataSource primaryDataSource,
+                                 @Qualifier("replicaDataSource") DataSource replicaDataSource,
+                                 ReadYourWritesContext readYourWritesContext,
+                                 MeterRegistry meterRegistry) {
+        ReplicaRoutingDataSource routingDataSource = new ReplicaRoutingDataSource(
+                primaryDataSource, replicaDataSource, readYourWritesContext, meterRegistry);
+        routingDataSource.afterPropertiesSet();
+        return new LazyConnectionDataSourceProxy(routingDataSource);
+    }
+
+    /**
+     * Spring Boot aplica este decorador a applicationTaskExecutor y RepairStreamService al pool
+     * de los streams SSE: las tareas asíncronas de una petición leen como la petición
+     */
+    @Bean
+    public TaskDecorator readYourWritesTaskDecorator(ReadYourWritesContext readYourWritesContext) {
+        return readYourWritesContext::propagate;
+    }
+
+    @Bean
+    public FilterRegistrationBean<ReadYourWritesFilter> readYourWritesFilter(ReadYourWritesContext readYourWritesContext) {
+        FilterRegistrationBean<ReadYourWritesFilter> registration =
+                new FilterRegistrationBean<>(new ReadYourWritesFilter(readYourWritesContext));
+        registration.addUrlPatterns("/api/*");
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 10);
+        return registration;
+    }
+}
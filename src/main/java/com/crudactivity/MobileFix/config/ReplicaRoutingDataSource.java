@@ -0,0 +1,107 @@
+package com.crudactivity.MobileFix.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Map;
+
+/**
+ * DataSource que envía las transacciones readOnly a la réplica y el resto a la primaria
+ *
+ * Debe usarse detrás de un LazyConnectionDataSourceProxy: así la conexión real se pide
+ * al ejecutar la primera sentencia, cuando la transacción ya está marcada como readOnly.
+ *
+ * - Fuera de transacción (arranque, DDL): primaria
+ * - Transacción de escritura: primaria; al hacer commit se registra la escritura (ReadYourWritesContext)
+ * - Transacción readOnly: réplica, salvo que el cliente acabe de escribir
+ * - Si la réplica no da conexión, se lee de la primaria (mobilefix.datasource.connections{target=fallback})
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    private static final Logger log = LoggerFactory.getLogger(ReplicaRoutingDataSource.class);
+
+    public enum Target {
+        PRIMARY, REPLICA
+    }
+
+    private final DataSource primary;
+    private final DataSource replica;
+    private final ReadYourWritesContext readYourWritesContext;
+
+    // Clave del recurso de transacción que evita registrar la escritura dos veces
+    private final Object writeMarkerKey = new Object();
+
+    private final Counter primaryConnections;
+    private final Counter replicaConnections;
+    private final Counter fallbackConnections;
+
+    public ReplicaRoutingDataSource(DataSource primary, DataSource replica,
+                                    ReadYourWritesContext readYourWritesContext, MeterRegistry meterRegistry) {
+        this.primary = primary;
+        this.replica = replica;
+        this.readYourWritesContext = readYourWritesContext;
+        setTargetDataSources(Map.of(Target.PRIMARY, primary, Target.REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+
+        this.primaryConnections = meterRegistry.counter("mobilefix.datasource.connections", "target", "primary");
+        this.replicaConnections = meterRegistry.counter("mobilefix.datasource.connections", "target", "replica");
+        this.fallbackConnections = meterRegistry.counter("mobilefix.datasource.connections", "target", "fallback");
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            return Target.PRIMARY;
+        }
+        if (TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return readYourWritesContext.mustReadFromPrimary() ? Target.PRIMARY : Target.REPLICA;
+        }
+        recordWriteOnCommit();
+        return Target.PRIMARY;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (determineCurrentLookupKey() == Target.REPLICA) {
+            try {
+                Connection connection = replica.getConnection();
+                replicaConnections.increment();
+                return connection;
+            } catch (SQLException ex) {
+                fallbackConnections.increment();
+                log.warn("Réplica no disponible, la lectura va a la primaria: {}", ex.getMessage());
+            }
+        }
+        primaryConnections.increment();
+        return primary.getConnection();
+    }
+
+    // ============== MÉTODOS AUXILIARES ==============
+
+    private void recordWriteOnCommit() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()
+                || TransactionSynchronizationManager.hasResource(writeMarkerKey)) {
+            return;
+        }
+        TransactionSynchronizationManager.bindResource(writeMarkerKey, Boolean.TRUE);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                readYourWritesContext.recordWrite();
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(writeMarkerKey);
+            }
+        });
+    }
+}
@@ -0,0 +1,26 @@
+package com.crudactivity.MobileFix.config;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Reintenta el método de servicio si falla por bloqueo optimista (OptimisticRetryAspect)
+ *
+ * Solo para operaciones que cambian campos concretos (estado, técnico...): al reintentar
+ * se relee la fila y se vuelve a aplicar el mismo cambio sobre la versión actual, así que
+ * se conservan los cambios concurrentes de otros campos. Las operaciones que reemplazan
+ * la entidad completa (PUT) usan maxAttempts = 1: el conflicto se mide y se devuelve (409).
+ */
+@Documented
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface RetryOnConflict {
+
+    /**
+     * Número máximo de intentos, incluido el primero
+     */
+    int maxAttempts() default 8;
+}
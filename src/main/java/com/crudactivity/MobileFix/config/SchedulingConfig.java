@@ -0,0 +1,15 @@
+package com.crudactivity.MobileFix.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Habilita las tareas programadas (@Scheduled)
+ *
+ * Se usa para vaciar el outbox de eventos de reparación (OutboxDispatcher).
+ * Spring ejecuta las tareas en un único hilo por defecto (spring.task.scheduling.pool.size).
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
@@ -0,0 +1,25 @@
+package com.crudactivity.MobileFix.config;
+
+import org.hibernate.search.backend.lucene.analysis.LuceneAnalysisConfigurationContext;
+import org.hibernate.search.backend.lucene.analysis.LuceneAnalysisConfigurer;
+
+/**
+ * Analizadores del índice de búsqueda de texto completo (Hibernate Search + Lucene)
+ * Se registra con la propiedad hibernate.search.backend.analysis.configurer
+ */
+public class SearchAnalysisConfigurer implements LuceneAnalysisConfigurer {
+
+    /**
+     * Analizador para texto libre: descripción, marca, modelo y username
+     * Separa en palabras, pasa a minúsculas y quita acentos ("batería" y "bateria" coinciden)
+     */
+    public static final String TEXT_ANALYZER = "repair_text";
+
+    @Override
+    public void configure(LuceneAnalysisConfigurationContext context) {
+        context.analyzer(TEXT_ANALYZER).custom()
+                .tokenizer("standard")
+                .tokenFilter("lowercase")
+                .tokenFilter("asciiFolding");
+    }
+}
@@ -0,0 +1,55 @@
+package com.crudactivity.MobileFix.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+
+/**
+ * Conversor JSON de Spring MVC que mide cuánto tarda en serializar cada respuesta
+ *
+ * Métrica: mobilefix.http.serialization (timer con p50/p95/p99)
+ * Tag uri: el patrón del endpoint, igual que http.server.requests
+ * Permite separar el tiempo de serialización de los DTO del tiempo de servicio y base de datos.
+ */
+public class TimedJacksonHttpMessageConverter extends MappingJackson2HttpMessageConverter {
+
+    static final String METRIC_NAME = "mobilefix.http.serialization";
+
+    private final MeterRegistry meterRegistry;
+
+    public TimedJacksonHttpMessageConverter(ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        super(objectMapper);
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    protected void writeInternal(Object object, Type type, HttpOutputMessage outputMessage)
+            throws IOException, HttpMessageNotWritableException {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        try {
+            super.writeInternal(object, type, outputMessage);
+        } finally {
+            sample.stop(Timer.builder(METRIC_NAME)
+                    .description("Tiempo de serialización JSON de la respuesta")
+                    .tag("uri", currentUriPattern())
+                    .register(meterRegistry));
+        }
+    }
+
+    private static String currentUriPattern() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        Object pattern = attributes != null
+                ? attributes.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST)
+                : null;
+        return pattern != null ? pattern.toString() : "UNKNOWN";
+    }
+}
@@ -0,0 +1,43 @@
+package com.crudactivity.MobileFix.config;
+
+import com.crudactivity.MobileFix.service.RepairStreamService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Interceptores de Spring MVC
+ *
+ * Los streams SSE de RepairStreamService empiezan a enviar en afterConcurrentHandlingStarted,
+ * cuando el emisor ya está inicializado con la respuesta; si la petición termina sin
+ * procesamiento asíncrono, afterCompletion libera el hueco reservado.
+ */
+@Configuration
+public class WebConfig implements WebMvcConfigurer {
+
+    private final RepairStreamService repairStreamService;
+
+    public WebConfig(RepairStreamService repairStreamService) {
+        this.repairStreamService = repairStreamService;
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new AsyncHandlerInterceptor() {
+            @Override
+            public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response,
+                                                       Object handler) {
+                repairStreamService.startPendingStream(request);
+            }
+
+            @Override
+            public void afterCompletion(HttpServletRequest request, HttpServletResponse response,
+                                        Object handler, Exception ex) {
+                repairStreamService.discardPendingStream(request);
+            }
+        }).addPathPatterns("/api/repairs/owners/*/stream");
+    }
+}
@@ -0,0 +1,45 @@
+package com.crudactivity.MobileFix.controller;
+
+import com.crudactivity.MobileFix.exception.InvalidRequestException;
+
+/**
+ * ETag e If-Match a partir de la versión de la entidad (@Version)
+ *
+ * El ETag de un recurso es su versión entre comillas, p. ej. "3".
+ * El cliente lo devuelve en If-Match al modificarlo; si otro cliente lo cambió
+ * entretanto, la versión ya no coincide y la respuesta es 412 Precondition Failed.
+ */
+final class ETags {
+
+    private ETags() {
+    }
+
+    static String of(Long version) {
+        return "\"" + version + "\"";
+    }
+
+    /**
+     * Versión pedida en la cabecera If-Match
+     *
+     * @param ifMatch valor de la cabecera (puede ser null)
+     * @return la versión, o null si no hay cabecera o es "*" (cualquier versión)
+     * @throws InvalidRequestException si la cabecera no es un ETag de este servicio
+     */
+    static Long parseIfMatch(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        String tag = ifMatch.trim();
+        if (tag.startsWith("W/")) {
+            tag = tag.substring(2);
+        }
+        if (tag.length() >= 2 && tag.startsWith("\"") && tag.endsWith("\"")) {
+            tag = tag.substring(1, tag.length() - 1);
+        }
+        try {
+            return Long.parseLong(tag);
+        } catch (NumberFormatException ex) {
+            throw new InvalidRequestException("Cabecera If-Match inválida: " + ifMatch);
+        }
+    }
+}
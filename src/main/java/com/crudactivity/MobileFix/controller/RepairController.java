@@ -0,0 +1,449 @@
+package com.crudactivity.MobileFix.controller;
+
+import com.crudactivity.MobileFix.dto.BulkUpdateResultDTO;
+import com.crudactivity.MobileFix.dto.CycleTimeStatsDTO;
+import com.crudactivity.MobileFix.dto.RepairAggregateDTO;
+import com.crudactivity.MobileFix.dto.RepairRequestDTO;
+import com.crudactivity.MobileFix.dto.RepairResponseDTO;
+import com.crudactivity.MobileFix.dto.RepairStatusHistoryDTO;
+import com.crudactivity.MobileFix.dto.TechnicianWorkloadDTO;
+import com.crudactivity.MobileFix.exception.ResourceNotFoundException;
+import com.crudactivity.MobileFix.exception.StreamCapacityExceededException;
+import com.crudactivity.MobileFix.model.Status;
+import com.crudactivity.MobileFix.service.DispatchService;
+import com.crudactivity.MobileFix.service.RepairAggregateService;
+import com.crudactivity.MobileFix.service.RepairHistoryArchive;
+import com.crudactivity.MobileFix.service.RepairHistoryService;
+import com.crudactivity.MobileFix.service.RepairSearchService;
+import com.crudactivity.MobileFix.service.RepairService;
+import com.crudactivity.MobileFix.service.RepairStreamService;
+import com.crudactivity.MobileFix.service.TechnicianWorkloadIndex;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Controlador REST para gestionar Repairs
+ * Endpoint base: /api/repairs
+ */
+@RestController
+@RequestMapping("/api/repairs")
+@CrossOrigin(origins = "*") // Permitir peticiones desde cualquier origen
+public class RepairController {
+
+    private final RepairService repairService;
+    private final RepairAggregateService repairAggregateService;
+    private final DispatchService dispatchService;
+    private final RepairSearchService repairSearchService;
+    private final RepairHistoryService repairHistoryService;
+    private final RepairHistoryArchive repairHistoryArchive;
+    private final TechnicianWorkloadIndex technicianWorkloadIndex;
+    private final RepairStreamService repairStreamService;
+
+    @Autowired
+    public RepairController(RepairService repairService,
+                            RepairAggregateService repairAggregateService,
+                            DispatchService dispatchService,
+                            RepairSearchService repairSearchService,
+                            RepairHistoryService repairHistoryService,
+                            RepairHistoryArchive repairHistoryArchive,
+                            TechnicianWorkloadIndex technicianWorkloadIndex,
+                            RepairStreamService repairStreamService) {
+        this.repairService = repairService;
+        this.repairAggregateService = repairAggregateService;
+        this.dispatchService = dispatchService;
+        this.repairSearchService = repairSearchService;
+        this.repairHistoryService = repairHistoryService;
+        this.repairHistoryArchive = repairHistoryArchive;
+        this.technicianWorkloadIndex = technicianWorkloadIndex;
+        this.repairStreamService = repairStreamService;
+    }
+
+    /**
+     * POST /api/repairs/batch
+     * Crear varias reparaciones en una sola petición (por ejemplo, el cierre de turno de un kiosco)
+     *
+     * @param repairRequestDTOs reparaciones a crear (máximo 1000)
+     * @return 201 CREATED con las reparaciones creadas, en el mismo orden
+     */
+    @PostMapping("/batch")
+    public ResponseEntity<List<RepairResponseDTO>> createRepairs(@RequestBody List<RepairRequestDTO> repairRequestDTOs) {
+        List<RepairResponseDTO> createdRepairs = repairService.createRepairs(repairRequestDTOs);
+        return new ResponseEntity<>(createdRepairs, HttpStatus.CREATED);
+    }
+
+    /**
+     * GET /api/repairs/{id}
+     * Obtener una reparación por ID
+     *
+     * @param id ID de la reparación
+     * @return 200 OK con la reparación y su versión en ETag, 304 NOT MODIFIED si coincide
+     * con If-None-Match, o 404 NOT FOUND
+     */
+    @GetMapping("/{id}")
+    public ResponseEntity<RepairResponseDTO> getRepairById(@PathVariable Long id) {
+        RepairResponseDTO repair = repairService.getRepairById(id);
+        return ResponseEntity.ok().eTag(ETags.of(repair.getVersion())).body(repair);
+    }
+
+    /**
+     * PUT /api/repairs/{id}
+     * Reemplazar los datos de una reparación
+     *
+     * @param id               ID de la reparación
+     * @param repairRequestDTO datos actualizados
+     * @param ifMatch          ETag leído por el cliente (opcional)
+     * @return 200 OK con la reparación actualizada y su nuevo ETag,
+     * 412 PRECONDITION FAILED si la reparación cambió desde que se leyó,
+     * 409 CONFLICT si otra petición la modificó a la vez
+     */
+    @PutMapping("/{id}")
+    public ResponseEntity<RepairResponseDTO> updateRepair(
+            @PathVariable Long id,
+            @RequestBody RepairRequestDTO repairRequestDTO,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        RepairResponseDTO repair = repairService.updateRepair(id, repairRequestDTO, ETags.parseIfMatch(ifMatch));
+        return ResponseEntity.ok().eTag(ETags.of(repair.getVersion())).body(repair);
+    }
+
+    /**
+     * PUT /api/repairs/{id}/status?status=COMPLETED
+     * Cambiar solo el estado de una reparación
+     * Sin If-Match, un cambio concurrente de otros campos se fusiona (se reintenta sobre la versión actual)
+     *
+     * @param id      ID de la reparación
+     * @param status  nuevo estado
+     * @param ifMatch ETag leído por el cliente (opcional)
+     * @return 200 OK con la reparación actualizada y su nuevo ETag,
+     * 409 CONFLICT si la transición no está permitida (p. ej. COMPLETED -> PENDING),
+     * 412 PRECONDITION FAILED si se envió If-Match y la reparación cambió
+     */
+    @PutMapping("/{id}/status")
+    public ResponseEntity<RepairResponseDTO> updateRepairStatus(
+            @PathVariable Long id,
+            @RequestParam Status status,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        RepairResponseDTO repair = repairService.updateStatus(id, status, ETags.parseIfMatch(ifMatch));
+        return ResponseEntity.ok().eTag(ETags.of(repair.getVersion())).body(repair);
+    }
+
+    /**
+     * PUT /api/repairs/{id}/technician/{technicianId}
+     * Asignar un técnico a una reparación (PENDING pasa a IN_PROGRESS)
+     * Sin If-Match, un cambio concurrente de otros campos se fusiona (se reintenta sobre la versión actual)
+     *
+     * @param id           ID de la reparación
+     * @param technicianId ID del técnico
+     * @param ifMatch      ETag leído por el cliente (opcional)
+     * @return 200 OK con la reparación actualizada y su nuevo ETag,
+     * 412 PRECONDITION FAILED si se envió If-Match y la reparación cambió
+     */
+    @PutMapping("/{id}/technician/{technicianId}")
+    public ResponseEntity<RepairResponseDTO> assignRepairTechnician(
+            @PathVariable Long id,
+            @PathVariable Long technicianId,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        RepairResponseDTO repair = repairService.assignTechnician(id, technicianId, ETags.parseIfMatch(ifMatch));
+        return ResponseEntity.ok().eTag(ETags.of(repair.getVersion())).body(repair);
+    }
+
+    /**
+     * PUT /api/repairs/bulk/status?status=COMPLETED
+     * Cambiar el estado de varias reparaciones en una sola sentencia (p. ej. al cerrar el turno)
+     * Las reparaciones que no admiten el cambio se omiten y se devuelven en skippedIds
+     *
+     * @param status nuevo estado
+     * @param ids    IDs de las reparaciones (máximo 5000)
+     * @return 200 OK con el número de reparaciones modificadas y las omitidas
+     */
+    @PutMapping("/bulk/status")
+    public ResponseEntity<BulkUpdateResultDTO> updateRepairStatuses(@RequestParam Status status,
+                                                                    @RequestBody List<Long> ids) {
+        return ResponseEntity.ok(repairService.updateStatuses(ids, status));
+    }
+
+    /**
+     * PUT /api/repairs/bulk/technician/{technicianId}
+     * Asignar un técnico a varias reparaciones abiertas en una sola sentencia
+     *
+     * @param technicianId ID del técnico
+     * @param ids          IDs de las reparaciones (máximo 5000)
+     * @return 200 OK con el número de reparaciones modificadas y las omitidas, o 404 si el técnico no existe
+     */
+    @PutMapping("/bulk/technician/{technicianId}")
+    public ResponseEntity<BulkUpdateResultDTO> assignRepairsTechnician(@PathVariable Long technicianId,
+                                                                       @RequestBody List<Long> ids) {
+        return ResponseEntity.ok(repairService.assignTechnicianBulk(ids, technicianId));
+    }
+
+    /**
+     * POST /api/repairs/bulk/cancel-pending?requestedBefore=2025-01-01
+     * Cancelar las reparaciones PENDING solicitadas antes de una fecha
+     * Como mucho RepairService.MAX_BULK_UPDATE_SIZE por llamada (las más antiguas): si updated
+     * llega a ese máximo puede haber más y se repite la llamada
+     *
+     * @param requestedBefore fecha límite, exclusiva (yyyy-MM-dd)
+     * @return 200 OK con el número de reparaciones canceladas
+     */
+    @PostMapping("/bulk/cancel-pending")
+    public ResponseEntity<BulkUpdateResultDTO> cancelPendingRepairs(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate requestedBefore) {
+        return ResponseEntity.ok(repairService.cancelPendingRequestedBefore(requestedBefore));
+    }
+
+    /**
+     * GET /api/repairs/export?startDate=2025-01-01&endDate=2025-12-31
+     * Exportar las reparaciones de un rango de fechas en formato NDJSON
+     * La respuesta se escribe en streaming, fila a fila, sin cargar el rango completo en memoria
+     *
+     * @param startDate fecha de inicio (yyyy-MM-dd)
+     * @param endDate   fecha de fin (yyyy-MM-dd)
+     * @return 200 OK con una reparación en JSON por línea
+     */
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportRepairs(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
+        StreamingResponseBody body = output -> repairService.exportRepairsByDateRange(startDate, endDate, output);
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+
+    /**
+     * GET /api/repairs/owners/{ownerId}/stream
+     * Recibir las reparaciones de un propietario como Server-Sent Events
+     * Cada reparación llega en un evento "repair" y el stream termina con un evento "end";
+     * la siguiente página solo se lee cuando el cliente ha recibido la anterior
+     *
+     * @param ownerId ID del propietario
+     * @return 200 OK con un stream text/event-stream, 404 NOT FOUND o 503 SERVICE UNAVAILABLE
+     *         si ya hay mobilefix.stream.max-concurrent streams abiertos
+     */
+    @GetMapping(value = "/owners/{ownerId}/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamRepairsByOwner(@PathVariable Long ownerId) {
+        try {
+            return ResponseEntity.ok(repairStreamService.streamRepairsByOwnerId(ownerId));
+        } catch (ResourceNotFoundException ex) {
+            // El cuerpo JSON de GlobalExceptionHandler no se puede escribir como text/event-stream
+            return ResponseEntity.notFound().build();
+        } catch (StreamCapacityExceededException ex) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "5")
+                    .build();
+        }
+    }
+
+    /**
+     * GET /api/repairs/aggregates/devices/{deviceId}
+     * Obtener costo completado, completadas y abiertas de un dispositivo
+     *
+     * @param deviceId ID del dispositivo
+     * @return 200 OK con los agregados
+     */
+    @GetMapping("/aggregates/devices/{deviceId}")
+    public ResponseEntity<RepairAggregateDTO> getDeviceAggregate(@PathVariable Long deviceId) {
+        return ResponseEntity.ok(repairAggregateService.getDeviceAggregate(deviceId));
+    }
+
+    /**
+     * GET /api/repairs/aggregates/technicians/{technicianId}
+     * Obtener ingresos completados, completadas y abiertas de un técnico
+     *
+     * @param technicianId ID del técnico
+     * @return 200 OK con los agregados
+     */
+    @GetMapping("/aggregates/technicians/{technicianId}")
+    public ResponseEntity<RepairAggregateDTO> getTechnicianAggregate(@PathVariable Long technicianId) {
+        return ResponseEntity.ok(repairAggregateService.getTechnicianAggregate(technicianId));
+    }
+
+    /**
+     * POST /api/repairs/aggregates/rebuild
+     * Reconstruir los agregados desde la base de datos (recuperación)
+     *
+     * @return 200 OK con mensaje de confirmación
+     */
+    @PostMapping("/aggregates/rebuild")
+    public ResponseEntity<Map<String, String>> rebuildAggregates() {
+        repairAggregateService.rebuild();
+
+        Map<String, String> response = new HashMap<>();
+        response.put("message", "Agregados reconstruidos exitosamente");
+
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * POST /api/repairs/dispatch/technicians/{technicianId}/claim
+     * El técnico toma la siguiente reparación pendiente de la cola (la más antigua)
+     *
+     * @param technicianId ID del técnico
+     * @return 200 OK con la reparación asignada, 204 NO CONTENT si no hay trabajo pendiente,
+     * 409 CONFLICT si el técnico ya tiene el máximo de reparaciones abiertas
+     */
+    @PostMapping("/dispatch/technicians/{technicianId}/claim")
+    public ResponseEntity<RepairResponseDTO> claimNextRepair(@PathVariable Long technicianId) {
+        return dispatchService.claimNext(technicianId)
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.noContent().build());
+    }
+
+    /**
+     * GET /api/repairs/dispatch
+     * Estado de la cola de despacho
+     *
+     * @return 200 OK con el número de reparaciones pendientes y el máximo de abiertas por técnico
+     */
+    @GetMapping("/dispatch")
+    public ResponseEntity<Map<String, Integer>> getDispatchStatus() {
+        Map<String, Integer> response = new HashMap<>();
+        response.put("pending", dispatchService.getQueueSize());
+        response.put("maxOpenPerTechnician", dispatchService.getMaxOpenPerTechnician());
+
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * POST /api/repairs/dispatch/rebuild
+     * Reconstruir la cola de despacho desde la base de datos (recuperación)
+     *
+     * @return 200 OK con mensaje de confirmación
+     */
+    @PostMapping("/dispatch/rebuild")
+    public ResponseEntity<Map<String, String>> rebuildDispatchQueue() {
+        dispatchService.rebuild();
+
+        Map<String, String> response = new HashMap<>();
+        response.put("message", "Cola de despacho reconstruida exitosamente");
+
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * GET /api/repairs/workload
+     * Matriz técnico x estado para el dashboard de despacho, servida desde memoria
+     *
+     * @return 200 OK con el número de reparaciones de cada técnico en cada estado
+     */
+    @GetMapping("/workload")
+    public ResponseEntity<List<TechnicianWorkloadDTO>> getTechnicianWorkloads() {
+        return ResponseEntity.ok(technicianWorkloadIndex.getWorkloads());
+    }
+
+    /**
+     * GET /api/repairs/workload/technicians/{technicianId}?status=IN_PROGRESS
+     * IDs de las reparaciones de un técnico en un estado
+     *
+     * @param technicianId ID del técnico
+     * @param status       estado
+     * @return 200 OK con los IDs ordenados (vacío si no tiene ninguna)
+     */
+    @GetMapping("/workload/technicians/{technicianId}")
+    public ResponseEntity<long[]> getTechnicianRepairIds(@PathVariable Long technicianId,
+                                                         @RequestParam Status status) {
+        return ResponseEntity.ok(technicianWorkloadIndex.getRepairIds(technicianId, status));
+    }
+
+    /**
+     * POST /api/repairs/workload/rebuild
+     * Reconstruir el índice de carga por técnico desde la base de datos (recuperación)
+     *
+     * @return 200 OK con mensaje de confirmación
+     */
+    @PostMapping("/workload/rebuild")
+    public ResponseEntity<Map<String, String>> rebuildWorkloadIndex() {
+        technicianWorkloadIndex.rebuild();
+
+        Map<String, String> response = new HashMap<>();
+        response.put("message", "Índice de carga por técnico reconstruido exitosamente");
+
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * GET /api/repairs/search?q=pantalla rota iphone 13&limit=20
+     * Buscar reparaciones por descripción, marca, modelo o propietario
+     * Ordena por relevancia y tolera errores de tipeo
+     *
+     * @param q     texto a buscar
+     * @param limit máximo de resultados (por defecto 20, máximo 100)
+     * @return 200 OK con las reparaciones encontradas
+     */
+    @GetMapping("/search")
+    public ResponseEntity<List<RepairResponseDTO>> searchRepairs(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "20") int limit) {
+        return ResponseEntity.ok(repairSearchService.search(q, limit));
+    }
+
+    /**
+     * POST /api/repairs/search/reindex
+     * Reconstruir el índice de búsqueda desde la base de datos
+     * La reindexación se ejecuta en segundo plano
+     *
+     * @return 202 ACCEPTED con mensaje de confirmación
+     */
+    @PostMapping("/search/reindex")
+    public ResponseEntity<Map<String, String>> reindexRepairs() {
+        repairSearchService.reindex();
+
+        Map<String, String> response = new HashMap<>();
+        response.put("message", "Reindexación iniciada");
+
+        return new ResponseEntity<>(response, HttpStatus.ACCEPTED);
+    }
+
+    /**
+     * GET /api/repairs/{repairId}/history
+     * Historial de estados y técnicos de una reparación (eventos aún no archivados)
+     *
+     * @param repairId ID de la reparación
+     * @return 200 OK con los eventos, del más antiguo al más reciente
+     */
+    @GetMapping("/{repairId}/history")
+    public ResponseEntity<List<RepairStatusHistoryDTO>> getRepairHistory(@PathVariable Long repairId) {
+        return ResponseEntity.ok(repairHistoryService.getHistory(repairId));
+    }
+
+    /**
+     * GET /api/repairs/history/cycle-times?from=2025-01-01&to=2025-02-01
+     * Percentiles (p50, p90, p99) del tiempo en cada estado y del ciclo completo, por técnico
+     *
+     * @param from primer día incluido (yyyy-MM-dd, UTC)
+     * @param to   primer día no incluido (yyyy-MM-dd, UTC)
+     * @return 200 OK con una fila por técnico y estado
+     */
+    @GetMapping("/history/cycle-times")
+    public ResponseEntity<List<CycleTimeStatsDTO>> getCycleTimes(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return ResponseEntity.ok(repairHistoryService.getCycleTimes(from, to));
+    }
+
+    /**
+     * POST /api/repairs/history/rollup
+     * Archivar ya los días antiguos del historial (normalmente lo hace la tarea nocturna)
+     *
+     * @return 200 OK con el número de eventos archivados
+     */
+    @PostMapping("/history/rollup")
+    public ResponseEntity<Map<String, Integer>> rollupHistory() {
+        Map<String, Integer> response = new HashMap<>();
+        response.put("archived", repairHistoryArchive.rollup());
+
+        return ResponseEntity.ok(response);
+    }
+}
@@ -1,11 +1,15 @@
 package com.crudactivity.MobileFix.controller;
 
+import com.crudactivity.MobileFix.dto.CursorPageDTO;
+import com.crudactivity.MobileFix.dto.UserOverviewDTO;
 import com.crudactivity.MobileFix.dto.UserRequestDTO;
 import com.crudactivity.MobileFix.dto.UserResponseDTO;
 import com.crudactivity.MobileFix.model.Role;
+import com.crudactivity.MobileFix.service.UserOverviewService;
 import com.crudactivity.MobileFix.service.UserService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -13,6 +17,7 @@ import org.springframework.web.bind.annotation.*;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Controlador REST para gestionar Users
@@ -24,10 +29,12 @@ import java.util.Map;
 public class UserController {
 
     private final UserService userService;
+    private final UserOverviewService userOverviewService;
 
     @Autowired
-    public UserController(UserService userService) {
+    public UserController(UserService userService, UserOverviewService userOverviewService) {
         this.userService = userService;
+        this.userOverviewService = userOverviewService;
     }
 
     /**
@@ -55,17 +62,47 @@ public class UserController {
         return ResponseEntity.ok(users);
     }
 
+    /**
+     * GET /api/users/page?cursor=...&size=20
+     * Obtener usuarios paginados por cursor
+     *
+     * @param cursor cursor devuelto en nextCursor de la página anterior (omitir en la primera)
+     * @param size   tamaño de página (máximo 100)
+     * @return 200 OK con la página de usuarios
+     */
+    @GetMapping("/page")
+    public ResponseEntity<CursorPageDTO<UserResponseDTO>> getUsersPage(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        CursorPageDTO<UserResponseDTO> page = userService.getUsersPage(cursor, size);
+        return ResponseEntity.ok(page);
+    }
+
     /**
      * GET /api/users/{id}
      * Obtener un usuario por ID
      *
      * @param id ID del usuario
-     * @return 200 OK con el usuario o 404 NOT FOUND
+     * @return 200 OK con el usuario y su versión en ETag, 304 NOT MODIFIED si coincide
+     * con If-None-Match, o 404 NOT FOUND
      */
     @GetMapping("/{id}")
     public ResponseEntity<UserResponseDTO> getUserById(@PathVariable Long id) {
         UserResponseDTO user = userService.getUserById(id);
-        return ResponseEntity.ok(user);
+        return ResponseEntity.ok().eTag(ETags.of(user.getVersion())).body(user);
+    }
+
+    /**
+     * GET /api/users/{id}/overview
+     * Obtener un usuario con sus dispositivos y reparaciones (pantalla de inicio de la app)
+     * Las tres lecturas se hacen en paralelo y el hilo de la petición se libera mientras tanto
+     *
+     * @param id ID del usuario
+     * @return 200 OK con usuario, dispositivos y reparaciones, o 404 NOT FOUND
+     */
+    @GetMapping("/{id}/overview")
+    public CompletableFuture<ResponseEntity<UserOverviewDTO>> getUserOverview(@PathVariable Long id) {
+        return userOverviewService.getOverview(id).thenApply(ResponseEntity::ok);
     }
 
     /**
@@ -107,20 +144,41 @@ public class UserController {
         return ResponseEntity.ok(users);
     }
 
+    /**
+     * GET /api/users/role/{role}/page?cursor=...&size=20
+     * Obtener usuarios de un rol paginados por cursor
+     *
+     * @param role   rol del usuario
+     * @param cursor cursor devuelto en nextCursor de la página anterior (omitir en la primera)
+     * @param size   tamaño de página (máximo 100)
+     * @return 200 OK con la página de usuarios
+     */
+    @GetMapping("/role/{role}/page")
+    public ResponseEntity<CursorPageDTO<UserResponseDTO>> getUsersByRolePage(
+            @PathVariable Role role,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        CursorPageDTO<UserResponseDTO> page = userService.getUsersByRolePage(role, cursor, size);
+        return ResponseEntity.ok(page);
+    }
+
     /**
      * PUT /api/users/{id}
      * Actualizar un usuario existente
      *
      * @param id             ID del usuario a actualizar
      * @param userRequestDTO datos actualizados
-     * @return 200 OK con el usuario actualizado
+     * @param ifMatch        ETag leído por el cliente (opcional)
+     * @return 200 OK con el usuario actualizado y su nuevo ETag,
+     * 412 PRECONDITION FAILED si el usuario cambió desde que se leyó
      */
     @PutMapping("/{id}")
     public ResponseEntity<UserResponseDTO> updateUser(
             @PathVariable Long id,
-            @Valid @RequestBody UserRequestDTO userRequestDTO) {
-        UserResponseDTO updatedUser = userService.updateUser(id, userRequestDTO);
-        return ResponseEntity.ok(updatedUser);
+            @Valid @RequestBody UserRequestDTO userRequestDTO,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        UserResponseDTO updatedUser = userService.updateUser(id, userRequestDTO, ETags.parseIfMatch(ifMatch));
+        return ResponseEntity.ok().eTag(ETags.of(updatedUser.getVersion())).body(updatedUser);
     }
 
     /**
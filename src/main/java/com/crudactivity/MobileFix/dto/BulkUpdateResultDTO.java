@@ -0,0 +1,53 @@
+package com.crudactivity.MobileFix.dto;
+
+import java.util.List;
+
+/**
+ * DTO con el resultado de una operación masiva sobre reparaciones
+ * Se usa en respuestas de PUT /api/repairs/bulk/**
+ *
+ * skippedIds son los ids pedidos que no se modificaron: no existen o el cambio
+ * no está permitido en su estado actual (p. ej. una reparación ya COMPLETED).
+ */
+public class BulkUpdateResultDTO {
+
+    private Integer requested; // ids distintos pedidos (o filas que cumplían el filtro)
+    private Integer updated; // filas modificadas
+    private List<Long> skippedIds;
+
+    // Constructor vacío
+    public BulkUpdateResultDTO() {
+    }
+
+    // Constructor con todos los campos
+    public BulkUpdateResultDTO(Integer requested, Integer updated, List<Long> skippedIds) {
+        this.requested = requested;
+        this.updated = updated;
+        this.skippedIds = skippedIds;
+    }
+
+    // Getters y Setters
+    public Integer getRequested() {
+        return requested;
+    }
+
+    public void setRequested(Integer requested) {
+        this.requested = requested;
+    }
+
+    public Integer getUpdated() {
+        return updated;
+    }
+
+    public void setUpdated(Integer updated) {
+        this.updated = updated;
+    }
+
+    public List<Long> getSkippedIds() {
+        return skippedIds;
+    }
+
+    public void setSkippedIds(List<Long> skippedIds) {
+        this.skippedIds = skippedIds;
+    }
+}
@@ -0,0 +1,61 @@
+package com.crudactivity.MobileFix.dto;
+
+import java.util.List;
+
+/**
+ * DTO para enviar una página de resultados paginados por cursor (keyset)
+ * nextCursor es un token opaco que el cliente reenvía para pedir la siguiente página
+ * Es null cuando no hay más resultados
+ */
+public class CursorPageDTO<T> {
+
+    private List<T> items;
+    private int size;
+    private String nextCursor;
+    private boolean hasNext;
+
+    // Constructor vacío
+    public CursorPageDTO() {
+    }
+
+    // Constructor con todos los campos
+    public CursorPageDTO(List<T> items, int size, String nextCursor, boolean hasNext) {
+        this.items = items;
+        this.size = size;
+        this.nextCursor = nextCursor;
+        this.hasNext = hasNext;
+    }
+
+    // Getters y Setters
+    public List<T> getItems() {
+        return items;
+    }
+
+    public void setItems(List<T> items) {
+        this.items = items;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public void setSize(int size) {
+        this.size = size;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+
+    public boolean isHasNext() {
+        return hasNext;
+    }
+
+    public void setHasNext(boolean hasNext) {
+        this.hasNext = hasNext;
+    }
+}
@@ -0,0 +1,94 @@
+package com.crudactivity.MobileFix.dto;
+
+/**
+ * DTO con los percentiles de tiempo de un técnico en un estado
+ * Se usa en respuestas de GET /api/repairs/history/cycle-times
+ *
+ * status es el estado en el que se midió el tiempo (PENDING, IN_PROGRESS...)
+ * o TOTAL para el ciclo completo, desde la creación hasta COMPLETED/CANCELLED.
+ */
+public class CycleTimeStatsDTO {
+
+    public static final String TOTAL = "TOTAL";
+
+    private Long technicianId; // null = sin técnico asignado
+    private String status;
+    private Long count;
+    private Long p50Millis;
+    private Long p90Millis;
+    private Long p99Millis;
+    private Long maxMillis;
+
+    // Constructor vacío
+    public CycleTimeStatsDTO() {
+    }
+
+    // Constructor con todos los campos
+    public CycleTimeStatsDTO(Long technicianId, String status, Long count,
+                             Long p50Millis, Long p90Millis, Long p99Millis, Long maxMillis) {
+        this.technicianId = technicianId;
+        this.status = status;
+        this.count = count;
+        this.p50Millis = p50Millis;
+        this.p90Millis = p90Millis;
+        this.p99Millis = p99Millis;
+        this.maxMillis = maxMillis;
+    }
+
+    // Getters y Setters
+    public Long getTechnicianId() {
+        return technicianId;
+    }
+
+    public void setTechnicianId(Long technicianId) {
+        this.technicianId = technicianId;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public Long getCount() {
+        return count;
+    }
+
+    public void setCount(Long count) {
+        this.count = count;
+    }
+
+    public Long getP50Millis() {
+        return p50Millis;
+    }
+
+    public void setP50Millis(Long p50Millis) {
+        this.p50Millis = p50Millis;
+    }
+
+    public Long getP90Millis() {
+        return p90Millis;
+    }
+
+    public void setP90Millis(Long p90Millis) {
+        this.p90Millis = p90Millis;
+    }
+
+    public Long getP99Millis() {
+        return p99Millis;
+    }
+
+    public void setP99Millis(Long p99Millis) {
+        this.p99Millis = p99Millis;
+    }
+
+    public Long getMaxMillis() {
+        return maxMillis;
+    }
+
+    public void setMaxMillis(Long maxMillis) {
+        this.maxMillis = maxMillis;
+    }
+}
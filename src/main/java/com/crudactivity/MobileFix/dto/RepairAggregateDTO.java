@@ -0,0 +1,58 @@
+package com.crudactivity.MobileFix.dto;
+
+/**
+ * DTO con los agregados de reparaciones de un dispositivo o de un técnico
+ * Se usa en respuestas de GET del dashboard
+ */
+public class RepairAggregateDTO {
+
+    private Long id; // ID del dispositivo o del técnico
+    private Double completedCost; // Suma del costo de las reparaciones COMPLETED
+    private Long completedCount; // Número de reparaciones COMPLETED
+    private Long openCount; // Número de reparaciones PENDING o IN_PROGRESS
+
+    // Constructor vacío
+    public RepairAggregateDTO() {
+    }
+
+    // Constructor con todos los campos
+    public RepairAggregateDTO(Long id, Double completedCost, Long completedCount, Long openCount) {
+        this.id = id;
+        this.completedCost = completedCost;
+        this.completedCount = completedCount;
+        this.openCount = openCount;
+    }
+
+    // Getters y Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Double getCompletedCost() {
+        return completedCost;
+    }
+
+    public void setCompletedCost(Double completedCost) {
+        this.completedCost = completedCost;
+    }
+
+    public Long getCompletedCount() {
+        return completedCount;
+    }
+
+    public void setCompletedCount(Long completedCount) {
+        this.completedCount = completedCount;
+    }
+
+    public Long getOpenCount() {
+        return openCount;
+    }
+
+    public void setOpenCount(Long openCount) {
+        this.openCount = openCount;
+    }
+}
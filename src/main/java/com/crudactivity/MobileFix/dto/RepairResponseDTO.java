@@ -26,6 +26,9 @@ public class RepairResponseDTO {
     private Long technicianId;
     private String technicianUsername;
 
+    // Versión de la fila (bloqueo optimista); se envía también como ETag
+    private Long version;
+
     // Constructor vacío
     public RepairResponseDTO() {
     }
@@ -34,7 +37,7 @@ public class RepairResponseDTO {
     public RepairResponseDTO(Long id, String description, LocalDate requestDate,
                              LocalDate estimatedDate, Status status, Double cost,
                              Long deviceId, String deviceBrand, String deviceModel,
-                             Long technicianId, String technicianUsername) {
+                             Long technicianId, String technicianUsername, Long version) {
         this.id = id;
         this.description = description;
         this.requestDate = requestDate;
@@ -46,6 +49,7 @@ public class RepairResponseDTO {
         this.deviceModel = deviceModel;
         this.technicianId = technicianId;
         this.technicianUsername = technicianUsername;
+        this.version = version;
     }
 
     // Getters y Setters
@@ -136,4 +140,12 @@ public class RepairResponseDTO {
     public void setTechnicianUsername(String technicianUsername) {
         this.technicianUsername = technicianUsername;
     }
-}
\ No newline at end of file
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+}
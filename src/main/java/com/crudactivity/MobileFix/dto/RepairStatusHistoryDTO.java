@@ -0,0 +1,73 @@
+package com.crudactivity.MobileFix.dto;
+
+import com.crudactivity.MobileFix.model.Status;
+
+import java.time.Instant;
+
+/**
+ * DTO con un evento del historial de estados de una reparación
+ * Se usa en respuestas de GET /api/repairs/{id}/history
+ */
+public class RepairStatusHistoryDTO {
+
+    private Long technicianId; // Técnico mientras estuvo en fromStatus
+    private Status fromStatus; // null en la creación
+    private Status toStatus;
+    private Instant occurredAt;
+    private Long durationMillis; // Tiempo en fromStatus
+
+    // Constructor vacío
+    public RepairStatusHistoryDTO() {
+    }
+
+    // Constructor con todos los campos (usado por la consulta JPQL)
+    public RepairStatusHistoryDTO(Long technicianId, Status fromStatus, Status toStatus,
+                                  Instant occurredAt, Long durationMillis) {
+        this.technicianId = technicianId;
+        this.fromStatus = fromStatus;
+        this.toStatus = toStatus;
+        this.occurredAt = occurredAt;
+        this.durationMillis = durationMillis;
+    }
+
+    // Getters y Setters
+    public Long getTechnicianId() {
+        return technicianId;
+    }
+
+    public void setTechnicianId(Long technicianId) {
+        this.technicianId = technicianId;
+    }
+
+    public Status getFromStatus() {
+        return fromStatus;
+    }
+
+    public void setFromStatus(Status fromStatus) {
+        this.fromStatus = fromStatus;
+    }
+
+    public Status getToStatus() {
+        return toStatus;
+    }
+
+    public void setToStatus(Status toStatus) {
+        this.toStatus = toStatus;
+    }
+
+    public Instant getOccurredAt() {
+        return occurredAt;
+    }
+
+    public void setOccurredAt(Instant occurredAt) {
+        this.occurredAt = occurredAt;
+    }
+
+    public Long getDurationMillis() {
+        return durationMillis;
+    }
+
+    public void setDurationMillis(Long durationMillis) {
+        this.durationMillis = durationMillis;
+    }
+}
@@ -0,0 +1,42 @@
+package com.crudactivity.MobileFix.dto;
+
+import com.crudactivity.MobileFix.model.Status;
+
+import java.util.Map;
+
+/**
+ * DTO con el número de reparaciones de un técnico en cada estado
+ * Se usa en la respuesta de GET /api/repairs/workload (dashboard de despacho)
+ */
+public class TechnicianWorkloadDTO {
+
+    private Long technicianId;
+    private Map<Status, Long> counts; // Todos los estados, también los que valen 0
+
+    // Constructor vacío
+    public TechnicianWorkloadDTO() {
+    }
+
+    // Constructor con todos los campos
+    public TechnicianWorkloadDTO(Long technicianId, Map<Status, Long> counts) {
+        this.technicianId = technicianId;
+        this.counts = counts;
+    }
+
+    // Getters y Setters
+    public Long getTechnicianId() {
+        return technicianId;
+    }
+
+    public void setTechnicianId(Long technicianId) {
+        this.technicianId = technicianId;
+    }
+
+    public Map<Status, Long> getCounts() {
+        return counts;
+    }
+
+    public void setCounts(Map<Status, Long> counts) {
+        this.counts = counts;
+    }
+}
@@ -0,0 +1,50 @@
+package com.crudactivity.MobileFix.dto;
+
+import java.util.List;
+
+/**
+ * DTO con todo lo que la pantalla de inicio de la app móvil muestra de un usuario
+ * Se usa en la respuesta de GET /api/users/{id}/overview (usuario, dispositivos y reparaciones)
+ */
+public class UserOverviewDTO {
+
+    private UserResponseDTO user;
+    private List<DeviceResponseDTO> devices;
+    private List<RepairResponseDTO> repairs;
+
+    // Constructor vacío
+    public UserOverviewDTO() {
+    }
+
+    // Constructor con todos los campos
+    public UserOverviewDTO(UserResponseDTO user, List<DeviceResponseDTO> devices, List<RepairResponseDTO> repairs) {
+        this.user = user;
+        this.devices = devices;
+        this.repairs = repairs;
+    }
+
+    // Getters y Setters
+    public UserResponseDTO getUser() {
+        return user;
+    }
+
+    public void setUser(UserResponseDTO user) {
+        this.user = user;
+    }
+
+    public List<DeviceResponseDTO> getDevices() {
+        return devices;
+    }
+
+    public void setDevices(List<DeviceResponseDTO> devices) {
+        this.devices = devices;
+    }
+
+    public List<RepairResponseDTO> getRepairs() {
+        return repairs;
+    }
+
+    public void setRepairs(List<RepairResponseDTO> repairs) {
+        this.repairs = repairs;
+    }
+}
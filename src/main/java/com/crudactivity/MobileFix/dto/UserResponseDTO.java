@@ -7,17 +7,19 @@ public class UserResponseDTO {
     private String username;
     private String email;
     private Role role;
+    private Long version; // Versión de la fila (bloqueo optimista); se envía también como ETag
 
     // Constructor vacío
     public UserResponseDTO() {
     }
 
     // Constructor con todos los campos
-    public UserResponseDTO(Long id, String username, String email, Role role) {
+    public UserResponseDTO(Long id, String username, String email, Role role, Long version) {
         this.id = id;
         this.username = username;
         this.email = email;
         this.role = role;
+        this.version = version;
     }
 
     // Getters y Setters
@@ -52,4 +54,12 @@ public class UserResponseDTO {
     public void setRole(Role role) {
         this.role = role;
     }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
 }
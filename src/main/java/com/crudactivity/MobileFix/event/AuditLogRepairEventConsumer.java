@@ -0,0 +1,22 @@
+package com.crudactivity.MobileFix.event;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+/**
+ * Consumidor de auditoría: deja constancia en el log de cada evento de reparación
+ * Activar con logging.level.com.crudactivity.MobileFix.event.AuditLogRepairEventConsumer=DEBUG
+ */
+@Component
+public class AuditLogRepairEventConsumer implements RepairEventConsumer {
+
+    private static final Logger log = LoggerFactory.getLogger(AuditLogRepairEventConsumer.class);
+
+    @Override
+    public void onEvent(RepairOutboxMessage message) {
+        log.debug("{} reparación={} dispositivo={} técnico={} estado={}->{} ocurrido={} intento={}",
+                message.getType(), message.getRepairId(), message.getDeviceId(), message.getTechnicianId(),
+                message.getPreviousStatus(), message.getStatus(), message.getOccurredAt(), message.getAttempt());
+    }
+}
@@ -0,0 +1,47 @@
+package com.crudactivity.MobileFix.event;
+
+/**
+ * Evento de aplicación publicado por RepairService cada vez que se crea,
+ * modifica o elimina una reparación.
+ *
+ * - before es null cuando la reparación se acaba de crear
+ * - after es null cuando la reparación se eliminó
+ *
+ * Los listeners que mantienen vistas en memoria deben usar
+ * @TransactionalEventListener(phase = AFTER_COMMIT) para no aplicar cambios de
+ * transacciones que terminan en rollback.
+ */
+public class RepairChangedEvent {
+
+    private final RepairSnapshot before;
+    private final RepairSnapshot after;
+
+    public RepairChangedEvent(RepairSnapshot before, RepairSnapshot after) {
+        this.before = before;
+        this.after = after;
+    }
+
+    public static RepairChangedEvent created(RepairSnapshot after) {
+        return new RepairChangedEvent(null, after);
+    }
+
+    public static RepairChangedEvent deleted(RepairSnapshot before) {
+        return new RepairChangedEvent(before, null);
+    }
+
+    // Getters
+    public RepairSnapshot getBefore() {
+        return before;
+    }
+
+    public RepairSnapshot getAfter() {
+        return after;
+    }
+
+    /**
+     * ID de la reparación afectada
+     */
+    public Long getRepairId() {
+        return after != null ? after.getId() : before.getId();
+    }
+}
@@ -0,0 +1,14 @@
+package com.crudactivity.MobileFix.event;
+
+/**
+ * Consumidor de los eventos de reparación del outbox (notificaciones, auditoría, integraciones...)
+ *
+ * Cualquier bean que implemente esta interfaz recibe todos los eventos, fuera de la
+ * petición del usuario y en orden de id. La entrega es al menos una vez: si algún
+ * consumidor lanza una excepción, el evento se reintenta para todos, así que
+ * las implementaciones deben ser idempotentes (por ejemplo con getEventId()).
+ */
+public interface RepairEventConsumer {
+
+    void onEvent(RepairOutboxMessage message);
+}
@@ -0,0 +1,87 @@
+package com.crudactivity.MobileFix.event;
+
+import com.crudactivity.MobileFix.model.OutboxEvent;
+import com.crudactivity.MobileFix.model.OutboxEventType;
+import com.crudactivity.MobileFix.model.Status;
+
+import java.time.Instant;
+
+/**
+ * Evento de reparación entregado a los RepairEventConsumer
+ * Copia inmutable de una fila del outbox.
+ */
+public final class RepairOutboxMessage {
+
+    private final Long eventId;
+    private final OutboxEventType type;
+    private final Long repairId;
+    private final Long deviceId;
+    private final Long technicianId;
+    private final Status previousStatus;
+    private final Status status;
+    private final Instant occurredAt;
+    private final int attempt;
+
+    public RepairOutboxMessage(Long eventId, OutboxEventType type, Long repairId, Long deviceId, Long technicianId,
+                               Status previousStatus, Status status, Instant occurredAt, int attempt) {
+        this.eventId = eventId;
+        this.type = type;
+        this.repairId = repairId;
+        this.deviceId = deviceId;
+        this.technicianId = technicianId;
+        this.previousStatus = previousStatus;
+        this.status = status;
+        this.occurredAt = occurredAt;
+        this.attempt = attempt;
+    }
+
+    public static RepairOutboxMessage of(OutboxEvent event) {
+        return new RepairOutboxMessage(event.getId(), event.getType(), event.getRepairId(), event.getDeviceId(),
+                event.getTechnicianId(), event.getPreviousStatus(), event.getStatus(), event.getOccurredAt(),
+                event.getAttempts() + 1);
+    }
+
+    // Getters
+
+    /**
+     * ID del evento en el outbox: sirve como clave de idempotencia (un evento puede llegar más de una vez)
+     */
+    public Long getEventId() {
+        return eventId;
+    }
+
+    public OutboxEventType getType() {
+        return type;
+    }
+
+    public Long getRepairId() {
+        return repairId;
+    }
+
+    public Long getDeviceId() {
+        return deviceId;
+    }
+
+    public Long getTechnicianId() {
+        return technicianId;
+    }
+
+    public Status getPreviousStatus() {
+        return previousStatus;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public Instant getOccurredAt() {
+        return occurredAt;
+    }
+
+    /**
+     * Número de intento de entrega (1 en la primera entrega)
+     */
+    public int getAttempt() {
+        return attempt;
+    }
+}
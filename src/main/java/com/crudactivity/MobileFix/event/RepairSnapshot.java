@@ -0,0 +1,101 @@
+package com.crudactivity.MobileFix.event;
+
+import com.crudactivity.MobileFix.model.Device;
+import com.crudactivity.MobileFix.model.Repair;
+import com.crudactivity.MobileFix.model.Status;
+
+import java.time.LocalDate;
+
+/**
+ * Copia inmutable de los campos de una Repair que interesan a las vistas derivadas
+ * (agregados, índices, cachés). Se toma antes y después de cada cambio.
+ */
+public final class RepairSnapshot {
+
+    private final Long id;
+    private final Long deviceId;
+    private final Long ownerId;
+    private final Long technicianId;
+    private final Status status;
+    private final Double cost;
+    private final LocalDate requestDate;
+    private final LocalDate estimatedDate;
+
+    public RepairSnapshot(Long id, Long deviceId, Long ownerId, Long technicianId, Status status, Double cost,
+                          LocalDate requestDate, LocalDate estimatedDate) {
+        this.id = id;
+        this.deviceId = deviceId;
+        this.ownerId = ownerId;
+        this.technicianId = technicianId;
+        this.status = status;
+        this.cost = cost;
+        this.requestDate = requestDate;
+        this.estimatedDate = estimatedDate;
+    }
+
+    /**
+     * Toma la copia de una entidad Repair
+     * Lee los ids de technician y del propietario del dispositivo: si el dispositivo aún
+     * es un proxy LAZY se inicializa (los servicios lo cargan igualmente para el DTO)
+     */
+    public static RepairSnapshot of(Repair repair) {
+        Device device = repair.getDevice();
+        return new RepairSnapshot(
+                repair.getId(),
+                device != null ? device.getId() : null,
+                device != null && device.getOwner() != null ? device.getOwner().getId() : null,
+                repair.getTechnician() != null ? repair.getTechnician().getId() : null,
+                repair.getStatus(),
+                repair.getCost(),
+                repair.getRequestDate(),
+                repair.getEstimatedDate()
+        );
+    }
+
+    /**
+     * Copia con otro estado (el resto de campos igual)
+     */
+    public RepairSnapshot withStatus(Status newStatus) {
+        return new RepairSnapshot(id, deviceId, ownerId, technicianId, newStatus, cost, requestDate, estimatedDate);
+    }
+
+    /**
+     * Copia con otro técnico y estado (el resto de campos igual)
+     */
+    public RepairSnapshot withTechnician(Long newTechnicianId, Status newStatus) {
+        return new RepairSnapshot(id, deviceId, ownerId, newTechnicianId, newStatus, cost, requestDate, estimatedDate);
+    }
+
+    // Getters
+    public Long getId() {
+        return id;
+    }
+
+    public Long getDeviceId() {
+        return deviceId;
+    }
+
+    public Long getOwnerId() {
+        return ownerId;
+    }
+
+    public Long getTechnicianId() {
+        return technicianId;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public Double getCost() {
+        return cost;
+    }
+
+    public LocalDate getRequestDate() {
+        return requestDate;
+    }
+
+    public LocalDate getEstimatedDate() {
+        return estimatedDate;
+    }
+}
@@ -1,5 +1,6 @@
 package com.crudactivity.MobileFix.exception;
 
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ExceptionHandler;
@@ -42,6 +43,71 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(errorDetails, HttpStatus.NOT_FOUND);
     }
 
+    /**
+     * Maneja InvalidRequestException (400 Bad Request)
+     * Se usa para datos de entrada inválidos: username/email duplicado, cursor de paginación inválido, etc.
+     *
+     * @param ex La excepción lanzada
+     * @return ResponseEntity con los detalles del error y status 400
+     */
+    @ExceptionHandler(InvalidRequestException.class)
+    public ResponseEntity<Map<String, Object>> handleInvalidRequestException(InvalidRequestException ex) {
+
+        Map<String, Object> errorDetails = new HashMap<>();
+        errorDetails.put("timestamp", LocalDateTime.now());
+        errorDetails.put("message", ex.getMessage());
+        errorDetails.put("status", HttpStatus.BAD_REQUEST.value());
+        errorDetails.put("error", "Bad Request");
+
+        // Devolver respuesta con status 400
+        return new ResponseEntity<>(errorDetails, HttpStatus.BAD_REQUEST);
+    }
+
+    /**
+     * Maneja conflictos de concurrencia y de estado (409 Conflict)
+     * - OptimisticLockingFailureException: otra petición modificó la misma fila (@Version)
+     * - TechnicianCapacityExceededException: el técnico ya tiene el máximo de reparaciones abiertas
+     * - InvalidStatusTransitionException: cambio de estado no permitido (p. ej. COMPLETED -> PENDING)
+     *
+     * @param ex La excepción lanzada
+     * @return ResponseEntity con los detalles del error y status 409
+     */
+    @ExceptionHandler({OptimisticLockingFailureException.class, TechnicianCapacityExceededException.class,
+            InvalidStatusTransitionException.class})
+    public ResponseEntity<Map<String, Object>> handleConflictException(RuntimeException ex) {
+
+        Map<String, Object> errorDetails = new HashMap<>();
+        errorDetails.put("timestamp", LocalDateTime.now());
+        errorDetails.put("message", ex instanceof OptimisticLockingFailureException
+                ? "El recurso fue modificado por otra petición, vuelva a intentarlo"
+                : ex.getMessage());
+        errorDetails.put("status", HttpStatus.CONFLICT.value());
+        errorDetails.put("error", "Conflict");
+
+        // Devolver respuesta con status 409
+        return new ResponseEntity<>(errorDetails, HttpStatus.CONFLICT);
+    }
+
+    /**
+     * Maneja PreconditionFailedException (412 Precondition Failed)
+     * El cliente envió If-Match con una versión que ya no es la actual: debe volver a leer el recurso
+     *
+     * @param ex La excepción lanzada
+     * @return ResponseEntity con los detalles del error y status 412
+     */
+    @ExceptionHandler(PreconditionFailedException.class)
+    public ResponseEntity<Map<String, Object>> handlePreconditionFailedException(PreconditionFailedException ex) {
+
+        Map<String, Object> errorDetails = new HashMap<>();
+        errorDetails.put("timestamp", LocalDateTime.now());
+        errorDetails.put("message", ex.getMessage());
+        errorDetails.put("status", HttpStatus.PRECONDITION_FAILED.value());
+        errorDetails.put("error", "Precondition Failed");
+
+        // Devolver respuesta con status 412
+        return new ResponseEntity<>(errorDetails, HttpStatus.PRECONDITION_FAILED);
+    }
+
     /**
      * Maneja cualquier otra excepción no capturada (500 Internal Server Error)
      * Este es el "catch-all" para errores inesperados
@@ -0,0 +1,28 @@
+package com.crudactivity.MobileFix.exception;
+
+/**
+ * Excepción para datos de entrada inválidos enviados por el cliente
+ * Ejemplo: username/email duplicado, cursor de paginación inválido, lote demasiado grande, etc.
+ *
+ * Se devuelve como 400 Bad Request. Los IllegalArgumentException de librerías o de errores
+ * de programación no se mapean a 400: llegan al manejador genérico como 500.
+ */
+public class InvalidRequestException extends RuntimeException {
+
+    /**
+     * Constructor que recibe el mensaje de error
+     * @param message Mensaje descriptivo del error
+     */
+    public InvalidRequestException(String message) {
+        super(message);
+    }
+
+    /**
+     * Constructor con mensaje y causa original
+     * @param message Mensaje descriptivo del error
+     * @param cause   Excepción que provocó el error
+     */
+    public InvalidRequestException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,34 @@
+package com.crudactivity.MobileFix.exception;
+
+import com.crudactivity.MobileFix.model.Status;
+
+/**
+ * Excepción para cuando se pide un cambio de estado que la reparación no admite
+ * en su estado actual, por ejemplo COMPLETED -> PENDING
+ *
+ * Se devuelve como 409 Conflict
+ */
+public class InvalidStatusTransitionException extends RuntimeException {
+
+    private final Status from;
+    private final Status to;
+
+    /**
+     * @param repairId ID de la reparación
+     * @param from     estado actual
+     * @param to       estado pedido
+     */
+    public InvalidStatusTransitionException(Long repairId, Status from, Status to) {
+        super("La reparación " + repairId + " no puede pasar de " + from + " a " + to);
+        this.from = from;
+        this.to = to;
+    }
+
+    public Status getFrom() {
+        return from;
+    }
+
+    public Status getTo() {
+        return to;
+    }
+}
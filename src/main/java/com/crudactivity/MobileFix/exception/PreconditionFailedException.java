@@ -0,0 +1,18 @@
+package com.crudactivity.MobileFix.exception;
+
+/**
+ * Excepción para cuando la versión que envía el cliente (cabecera If-Match)
+ * ya no es la versión actual del recurso: otro cliente lo modificó después de leerlo
+ *
+ * Se devuelve como 412 Precondition Failed
+ */
+public class PreconditionFailedException extends RuntimeException {
+
+    /**
+     * Constructor que recibe el mensaje de error
+     * @param message Mensaje descriptivo del error
+     */
+    public PreconditionFailedException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,13 @@
+package com.crudactivity.MobileFix.exception;
+
+/**
+ * Excepción lanzada por QueryGuard en modo estricto (tests de integración)
+ * cuando un método de servicio ejecuta demasiadas sentencias SQL o repite el mismo SELECT
+ * (síntoma típico de cargas LAZY por fila, el problema N+1)
+ */
+public class QueryGuardViolationException extends RuntimeException {
+
+    public QueryGuardViolationException(String message) {
+        super(message);
+    }
+}
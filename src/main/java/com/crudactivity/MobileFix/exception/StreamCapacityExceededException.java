@@ -0,0 +1,17 @@
+package com.crudactivity.MobileFix.exception;
+
+/**
+ * Excepción para cuando se pide un stream SSE de reparaciones
+ * pero ya hay el máximo de streams abiertos (mobilefix.stream.max-concurrent)
+ *
+ * Se devuelve como 503 Service Unavailable
+ */
+public class StreamCapacityExceededException extends RuntimeException {
+
+    /**
+     * @param maxConcurrent máximo de streams abiertos a la vez
+     */
+    public StreamCapacityExceededException(int maxConcurrent) {
+        super("Ya hay " + maxConcurrent + " streams de reparaciones abiertos; inténtalo más tarde");
+    }
+}
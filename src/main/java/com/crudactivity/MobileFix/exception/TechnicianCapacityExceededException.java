@@ -0,0 +1,20 @@
+package com.crudactivity.MobileFix.exception;
+
+/**
+ * Excepción para cuando un técnico pide trabajo a la cola de despacho
+ * pero ya tiene el máximo de reparaciones abiertas (mobilefix.dispatch.max-open-per-technician)
+ *
+ * Se devuelve como 409 Conflict
+ */
+public class TechnicianCapacityExceededException extends RuntimeException {
+
+    /**
+     * @param technicianId ID del técnico
+     * @param openRepairs  reparaciones abiertas que tiene
+     * @param maxOpen      máximo permitido
+     */
+    public TechnicianCapacityExceededException(Long technicianId, long openRepairs, int maxOpen) {
+        super("El técnico con ID " + technicianId + " ya tiene " + openRepairs
+                + " reparaciones abiertas (máximo " + maxOpen + ")");
+    }
+}
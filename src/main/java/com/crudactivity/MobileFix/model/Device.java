@@ -1,7 +1,10 @@
 package com.crudactivity.MobileFix.model;
 
+import com.crudactivity.MobileFix.config.SearchAnalysisConfigurer;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.*;
+import org.hibernate.search.mapper.pojo.mapping.definition.annotation.FullTextField;
+import org.hibernate.search.mapper.pojo.mapping.definition.annotation.IndexedEmbedded;
 import java.util.List;
 
 /**
@@ -11,11 +14,21 @@ import java.util.List;
  * Mapea con tabla 'devices' en H2
  */
 @Entity
-@Table(name = "devices")
+@Table(name = "devices", indexes = {
+        // Dispositivos de un propietario: findByOwnerId, countByOwner
+        @Index(name = "idx_devices_owner", columnList = "owner_id"),
+        // Búsqueda exacta: findByBrand, findByBrandAndModel
+        @Index(name = "idx_devices_brand_model", columnList = "brand, model")
+})
 public class Device {
 
+    /**
+     * ID generado con secuencia (no IDENTITY) para que Hibernate pueda agrupar los INSERT en lotes JDBC
+     * allocationSize = 50: el optimizador pooled reserva 50 ids por cada consulta a la secuencia
+     */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "devices_seq")
+    @SequenceGenerator(name = "devices_seq", sequenceName = "devices_seq", allocationSize = 50)
     private Long id;
 
     /**
@@ -23,6 +36,7 @@ public class Device {
      * Ejemplo: Samsung, Apple, Xiaomi, Huawei
      */
     @Column(nullable = false, length = 50)
+    @FullTextField(analyzer = SearchAnalysisConfigurer.TEXT_ANALYZER)
     @NotBlank(message = "La marca es obligatoria")
     private String brand;
 
@@ -31,6 +45,7 @@ public class Device {
      * Ejemplo: Galaxy S21, iPhone 13, Redmi Note 10
      */
     @Column(nullable = false, length = 100)
+    @FullTextField(analyzer = SearchAnalysisConfigurer.TEXT_ANALYZER)
     @NotBlank(message = "El modelo es obligatorio")
     private String model;
 
@@ -42,6 +57,7 @@ public class Device {
      */
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "owner_id", nullable = false)
+    @IndexedEmbedded(includePaths = "username")
     private User owner;
 
     /**
@@ -51,6 +67,13 @@ public class Device {
     @OneToMany(mappedBy = "device", cascade = CascadeType.ALL, orphanRemoval = true)
     private List<Repair> repairs;
 
+    /**
+     * Versión para bloqueo optimista (ver Repair.version)
+     */
+    @Version
+    @Column(nullable = false)
+    private Long version;
+
     // Constructores
     public Device() {
     }
@@ -101,4 +124,12 @@ public class Device {
     public void setRepairs(List<Repair> repairs) {
         this.repairs = repairs;
     }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
 }
\ No newline at end of file
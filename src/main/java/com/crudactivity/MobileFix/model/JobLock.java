@@ -0,0 +1,50 @@
+package com.crudactivity.MobileFix.model;
+
+import jakarta.persistence.*;
+
+import java.time.Instant;
+
+/**
+ * Entidad JobLock - Fila de bloqueo de una tarea programada
+ *
+ * Las tareas programadas se ejecutan en todas las instancias; las que no deben solaparse
+ * bloquean su fila (SELECT ... FOR UPDATE) dentro de la transacción de trabajo, así que
+ * otra instancia espera a que termine y ve ya el resultado.
+ *
+ * Mapea con tabla 'job_locks' en H2
+ */
+@Entity
+@Table(name = "job_locks")
+public class JobLock {
+
+    @Id
+    @Column(length = 100)
+    private String name;
+
+    /**
+     * Última vez que una instancia tomó el bloqueo (solo diagnóstico)
+     */
+    @Column(name = "locked_at")
+    private Instant lockedAt;
+
+    // Constructores
+    public JobLock() {
+    }
+
+    public JobLock(String name) {
+        this.name = name;
+    }
+
+    // Getters y Setters
+    public String getName() {
+        return name;
+    }
+
+    public Instant getLockedAt() {
+        return lockedAt;
+    }
+
+    public void setLockedAt(Instant lockedAt) {
+        this.lockedAt = lockedAt;
+    }
+}
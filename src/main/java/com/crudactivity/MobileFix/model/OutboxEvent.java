@@ -0,0 +1,178 @@
+package com.crudactivity.MobileFix.model;
+
+import jakarta.persistence.*;
+
+import java.time.Instant;
+
+/**
+ * Entidad OutboxEvent - Evento de reparación pendiente de entregar a los consumidores
+ *
+ * Se inserta en la misma transacción que el cambio de la reparación (patrón transactional outbox),
+ * así que un evento existe si y solo si el cambio hizo commit.
+ * OutboxDispatcher lo entrega en segundo plano y lo borra; si un consumidor falla,
+ * se reintenta más tarde (entrega al menos una vez).
+ *
+ * Mapea con tabla 'outbox_events' en H2
+ */
+@Entity
+@Table(name = "outbox_events", indexes = {
+        // Lectura de lotes pendientes: availableAt <= ahora, en orden de id
+        @Index(name = "idx_outbox_available_at", columnList = "available_at, id")
+})
+public class OutboxEvent {
+
+    /**
+     * ID por secuencia: los eventos de una creación masiva se insertan en lotes JDBC
+     * El orden de los ids es el orden de entrega
+     */
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "outbox_events_seq")
+    @SequenceGenerator(name = "outbox_events_seq", sequenceName = "outbox_events_seq", allocationSize = 50)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 30)
+    private OutboxEventType type;
+
+    /**
+     * Datos de la reparación en el momento del cambio (sin FK: el evento sobrevive al borrado)
+     */
+    @Column(name = "repair_id", nullable = false)
+    private Long repairId;
+
+    @Column(name = "device_id")
+    private Long deviceId;
+
+    @Column(name = "technician_id")
+    private Long technicianId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "previous_status", length = 20)
+    private Status previousStatus;
+
+    @Enumerated(EnumType.STRING)
+    @Column(length = 20)
+    private Status status;
+
+    @Column(name = "occurred_at", nullable = false)
+    private Instant occurredAt;
+
+    /**
+     * Entregas fallidas hasta ahora
+     */
+    @Column(nullable = false)
+    private int attempts;
+
+    /**
+     * Momento a partir del cual se puede (re)intentar la entrega
+     */
+    @Column(name = "available_at", nullable = false)
+    private Instant availableAt;
+
+    // Constructores
+    public OutboxEvent() {
+    }
+
+    public OutboxEvent(OutboxEventType type, Long repairId, Long deviceId, Long technicianId,
+                       Status previousStatus, Status status, Instant occurredAt) {
+        this.type = type;
+        this.repairId = repairId;
+        this.deviceId = deviceId;
+        this.technicianId = technicianId;
+        this.previousStatus = previousStatus;
+        this.status = status;
+        this.occurredAt = occurredAt;
+        this.availableAt = occurredAt;
+    }
+
+    /**
+     * Registra una entrega fallida y programa el siguiente intento
+     *
+     * @param retryAt momento del siguiente intento
+     */
+    public void scheduleRetry(Instant retryAt) {
+        this.attempts++;
+        this.availableAt = retryAt;
+    }
+
+    // Getters y Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public OutboxEventType getType() {
+        return type;
+    }
+
+    public void setType(OutboxEventType type) {
+        this.type = type;
+    }
+
+    public Long getRepairId() {
+        return repairId;
+    }
+
+    public void setRepairId(Long repairId) {
+        this.repairId = repairId;
+    }
+
+    public Long getDeviceId() {
+        return deviceId;
+    }
+
+    public void setDeviceId(Long deviceId) {
+        this.deviceId = deviceId;
+    }
+
+    public Long getTechnicianId() {
+        return technicianId;
+    }
+
+    public void setTechnicianId(Long technicianId) {
+        this.technicianId = technicianId;
+    }
+
+    public Status getPreviousStatus() {
+        return previousStatus;
+    }
+
+    public void setPreviousStatus(Status previousStatus) {
+        this.previousStatus = previousStatus;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public void setStatus(Status status) {
+        this.status = status;
+    }
+
+    public Instant getOccurredAt() {
+        return occurredAt;
+    }
+
+    public void setOccurredAt(Instant occurredAt) {
+        this.occurredAt = occurredAt;
+    }
+
+    public int getAttempts() {
+        return attempts;
+    }
+
+    public void setAttempts(int attempts) {
+        this.attempts = attempts;
+    }
+
+    public Instant getAvailableAt() {
+        return availableAt;
+    }
+
+    public void setAvailableAt(Instant availableAt) {
+        this.availableAt = availableAt;
+    }
+}
@@ -0,0 +1,10 @@
+package com.crudactivity.MobileFix.model;
+
+/**
+ * Tipos de evento del outbox de reparaciones
+ */
+public enum OutboxEventType {
+    REPAIR_CREATED,         // Se creó una reparación
+    REPAIR_STATUS_CHANGED,  // Cambió el estado de una reparación
+    TECHNICIAN_ASSIGNED     // Se asignó (o cambió) el técnico de una reparación
+}
@@ -1,8 +1,12 @@
 package com.crudactivity.MobileFix.model;
 
 
+import com.crudactivity.MobileFix.config.SearchAnalysisConfigurer;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.*;
+import org.hibernate.search.mapper.pojo.mapping.definition.annotation.FullTextField;
+import org.hibernate.search.mapper.pojo.mapping.definition.annotation.Indexed;
+import org.hibernate.search.mapper.pojo.mapping.definition.annotation.IndexedEmbedded;
 import java.time.LocalDate;
 
 /**
@@ -10,13 +14,32 @@ import java.time.LocalDate;
  * Asociada a un Device y opcionalmente a un técnico (User con role TECNICO)
  *
  * Mapea con tabla 'repairs' en H2
+ * Los índices cubren los patrones de acceso de RepairRepository
+ *
+ * @Indexed: cada reparación es un documento del índice de texto completo "repairs"
+ * (descripción + marca/modelo del dispositivo + username del propietario)
  */
 @Entity
-@Table(name = "repairs")
+@Indexed(index = "repairs")
+@Table(name = "repairs", indexes = {
+        // Colas por estado ordenadas por fecha: findByStatusOrderByRequestDateDesc, paginación por estado
+        @Index(name = "idx_repairs_status_request_date", columnList = "status, request_date"),
+        // Trabajo de cada técnico: findByStatusAndTechnician, countByTechnicianAndStatus, findByTechnicianIsNull
+        @Index(name = "idx_repairs_technician_status", columnList = "technician_id, status"),
+        // Rangos de fechas y exportación: findByRequestDateBetween
+        @Index(name = "idx_repairs_request_date", columnList = "request_date"),
+        // Historial de un dispositivo: findByDeviceId, getTotalCostByDevice
+        @Index(name = "idx_repairs_device", columnList = "device_id")
+})
 public class Repair {
 
+    /**
+     * ID generado con secuencia (no IDENTITY) para que Hibernate pueda agrupar los INSERT en lotes JDBC
+     * allocationSize = 50: el optimizador pooled reserva 50 ids por cada consulta a la secuencia
+     */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "repairs_seq")
+    @SequenceGenerator(name = "repairs_seq", sequenceName = "repairs_seq", allocationSize = 50)
     private Long id;
 
     /**
@@ -24,6 +47,7 @@ public class Repair {
      * Ejemplo: "Pantalla rota", "Batería no carga", "Problemas con cámara"
      */
     @Column(nullable = false, length = 500)
+    @FullTextField(analyzer = SearchAnalysisConfigurer.TEXT_ANALYZER)
     @NotBlank(message = "La descripción es obligatoria")
     @Size(max = 500, message = "La descripción no puede superar 500 caracteres")
     private String description;
@@ -61,9 +85,12 @@ public class Repair {
     /**
      * Relación Many-to-One con Device
      * Muchas reparaciones pueden ser del mismo dispositivo
+     * Marca, modelo y username del propietario se copian al documento de búsqueda
+     * (Hibernate Search lo reindexa si cambian)
      */
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "device_id", nullable = false)
+    @IndexedEmbedded(includePaths = {"brand", "model", "owner.username"})
     private Device device;
 
     /**
@@ -75,6 +102,15 @@ public class Repair {
     @JoinColumn(name = "technician_id")
     private User technician;
 
+    /**
+     * Versión para bloqueo optimista
+     * Hibernate la incrementa en cada UPDATE y falla si otra transacción modificó la fila antes
+     * (evita que dos asignaciones concurrentes se pisen)
+     */
+    @Version
+    @Column(nullable = false)
+    private Long version;
+
     /**
      * Método que se ejecuta antes de persistir la entidad
      * Establece la fecha de solicitud automáticamente
@@ -165,4 +201,12 @@ public class Repair {
     public void setTechnician(User technician) {
         this.technician = technician;
     }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,67 @@
+package com.crudactivity.MobileFix.model;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.Immutable;
+
+import java.time.Instant;
+import java.time.LocalDate;
+
+/**
+ * Entidad RepairStatusArchive - Día archivado del historial de estados
+ *
+ * RepairHistoryArchive guarda aquí los eventos de un día ya antiguo como un segmento columnar
+ * comprimido (StatusHistorySegment) y los borra de repair_status_events en la misma transacción,
+ * así que cada evento está en uno de los dos sitios y todas las instancias ven lo mismo.
+ *
+ * Mapea con tabla 'repair_status_archives' en H2
+ */
+@Entity
+@Immutable
+@Table(name = "repair_status_archives")
+public class RepairStatusArchive {
+
+    /**
+     * Día UTC archivado (una fila por día)
+     */
+    @Id
+    @Column(name = "archive_day")
+    private LocalDate day;
+
+    @Column(nullable = false)
+    private int events;
+
+    @Lob
+    @Column(nullable = false)
+    private byte[] segment;
+
+    @Column(name = "archived_at", nullable = false)
+    private Instant archivedAt;
+
+    // Constructores
+    public RepairStatusArchive() {
+    }
+
+    public RepairStatusArchive(LocalDate day, int events, byte[] segment, Instant archivedAt) {
+        this.day = day;
+        this.events = events;
+        this.segment = segment;
+        this.archivedAt = archivedAt;
+    }
+
+    // Getters
+    public LocalDate getDay() {
+        return day;
+    }
+
+    public int getEvents() {
+        return events;
+    }
+
+    public byte[] getSegment() {
+        return segment;
+    }
+
+    public Instant getArchivedAt() {
+        return archivedAt;
+    }
+}
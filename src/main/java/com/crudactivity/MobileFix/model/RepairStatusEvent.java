@@ -0,0 +1,120 @@
+package com.crudactivity.MobileFix.model;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.Immutable;
+
+import java.time.Instant;
+
+/**
+ * Entidad RepairStatusEvent - Historial de estados de una reparación (solo inserciones)
+ *
+ * Se añade una fila cada vez que una reparación se crea, cambia de estado o cambia de técnico.
+ * Cada fila guarda cuánto tiempo pasó la reparación en el estado anterior (durationMillis)
+ * y, al llegar a COMPLETED o CANCELLED, el tiempo total desde su creación (cycleMillis),
+ * así que los percentiles se calculan sin emparejar filas ni leer la tabla repairs.
+ *
+ * Los días antiguos se archivan comprimidos en repair_status_archives (RepairHistoryArchive) y se borran de la tabla.
+ *
+ * Mapea con tabla 'repair_status_events' en H2
+ */
+@Entity
+@Immutable
+@Table(name = "repair_status_events", indexes = {
+        // Historial de una reparación y último evento al registrar el siguiente
+        @Index(name = "idx_status_events_repair_ts", columnList = "repair_id, occurred_at"),
+        // Percentiles por rango de fechas y archivado por días
+        @Index(name = "idx_status_events_ts", columnList = "occurred_at")
+})
+public class RepairStatusEvent {
+
+    /**
+     * ID por secuencia para que las inserciones vayan en lotes JDBC
+     */
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "repair_status_events_seq")
+    @SequenceGenerator(name = "repair_status_events_seq", sequenceName = "repair_status_events_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "repair_id", nullable = false)
+    private Long repairId;
+
+    /**
+     * Técnico responsable mientras la reparación estuvo en fromStatus (null si no tenía)
+     */
+    @Column(name = "technician_id")
+    private Long technicianId;
+
+    /**
+     * Estado anterior (null en la creación); igual a toStatus si solo cambió el técnico
+     */
+    @Enumerated(EnumType.STRING)
+    @Column(name = "from_status", length = 20)
+    private Status fromStatus;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "to_status", nullable = false, length = 20)
+    private Status toStatus;
+
+    @Column(name = "occurred_at", nullable = false)
+    private Instant occurredAt;
+
+    /**
+     * Milisegundos que la reparación pasó en fromStatus (null si no se conoce el evento anterior)
+     */
+    @Column(name = "duration_ms")
+    private Long durationMillis;
+
+    /**
+     * Milisegundos desde la creación hasta COMPLETED o CANCELLED (null en el resto de eventos)
+     */
+    @Column(name = "cycle_ms")
+    private Long cycleMillis;
+
+    // Constructores
+    public RepairStatusEvent() {
+    }
+
+    public RepairStatusEvent(Long repairId, Long technicianId, Status fromStatus, Status toStatus,
+                             Instant occurredAt, Long durationMillis, Long cycleMillis) {
+        this.repairId = repairId;
+        this.technicianId = technicianId;
+        this.fromStatus = fromStatus;
+        this.toStatus = toStatus;
+        this.occurredAt = occurredAt;
+        this.durationMillis = durationMillis;
+        this.cycleMillis = cycleMillis;
+    }
+
+    // Getters (sin setters: las filas no se modifican)
+    public Long getId() {
+        return id;
+    }
+
+    public Long getRepairId() {
+        return repairId;
+    }
+
+    public Long getTechnicianId() {
+        return technicianId;
+    }
+
+    public Status getFromStatus() {
+        return fromStatus;
+    }
+
+    public Status getToStatus() {
+        return toStatus;
+    }
+
+    public Instant getOccurredAt() {
+        return occurredAt;
+    }
+
+    public Long getDurationMillis() {
+        return durationMillis;
+    }
+
+    public Long getCycleMillis() {
+        return cycleMillis;
+    }
+}
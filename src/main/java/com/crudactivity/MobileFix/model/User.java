@@ -1,7 +1,9 @@
 package com.crudactivity.MobileFix.model;
 
+import com.crudactivity.MobileFix.config.SearchAnalysisConfigurer;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.*;
+import org.hibernate.search.mapper.pojo.mapping.definition.annotation.FullTextField;
 import java.util.List;
 
 /**
@@ -11,18 +13,31 @@ import java.util.List;
  * Mapea con tabla 'users' en H2
  */
 @Entity
-@Table(name = "users")
+@Table(name = "users", uniqueConstraints = {
+        // Nombres fijos: UserService traduce la violación de cada una a su mensaje de error
+        @UniqueConstraint(name = User.UK_USERNAME, columnNames = "username"),
+        @UniqueConstraint(name = User.UK_EMAIL, columnNames = "email")
+})
 public class User {
 
+    public static final String UK_USERNAME = "uk_users_username";
+    public static final String UK_EMAIL = "uk_users_email";
+
+    /**
+     * ID generado con secuencia (no IDENTITY) para que Hibernate pueda agrupar los INSERT en lotes JDBC
+     * allocationSize = 50: el optimizador pooled reserva 50 ids por cada consulta a la secuencia
+     */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "users_seq")
+    @SequenceGenerator(name = "users_seq", sequenceName = "users_seq", allocationSize = 50)
     private Long id;
 
     /**
      * Nombre de usuario único en el sistema
      * Validación: no vacío, longitud entre 3 y 50 caracteres
      */
-    @Column(unique = true, nullable = false, length = 50)
+    @Column(nullable = false, length = 50)
+    @FullTextField(analyzer = SearchAnalysisConfigurer.TEXT_ANALYZER)
     @NotBlank(message = "El nombre de usuario es obligatorio")
     @Size(min = 3, max = 50, message = "El nombre debe tener entre 3 y 50 caracteres")
     private String username;
@@ -31,7 +46,7 @@ public class User {
      * Email único del usuario
      * Validación: formato de email válido
      */
-    @Column(unique = true, nullable = false)
+    @Column(nullable = false)
     @Email(message = "El email debe ser válido")
     @NotBlank(message = "El email es obligatorio")
     private String email;
@@ -62,6 +77,13 @@ public class User {
     @OneToMany(mappedBy = "owner", cascade = CascadeType.ALL, orphanRemoval = true)
     private List<Device> devices;
 
+    /**
+     * Versión para bloqueo optimista (ver Repair.version)
+     */
+    @Version
+    @Column(nullable = false)
+    private Long version;
+
     // Constructores
     public User() {
     }
@@ -121,4 +143,12 @@ public class User {
     public void setDevices(List<Device> devices) {
         this.devices = devices;
     }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
 }
\ No newline at end of file
@@ -2,22 +2,53 @@ package com.crudactivity.MobileFix.repositories;
 
 import com.crudactivity.MobileFix.model.Device;
 import com.crudactivity.MobileFix.model.User;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface DeviceRepository extends JpaRepository<Device,Long> {
 
     List<Device> findByOwner(User owner);
 
+    // Los listados convierten a DTO con el username del owner: se carga en el mismo SELECT
+
+    @Override
+    @EntityGraph(attributePaths = "owner")
+    List<Device> findAll();
+
+    @EntityGraph(attributePaths = "owner")
+    Optional<Device> findWithOwnerById(Long id);
+
+    @EntityGraph(attributePaths = "owner")
     List<Device> findByOwnerId(Long ownerId);
 
+    @EntityGraph(attributePaths = "owner")
     List<Device> findByBrand(String brand);
 
+    @EntityGraph(attributePaths = "owner")
     List<Device> findByBrandAndModel(String brand,String model);
 
     Long countByOwner(User owner);
 
+    // ============== PAGINACIÓN POR CURSOR (KEYSET) ==============
+    // Continúan después del último id devuelto; cargan el owner en el mismo SELECT
+
+    @EntityGraph(attributePaths = "owner")
+    List<Device> findByIdGreaterThanOrderByIdAsc(Long afterId, Limit limit);
+
+    @EntityGraph(attributePaths = "owner")
+    List<Device> findByOwnerIdAndIdGreaterThanOrderByIdAsc(Long ownerId, Long afterId, Limit limit);
+
+    @EntityGraph(attributePaths = "owner")
+    List<Device> findByBrandAndIdGreaterThanOrderByIdAsc(String brand, Long afterId, Limit limit);
+
+    @EntityGraph(attributePaths = "owner")
+    List<Device> findByBrandAndModelAndIdGreaterThanOrderByIdAsc(String brand, String model,
+                                                                 Long afterId, Limit limit);
+
 }
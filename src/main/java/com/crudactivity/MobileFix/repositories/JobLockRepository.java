@@ -0,0 +1,22 @@
+package com.crudactivity.MobileFix.repositories;
+
+import com.crudactivity.MobileFix.model.JobLock;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface JobLockRepository extends JpaRepository<JobLock, String> {
+
+    /**
+     * Bloquear la fila de una tarea hasta el fin de la transacción (otra instancia espera)
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT l FROM JobLock l WHERE l.name = :name")
+    Optional<JobLock> findByNameForUpdate(@Param("name") String name);
+}
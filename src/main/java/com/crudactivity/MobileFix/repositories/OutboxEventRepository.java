@@ -0,0 +1,29 @@
+package com.crudactivity.MobileFix.repositories;
+
+import com.crudactivity.MobileFix.model.OutboxEvent;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.List;
+
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+    /**
+     * Siguiente lote de eventos listos para entregar, en orden de id
+     * Las filas quedan bloqueadas hasta el fin de la transacción; lock.timeout = -2 (SKIP LOCKED, si la base de datos lo soporta)
+     * hace que otra instancia salte las filas que ya está entregando esta.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT e FROM OutboxEvent e WHERE e.availableAt <= :now ORDER BY e.id")
+    List<OutboxEvent> findBatchToDispatch(@Param("now") Instant now, Limit limit);
+}
@@ -1,17 +1,29 @@
 package com.crudactivity.MobileFix.repositories;
 
 
+import com.crudactivity.MobileFix.dto.RepairResponseDTO;
+import com.crudactivity.MobileFix.event.RepairSnapshot;
 import com.crudactivity.MobileFix.model.Device;
 import com.crudactivity.MobileFix.model.Repair;
 import com.crudactivity.MobileFix.model.Status;
 import com.crudactivity.MobileFix.model.User;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface RepairRepository extends JpaRepository<Repair,Long> {
@@ -46,5 +58,309 @@ public interface RepairRepository extends JpaRepository<Repair,Long> {
 
     List<Repair> findAllByOrderByCostDesc();
 
+    // ============== PROYECCIONES A DTO ==============
+    // Devuelven RepairResponseDTO directamente en un único SELECT con JOIN,
+    // evitando las cargas LAZY de device y technician (problema N+1)
 
+    String RESPONSE_DTO_SELECT = "SELECT new com.crudactivity.MobileFix.dto.RepairResponseDTO("
+            + "r.id, r.description, r.requestDate, r.estimatedDate, r.status, r.cost, "
+            + "d.id, d.brand, d.model, t.id, t.username, r.version) "
+            + "FROM Repair r JOIN r.device d LEFT JOIN r.technician t";
+
+    @Query(RESPONSE_DTO_SELECT + " WHERE r.id = :id")
+    Optional<RepairResponseDTO> findResponseDTOById(@Param("id") Long id);
+
+    @Query(RESPONSE_DTO_SELECT)
+    List<RepairResponseDTO> findAllResponseDTOs();
+
+    @Query(RESPONSE_DTO_SELECT + " WHERE d.id = :deviceId")
+    List<RepairResponseDTO> findResponseDTOsByDeviceId(@Param("deviceId") Long deviceId);
+
+    @Query(RESPONSE_DTO_SELECT + " WHERE r.status = :status")
+    List<RepairResponseDTO> findResponseDTOsByStatus(@Param("status") Status status);
+
+    @Query(RESPONSE_DTO_SELECT + " WHERE t.id = :technicianId")
+    List<RepairResponseDTO> findResponseDTOsByTechnicianId(@Param("technicianId") Long technicianId);
+
+    @Query(RESPONSE_DTO_SELECT + " WHERE d.owner.id = :ownerId")
+    List<RepairResponseDTO> findResponseDTOsByDeviceOwnerId(@Param("ownerId") Long ownerId);
+
+    @Query(RESPONSE_DTO_SELECT + " WHERE r.technician IS NULL")
+    List<RepairResponseDTO> findResponseDTOsByTechnicianIsNull();
+
+    @Query(RESPONSE_DTO_SELECT + " WHERE r.technician IS NOT NULL")
+    List<RepairResponseDTO> findResponseDTOsByTechnicianIsNotNull();
+
+    @Query(RESPONSE_DTO_SELECT + " WHERE r.requestDate BETWEEN :startDate AND :endDate")
+    List<RepairResponseDTO> findResponseDTOsByRequestDateBetween(@Param("startDate") LocalDate startDate,
+                                                                 @Param("endDate") LocalDate endDate);
+
+    @Query(RESPONSE_DTO_SELECT + " WHERE r.id IN :ids")
+    List<RepairResponseDTO> findResponseDTOsByIdIn(@Param("ids") Collection<Long> ids);
+
+    // ============== PAGINACIÓN POR CURSOR (KEYSET) ==============
+    // Cada página continúa después de la clave (requestDate, id) o (cost, id) de la
+    // última fila de la página anterior, ordenando de forma descendente.
+    // No usan OFFSET, así que el coste no crece con el número de página.
+
+    String AFTER_REQUEST_DATE = "(r.requestDate < :afterDate OR (r.requestDate = :afterDate AND r.id < :afterId))";
+
+    String ORDER_BY_REQUEST_DATE = " ORDER BY r.requestDate DESC, r.id DESC";
+
+    @Query(RESPONSE_DTO_SELECT + " WHERE " + AFTER_REQUEST_DATE + ORDER_BY_REQUEST_DATE)
+    List<RepairResponseDTO> findPage(@Param("afterDate") LocalDate afterDate,
+                                     @Param("afterId") Long afterId,
+                                     Limit limit);
+
+    @Query(RESPONSE_DTO_SELECT + " WHERE d.id = :deviceId AND " + AFTER_REQUEST_DATE + ORDER_BY_REQUEST_DATE)
+    List<RepairResponseDTO> findPageByDeviceId(@Param("deviceId") Long deviceId,
+                                               @Param("afterDate") LocalDate afterDate,
+                                               @Param("afterId") Long afterId,
+                                               Limit limit);
+
+    @Query(RESPONSE_DTO_SELECT + " WHERE r.status = :status AND " + AFTER_REQUEST_DATE + ORDER_BY_REQUEST_DATE)
+    List<RepairResponseDTO> findPageByStatus(@Param("status") Status status,
+                                             @Param("afterDate") LocalDate afterDate,
+                                             @Param("afterId") Long afterId,
+                                             Limit limit);
+
+    @Query(RESPONSE_DTO_SELECT + " WHERE t.id = :technicianId AND " + AFTER_REQUEST_DATE + ORDER_BY_REQUEST_DATE)
+    List<RepairResponseDTO> findPageByTechnicianId(@Param("technicianId") Long technicianId,
+                                                   @Param("afterDate") LocalDate afterDate,
+                                                   @Param("afterId") Long afterId,
+                                                   Limit limit);
+
+    @Query(RESPONSE_DTO_SELECT + " WHERE d.owner.id = :ownerId AND " + AFTER_REQUEST_DATE + ORDER_BY_REQUEST_DATE)
+    List<RepairResponseDTO> findPageByDeviceOwnerId(@Param("ownerId") Long ownerId,
+                                                    @Param("afterDate") LocalDate afterDate,
+                                                    @Param("afterId") Long afterId,
+                                                    Limit limit);
+
+    @Query(RESPONSE_DTO_SELECT + " WHERE r.technician IS NULL AND " + AFTER_REQUEST_DATE + ORDER_BY_REQUEST_DATE)
+    List<RepairResponseDTO> findPageByTechnicianIsNull(@Param("afterDate") LocalDate afterDate,
+                                                       @Param("afterId") Long afterId,
+                                                       Limit limit);
+
+    @Query(RESPONSE_DTO_SELECT + " WHERE r.technician IS NOT NULL AND " + AFTER_REQUEST_DATE + ORDER_BY_REQUEST_DATE)
+    List<RepairResponseDTO> findPageByTechnicianIsNotNull(@Param("afterDate") LocalDate afterDate,
+                                                          @Param("afterId") Long afterId,
+                                                          Limit limit);
+
+    @Query(RESPONSE_DTO_SELECT + " WHERE r.requestDate BETWEEN :startDate AND :endDate AND "
+            + AFTER_REQUEST_DATE + ORDER_BY_REQUEST_DATE)
+    List<RepairResponseDTO> findPageByRequestDateBetween(@Param("startDate") LocalDate startDate,
+                                                         @Param("endDate") LocalDate endDate,
+                                                         @Param("afterDate") LocalDate afterDate,
+                                                         @Param("afterId") Long afterId,
+                                                         Limit limit);
+
+    @Query(RESPONSE_DTO_SELECT
+            + " WHERE (r.cost < :afterCost OR (r.cost = :afterCost AND r.id < :afterId))"
+            + " ORDER BY r.cost DESC, r.id DESC")
+    List<RepairResponseDTO> findPageOrderByCostDesc(@Param("afterCost") Double afterCost,
+                                                    @Param("afterId") Long afterId,
+                                                    Limit limit);
+
+    // ============== AGREGADOS ==============
+
+    /**
+     * Totales de reparaciones agrupados por (dispositivo o técnico, estado)
+     * Se usan para reconstruir los agregados en memoria de RepairAggregateService
+     */
+    interface StatusTotals {
+        Long getKeyId();
+
+        Status getStatus();
+
+        Long getRepairs();
+
+        Double getTotalCost();
+    }
+
+    @Query("SELECT r.device.id AS keyId, r.status AS status, COUNT(r) AS repairs, SUM(r.cost) AS totalCost "
+            + "FROM Repair r GROUP BY r.device.id, r.status")
+    List<StatusTotals> sumByDeviceAndStatus();
+
+    @Query("SELECT r.technician.id AS keyId, r.status AS status, COUNT(r) AS repairs, SUM(r.cost) AS totalCost "
+            + "FROM Repair r WHERE r.technician IS NOT NULL GROUP BY r.technician.id, r.status")
+    List<StatusTotals> sumByTechnicianAndStatus();
+
+    /**
+     * (técnico, estado, reparación) de cada reparación asignada
+     * Se usa para cargar el índice en memoria de TechnicianWorkloadIndex
+     */
+    interface TechnicianAssignment {
+        Long getTechnicianId();
+
+        Status getStatus();
+
+        Long getId();
+    }
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT r.technician.id AS technicianId, r.status AS status, r.id AS id "
+            + "FROM Repair r WHERE r.technician IS NOT NULL")
+    Stream<TechnicianAssignment> streamTechnicianAssignments();
+
+    // ============== EXPORTACIÓN EN STREAMING ==============
+
+    /**
+     * Recorre las reparaciones de un rango de fechas con un cursor de solo avance
+     * Debe consumirse dentro de una transacción de solo lectura y cerrarse al terminar.
+     * device y technician se traen en el mismo SELECT para no disparar cargas LAZY por fila.
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "false")
+    })
+    @Query("SELECT r FROM Repair r JOIN FETCH r.device LEFT JOIN FETCH r.technician "
+            + "WHERE r.requestDate BETWEEN :startDate AND :endDate ORDER BY r.requestDate, r.id")
+    Stream<Repair> streamByRequestDateBetween(@Param("startDate") LocalDate startDate,
+                                              @Param("endDate") LocalDate endDate);
+
+    // ============== COLA DE DESPACHO ==============
+
+    /**
+     * Reparaciones PENDING sin técnico, para sembrar la cola en memoria de DispatchService
+     */
+    @Query("SELECT new com.crudactivity.MobileFix.event.RepairSnapshot("
+            + "r.id, d.id, d.owner.id, t.id, r.status, r.cost, r.requestDate, r.estimatedDate) "
+            + "FROM Repair r JOIN r.device d LEFT JOIN r.technician t "
+            + "WHERE r.status = :status AND r.technician IS NULL")
+    List<RepairSnapshot> findDispatchableSnapshots(@Param("status") Status status);
+
+    /**
+     * Reparaciones del técnico en alguno de los estados indicados (índice technician_id, status)
+     * DispatchService lo cuenta con la fila del técnico bloqueada, antes de asignarle otra
+     */
+    long countByTechnicianIdAndStatusIn(Long technicianId, Collection<Status> statuses);
+
+    /**
+     * Asigna la reparación al técnico solo si sigue PENDING y sin técnico
+     * Es un UPDATE condicional: si otra instancia o una asignación manual llegó antes, devuelve 0.
+     * Incrementa la versión igual que haría Hibernate, para invalidar lecturas optimistas en curso.
+     *
+     * @return número de filas actualizadas (0 o 1)
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Repair r SET r.technician = :technician, r.status = :newStatus, r.version = r.version + 1 "
+            + "WHERE r.id = :id AND r.technician IS NULL AND r.status = :expectedStatus")
+    int claimIfUnassigned(@Param("id") Long id,
+                          @Param("technician") User technician,
+                          @Param("expectedStatus") Status expectedStatus,
+                          @Param("newStatus") Status newStatus);
+
+    // ============== CAMBIO DE ESTADO ==============
+
+    /**
+     * Cambia el estado de la reparación solo si está en alguno de fromStatuses y sigue en version
+     * Un único UPDATE sea cual sea el número de estados de origen. Con la versión leída antes,
+     * 0 filas significa que otra petición la cambió entre la lectura y el UPDATE.
+     *
+     * @return número de filas actualizadas (0 o 1)
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Repair r SET r.status = :newStatus, r.version = r.version + 1 "
+            + "WHERE r.id = :id AND r.status IN :fromStatuses AND r.version = :version")
+    int updateStatusIfCurrent(@Param("id") Long id,
+                              @Param("fromStatuses") Collection<Status> fromStatuses,
+                              @Param("newStatus") Status newStatus,
+                              @Param("version") Long version);
+
+    /**
+     * Estado completo de una reparación tras un cambio: lo que necesitan a la vez
+     * la respuesta (RepairResponseDTO) y el evento (RepairSnapshot), en un único SELECT
+     */
+    interface RepairStateView {
+        Long getId();
+
+        String getDescription();
+
+        LocalDate getRequestDate();
+
+        LocalDate getEstimatedDate();
+
+        Status getStatus();
+
+        Double getCost();
+
+        Long getDeviceId();
+
+        String getDeviceBrand();
+
+        String getDeviceModel();
+
+        Long getOwnerId();
+
+        Long getTechnicianId();
+
+        String getTechnicianUsername();
+
+        Long getVersion();
+    }
+
+    @Query("SELECT r.id AS id, r.description AS description, r.requestDate AS requestDate, "
+            + "r.estimatedDate AS estimatedDate, r.status AS status, r.cost AS cost, "
+            + "d.id AS deviceId, d.brand AS deviceBrand, d.model AS deviceModel, d.owner.id AS ownerId, "
+            + "t.id AS technicianId, t.username AS technicianUsername, r.version AS version "
+            + "FROM Repair r JOIN r.device d LEFT JOIN r.technician t WHERE r.id = :id")
+    Optional<RepairStateView> findStateViewById(@Param("id") Long id);
+
+    // ============== OPERACIONES MASIVAS ==============
+    // Las filas se leen (y bloquean) como RepairSnapshot antes del UPDATE: así se publica
+    // un RepairChangedEvent exacto por fila y ningún otro escritor las cambia entre medias.
+    // Son dos idas y vueltas a la base (SELECT ... FOR UPDATE y UPDATE ... WHERE id IN), y el
+    // UPDATE va siempre por los ids bloqueados: una fila insertada entre medias no le afecta.
+
+    String SNAPSHOT_FOR_UPDATE_SELECT = "SELECT new com.crudactivity.MobileFix.event.RepairSnapshot("
+            + "r.id, r.device.id, d.owner.id, r.technician.id, r.status, r.cost, r.requestDate, r.estimatedDate) "
+            + "FROM Repair r JOIN r.device d";
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query(SNAPSHOT_FOR_UPDATE_SELECT + " WHERE r.id IN :ids")
+    List<RepairSnapshot> findSnapshotsForUpdateByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Las reparaciones más antiguas en status solicitadas antes de la fecha, como mucho limit
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query(SNAPSHOT_FOR_UPDATE_SELECT + " WHERE r.status = :status AND r.requestDate < :before "
+            + "ORDER BY r.requestDate, r.id")
+    List<RepairSnapshot> findSnapshotsForUpdateByStatusAndRequestDateBefore(@Param("status") Status status,
+                                                                           @Param("before") LocalDate before,
+                                                                           Limit limit);
+
+    /**
+     * Cambia el estado de las reparaciones indicadas que estén en alguno de fromStatuses
+     * Un solo UPDATE; incrementa la versión como haría Hibernate.
+     *
+     * @return número de filas actualizadas
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Repair r SET r.status = :newStatus, r.version = r.version + 1 "
+            + "WHERE r.id IN :ids AND r.status IN :fromStatuses")
+    int updateStatusByIdIn(@Param("ids") Collection<Long> ids,
+                           @Param("fromStatuses") Collection<Status> fromStatuses,
+                           @Param("newStatus") Status newStatus);
+
+    /**
+     * Asigna el técnico a las reparaciones indicadas que sigan en alguno de openStatuses
+     * Las que estaban en :pending pasan a :inProgress, igual que en una asignación individual.
+     *
+     * @return número de filas actualizadas
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Repair r SET r.technician = :technician, "
+            + "r.status = CASE WHEN r.status = :pending THEN :inProgress ELSE r.status END, "
+            + "r.version = r.version + 1 "
+            + "WHERE r.id IN :ids AND r.status IN :openStatuses")
+    int assignTechnicianByIdIn(@Param("ids") Collection<Long> ids,
+                               @Param("technician") User technician,
+                               @Param("openStatuses") Collection<Status> openStatuses,
+                               @Param("pending") Status pending,
+                               @Param("inProgress") Status inProgress);
 }
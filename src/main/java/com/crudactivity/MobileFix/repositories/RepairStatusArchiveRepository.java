@@ -0,0 +1,29 @@
+package com.crudactivity.MobileFix.repositories;
+
+import com.crudactivity.MobileFix.model.RepairStatusArchive;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.stream.Stream;
+
+@Repository
+public interface RepairStatusArchiveRepository extends JpaRepository<RepairStatusArchive, LocalDate> {
+
+    /**
+     * Segmentos de los días archivados en [from, to), en orden de día y de uno en uno
+     * (solo la columna, sin entidades en el contexto de persistencia)
+     * El Stream debe cerrarse y consumirse dentro de una transacción.
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT a.segment FROM RepairStatusArchive a WHERE a.day >= :from AND a.day < :to ORDER BY a.day")
+    Stream<byte[]> streamSegments(@Param("from") LocalDate from, @Param("to") LocalDate to);
+}
@@ -0,0 +1,91 @@
+package com.crudactivity.MobileFix.repositories;
+
+import com.crudactivity.MobileFix.dto.RepairStatusHistoryDTO;
+import com.crudactivity.MobileFix.model.RepairStatusEvent;
+import com.crudactivity.MobileFix.model.Status;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
+@Repository
+public interface RepairStatusEventRepository extends JpaRepository<RepairStatusEvent, Long> {
+
+    /**
+     * Primer y último evento registrado de una reparación
+     */
+    interface RepairTimeline {
+        Long getRepairId();
+
+        Instant getFirstAt();
+
+        Instant getLastAt();
+    }
+
+    /**
+     * Columnas que necesitan los percentiles de tiempos
+     */
+    interface StatusDuration {
+        Long getTechnicianId();
+
+        Status getFromStatus();
+
+        Status getToStatus();
+
+        Long getDurationMillis();
+
+        Long getCycleMillis();
+    }
+
+    /**
+     * Primer y último evento de varias reparaciones en una sola consulta (índice repair_id, occurred_at)
+     */
+    @Query("SELECT e.repairId AS repairId, MIN(e.occurredAt) AS firstAt, MAX(e.occurredAt) AS lastAt " +
+            "FROM RepairStatusEvent e WHERE e.repairId IN :repairIds GROUP BY e.repairId")
+    List<RepairTimeline> findTimelines(@Param("repairIds") Collection<Long> repairIds);
+
+    /**
+     * Historial de una reparación, del más antiguo al más reciente
+     */
+    @Query("SELECT new com.crudactivity.MobileFix.dto.RepairStatusHistoryDTO(" +
+            "e.technicianId, e.fromStatus, e.toStatus, e.occurredAt, e.durationMillis) " +
+            "FROM RepairStatusEvent e WHERE e.repairId = :repairId ORDER BY e.occurredAt, e.id")
+    List<RepairStatusHistoryDTO> findHistoryByRepairId(@Param("repairId") Long repairId);
+
+    /**
+     * Duraciones registradas en [from, to), leídas en streaming (solo columnas, sin entidades)
+     * El Stream debe cerrarse y consumirse dentro de una transacción.
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT e.technicianId AS technicianId, e.fromStatus AS fromStatus, e.toStatus AS toStatus, " +
+            "e.durationMillis AS durationMillis, e.cycleMillis AS cycleMillis FROM RepairStatusEvent e " +
+            "WHERE e.occurredAt >= :from AND e.occurredAt < :to " +
+            "AND (e.durationMillis IS NOT NULL OR e.cycleMillis IS NOT NULL)")
+    Stream<StatusDuration> streamDurations(@Param("from") Instant from, @Param("to") Instant to);
+
+    /**
+     * Eventos de [from, to) en orden de registro (para archivar un día)
+     */
+    @Query("SELECT e FROM RepairStatusEvent e WHERE e.occurredAt >= :from AND e.occurredAt < :to " +
+            "ORDER BY e.occurredAt, e.id")
+    List<RepairStatusEvent> findByOccurredAtRange(@Param("from") Instant from, @Param("to") Instant to);
+
+    @Query("SELECT MIN(e.occurredAt) FROM RepairStatusEvent e")
+    Instant findOldestOccurredAt();
+
+    @Modifying
+    @Query("DELETE FROM RepairStatusEvent e WHERE e.occurredAt >= :from AND e.occurredAt < :to")
+    int deleteByOccurredAtRange(@Param("from") Instant from, @Param("to") Instant to);
+}
@@ -2,23 +2,68 @@ package com.crudactivity.MobileFix.repositories;
 
 import com.crudactivity.MobileFix.model.Role;
 import com.crudactivity.MobileFix.model.User;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface UserRepository extends JpaRepository<User,Long> {
 
-    Optional<User> findByUserName(String username);
+    Optional<User> findByUsername(String username);
 
     Optional<User> findByEmail(String email);
 
     List<User> findByRole(Role role);
 
-    boolean existsByUserName(String username);
+    boolean existsByUsername(String username);
 
     boolean existsByEmail(String email);
 
+    /**
+     * Lee el usuario bloqueando su fila hasta el final de la transacción (SELECT ... FOR UPDATE)
+     * DispatchService lo usa para que los claims de un mismo técnico se ejecuten de uno en uno
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT u FROM User u WHERE u.id = :id")
+    Optional<User> findByIdForUpdate(@Param("id") Long id);
+
+    // ============== PAGINACIÓN POR CURSOR (KEYSET) ==============
+    // Continúan después del último id devuelto
+
+    List<User> findByIdGreaterThanOrderByIdAsc(Long afterId, Limit limit);
+
+    List<User> findByRoleAndIdGreaterThanOrderByIdAsc(Role role, Long afterId, Limit limit);
+
+    // ============== FILTROS DE EXISTENCIA ==============
+
+    /**
+     * Username y email de un usuario, sin cargar la entidad
+     */
+    interface UserKeys {
+        String getUsername();
+
+        String getEmail();
+    }
+
+    /**
+     * Recorre los username/email de todos los usuarios para sembrar UserExistenceFilter
+     * Debe consumirse dentro de una transacción de solo lectura y cerrarse al terminar.
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT u.username AS username, u.email AS email FROM User u")
+    Stream<UserKeys> streamAllKeys();
 }
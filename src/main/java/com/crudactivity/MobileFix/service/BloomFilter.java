@@ -0,0 +1,85 @@
+package com.crudactivity.MobileFix.service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Filtro de Bloom de cadenas, seguro para uso concurrente
+ *
+ * mightContain() devuelve false solo si la cadena nunca se añadió (sin falsos negativos);
+ * true puede ser un falso positivo con la probabilidad indicada al crearlo.
+ * No admite borrados: una cadena eliminada sigue dando true hasta reconstruir el filtro.
+ */
+final class BloomFilter {
+
+    private final AtomicLongArray bits;
+    private final long bitCount;
+    private final int hashFunctions;
+
+    /**
+     * @param expectedInsertions     número de cadenas previsto
+     * @param falsePositiveRate      probabilidad de falso positivo con ese número de cadenas (p. ej. 0.01)
+     */
+    BloomFilter(long expectedInsertions, double falsePositiveRate) {
+        long insertions = Math.max(1, expectedInsertions);
+        // m = -n ln(p) / ln(2)^2 ; k = m/n ln(2)
+        long optimalBits = (long) Math.ceil(-insertions * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        this.bits = new AtomicLongArray((int) Math.max(1, (optimalBits + 63) / 64));
+        this.bitCount = (long) bits.length() * 64;
+        this.hashFunctions = Math.max(1, (int) Math.round((double) bitCount / insertions * Math.log(2)));
+    }
+
+    void put(String value) {
+        long hash = hash64(value);
+        long h1 = hash;
+        long h2 = mix64(hash);
+        for (int i = 0; i < hashFunctions; i++) {
+            long bit = Math.floorMod(h1 + i * h2, bitCount);
+            setBit(bit);
+        }
+    }
+
+    boolean mightContain(String value) {
+        long hash = hash64(value);
+        long h1 = hash;
+        long h2 = mix64(hash);
+        for (int i = 0; i < hashFunctions; i++) {
+            long bit = Math.floorMod(h1 + i * h2, bitCount);
+            if ((bits.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // ============== MÉTODOS AUXILIARES ==============
+
+    private void setBit(long bit) {
+        int index = (int) (bit >>> 6);
+        long mask = 1L << bit;
+        long current;
+        do {
+            current = bits.get(index);
+            if ((current & mask) != 0) {
+                return;
+            }
+        } while (!bits.compareAndSet(index, current, current | mask));
+    }
+
+    // FNV-1a de 64 bits sobre los bytes UTF-8
+    private static long hash64(String value) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b & 0xff;
+            hash *= 0x100000001b3L;
+        }
+        return mix64(hash);
+    }
+
+    // Finalizador de SplitMix64: reparte bien los bits para el doble hashing
+    private static long mix64(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+}
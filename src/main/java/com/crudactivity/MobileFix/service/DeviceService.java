@@ -1,13 +1,19 @@
 package com.crudactivity.MobileFix.service;
 
+import com.crudactivity.MobileFix.config.MetricsConfig;
+import com.crudactivity.MobileFix.dto.CursorPageDTO;
 import com.crudactivity.MobileFix.dto.DeviceRequestDTO;
 import com.crudactivity.MobileFix.dto.DeviceResponseDTO;
+import com.crudactivity.MobileFix.event.RepairChangedEvent;
+import com.crudactivity.MobileFix.event.RepairSnapshot;
 import com.crudactivity.MobileFix.exception.ResourceNotFoundException;
 import com.crudactivity.MobileFix.model.Device;
 import com.crudactivity.MobileFix.model.User;
 import com.crudactivity.MobileFix.repositories.DeviceRepository;
 import com.crudactivity.MobileFix.repositories.UserRepository;
+import io.micrometer.core.annotation.Timed;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -19,16 +25,22 @@ import java.util.stream.Collectors;
  * Implementa operaciones CRUD y conversiones entre Entity y DTO
  */
 @Service
+@Timed(MetricsConfig.SERVICE_TIMER)
 @Transactional
 public class DeviceService {
 
     private final DeviceRepository deviceRepository;
     private final UserRepository userRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final RepairViewCache repairViewCache;
 
     @Autowired
-    public DeviceService(DeviceRepository deviceRepository, UserRepository userRepository) {
+    public DeviceService(DeviceRepository deviceRepository, UserRepository userRepository,
+                         ApplicationEventPublisher eventPublisher, RepairViewCache repairViewCache) {
         this.deviceRepository = deviceRepository;
         this.userRepository = userRepository;
+        this.eventPublisher = eventPublisher;
+        this.repairViewCache = repairViewCache;
     }
 
     /**
@@ -80,7 +92,7 @@ public class DeviceService {
      */
     @Transactional(readOnly = true)
     public DeviceResponseDTO getDeviceById(Long id) {
-        Device device = deviceRepository.findById(id)
+        Device device = deviceRepository.findWithOwnerById(id)
                 .orElseThrow(() -> new ResourceNotFoundException(
                         "Dispositivo no encontrado con ID: " + id
                 ));
@@ -137,6 +149,80 @@ public class DeviceService {
                 .collect(Collectors.toList());
     }
 
+    // ============== PAGINACIÓN POR CURSOR ==============
+
+    /**
+     * Obtener una página de dispositivos ordenados por ID
+     *
+     * @param cursor cursor devuelto por la página anterior (null para la primera página)
+     * @param size   tamaño de página
+     * @return página de DeviceResponseDTO con el cursor de la siguiente página
+     */
+    @Transactional(readOnly = true)
+    public CursorPageDTO<DeviceResponseDTO> getDevicesPage(String cursor, int size) {
+        int pageSize = KeysetPagination.pageSize(size);
+        List<Device> rows = deviceRepository.findByIdGreaterThanOrderByIdAsc(
+                KeysetPagination.afterId(cursor), KeysetPagination.limitFor(pageSize));
+        return toPage(rows, pageSize);
+    }
+
+    /**
+     * Obtener una página de dispositivos de un propietario
+     *
+     * @param ownerId ID del propietario
+     * @param cursor  cursor de la página anterior (null para la primera página)
+     * @param size    tamaño de página
+     * @return página de DeviceResponseDTO
+     */
+    @Transactional(readOnly = true)
+    public CursorPageDTO<DeviceResponseDTO> getDevicesByOwnerIdPage(Long ownerId, String cursor, int size) {
+        int pageSize = KeysetPagination.pageSize(size);
+        List<Device> rows = deviceRepository.findByOwnerIdAndIdGreaterThanOrderByIdAsc(
+                ownerId, KeysetPagination.afterId(cursor), KeysetPagination.limitFor(pageSize));
+
+        if (rows.isEmpty() && !userRepository.existsById(ownerId)) {
+            throw new ResourceNotFoundException(
+                    "Usuario propietario no encontrado con ID: " + ownerId
+            );
+        }
+
+        return toPage(rows, pageSize);
+    }
+
+    /**
+     * Obtener una página de dispositivos por marca
+     *
+     * @param brand  marca del dispositivo
+     * @param cursor cursor de la página anterior (null para la primera página)
+     * @param size   tamaño de página
+     * @return página de DeviceResponseDTO
+     */
+    @Transactional(readOnly = true)
+    public CursorPageDTO<DeviceResponseDTO> getDevicesByBrandPage(String brand, String cursor, int size) {
+        int pageSize = KeysetPagination.pageSize(size);
+        List<Device> rows = deviceRepository.findByBrandAndIdGreaterThanOrderByIdAsc(
+                brand, KeysetPagination.afterId(cursor), KeysetPagination.limitFor(pageSize));
+        return toPage(rows, pageSize);
+    }
+
+    /**
+     * Obtener una página de dispositivos por marca y modelo
+     *
+     * @param brand  marca del dispositivo
+     * @param model  modelo del dispositivo
+     * @param cursor cursor de la página anterior (null para la primera página)
+     * @param size   tamaño de página
+     * @return página de DeviceResponseDTO
+     */
+    @Transactional(readOnly = true)
+    public CursorPageDTO<DeviceResponseDTO> getDevicesByBrandAndModelPage(String brand, String model,
+                                                                         String cursor, int size) {
+        int pageSize = KeysetPagination.pageSize(size);
+        List<Device> rows = deviceRepository.findByBrandAndModelAndIdGreaterThanOrderByIdAsc(
+                brand, model, KeysetPagination.afterId(cursor), KeysetPagination.limitFor(pageSize));
+        return toPage(rows, pageSize);
+    }
+
     /**
      * Contar cuántos dispositivos tiene un propietario
      *
@@ -162,13 +248,17 @@ public class DeviceService {
      */
     public DeviceResponseDTO updateDevice(Long id, DeviceRequestDTO deviceRequestDTO) {
         // Buscar el dispositivo existente
-        Device existingDevice = deviceRepository.findById(id)
+        Device existingDevice = deviceRepository.findWithOwnerById(id)
                 .orElseThrow(() -> new ResourceNotFoundException(
                         "Dispositivo no encontrado con ID: " + id
                 ));
 
+        // Las reparaciones en caché llevan marca y modelo, y se agrupan por propietario
+        Long previousOwnerId = existingDevice.getOwner().getId();
+        repairViewCache.invalidate(List.of(id), List.of(previousOwnerId, deviceRequestDTO.getOwnerId()));
+
         // Si cambió el propietario, verificar que el nuevo propietario existe
-        if (!existingDevice.getOwner().getId().equals(deviceRequestDTO.getOwnerId())) {
+        if (!previousOwnerId.equals(deviceRequestDTO.getOwnerId())) {
             User newOwner = userRepository.findById(deviceRequestDTO.getOwnerId())
                     .orElseThrow(() -> new ResourceNotFoundException(
                             "Usuario propietario no encontrado con ID: " + deviceRequestDTO.getOwnerId()
@@ -195,17 +285,34 @@ public class DeviceService {
      */
     public void deleteDevice(Long id) {
         // Verificar que el dispositivo existe
-        if (!deviceRepository.existsById(id)) {
-            throw new ResourceNotFoundException(
-                    "Dispositivo no encontrado con ID: " + id
-            );
-        }
+        Device device = deviceRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException(
+                        "Dispositivo no encontrado con ID: " + id
+                ));
+
+        // Las reparaciones se eliminan en cascada: avisar a las vistas derivadas
+        List<RepairSnapshot> removedRepairs = device.getRepairs().stream()
+                .map(RepairSnapshot::of)
+                .collect(Collectors.toList());
 
-        deviceRepository.deleteById(id);
+        deviceRepository.delete(device);
+        repairViewCache.invalidate(List.of(id), List.of());
+        removedRepairs.forEach(repair -> eventPublisher.publishEvent(RepairChangedEvent.deleted(repair)));
     }
 
     // ============== MÉTODOS AUXILIARES ==============
 
+    /**
+     * Convierte las filas de una consulta keyset en una página de DeviceResponseDTO
+     */
+    private CursorPageDTO<DeviceResponseDTO> toPage(List<Device> rows, int pageSize) {
+        List<DeviceResponseDTO> dtos = rows.stream()
+                .map(this::convertToResponseDTO)
+                .collect(Collectors.toList());
+        return KeysetPagination.toPage(dtos, pageSize,
+                last -> KeysetPagination.encodeCursor(last.getId()));
+    }
+
     /**
      * Convierte un Entity Device a DeviceResponseDTO
      *
@@ -0,0 +1,255 @@
+package com.crudactivity.MobileFix.service;
+
+import com.crudactivity.MobileFix.config.MetricsConfig;
+import com.crudactivity.MobileFix.dto.RepairResponseDTO;
+import com.crudactivity.MobileFix.event.RepairChangedEvent;
+import com.crudactivity.MobileFix.event.RepairSnapshot;
+import com.crudactivity.MobileFix.exception.InvalidRequestException;
+import com.crudactivity.MobileFix.exception.ResourceNotFoundException;
+import com.crudactivity.MobileFix.exception.TechnicianCapacityExceededException;
+import com.crudactivity.MobileFix.model.Role;
+import com.crudactivity.MobileFix.model.Status;
+import com.crudactivity.MobileFix.model.User;
+import com.crudactivity.MobileFix.repositories.RepairRepository;
+import com.crudactivity.MobileFix.repositories.UserRepository;
+import io.micrometer.core.annotation.Timed;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Cola de despacho de reparaciones para los técnicos
+ *
+ * Mantiene en memoria las reparaciones PENDING sin técnico, ordenadas por
+ * requestDate, estimatedDate e id (la más antigua primero). Se siembra al arrancar
+ * y después se mantiene con los RepairChangedEvent, así que pedir trabajo no
+ * recorre la tabla repairs como getUnassignedRepairs().
+ *
+ * claimNext() saca la cabeza de la cola de forma atómica y la confirma con un UPDATE
+ * condicional (technician IS NULL AND status = PENDING), de modo que una reparación
+ * nunca se asigna a dos técnicos aunque haya varias instancias o asignaciones manuales.
+ *
+ * NOTA: igual que RepairAggregateService, la cola es local a cada instancia.
+ * Las reparaciones creadas en otra instancia se incorporan con rebuild().
+ */
+@Service
+@Timed(MetricsConfig.SERVICE_TIMER)
+public class DispatchService {
+
+    private static final Logger log = LoggerFactory.getLogger(DispatchService.class);
+
+    /**
+     * Orden de despacho: primero la solicitud más antigua, después la fecha estimada más próxima
+     */
+    static final Comparator<RepairSnapshot> DISPATCH_ORDER = Comparator
+            .comparing(RepairSnapshot::getRequestDate, Comparator.nullsLast(Comparator.naturalOrder()))
+            .thenComparing(RepairSnapshot::getEstimatedDate, Comparator.nullsLast(Comparator.naturalOrder()))
+            .thenComparing(RepairSnapshot::getId);
+
+    private static final Set<Status> OPEN_STATUSES = EnumSet.of(Status.PENDING, Status.IN_PROGRESS);
+
+    private final RepairRepository repairRepository;
+    private final UserRepository userRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final int maxOpenPerTechnician;
+
+    // El rebuild toma el lock de escritura; las actualizaciones y los claims, el de lectura
+    private final ReadWriteLock rebuildLock = new ReentrantReadWriteLock();
+
+    private volatile NavigableSet<RepairSnapshot> queue = new ConcurrentSkipListSet<>(DISPATCH_ORDER);
+    private volatile Map<Long, RepairSnapshot> queuedById = new ConcurrentHashMap<>();
+
+    @Autowired
+    public DispatchService(RepairRepository repairRepository,
+                           UserRepository userRepository,
+                           ApplicationEventPublisher eventPublisher,
+                           @Value("${mobilefix.dispatch.max-open-per-technician:5}") int maxOpenPerTechnician) {
+        this.repairRepository = repairRepository;
+        this.userRepository = userRepository;
+        this.eventPublisher = eventPublisher;
+        this.maxOpenPerTechnician = maxOpenPerTechnician;
+    }
+
+    /**
+     * Asignar al técnico la siguiente reparación de la cola
+     * Reparte la carga limitando las reparaciones abiertas de cada técnico. El límite se comprueba
+     * con la fila del técnico bloqueada y contando en base de datos: dos claims a la vez del mismo
+     * técnico se ejecutan de uno en uno y el segundo ya ve la reparación del primero. Los contadores
+     * en memoria de RepairAggregateService no sirven aquí porque se actualizan después del commit.
+     *
+     * @param technicianId ID del técnico que pide trabajo
+     * @return la reparación asignada, o vacío si no hay reparaciones pendientes
+     * @throws ResourceNotFoundException si no existe el técnico
+     * @throws InvalidRequestException  si el usuario no tiene rol TECH
+     * @throws TechnicianCapacityExceededException si el técnico ya tiene el máximo de reparaciones abiertas
+     */
+    @Transactional
+    public Optional<RepairResponseDTO> claimNext(Long technicianId) {
+        User technician = userRepository.findByIdForUpdate(technicianId)
+                .orElseThrow(() -> new ResourceNotFoundException(
+                        "Técnico no encontrado con ID: " + technicianId
+                ));
+
+        if (technician.getRole() != Role.TECH) {
+            throw new InvalidRequestException("El usuario con ID " + technicianId + " no es un técnico");
+        }
+
+        long openRepairs = repairRepository.countByTechnicianIdAndStatusIn(technicianId, OPEN_STATUSES);
+        if (openRepairs >= maxOpenPerTechnician) {
+            throw new TechnicianCapacityExceededException(technicianId, openRepairs, maxOpenPerTechnician);
+        }
+
+        rebuildLock.readLock().lock();
+        try {
+            RepairSnapshot next;
+            while ((next = poll()) != null) {
+                if (claim(next, technician)) {
+                    return repairRepository.findResponseDTOById(next.getId());
+                }
+                // Ya no está disponible (asignada a mano, cancelada o eliminada): se descarta
+            }
+            return Optional.empty();
+        } finally {
+            rebuildLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Número de reparaciones esperando técnico
+     */
+    public int getQueueSize() {
+        return queuedById.size();
+    }
+
+    public int getMaxOpenPerTechnician() {
+        return maxOpenPerTechnician;
+    }
+
+    /**
+     * Reconstruir la cola desde la base de datos
+     * Se ejecuta al arrancar y puede lanzarse manualmente para recuperar la cola
+     * si se sospecha que se ha desincronizado.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void rebuild() {
+        rebuildLock.writeLock().lock();
+        try {
+            NavigableSet<RepairSnapshot> rebuiltQueue = new ConcurrentSkipListSet<>(DISPATCH_ORDER);
+            Map<Long, RepairSnapshot> rebuiltIndex = new ConcurrentHashMap<>();
+            for (RepairSnapshot snapshot : repairRepository.findDispatchableSnapshots(Status.PENDING)) {
+                rebuiltQueue.add(snapshot);
+                rebuiltIndex.put(snapshot.getId(), snapshot);
+            }
+            queue = rebuiltQueue;
+            queuedById = rebuiltIndex;
+            log.info("Cola de despacho reconstruida: {} reparaciones pendientes", rebuiltIndex.size());
+        } finally {
+            rebuildLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Aplica un cambio de reparación a la cola, solo si la transacción hizo commit
+     * Quita la entrada anterior y vuelve a encolar la reparación si sigue pendiente y sin técnico
+     */
+    @TransactionalEventListener
+    public void onRepairChanged(RepairChangedEvent event) {
+        rebuildLock.readLock().lock();
+        try {
+            if (event.getBefore() != null) {
+                remove(event.getRepairId());
+            }
+            if (isDispatchable(event.getAfter())) {
+                offer(event.getAfter());
+            }
+        } finally {
+            rebuildLock.readLock().unlock();
+        }
+    }
+
+    // ============== MÉTODOS AUXILIARES ==============
+
+    /**
+     * Confirma en base de datos la asignación de una reparación sacada de la cola
+     * Si la transacción termina en rollback, la reparación vuelve a la cola.
+     *
+     * @return true si la reparación seguía disponible y quedó asignada
+     */
+    private boolean claim(RepairSnapshot next, User technician) {
+        int updated;
+        try {
+            updated = repairRepository.claimIfUnassigned(next.getId(), technician, Status.PENDING, Status.IN_PROGRESS);
+        } catch (RuntimeException ex) {
+            offer(next);
+            throw ex;
+        }
+        if (updated == 0) {
+            return false;
+        }
+
+        requeueOnRollback(next);
+        RepairSnapshot claimed = next.withTechnician(technician.getId(), Status.IN_PROGRESS);
+        eventPublisher.publishEvent(new RepairChangedEvent(next, claimed));
+        return true;
+    }
+
+    private void requeueOnRollback(RepairSnapshot snapshot) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_COMMITTED) {
+                    offer(snapshot);
+                }
+            }
+        });
+    }
+
+    private RepairSnapshot poll() {
+        RepairSnapshot head = queue.pollFirst();
+        if (head != null) {
+            queuedById.remove(head.getId(), head);
+        }
+        return head;
+    }
+
+    private void offer(RepairSnapshot snapshot) {
+        if (queuedById.putIfAbsent(snapshot.getId(), snapshot) == null) {
+            queue.add(snapshot);
+        }
+    }
+
+    private void remove(Long repairId) {
+        RepairSnapshot queued = queuedById.remove(repairId);
+        if (queued != null) {
+            queue.remove(queued);
+        }
+    }
+
+    private static boolean isDispatchable(RepairSnapshot snapshot) {
+        return snapshot != null && snapshot.getStatus() == Status.PENDING && snapshot.getTechnicianId() == null;
+    }
+}
@@ -0,0 +1,111 @@
+package com.crudactivity.MobileFix.service;
+
+import com.crudactivity.MobileFix.dto.CursorPageDTO;
+import com.crudactivity.MobileFix.exception.InvalidRequestException;
+import org.springframework.data.domain.Limit;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Utilidades para paginación por cursor (keyset / seek)
+ *
+ * En lugar de OFFSET, cada página continúa a partir de la clave de la última fila
+ * devuelta, por lo que la página 1000 cuesta lo mismo que la página 1.
+ * El cursor es la clave codificada en Base64 URL-safe; para el cliente es opaco.
+ */
+final class KeysetPagination {
+
+    static final int DEFAULT_PAGE_SIZE = 20;
+    static final int MAX_PAGE_SIZE = 100;
+
+    private static final String SEPARATOR = "|";
+
+    private KeysetPagination() {
+    }
+
+    /**
+     * Normaliza el tamaño de página pedido al rango [1, MAX_PAGE_SIZE]
+     *
+     * @param requestedSize tamaño pedido por el cliente (<= 0 usa el valor por defecto)
+     * @return tamaño de página válido
+     */
+    static int pageSize(int requestedSize) {
+        if (requestedSize <= 0) {
+            return DEFAULT_PAGE_SIZE;
+        }
+        return Math.min(requestedSize, MAX_PAGE_SIZE);
+    }
+
+    /**
+     * Límite para la consulta: se pide una fila extra para saber si hay más páginas
+     */
+    static Limit limitFor(int pageSize) {
+        return Limit.of(pageSize + 1);
+    }
+
+    /**
+     * Codifica los valores de la clave de la última fila en un cursor opaco
+     */
+    static String encodeCursor(Object... keyParts) {
+        StringBuilder raw = new StringBuilder();
+        for (int i = 0; i < keyParts.length; i++) {
+            if (i > 0) {
+                raw.append(SEPARATOR);
+            }
+            raw.append(keyParts[i]);
+        }
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(raw.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodifica un cursor y lo convierte a la clave esperada
+     *
+     * @param cursor   cursor recibido del cliente
+     * @param keyParts número de valores que debe tener la clave
+     * @param parser   conversión de los valores a la clave
+     * @throws InvalidRequestException si el cursor no es válido
+     */
+    static <K> K decodeCursor(String cursor, int keyParts, Function<String[], K> parser) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\" + SEPARATOR, -1);
+            if (parts.length != keyParts) {
+                throw new InvalidRequestException("Cursor inválido: " + cursor);
+            }
+            return parser.apply(parts);
+        } catch (RuntimeException ex) {
+            throw new InvalidRequestException("Cursor inválido: " + cursor, ex);
+        }
+    }
+
+    /**
+     * Decodifica un cursor cuya clave es solo el id (orden ascendente por id)
+     *
+     * @param cursor cursor recibido del cliente (null o vacío para la primera página)
+     * @return id a partir del cual continuar
+     */
+    static Long afterId(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return 0L;
+        }
+        return decodeCursor(cursor, 1, parts -> Long.valueOf(parts[0]));
+    }
+
+    /**
+     * Construye la página a partir de las filas obtenidas con limitFor(pageSize)
+     *
+     * @param rows     filas devueltas por la consulta (hasta pageSize + 1)
+     * @param pageSize tamaño de página
+     * @param cursorOf cómo obtener el cursor a partir de la última fila de la página
+     */
+    static <T> CursorPageDTO<T> toPage(List<T> rows, int pageSize, Function<T, String> cursorOf) {
+        boolean hasNext = rows.size() > pageSize;
+        List<T> items = hasNext ? rows.subList(0, pageSize) : rows;
+        String nextCursor = hasNext ? cursorOf.apply(items.get(items.size() - 1)) : null;
+        return new CursorPageDTO<>(items, items.size(), nextCursor, hasNext);
+    }
+}
@@ -0,0 +1,135 @@
+package com.crudactivity.MobileFix.service;
+
+import java.util.Arrays;
+
+/**
+ * Conjunto de long primitivos con direccionamiento abierto (sondeo lineal)
+ *
+ * Guarda los valores en un long[] sin objetos Long por elemento, así que un conjunto
+ * de N ids ocupa unos 8-16 bytes por id en lugar de ~50 con HashSet&lt;Long&gt;.
+ * El 0 marca una casilla libre y se guarda aparte. Los borrados desplazan hacia atrás
+ * los elementos del mismo grupo, sin lápidas.
+ *
+ * NO es seguro para uso concurrente: quien lo usa debe sincronizar el acceso.
+ */
+final class LongHashSet {
+
+    private static final int MIN_CAPACITY = 8;
+    private static final float MAX_LOAD = 0.6f;
+
+    private long[] slots = new long[MIN_CAPACITY];
+    private int mask = MIN_CAPACITY - 1;
+    private int size; // elementos distintos de 0 en slots
+    private boolean containsZero;
+
+    boolean add(long value) {
+        if (value == 0) {
+            boolean added = !containsZero;
+            containsZero = true;
+            return added;
+        }
+        int index = indexOf(value);
+        if (slots[index] == value) {
+            return false;
+        }
+        slots[index] = value;
+        if (++size > slots.length * MAX_LOAD) {
+            resize(slots.length * 2);
+        }
+        return true;
+    }
+
+    boolean remove(long value) {
+        if (value == 0) {
+            boolean removed = containsZero;
+            containsZero = false;
+            return removed;
+        }
+        int index = indexOf(value);
+        if (slots[index] != value) {
+            return false;
+        }
+        shiftBack(index);
+        size--;
+        return true;
+    }
+
+    boolean contains(long value) {
+        return value == 0 ? containsZero : slots[indexOf(value)] == value;
+    }
+
+    int size() {
+        return size + (containsZero ? 1 : 0);
+    }
+
+    boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /**
+     * Copia de los elementos, ordenados de menor a mayor
+     */
+    long[] toSortedArray() {
+        long[] values = new long[size()];
+        int next = 0;
+        if (containsZero) {
+            values[next++] = 0;
+        }
+        for (long slot : slots) {
+            if (slot != 0) {
+                values[next++] = slot;
+            }
+        }
+        Arrays.sort(values);
+        return values;
+    }
+
+    // ============== MÉTODOS AUXILIARES ==============
+
+    // Casilla que contiene value o, si no está, la casilla libre donde iría
+    private int indexOf(long value) {
+        int index = hash(value) & mask;
+        while (slots[index] != 0 && slots[index] != value) {
+            index = (index + 1) & mask;
+        }
+        return index;
+    }
+
+    // Rellena el hueco de un borrado con el siguiente elemento del grupo que pueda ocuparlo
+    private void shiftBack(int hole) {
+        int index = hole;
+        while (true) {
+            index = (index + 1) & mask;
+            long value = slots[index];
+            if (value == 0) {
+                slots[hole] = 0;
+                return;
+            }
+            int home = hash(value) & mask;
+            // value puede ocupar el hueco si su casilla natural no está entre el hueco y su posición
+            boolean movable = hole <= index ? (home <= hole || home > index) : (home <= hole && home > index);
+            if (movable) {
+                slots[hole] = value;
+                hole = index;
+            }
+        }
+    }
+
+    private void resize(int capacity) {
+        long[] old = slots;
+        slots = new long[capacity];
+        mask = capacity - 1;
+        for (long value : old) {
+            if (value != 0) {
+                slots[indexOf(value)] = value;
+            }
+        }
+    }
+
+    // Finalizador de SplitMix64: los ids son consecutivos y hay que repartirlos
+    private static int hash(long value) {
+        long z = (value ^ (value >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return (int) (z ^ (z >>> 31));
+    }
+}
@@ -0,0 +1,179 @@
+package com.crudactivity.MobileFix.service;
+
+import com.crudactivity.MobileFix.event.RepairEventConsumer;
+import com.crudactivity.MobileFix.event.RepairOutboxMessage;
+import com.crudactivity.MobileFix.model.OutboxEvent;
+import com.crudactivity.MobileFix.repositories.OutboxEventRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Entrega en segundo plano de los eventos del outbox a los RepairEventConsumer
+ *
+ * Cada ejecución programada lee lotes de mobilefix.outbox.batch-size eventos en orden de id,
+ * los entrega a todos los consumidores y borra los entregados, todo en una transacción por lote.
+ * Control de carga: el despachador tira de la tabla a su ritmo (como mucho
+ * mobilefix.outbox.max-batches-per-run lotes por ejecución), así que un consumidor lento
+ * solo hace crecer el outbox (métrica mobilefix.outbox.backlog) y nunca frena las peticiones.
+ *
+ * La métrica mobilefix.outbox.backlog no consulta la base en cada scrape: el valor se cuenta al
+ * final de cada ejecución que ha leído algún evento y se publica el último contado. Solo se
+ * registra en las instancias con el despachador activo (en las demás no se actualizaría).
+ *
+ * Entrega al menos una vez: si un consumidor falla, el evento se queda en la tabla y se
+ * reintenta con espera exponencial (hasta mobilefix.outbox.max-backoff-seconds).
+ * Un evento reintentado puede llegar después de eventos posteriores de la misma reparación.
+ */
+@Component
+public class OutboxDispatcher {
+
+    private static final Logger log = LoggerFactory.getLogger(OutboxDispatcher.class);
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final ObjectProvider<RepairEventConsumer> consumers;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final int batchSize;
+    private final int maxBatchesPerRun;
+    private final long maxBackoffSeconds;
+
+    private final Counter deliveredCounter;
+    private final Counter failedCounter;
+
+    // Último tamaño del outbox contado por drain(); es lo que publica la métrica
+    private final AtomicLong backlog = new AtomicLong();
+    private volatile boolean backlogCounted;
+
+    @Autowired
+    public OutboxDispatcher(OutboxEventRepository outboxEventRepository,
+                            ObjectProvider<RepairEventConsumer> consumers,
+                            PlatformTransactionManager transactionManager,
+                            MeterRegistry meterRegistry,
+                            @Value("${mobilefix.outbox.enabled:true}") boolean enabled,
+                            @Value("${mobilefix.outbox.batch-size:100}") int batchSize,
+                            @Value("${mobilefix.outbox.max-batches-per-run:10}") int maxBatchesPerRun,
+                            @Value("${mobilefix.outbox.max-backoff-seconds:300}") long maxBackoffSeconds) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.consumers = consumers;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+        this.maxBatchesPerRun = maxBatchesPerRun;
+        this.maxBackoffSeconds = maxBackoffSeconds;
+
+        this.deliveredCounter = meterRegistry.counter("mobilefix.outbox.delivered");
+        this.failedCounter = meterRegistry.counter("mobilefix.outbox.failed");
+        if (enabled) {
+            Gauge.builder("mobilefix.outbox.backlog", backlog, AtomicLong::get)
+                    .description("Eventos de reparación pendientes de entregar")
+                    .register(meterRegistry);
+        }
+    }
+
+    /**
+     * Ejecución programada (cada mobilefix.outbox.poll-interval-ms desde que termina la anterior)
+     * Con mobilefix.outbox.enabled=false no hace nada (p. ej. instancias que solo atienden peticiones)
+     */
+    @Scheduled(fixedDelayString = "${mobilefix.outbox.poll-interval-ms:500}")
+    public void scheduledDrain() {
+        if (enabled) {
+            drain();
+        }
+    }
+
+    /**
+     * Entregar los eventos pendientes, lote a lote, hasta vaciar el outbox o
+     * alcanzar el máximo de lotes por ejecución
+     *
+     * @return número de eventos entregados
+     */
+    public int drain() {
+        int read = 0;
+        int delivered = 0;
+        for (int i = 0; i < maxBatchesPerRun; i++) {
+            BatchResult result = transactionTemplate.execute(status -> dispatchBatch());
+            read += result.read;
+            delivered += result.delivered;
+            if (result.read < batchSize) {
+                break;
+            }
+        }
+
+        // Si no se ha leído nada, lo que queda son reintentos en espera y el recuento no ha cambiado
+        if (read > 0 || !backlogCounted) {
+            backlog.set(outboxEventRepository.count());
+            backlogCounted = true;
+        }
+        return delivered;
+    }
+
+    /**
+     * @return eventos pendientes según el último recuento de drain()
+     */
+    long getBacklog() {
+        return backlog.get();
+    }
+
+    // ============== MÉTODOS AUXILIARES ==============
+
+    private BatchResult dispatchBatch() {
+        Instant now = Instant.now();
+        List<OutboxEvent> batch = outboxEventRepository.findBatchToDispatch(now, Limit.of(batchSize));
+
+        List<Long> deliveredIds = new ArrayList<>(batch.size());
+        for (OutboxEvent event : batch) {
+            RepairOutboxMessage message = RepairOutboxMessage.of(event);
+            try {
+                consumers.orderedStream().forEach(consumer -> consumer.onEvent(message));
+                deliveredIds.add(event.getId());
+            } catch (RuntimeException ex) {
+                // Se queda en la tabla; la actualización de attempts/availableAt se guarda al hacer commit
+                event.scheduleRetry(now.plus(backoff(event.getAttempts())));
+                failedCounter.increment();
+                log.warn("Entrega fallida del evento {} ({}, reparación {}), intento {}: {}",
+                        event.getId(), event.getType(), event.getRepairId(), message.getAttempt(), ex.toString());
+            }
+        }
+
+        if (!deliveredIds.isEmpty()) {
+            outboxEventRepository.deleteAllByIdInBatch(deliveredIds);
+            deliveredCounter.increment(deliveredIds.size());
+        }
+        return new BatchResult(batch.size(), deliveredIds.size());
+    }
+
+    /**
+     * Espera antes del siguiente intento: 1 s, 2 s, 4 s... hasta maxBackoffSeconds
+     */
+    private Duration backoff(int attempts) {
+        long seconds = attempts >= 20 ? maxBackoffSeconds : Math.min(1L << attempts, maxBackoffSeconds);
+        return Duration.ofSeconds(seconds);
+    }
+
+    private static final class BatchResult {
+        private final int read;
+        private final int delivered;
+
+        private BatchResult(int read, int delivered) {
+            this.read = read;
+            this.delivered = delivered;
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.crudactivity.MobileFix.service;
+
+import com.crudactivity.MobileFix.event.RepairChangedEvent;
+import com.crudactivity.MobileFix.event.RepairSnapshot;
+import com.crudactivity.MobileFix.model.OutboxEvent;
+import com.crudactivity.MobileFix.model.OutboxEventType;
+import com.crudactivity.MobileFix.repositories.OutboxEventRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Instant;
+import java.util.Objects;
+
+/**
+ * Escritura del outbox de eventos de reparación
+ *
+ * Traduce cada RepairChangedEvent en eventos de negocio (REPAIR_CREATED,
+ * REPAIR_STATUS_CHANGED, TECHNICIAN_ASSIGNED) y los inserta justo antes del commit,
+ * dentro de la misma transacción que el cambio: si la transacción hace rollback,
+ * los eventos desaparecen con ella. La entrega a los consumidores la hace
+ * OutboxDispatcher en segundo plano, fuera de la petición.
+ */
+@Service
+public class OutboxService {
+
+    private final OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    public OutboxService(OutboxEventRepository outboxEventRepository) {
+        this.outboxEventRepository = outboxEventRepository;
+    }
+
+    /**
+     * Insertar en el outbox los eventos derivados de un cambio de reparación
+     * Un mismo cambio puede generar varios eventos (p. ej. claim: técnico asignado + IN_PROGRESS)
+     * Los borrados no generan evento.
+     */
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT)
+    public void onRepairChanged(RepairChangedEvent event) {
+        RepairSnapshot before = event.getBefore();
+        RepairSnapshot after = event.getAfter();
+        if (after == null) {
+            return;
+        }
+
+        Instant now = Instant.now();
+        if (before == null) {
+            outboxEventRepository.save(newEvent(OutboxEventType.REPAIR_CREATED, null, after, now));
+            return;
+        }
+        if (!Objects.equals(before.getTechnicianId(), after.getTechnicianId()) && after.getTechnicianId() != null) {
+            outboxEventRepository.save(newEvent(OutboxEventType.TECHNICIAN_ASSIGNED, before, after, now));
+        }
+        if (before.getStatus() != after.getStatus()) {
+            outboxEventRepository.save(newEvent(OutboxEventType.REPAIR_STATUS_CHANGED, before, after, now));
+        }
+    }
+
+    // ============== MÉTODOS AUXILIARES ==============
+
+    private static OutboxEvent newEvent(OutboxEventType type, RepairSnapshot before, RepairSnapshot after, Instant now) {
+        return new OutboxEvent(type, after.getId(), after.getDeviceId(), after.getTechnicianId(),
+                before != null ? before.getStatus() : null, after.getStatus(), now);
+    }
+}
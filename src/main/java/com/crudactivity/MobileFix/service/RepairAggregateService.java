@@ -0,0 +1,244 @@
+package com.crudactivity.MobileFix.service;
+
+import com.crudactivity.MobileFix.config.MetricsConfig;
+import com.crudactivity.MobileFix.dto.RepairAggregateDTO;
+import com.crudactivity.MobileFix.event.RepairChangedEvent;
+import com.crudactivity.MobileFix.event.RepairSnapshot;
+import com.crudactivity.MobileFix.model.Status;
+import com.crudactivity.MobileFix.repositories.RepairRepository;
+import io.micrometer.core.annotation.Timed;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Vista materializada en memoria con los agregados de reparaciones
+ * por dispositivo y por técnico: costo completado, completadas y abiertas.
+ *
+ * Se construye al arrancar (y con rebuild()) a partir de RepairRepository y
+ * después se mantiene de forma incremental con los RepairChangedEvent que publica
+ * RepairService, así que leer un agregado es O(1) en lugar de un SUM sobre repairs.
+ *
+ * Los cambios son deltas (+/-), así que cada uno debe aplicarse exactamente una vez:
+ * la transacción que publica el evento toma el lock de lectura antes de su commit y lo
+ * suelta después de aplicar sus deltas. Un rebuild() (lock de escritura) nunca cae entre
+ * un commit y sus deltas: o la transacción hizo commit y aplicó antes de que el rebuild
+ * lea, o hace commit cuando el rebuild ya ha leído y aplica sobre la vista nueva.
+ * Mientras dura un rebuild, los commits que cambian reparaciones esperan.
+ *
+ * NOTA: la vista es local a cada instancia. Con varias instancias, los cambios
+ * hechos en otra instancia solo se reflejan tras un rebuild().
+ */
+@Service
+@Timed(MetricsConfig.SERVICE_TIMER)
+public class RepairAggregateService {
+
+    private static final Logger log = LoggerFactory.getLogger(RepairAggregateService.class);
+
+    private final RepairRepository repairRepository;
+
+    // El rebuild toma el lock de escritura; las transacciones con cambios, el de lectura
+    // desde antes de su commit hasta que han aplicado sus deltas
+    private final ReadWriteLock rebuildLock = new ReentrantReadWriteLock();
+
+    // Clave de los cambios pendientes de la transacción en curso
+    private final Object pendingKey = new Object();
+
+    private volatile Map<Long, CostAggregate> byDevice = new ConcurrentHashMap<>();
+    private volatile Map<Long, CostAggregate> byTechnician = new ConcurrentHashMap<>();
+
+    @Autowired
+    public RepairAggregateService(RepairRepository repairRepository) {
+        this.repairRepository = repairRepository;
+    }
+
+    /**
+     * Obtener los agregados de un dispositivo
+     *
+     * @param deviceId ID del dispositivo
+     * @return RepairAggregateDTO (todo a cero si el dispositivo no tiene reparaciones)
+     */
+    public RepairAggregateDTO getDeviceAggregate(Long deviceId) {
+        return byDevice.getOrDefault(deviceId, CostAggregate.EMPTY).toDTO(deviceId);
+    }
+
+    /**
+     * Obtener los agregados de un técnico
+     *
+     * @param technicianId ID del técnico
+     * @return RepairAggregateDTO (todo a cero si el técnico no tiene reparaciones)
+     */
+    public RepairAggregateDTO getTechnicianAggregate(Long technicianId) {
+        return byTechnician.getOrDefault(technicianId, CostAggregate.EMPTY).toDTO(technicianId);
+    }
+
+    /**
+     * Reconstruir todos los agregados desde la base de datos
+     * Se ejecuta al arrancar y puede lanzarse manualmente para recuperar la vista
+     * si se sospecha que se ha desincronizado.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void rebuild() {
+        rebuildLock.writeLock().lock();
+        try {
+            byDevice = load(repairRepository.sumByDeviceAndStatus());
+            byTechnician = load(repairRepository.sumByTechnicianAndStatus());
+            log.info("Agregados de reparaciones reconstruidos: {} dispositivos, {} técnicos",
+                    byDevice.size(), byTechnician.size());
+        } finally {
+            rebuildLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Aplica un cambio de reparación a los agregados, solo si la transacción hace commit
+     * (o ya mismo si no hay transacción). Resta la contribución anterior y suma la nueva
+     */
+    @EventListener
+    public void onRepairChanged(RepairChangedEvent event) {
+        List<RepairChangedEvent> pending = pending();
+        if (pending != null) {
+            pending.add(event);
+            return;
+        }
+        rebuildLock.readLock().lock();
+        try {
+            apply(event);
+        } finally {
+            rebuildLock.readLock().unlock();
+        }
+    }
+
+    // ============== MÉTODOS AUXILIARES ==============
+
+    /**
+     * Cambios pendientes de la transacción en curso (se registran la primera vez)
+     * null si no hay transacción y hay que aplicar inmediatamente
+     */
+    @SuppressWarnings("unchecked")
+    private List<RepairChangedEvent> pending() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return null;
+        }
+        List<RepairChangedEvent> pending = (List<RepairChangedEvent>) TransactionSynchronizationManager.getResource(pendingKey);
+        if (pending == null) {
+            List<RepairChangedEvent> created = new ArrayList<>();
+            TransactionSynchronizationManager.bindResource(pendingKey, created);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                private boolean locked;
+
+                @Override
+                public void beforeCommit(boolean readOnly) {
+                    rebuildLock.readLock().lock();
+                    locked = true;
+                }
+
+                @Override
+                public void afterCommit() {
+                    created.forEach(RepairAggregateService.this::apply);
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(pendingKey);
+                    if (locked) {
+                        rebuildLock.readLock().unlock();
+                    }
+                }
+            });
+            pending = created;
+        }
+        return pending;
+    }
+
+    private void apply(RepairChangedEvent event) {
+        apply(event.getBefore(), -1);
+        apply(event.getAfter(), 1);
+    }
+
+    private void apply(RepairSnapshot snapshot, int sign) {
+        if (snapshot == null) {
+            return;
+        }
+        if (snapshot.getDeviceId() != null) {
+            byDevice.compute(snapshot.getDeviceId(), (id, current) -> add(current, snapshot, sign));
+        }
+        if (snapshot.getTechnicianId() != null) {
+            byTechnician.compute(snapshot.getTechnicianId(), (id, current) -> add(current, snapshot, sign));
+        }
+    }
+
+    private static CostAggregate add(CostAggregate current, RepairSnapshot snapshot, int sign) {
+        CostAggregate base = current != null ? current : CostAggregate.EMPTY;
+        double cost = snapshot.getCost() != null ? snapshot.getCost() : 0.0;
+        CostAggregate updated = base.plus(snapshot.getStatus(), sign, sign * cost);
+        return updated.isEmpty() ? null : updated;
+    }
+
+    private static Map<Long, CostAggregate> load(List<RepairRepository.StatusTotals> totals) {
+        Map<Long, CostAggregate> aggregates = new ConcurrentHashMap<>();
+        for (RepairRepository.StatusTotals row : totals) {
+            double cost = row.getTotalCost() != null ? row.getTotalCost() : 0.0;
+            aggregates.merge(row.getKeyId(),
+                    CostAggregate.EMPTY.plus(row.getStatus(), row.getRepairs(), cost),
+                    CostAggregate::merge);
+        }
+        return aggregates;
+    }
+
+    /**
+     * Valor inmutable de un agregado; cada cambio crea una instancia nueva
+     * para que las lecturas concurrentes nunca vean un estado a medias
+     */
+    private static final class CostAggregate {
+
+        static final CostAggregate EMPTY = new CostAggregate(0.0, 0, 0);
+
+        final double completedCost;
+        final long completedCount;
+        final long openCount;
+
+        CostAggregate(double completedCost, long completedCount, long openCount) {
+            this.completedCost = completedCost;
+            this.completedCount = completedCount;
+            this.openCount = openCount;
+        }
+
+        CostAggregate plus(Status status, long repairs, double cost) {
+            if (status == Status.COMPLETED) {
+                return new CostAggregate(completedCost + cost, completedCount + repairs, openCount);
+            }
+            if (status == Status.PENDING || status == Status.IN_PROGRESS) {
+                return new CostAggregate(completedCost, completedCount, openCount + repairs);
+            }
+            return this;
+        }
+
+        CostAggregate merge(CostAggregate other) {
+            return new CostAggregate(completedCost + other.completedCost,
+                    completedCount + other.completedCount, openCount + other.openCount);
+        }
+
+        boolean isEmpty() {
+            return completedCount == 0 && openCount == 0;
+        }
+
+        RepairAggregateDTO toDTO(Long id) {
+            return new RepairAggregateDTO(id, completedCost, completedCount, openCount);
+        }
+    }
+}
@@ -0,0 +1,176 @@
+package com.crudactivity.MobileFix.service;
+
+import com.crudactivity.MobileFix.model.JobLock;
+import com.crudactivity.MobileFix.model.RepairStatusArchive;
+import com.crudactivity.MobileFix.model.RepairStatusEvent;
+import com.crudactivity.MobileFix.repositories.JobLockRepository;
+import com.crudactivity.MobileFix.repositories.RepairStatusArchiveRepository;
+import com.crudactivity.MobileFix.repositories.RepairStatusEventRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Archivo del historial de estados por días
+ *
+ * Los días con más de mobilefix.history.hot-days de antigüedad se pasan de la tabla
+ * repair_status_events a un segmento columnar comprimido por día (StatusHistorySegment)
+ * en la tabla repair_status_archives y se borran de la primera, que así solo guarda los
+ * eventos recientes. Las dos cosas van en la misma transacción: un evento nunca está en los
+ * dos sitios ni en ninguno. Los percentiles de RepairHistoryService leen las dos tablas.
+ *
+ * El archivado programado se ejecuta en todas las instancias; cada día se archiva con la fila
+ * "repair-history-rollup" de job_locks bloqueada, así que dos instancias no archivan el mismo
+ * día a la vez: la segunda espera y ya no encuentra eventos.
+ *
+ * Los días son días UTC. Una reparación cuyos eventos anteriores ya se archivaron
+ * registra sus siguientes eventos sin duración (el último evento ya no está en la tabla).
+ */
+@Component
+public class RepairHistoryArchive {
+
+    private static final Logger log = LoggerFactory.getLogger(RepairHistoryArchive.class);
+
+    static final String ROLLUP_LOCK = "repair-history-rollup";
+
+    private final RepairStatusEventRepository repairStatusEventRepository;
+    private final RepairStatusArchiveRepository repairStatusArchiveRepository;
+    private final JobLockRepository jobLockRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final int hotDays;
+    private final boolean enabled;
+
+    @Autowired
+    public RepairHistoryArchive(RepairStatusEventRepository repairStatusEventRepository,
+                                RepairStatusArchiveRepository repairStatusArchiveRepository,
+                                JobLockRepository jobLockRepository,
+                                PlatformTransactionManager transactionManager,
+                                @Value("${mobilefix.history.hot-days:30}") int hotDays,
+                                @Value("${mobilefix.history.rollup-enabled:true}") boolean enabled) {
+        this.repairStatusEventRepository = repairStatusEventRepository;
+        this.repairStatusArchiveRepository = repairStatusArchiveRepository;
+        this.jobLockRepository = jobLockRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.hotDays = hotDays;
+        this.enabled = enabled;
+    }
+
+    /**
+     * Archivado programado (por defecto cada noche a las 03:15)
+     */
+    @Scheduled(cron = "${mobilefix.history.rollup-cron:0 15 3 * * *}")
+    public void scheduledRollup() {
+        if (enabled) {
+            rollup();
+        }
+    }
+
+    /**
+     * Archivar todos los días anteriores a hoy - hotDays
+     *
+     * @return número de eventos archivados
+     */
+    public int rollup() {
+        return rollupBefore(LocalDate.now(ZoneOffset.UTC).minusDays(hotDays));
+    }
+
+    /**
+     * Archivar todos los días anteriores a cutoff (cutoff no incluido)
+     * Cada día se archiva en su propia transacción: si falla a mitad, los días
+     * ya archivados quedan hechos y el resto se reintenta en la siguiente ejecución.
+     *
+     * @return número de eventos archivados por esta instancia
+     */
+    public int rollupBefore(LocalDate cutoff) {
+        Instant oldest = repairStatusEventRepository.findOldestOccurredAt();
+        if (oldest == null) {
+            return 0;
+        }
+
+        createLockIfMissing();
+        int archived = 0;
+        for (LocalDate day = LocalDate.ofInstant(oldest, ZoneOffset.UTC); day.isBefore(cutoff); day = day.plusDays(1)) {
+            LocalDate current = day;
+            archived += transactionTemplate.execute(status -> rollupDay(current));
+        }
+        return archived;
+    }
+
+    /**
+     * Entregar al consumidor los días archivados de [from, to), uno a uno
+     * Debe llamarse dentro de una transacción.
+     */
+    public void scan(LocalDate from, LocalDate to, Consumer<StatusHistorySegment> consumer) {
+        try (Stream<byte[]> segments = repairStatusArchiveRepository.streamSegments(from, to)) {
+            segments.forEach(data -> {
+                try {
+                    consumer.accept(StatusHistorySegment.fromBytes(data));
+                } catch (IOException ex) {
+                    throw new UncheckedIOException(ex);
+                }
+            });
+        }
+    }
+
+    // ============== MÉTODOS AUXILIARES ==============
+
+    private int rollupDay(LocalDate day) {
+        // Hasta el commit, otra instancia que archive el mismo día espera aquí
+        JobLock lock = jobLockRepository.findByNameForUpdate(ROLLUP_LOCK)
+                .orElseThrow(() -> new IllegalStateException("Falta la fila " + ROLLUP_LOCK + " en job_locks"));
+        lock.setLockedAt(Instant.now());
+
+        Instant from = day.atStartOfDay(ZoneOffset.UTC).toInstant();
+        Instant to = day.plusDays(1).atStartOfDay(ZoneOffset.UTC).toInstant();
+
+        List<RepairStatusEvent> events = repairStatusEventRepository.findByOccurredAtRange(from, to);
+        if (events.isEmpty()) {
+            return 0;
+        }
+        if (repairStatusArchiveRepository.existsById(day)) {
+            // Solo con relojes desfasados: los eventos se quedan en la tabla (se siguen contando)
+            log.warn("El historial del {} ya está archivado; {} eventos posteriores se quedan en la tabla", day, events.size());
+            return 0;
+        }
+
+        byte[] segment;
+        try {
+            segment = StatusHistorySegment.of(events).toBytes();
+        } catch (IOException ex) {
+            throw new UncheckedIOException("No se pudo archivar el historial del día " + day, ex);
+        }
+        repairStatusArchiveRepository.save(new RepairStatusArchive(day, events.size(), segment, Instant.now()));
+        repairStatusEventRepository.deleteByOccurredAtRange(from, to);
+        log.info("Historial de estados del {} archivado: {} eventos en {} bytes", day, events.size(), segment.length);
+        return events.size();
+    }
+
+    /**
+     * Crear la fila de bloqueo la primera vez; si otra instancia la crea a la vez, vale la suya
+     */
+    private void createLockIfMissing() {
+        if (jobLockRepository.existsById(ROLLUP_LOCK)) {
+            return;
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> jobLockRepository.saveAndFlush(new JobLock(ROLLUP_LOCK)));
+        } catch (DataIntegrityViolationException ex) {
+            log.debug("Fila {} creada por otra instancia", ROLLUP_LOCK);
+        }
+    }
+}
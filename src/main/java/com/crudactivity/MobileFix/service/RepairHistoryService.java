@@ -0,0 +1,318 @@
+package com.crudactivity.MobileFix.service;
+
+import com.crudactivity.MobileFix.config.MetricsConfig;
+import com.crudactivity.MobileFix.dto.CycleTimeStatsDTO;
+import com.crudactivity.MobileFix.dto.RepairStatusHistoryDTO;
+import com.crudactivity.MobileFix.event.RepairChangedEvent;
+import com.crudactivity.MobileFix.event.RepairSnapshot;
+import com.crudactivity.MobileFix.exception.InvalidRequestException;
+import com.crudactivity.MobileFix.model.RepairStatusEvent;
+import com.crudactivity.MobileFix.model.Status;
+import com.crudactivity.MobileFix.repositories.RepairStatusEventRepository;
+import com.crudactivity.MobileFix.repositories.RepairStatusEventRepository.RepairTimeline;
+import com.crudactivity.MobileFix.repositories.RepairStatusEventRepository.StatusDuration;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * Historial de estados de las reparaciones y percentiles de tiempos por técnico y estado
+ *
+ * Cada creación, cambio de estado o cambio de técnico (RepairChangedEvent) se guarda como
+ * un RepairStatusEvent en la misma transacción. Los eventos de una transacción se acumulan
+ * y se insertan juntos antes del commit: una sola consulta para buscar el evento anterior
+ * de todas las reparaciones afectadas y los INSERT en lotes JDBC.
+ *
+ * Los percentiles leen repair_status_events y los días archivados (RepairHistoryArchive),
+ * nunca la tabla repairs.
+ */
+@Service
+@Timed(MetricsConfig.SERVICE_TIMER)
+public class RepairHistoryService {
+
+    // Máximo de ids por IN al buscar el evento anterior
+    private static final int LOOKUP_CHUNK_SIZE = 1000;
+
+    private final RepairStatusEventRepository repairStatusEventRepository;
+    private final RepairHistoryArchive repairHistoryArchive;
+
+    // Clave del recurso de transacción con los cambios pendientes de insertar
+    private final Object pendingChangesKey = new Object();
+
+    @Autowired
+    public RepairHistoryService(RepairStatusEventRepository repairStatusEventRepository,
+                                RepairHistoryArchive repairHistoryArchive) {
+        this.repairStatusEventRepository = repairStatusEventRepository;
+        this.repairHistoryArchive = repairHistoryArchive;
+    }
+
+    /**
+     * Historial de estados de una reparación (eventos aún no archivados)
+     *
+     * @param repairId ID de la reparación
+     * @return eventos del más antiguo al más reciente
+     */
+    @Transactional(readOnly = true)
+    public List<RepairStatusHistoryDTO> getHistory(Long repairId) {
+        return repairStatusEventRepository.findHistoryByRepairId(repairId);
+    }
+
+    /**
+     * Percentiles del tiempo que pasan las reparaciones en cada estado, por técnico,
+     * y del ciclo completo (status = TOTAL), para los eventos registrados en [from, to)
+     *
+     * @param from primer día incluido (UTC)
+     * @param to   primer día no incluido (UTC)
+     * @return una fila por técnico y estado, ordenadas por técnico (sin técnico primero) y estado
+     * @throws InvalidRequestException si from no es anterior a to
+     */
+    @Transactional(readOnly = true)
+    public List<CycleTimeStatsDTO> getCycleTimes(LocalDate from, LocalDate to) {
+        if (!from.isBefore(to)) {
+            throw new InvalidRequestException("La fecha de inicio debe ser anterior a la fecha de fin");
+        }
+
+        Map<StatsKey, Samples> samples = new HashMap<>();
+
+        repairHistoryArchive.scan(from, to, segment -> {
+            for (int row = 0; row < segment.size(); row++) {
+                addSample(samples, segment.technicianId(row), segment.fromStatus(row), segment.toStatus(row),
+                        segment.durationMillis(row), segment.cycleMillis(row));
+            }
+        });
+
+        Instant fromInstant = from.atStartOfDay(ZoneOffset.UTC).toInstant();
+        Instant toInstant = to.atStartOfDay(ZoneOffset.UTC).toInstant();
+        try (Stream<StatusDuration> durations = repairStatusEventRepository.streamDurations(fromInstant, toInstant)) {
+            durations.forEach(d -> addSample(samples, d.getTechnicianId(), d.getFromStatus(), d.getToStatus(),
+                    d.getDurationMillis(), d.getCycleMillis()));
+        }
+
+        List<CycleTimeStatsDTO> stats = new ArrayList<>(samples.size());
+        samples.forEach((key, values) -> stats.add(values.toStats(key)));
+        stats.sort(Comparator.comparing(CycleTimeStatsDTO::getTechnicianId, Comparator.nullsFirst(Comparator.naturalOrder()))
+                .thenComparing(CycleTimeStatsDTO::getStatus));
+        return stats;
+    }
+
+    /**
+     * Registrar el cambio en el historial de la transacción en curso
+     * Los cambios se insertan todos juntos justo antes del commit (y se descartan si hay rollback).
+     * Los borrados no se registran: el historial de una reparación eliminada se conserva.
+     */
+    @EventListener
+    public void onRepairChanged(RepairChangedEvent event) {
+        StatusChange change = StatusChange.of(event, Instant.now());
+        if (change == null) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            persist(List.of(change));
+            return;
+        }
+
+        @SuppressWarnings("unchecked")
+        List<StatusChange> pending = (List<StatusChange>) TransactionSynchronizationManager.getResource(pendingChangesKey);
+        if (pending == null) {
+            List<StatusChange> changes = new ArrayList<>();
+            TransactionSynchronizationManager.bindResource(pendingChangesKey, changes);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void beforeCommit(boolean readOnly) {
+                    persist(changes);
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(pendingChangesKey);
+                }
+            });
+            pending = changes;
+        }
+        pending.add(change);
+    }
+
+    // ============== MÉTODOS AUXILIARES ==============
+
+    /**
+     * Insertar los cambios calculando cuánto tiempo pasó cada reparación en el estado anterior
+     * y, al cerrarse, cuánto duró su ciclo completo
+     */
+    private void persist(List<StatusChange> changes) {
+        if (changes.isEmpty()) {
+            return;
+        }
+
+        // Primer y último evento de las reparaciones que no se crearon en esta transacción
+        Map<Long, Instant[]> timelines = new HashMap<>();
+        Set<Long> lookup = new HashSet<>();
+        for (StatusChange change : changes) {
+            if (!timelines.containsKey(change.repairId)) {
+                timelines.put(change.repairId, null);
+                if (change.fromStatus != null) {
+                    lookup.add(change.repairId);
+                }
+            }
+        }
+        List<Long> lookupIds = new ArrayList<>(lookup);
+        for (int i = 0; i < lookupIds.size(); i += LOOKUP_CHUNK_SIZE) {
+            List<Long> chunk = lookupIds.subList(i, Math.min(i + LOOKUP_CHUNK_SIZE, lookupIds.size()));
+            for (RepairTimeline timeline : repairStatusEventRepository.findTimelines(chunk)) {
+                timelines.put(timeline.getRepairId(), new Instant[]{timeline.getFirstAt(), timeline.getLastAt()});
+            }
+        }
+
+        List<RepairStatusEvent> events = new ArrayList<>(changes.size());
+        for (StatusChange change : changes) {
+            Instant[] timeline = timelines.get(change.repairId);
+            if (change.fromStatus == null) {
+                timeline = new Instant[]{change.occurredAt, change.occurredAt};
+            }
+
+            Long durationMillis = null;
+            Long cycleMillis = null;
+            if (timeline != null && change.fromStatus != null) {
+                durationMillis = millisBetween(timeline[1], change.occurredAt);
+                if (isClosed(change.toStatus) && !isClosed(change.fromStatus)) {
+                    cycleMillis = millisBetween(timeline[0], change.occurredAt);
+                }
+                timeline[1] = change.occurredAt;
+            }
+            timelines.put(change.repairId, timeline);
+
+            events.add(new RepairStatusEvent(change.repairId, change.technicianId, change.fromStatus,
+                    change.toStatus, change.occurredAt, durationMillis, cycleMillis));
+        }
+        repairStatusEventRepository.saveAll(events);
+    }
+
+    private static long millisBetween(Instant from, Instant to) {
+        return Math.max(0, Duration.between(from, to).toMillis());
+    }
+
+    private static boolean isClosed(Status status) {
+        return status == Status.COMPLETED || status == Status.CANCELLED;
+    }
+
+    private static void addSample(Map<StatsKey, Samples> samples, Long technicianId, Status fromStatus,
+                                  Status toStatus, Long durationMillis, Long cycleMillis) {
+        if (durationMillis != null && fromStatus != null) {
+            samples.computeIfAbsent(new StatsKey(technicianId, fromStatus.name()), k -> new Samples())
+                    .add(durationMillis);
+        }
+        if (cycleMillis != null) {
+            // El ciclo completo se atribuye al técnico que tenía la reparación al cerrarse
+            samples.computeIfAbsent(new StatsKey(technicianId, CycleTimeStatsDTO.TOTAL), k -> new Samples())
+                    .add(cycleMillis);
+        }
+    }
+
+    /**
+     * Cambio pendiente de insertar en el historial
+     */
+    private static final class StatusChange {
+        private final Long repairId;
+        private final Long technicianId;
+        private final Status fromStatus;
+        private final Status toStatus;
+        private final Instant occurredAt;
+
+        private StatusChange(Long repairId, Long technicianId, Status fromStatus, Status toStatus, Instant occurredAt) {
+            this.repairId = repairId;
+            this.technicianId = technicianId;
+            this.fromStatus = fromStatus;
+            this.toStatus = toStatus;
+            this.occurredAt = occurredAt;
+        }
+
+        /**
+         * Cambio a registrar, o null si el evento no cambia estado ni técnico
+         * El técnico es el que tenía la reparación mientras estuvo en el estado anterior
+         */
+        static StatusChange of(RepairChangedEvent event, Instant now) {
+            RepairSnapshot before = event.getBefore();
+            RepairSnapshot after = event.getAfter();
+            if (after == null) {
+                return null;
+            }
+            if (before == null) {
+                return new StatusChange(after.getId(), after.getTechnicianId(), null, after.getStatus(), now);
+            }
+            if (before.getStatus() == after.getStatus()
+                    && Objects.equals(before.getTechnicianId(), after.getTechnicianId())) {
+                return null;
+            }
+            return new StatusChange(after.getId(), before.getTechnicianId(), before.getStatus(), after.getStatus(), now);
+        }
+    }
+
+    private static final class StatsKey {
+        private final Long technicianId;
+        private final String status;
+
+        private StatsKey(Long technicianId, String status) {
+            this.technicianId = technicianId;
+            this.status = status;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof StatsKey other)) return false;
+            return Objects.equals(technicianId, other.technicianId) && status.equals(other.status);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(technicianId, status);
+        }
+    }
+
+    /**
+     * Muestras de duración en un array de long (sin un Long por muestra)
+     */
+    private static final class Samples {
+        private long[] values = new long[16];
+        private int size;
+
+        void add(long value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        CycleTimeStatsDTO toStats(StatsKey key) {
+            long[] sorted = Arrays.copyOf(values, size);
+            Arrays.sort(sorted);
+            return new CycleTimeStatsDTO(key.technicianId, key.status, (long) size,
+                    percentile(sorted, 0.50), percentile(sorted, 0.90), percentile(sorted, 0.99),
+                    sorted[size - 1]);
+        }
+
+        // Percentil por rango más cercano
+        private static long percentile(long[] sorted, double p) {
+            int rank = (int) Math.ceil(p * sorted.length);
+            return sorted[Math.max(0, rank - 1)];
+        }
+    }
+}
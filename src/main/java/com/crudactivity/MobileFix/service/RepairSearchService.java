@@ -0,0 +1,115 @@
+package com.crudactivity.MobileFix.service;
+
+import com.crudactivity.MobileFix.config.MetricsConfig;
+import com.crudactivity.MobileFix.dto.RepairResponseDTO;
+import com.crudactivity.MobileFix.exception.InvalidRequestException;
+import com.crudactivity.MobileFix.model.Repair;
+import com.crudactivity.MobileFix.repositories.RepairRepository;
+import io.micrometer.core.annotation.Timed;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.search.mapper.orm.Search;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletionStage;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Búsqueda de texto completo sobre reparaciones
+ *
+ * El índice Lucene (Hibernate Search) contiene la descripción de la reparación,
+ * la marca y el modelo del dispositivo y el username del propietario.
+ * Hibernate Search lo actualiza al hacer commit de cada transacción que modifica
+ * esas entidades, así que no hace falta sincronizarlo desde los servicios.
+ *
+ * Ejemplo: "pantalla rota iphone 13", "bateria samsumg"
+ */
+@Service
+@Timed(MetricsConfig.SERVICE_TIMER)
+@Transactional(readOnly = true)
+public class RepairSearchService {
+
+    static final int MAX_LIMIT = 100;
+
+    private static final String[] SEARCH_FIELDS = {
+            "description", "device.brand", "device.model", "device.owner.username"
+    };
+
+    // Las coincidencias exactas puntúan más que las aproximadas (con errores de tipeo)
+    private static final float EXACT_MATCH_BOOST = 2.0f;
+
+    private final RepairRepository repairRepository;
+    private final EntityManager entityManager;
+    private final EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    public RepairSearchService(RepairRepository repairRepository,
+                               EntityManager entityManager,
+                               EntityManagerFactory entityManagerFactory) {
+        this.repairRepository = repairRepository;
+        this.entityManager = entityManager;
+        this.entityManagerFactory = entityManagerFactory;
+    }
+
+    /**
+     * Buscar reparaciones por texto libre, ordenadas por relevancia
+     * Tolera un error de tipeo por palabra (distancia de edición 1)
+     *
+     * @param text  texto a buscar
+     * @param limit máximo de resultados (1..100)
+     * @return reparaciones encontradas, la más relevante primero
+     * @throws InvalidRequestException si el texto está vacío
+     */
+    public List<RepairResponseDTO> search(String text, int limit) {
+        if (text == null || text.isBlank()) {
+            throw new InvalidRequestException("El texto de búsqueda es obligatorio");
+        }
+        int maxResults = Math.max(1, Math.min(limit, MAX_LIMIT));
+
+        // El índice solo devuelve ids; los datos salen de una única consulta DTO
+        List<Long> ids = Search.session(entityManager)
+                .search(Repair.class)
+                .select(f -> f.id(Long.class))
+                .where(f -> f.bool()
+                        .should(f.match().fields(SEARCH_FIELDS).matching(text).boost(EXACT_MATCH_BOOST))
+                        .should(f.match().fields(SEARCH_FIELDS).matching(text).fuzzy(1, 1)))
+                .fetchHits(maxResults);
+
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+
+        Map<Long, RepairResponseDTO> repairsById = repairRepository.findResponseDTOsByIdIn(ids).stream()
+                .collect(Collectors.toMap(RepairResponseDTO::getId, Function.identity()));
+
+        // Mantener el orden de relevancia del índice
+        return ids.stream()
+                .map(repairsById::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Reconstruir el índice completo desde la base de datos
+     * Se ejecuta en segundo plano (varios hilos, lotes de 500 reparaciones)
+     * Durante la reindexación las búsquedas pueden devolver resultados incompletos.
+     *
+     * @return etapa que termina cuando la reindexación acaba
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public CompletionStage<?> reindex() {
+        return Search.mapping(entityManagerFactory)
+                .scope(Repair.class)
+                .massIndexer()
+                .threadsToLoadObjects(4)
+                .batchSizeToLoadObjects(500)
+                .start();
+    }
+}
@@ -1,7 +1,16 @@
 package com.crudactivity.MobileFix.service;
 
+import com.crudactivity.MobileFix.config.MetricsConfig;
+import com.crudactivity.MobileFix.config.RetryOnConflict;
+import com.crudactivity.MobileFix.dto.BulkUpdateResultDTO;
+import com.crudactivity.MobileFix.dto.CursorPageDTO;
 import com.crudactivity.MobileFix.dto.RepairRequestDTO;
 import com.crudactivity.MobileFix.dto.RepairResponseDTO;
+import com.crudactivity.MobileFix.event.RepairChangedEvent;
+import com.crudactivity.MobileFix.event.RepairSnapshot;
+import com.crudactivity.MobileFix.exception.InvalidRequestException;
+import com.crudactivity.MobileFix.exception.InvalidStatusTransitionException;
+import com.crudactivity.MobileFix.exception.PreconditionFailedException;
 import com.crudactivity.MobileFix.exception.ResourceNotFoundException;
 import com.crudactivity.MobileFix.model.Device;
 import com.crudactivity.MobileFix.model.Repair;
@@ -9,34 +18,96 @@ import com.crudactivity.MobileFix.model.Status;
 import com.crudactivity.MobileFix.model.User;
 import com.crudactivity.MobileFix.repositories.DeviceRepository;
 import com.crudactivity.MobileFix.repositories.RepairRepository;
+import com.crudactivity.MobileFix.repositories.RepairRepository.RepairStateView;
 import com.crudactivity.MobileFix.repositories.UserRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import io.micrometer.core.annotation.Timed;
+import jakarta.persistence.EntityManager;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * Servicio para manejar la lógica de negocio de Repairs
  * Implementa operaciones CRUD y conversiones entre Entity y DTO
  */
 @Service
+@Timed(MetricsConfig.SERVICE_TIMER)
 @Transactional
 public class RepairService {
 
+    /**
+     * Clave de inicio para la primera página ordenada por (requestDate, id) descendente
+     */
+    private static final LocalDate FIRST_PAGE_REQUEST_DATE = LocalDate.of(9999, 12, 31);
+
+    /**
+     * Cada cuántas filas exportadas se vacía el contexto de persistencia y se hace flush de la salida
+     */
+    private static final int EXPORT_CLEAR_INTERVAL = 500;
+
+    /**
+     * Número máximo de reparaciones aceptadas en una creación masiva
+     */
+    static final int MAX_BATCH_SIZE = 1000;
+
+    /**
+     * Número máximo de reparaciones en un UPDATE masivo por ids (un parámetro por id en el IN)
+     */
+    static final int MAX_BULK_UPDATE_SIZE = 5000;
+
+    private static final Set<Status> OPEN_STATUSES = EnumSet.of(Status.PENDING, Status.IN_PROGRESS);
+
     private final RepairRepository repairRepository;
     private final DeviceRepository deviceRepository;
     private final UserRepository userRepository;
+    private final RepairAggregateService repairAggregateService;
+    private final RepairViewCache repairViewCache;
+    private final RepairStateMachine repairStateMachine;
+    private final ApplicationEventPublisher eventPublisher;
+    private final EntityManager entityManager;
+    private final ObjectWriter exportWriter;
 
     @Autowired
     public RepairService(RepairRepository repairRepository,
                          DeviceRepository deviceRepository,
-                         UserRepository userRepository) {
+                         UserRepository userRepository,
+                         RepairAggregateService repairAggregateService,
+                         RepairViewCache repairViewCache,
+                         RepairStateMachine repairStateMachine,
+                         ApplicationEventPublisher eventPublisher,
+                         EntityManager entityManager,
+                         ObjectMapper objectMapper) {
         this.repairRepository = repairRepository;
         this.deviceRepository = deviceRepository;
         this.userRepository = userRepository;
+        this.repairAggregateService = repairAggregateService;
+        this.repairViewCache = repairViewCache;
+        this.repairStateMachine = repairStateMachine;
+        this.eventPublisher = eventPublisher;
+        this.entityManager = entityManager;
+        this.exportWriter = objectMapper.writerFor(RepairResponseDTO.class);
     }
 
     /**
@@ -54,35 +125,64 @@ public class RepairService {
                         "Dispositivo no encontrado con ID: " + repairRequestDTO.getDeviceId()
                 ));
 
-        // Crear la reparación
-        Repair repair = new Repair();
-        repair.setDescription(repairRequestDTO.getDescription());
-        repair.setEstimatedDate(repairRequestDTO.getEstimatedDate());
-        repair.setCost(repairRequestDTO.getCost());
-        repair.setDevice(device);
-
-        // Establecer estado (si viene en el request, sino por defecto PENDING)
-        if (repairRequestDTO.getStatus() != null) {
-            repair.setStatus(repairRequestDTO.getStatus());
-        } else {
-            repair.setStatus(Status.PENDING);
-        }
-
-        // Asignar técnico si viene en el request
+        // Buscar el técnico si viene en el request
+        User technician = null;
         if (repairRequestDTO.getTechnicianId() != null) {
-            User technician = userRepository.findById(repairRequestDTO.getTechnicianId())
+            technician = userRepository.findById(repairRequestDTO.getTechnicianId())
                     .orElseThrow(() -> new ResourceNotFoundException(
                             "Técnico no encontrado con ID: " + repairRequestDTO.getTechnicianId()
                     ));
-            repair.setTechnician(technician);
         }
 
         // Guardar en BD (requestDate se establece automáticamente con @PrePersist)
-        Repair savedRepair = repairRepository.save(repair);
+        Repair savedRepair = repairRepository.save(buildRepair(repairRequestDTO, device, technician));
+        eventPublisher.publishEvent(RepairChangedEvent.created(RepairSnapshot.of(savedRepair)));
 
         return convertToResponseDTO(savedRepair);
     }
 
+    /**
+     * Crear varias reparaciones en una sola operación
+     * Los dispositivos y técnicos se cargan con una consulta cada uno (no un findById por fila)
+     * y los INSERT se envían en lotes JDBC (hibernate.jdbc.batch_size) al hacer commit.
+     *
+     * @param repairRequestDTOs datos de las reparaciones a crear (máximo MAX_BATCH_SIZE)
+     * @return Lista de RepairResponseDTO en el mismo orden que la petición
+     * @throws ResourceNotFoundException si algún dispositivo o técnico no existe
+     * @throws InvalidRequestException  si el lote supera MAX_BATCH_SIZE
+     */
+    public List<RepairResponseDTO> createRepairs(List<RepairRequestDTO> repairRequestDTOs) {
+        if (repairRequestDTOs.size() > MAX_BATCH_SIZE) {
+            throw new InvalidRequestException(
+                    "No se pueden crear más de " + MAX_BATCH_SIZE + " reparaciones por lote"
+            );
+        }
+
+        // Cargar todos los dispositivos y técnicos referenciados de una vez
+        Map<Long, Device> devices = findAllByIds(
+                repairRequestDTOs.stream().map(RepairRequestDTO::getDeviceId).collect(Collectors.toSet()),
+                deviceRepository::findAllById, Device::getId, "Dispositivo no encontrado con ID: ");
+        Map<Long, User> technicians = findAllByIds(
+                repairRequestDTOs.stream().map(RepairRequestDTO::getTechnicianId)
+                        .filter(Objects::nonNull).collect(Collectors.toSet()),
+                userRepository::findAllById, User::getId, "Técnico no encontrado con ID: ");
+
+        List<Repair> repairs = new ArrayList<>(repairRequestDTOs.size());
+        for (RepairRequestDTO dto : repairRequestDTOs) {
+            User technician = dto.getTechnicianId() != null ? technicians.get(dto.getTechnicianId()) : null;
+            repairs.add(buildRepair(dto, devices.get(dto.getDeviceId()), technician));
+        }
+
+        List<Repair> savedRepairs = repairRepository.saveAll(repairs);
+        for (Repair savedRepair : savedRepairs) {
+            eventPublisher.publishEvent(RepairChangedEvent.created(RepairSnapshot.of(savedRepair)));
+        }
+
+        return savedRepairs.stream()
+                .map(this::convertToResponseDTO)
+                .collect(Collectors.toList());
+    }
+
     /**
      * Obtener todas las reparaciones
      *
@@ -90,10 +190,7 @@ public class RepairService {
      */
     @Transactional(readOnly = true)
     public List<RepairResponseDTO> getAllRepairs() {
-        return repairRepository.findAll()
-                .stream()
-                .map(this::convertToResponseDTO)
-                .collect(Collectors.toList());
+        return repairRepository.findAllResponseDTOs();
     }
 
     /**
@@ -105,32 +202,22 @@ public class RepairService {
      */
     @Transactional(readOnly = true)
     public RepairResponseDTO getRepairById(Long id) {
-        Repair repair = repairRepository.findById(id)
+        return repairRepository.findResponseDTOById(id)
                 .orElseThrow(() -> new ResourceNotFoundException(
                         "Reparación no encontrada con ID: " + id
                 ));
-        return convertToResponseDTO(repair);
     }
 
     /**
      * Obtener todas las reparaciones de un dispositivo específico
+     * Se sirve desde RepairViewCache; con la caché caliente no abre transacción ni conexión.
      *
      * @param deviceId ID del dispositivo
-     * @return Lista de RepairResponseDTO
+     * @return Lista de RepairResponseDTO (inmutable)
      */
-    @Transactional(readOnly = true)
+    @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
     public List<RepairResponseDTO> getRepairsByDeviceId(Long deviceId) {
-        // Verificar que el dispositivo existe
-        if (!deviceRepository.existsById(deviceId)) {
-            throw new ResourceNotFoundException(
-                    "Dispositivo no encontrado con ID: " + deviceId
-            );
-        }
-
-        return repairRepository.findByDeviceId(deviceId)
-                .stream()
-                .map(this::convertToResponseDTO)
-                .collect(Collectors.toList());
+        return repairViewCache.getByDevice(deviceId, this::loadRepairsByDeviceId);
     }
 
     /**
@@ -141,10 +228,7 @@ public class RepairService {
      */
     @Transactional(readOnly = true)
     public List<RepairResponseDTO> getRepairsByStatus(Status status) {
-        return repairRepository.findByStatus(status)
-                .stream()
-                .map(this::convertToResponseDTO)
-                .collect(Collectors.toList());
+        return repairRepository.findResponseDTOsByStatus(status);
     }
 
     /**
@@ -155,38 +239,28 @@ public class RepairService {
      */
     @Transactional(readOnly = true)
     public List<RepairResponseDTO> getRepairsByTechnicianId(Long technicianId) {
-        // Verificar que el técnico existe
-        if (!userRepository.existsById(technicianId)) {
+        List<RepairResponseDTO> repairs = repairRepository.findResponseDTOsByTechnicianId(technicianId);
+
+        // Verificar que el técnico existe (solo hace falta si no hay resultados)
+        if (repairs.isEmpty() && !userRepository.existsById(technicianId)) {
             throw new ResourceNotFoundException(
                     "Técnico no encontrado con ID: " + technicianId
             );
         }
 
-        return repairRepository.findByTechnicianId(technicianId)
-                .stream()
-                .map(this::convertToResponseDTO)
-                .collect(Collectors.toList());
+        return repairs;
     }
 
     /**
      * Obtener todas las reparaciones de los dispositivos de un propietario
+     * Se sirve desde RepairViewCache; con la caché caliente no abre transacción ni conexión.
      *
      * @param ownerId ID del propietario
-     * @return Lista de RepairResponseDTO
+     * @return Lista de RepairResponseDTO (inmutable)
      */
-    @Transactional(readOnly = true)
+    @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
     public List<RepairResponseDTO> getRepairsByOwnerId(Long ownerId) {
-        // Verificar que el propietario existe
-        if (!userRepository.existsById(ownerId)) {
-            throw new ResourceNotFoundException(
-                    "Propietario no encontrado con ID: " + ownerId
-            );
-        }
-
-        return repairRepository.findByDeviceOwnerId(ownerId)
-                .stream()
-                .map(this::convertToResponseDTO)
-                .collect(Collectors.toList());
+        return repairViewCache.getByOwner(ownerId, this::loadRepairsByOwnerId);
     }
 
     /**
@@ -196,10 +270,7 @@ public class RepairService {
      */
     @Transactional(readOnly = true)
     public List<RepairResponseDTO> getUnassignedRepairs() {
-        return repairRepository.findByTechnicianIsNull()
-                .stream()
-                .map(this::convertToResponseDTO)
-                .collect(Collectors.toList());
+        return repairRepository.findResponseDTOsByTechnicianIsNull();
     }
 
     /**
@@ -209,10 +280,7 @@ public class RepairService {
      */
     @Transactional(readOnly = true)
     public List<RepairResponseDTO> getAssignedRepairs() {
-        return repairRepository.findByTechnicianIsNotNull()
-                .stream()
-                .map(this::convertToResponseDTO)
-                .collect(Collectors.toList());
+        return repairRepository.findResponseDTOsByTechnicianIsNotNull();
     }
 
     /**
@@ -224,14 +292,207 @@ public class RepairService {
      */
     @Transactional(readOnly = true)
     public List<RepairResponseDTO> getRepairsByDateRange(LocalDate startDate, LocalDate endDate) {
-        return repairRepository.findByRequestDateBetween(startDate, endDate)
-                .stream()
-                .map(this::convertToResponseDTO)
-                .collect(Collectors.toList());
+        return repairRepository.findResponseDTOsByRequestDateBetween(startDate, endDate);
+    }
+
+    /**
+     * Exportar las reparaciones entre dos fechas como NDJSON (un objeto JSON por línea)
+     * Las filas se leen con un cursor de solo avance y se escriben directamente en la salida,
+     * vaciando el contexto de persistencia cada EXPORT_CLEAR_INTERVAL filas, así que la
+     * memoria usada no depende del tamaño del rango.
+     *
+     * @param startDate fecha de inicio
+     * @param endDate   fecha de fin
+     * @param output    stream de salida (no se cierra)
+     * @return número de reparaciones exportadas
+     * @throws IOException si falla la escritura en la salida
+     */
+    @Transactional(readOnly = true)
+    public long exportRepairsByDateRange(LocalDate startDate, LocalDate endDate, OutputStream output)
+            throws IOException {
+        long exported = 0;
+
+        try (Stream<Repair> repairs = repairRepository.streamByRequestDateBetween(startDate, endDate)) {
+            Iterator<Repair> iterator = repairs.iterator();
+            while (iterator.hasNext()) {
+                output.write(exportWriter.writeValueAsBytes(convertToResponseDTO(iterator.next())));
+                output.write('\n');
+
+                if (++exported % EXPORT_CLEAR_INTERVAL == 0) {
+                    entityManager.clear();
+                    output.flush();
+                }
+            }
+        }
+
+        output.flush();
+        return exported;
+    }
+
+    // ============== PAGINACIÓN POR CURSOR ==============
+
+    /**
+     * Obtener una página de reparaciones, de la más reciente a la más antigua
+     *
+     * @param cursor cursor devuelto por la página anterior (null para la primera página)
+     * @param size   tamaño de página
+     * @return página de RepairResponseDTO con el cursor de la siguiente página
+     */
+    @Transactional(readOnly = true)
+    public CursorPageDTO<RepairResponseDTO> getRepairsPage(String cursor, int size) {
+        return requestDatePage(cursor, size, repairRepository::findPage);
+    }
+
+    /**
+     * Obtener una página de reparaciones de un dispositivo
+     *
+     * @param deviceId ID del dispositivo
+     * @param cursor   cursor de la página anterior (null para la primera página)
+     * @param size     tamaño de página
+     * @return página de RepairResponseDTO
+     */
+    @Transactional(readOnly = true)
+    public CursorPageDTO<RepairResponseDTO> getRepairsByDeviceIdPage(Long deviceId, String cursor, int size) {
+        CursorPageDTO<RepairResponseDTO> page = requestDatePage(cursor, size,
+                (afterDate, afterId, limit) -> repairRepository.findPageByDeviceId(deviceId, afterDate, afterId, limit));
+
+        if (page.getItems().isEmpty() && !deviceRepository.existsById(deviceId)) {
+            throw new ResourceNotFoundException(
+                    "Dispositivo no encontrado con ID: " + deviceId
+            );
+        }
+
+        return page;
+    }
+
+    /**
+     * Obtener una página de reparaciones por estado
+     *
+     * @param status estado de la reparación
+     * @param cursor cursor de la página anterior (null para la primera página)
+     * @param size   tamaño de página
+     * @return página de RepairResponseDTO
+     */
+    @Transactional(readOnly = true)
+    public CursorPageDTO<RepairResponseDTO> getRepairsByStatusPage(Status status, String cursor, int size) {
+        return requestDatePage(cursor, size,
+                (afterDate, afterId, limit) -> repairRepository.findPageByStatus(status, afterDate, afterId, limit));
+    }
+
+    /**
+     * Obtener una página de reparaciones de un técnico
+     *
+     * @param technicianId ID del técnico
+     * @param cursor       cursor de la página anterior (null para la primera página)
+     * @param size         tamaño de página
+     * @return página de RepairResponseDTO
+     */
+    @Transactional(readOnly = true)
+    public CursorPageDTO<RepairResponseDTO> getRepairsByTechnicianIdPage(Long technicianId, String cursor, int size) {
+        CursorPageDTO<RepairResponseDTO> page = requestDatePage(cursor, size,
+                (afterDate, afterId, limit) -> repairRepository.findPageByTechnicianId(technicianId, afterDate, afterId, limit));
+
+        if (page.getItems().isEmpty() && !userRepository.existsById(technicianId)) {
+            throw new ResourceNotFoundException(
+                    "Técnico no encontrado con ID: " + technicianId
+            );
+        }
+
+        return page;
+    }
+
+    /**
+     * Obtener una página de reparaciones de los dispositivos de un propietario
+     *
+     * @param ownerId ID del propietario
+     * @param cursor  cursor de la página anterior (null para la primera página)
+     * @param size    tamaño de página
+     * @return página de RepairResponseDTO
+     */
+    @Transactional(readOnly = true)
+    public CursorPageDTO<RepairResponseDTO> getRepairsByOwnerIdPage(Long ownerId, String cursor, int size) {
+        CursorPageDTO<RepairResponseDTO> page = requestDatePage(cursor, size,
+                (afterDate, afterId, limit) -> repairRepository.findPageByDeviceOwnerId(ownerId, afterDate, afterId, limit));
+
+        if (page.getItems().isEmpty() && !userRepository.existsById(ownerId)) {
+            throw new ResourceNotFoundException(
+                    "Propietario no encontrado con ID: " + ownerId
+            );
+        }
+
+        return page;
+    }
+
+    /**
+     * Obtener una página de reparaciones sin técnico asignado
+     *
+     * @param cursor cursor de la página anterior (null para la primera página)
+     * @param size   tamaño de página
+     * @return página de RepairResponseDTO
+     */
+    @Transactional(readOnly = true)
+    public CursorPageDTO<RepairResponseDTO> getUnassignedRepairsPage(String cursor, int size) {
+        return requestDatePage(cursor, size, repairRepository::findPageByTechnicianIsNull);
+    }
+
+    /**
+     * Obtener una página de reparaciones con técnico asignado
+     *
+     * @param cursor cursor de la página anterior (null para la primera página)
+     * @param size   tamaño de página
+     * @return página de RepairResponseDTO
+     */
+    @Transactional(readOnly = true)
+    public CursorPageDTO<RepairResponseDTO> getAssignedRepairsPage(String cursor, int size) {
+        return requestDatePage(cursor, size, repairRepository::findPageByTechnicianIsNotNull);
+    }
+
+    /**
+     * Obtener una página de reparaciones entre dos fechas
+     *
+     * @param startDate fecha de inicio
+     * @param endDate   fecha de fin
+     * @param cursor    cursor de la página anterior (null para la primera página)
+     * @param size      tamaño de página
+     * @return página de RepairResponseDTO
+     */
+    @Transactional(readOnly = true)
+    public CursorPageDTO<RepairResponseDTO> getRepairsByDateRangePage(LocalDate startDate, LocalDate endDate,
+                                                                      String cursor, int size) {
+        return requestDatePage(cursor, size,
+                (afterDate, afterId, limit) -> repairRepository.findPageByRequestDateBetween(
+                        startDate, endDate, afterDate, afterId, limit));
+    }
+
+    /**
+     * Obtener una página de reparaciones ordenadas por costo, de mayor a menor
+     *
+     * @param cursor cursor de la página anterior (null para la primera página)
+     * @param size   tamaño de página
+     * @return página de RepairResponseDTO
+     */
+    @Transactional(readOnly = true)
+    public CursorPageDTO<RepairResponseDTO> getRepairsByCostDescPage(String cursor, int size) {
+        int pageSize = KeysetPagination.pageSize(size);
+        Double afterCost = Double.MAX_VALUE;
+        Long afterId = Long.MAX_VALUE;
+
+        if (cursor != null && !cursor.isBlank()) {
+            Object[] key = KeysetPagination.decodeCursor(cursor, 2,
+                    parts -> new Object[]{Double.valueOf(parts[0]), Long.valueOf(parts[1])});
+            afterCost = (Double) key[0];
+            afterId = (Long) key[1];
+        }
+
+        List<RepairResponseDTO> rows = repairRepository.findPageOrderByCostDesc(
+                afterCost, afterId, KeysetPagination.limitFor(pageSize));
+        return KeysetPagination.toPage(rows, pageSize,
+                last -> KeysetPagination.encodeCursor(last.getCost(), last.getId()));
     }
 
     /**
      * Obtener el costo total de todas las reparaciones completadas de un dispositivo
+     * Se lee del agregado en memoria (RepairAggregateService), sin recorrer la tabla repairs
      *
      * @param deviceId ID del dispositivo
      * @return costo total
@@ -245,8 +506,7 @@ public class RepairService {
             );
         }
 
-        Double total = repairRepository.getTotalCostByDevice(deviceId);
-        return total != null ? total : 0.0;
+        return repairAggregateService.getDeviceAggregate(deviceId).getCompletedCost();
     }
 
     /**
@@ -257,12 +517,36 @@ public class RepairService {
      * @return RepairResponseDTO con los datos actualizados
      * @throws ResourceNotFoundException si no se encuentra la reparación, dispositivo o técnico
      */
+    @RetryOnConflict(maxAttempts = 1)
     public RepairResponseDTO updateRepair(Long id, RepairRequestDTO repairRequestDTO) {
+        return updateRepair(id, repairRequestDTO, null);
+    }
+
+    /**
+     * Actualizar una reparación existente si sigue en la versión que leyó el cliente
+     * Reemplaza todos los campos, así que un conflicto no se reintenta (409)
+     *
+     * @param id               ID de la reparación a actualizar
+     * @param repairRequestDTO datos actualizados
+     * @param expectedVersion  versión leída por el cliente (If-Match), o null para no comprobarla
+     * @return RepairResponseDTO con los datos actualizados
+     * @throws ResourceNotFoundException   si no se encuentra la reparación, dispositivo o técnico
+     * @throws PreconditionFailedException si la reparación ya no está en expectedVersion
+     * @throws InvalidStatusTransitionException si el estado pedido no se alcanza desde el actual
+     */
+    @RetryOnConflict(maxAttempts = 1)
+    public RepairResponseDTO updateRepair(Long id, RepairRequestDTO repairRequestDTO, Long expectedVersion) {
         // Buscar la reparación existente
         Repair existingRepair = repairRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException(
                         "Reparación no encontrada con ID: " + id
                 ));
+        VersionCheck.require("La reparación " + id, expectedVersion, existingRepair.getVersion());
+        if (repairRequestDTO.getStatus() != null) {
+            repairStateMachine.requireTransition(id, existingRepair.getStatus(), repairRequestDTO.getStatus());
+        }
+
+        RepairSnapshot before = RepairSnapshot.of(existingRepair);
 
         // Si cambió el dispositivo, verificar que el nuevo dispositivo existe
         if (!existingRepair.getDevice().getId().equals(repairRequestDTO.getDeviceId())) {
@@ -291,8 +575,9 @@ public class RepairService {
         existingRepair.setStatus(repairRequestDTO.getStatus());
         existingRepair.setCost(repairRequestDTO.getCost());
 
-        // Guardar cambios
-        Repair updatedRepair = repairRepository.save(existingRepair);
+        // Guardar cambios (flush para que la respuesta lleve la versión nueva)
+        Repair updatedRepair = repairRepository.saveAndFlush(existingRepair);
+        eventPublisher.publishEvent(new RepairChangedEvent(before, RepairSnapshot.of(updatedRepair)));
 
         return convertToResponseDTO(updatedRepair);
     }
@@ -304,17 +589,40 @@ public class RepairService {
      * @param technicianId ID del técnico
      * @return RepairResponseDTO actualizado
      */
+    @RetryOnConflict
     public RepairResponseDTO assignTechnician(Long repairId, Long technicianId) {
+        return assignTechnician(repairId, technicianId, null);
+    }
+
+    /**
+     * Asignar un técnico a una reparación si sigue en la versión que leyó el cliente
+     * Solo cambia técnico (y PENDING -> IN_PROGRESS): ante un conflicto con otra petición
+     * se reintenta sobre la versión actual, salvo que el cliente exigiera una versión concreta.
+     * Como en assignTechnicianBulk, las reparaciones cerradas (COMPLETED, CANCELLED) no se
+     * reasignan: asignar deja la reparación en IN_PROGRESS y esa transición no está permitida.
+     *
+     * @param repairId        ID de la reparación
+     * @param technicianId    ID del técnico
+     * @param expectedVersion versión leída por el cliente (If-Match), o null para no comprobarla
+     * @return RepairResponseDTO actualizado
+     * @throws PreconditionFailedException      si la reparación ya no está en expectedVersion
+     * @throws InvalidStatusTransitionException si la reparación está cerrada
+     */
+    @RetryOnConflict
+    public RepairResponseDTO assignTechnician(Long repairId, Long technicianId, Long expectedVersion) {
         Repair repair = repairRepository.findById(repairId)
                 .orElseThrow(() -> new ResourceNotFoundException(
                         "Reparación no encontrada con ID: " + repairId
                 ));
+        VersionCheck.require("La reparación " + repairId, expectedVersion, repair.getVersion());
+        repairStateMachine.requireTransition(repairId, repair.getStatus(), Status.IN_PROGRESS);
 
         User technician = userRepository.findById(technicianId)
                 .orElseThrow(() -> new ResourceNotFoundException(
                         "Técnico no encontrado con ID: " + technicianId
                 ));
 
+        RepairSnapshot before = RepairSnapshot.of(repair);
         repair.setTechnician(technician);
 
         // Cambiar estado a EN_PROCESO si estaba PENDING
@@ -322,7 +630,8 @@ public class RepairService {
             repair.setStatus(Status.IN_PROGRESS);
         }
 
-        Repair updatedRepair = repairRepository.save(repair);
+        Repair updatedRepair = repairRepository.saveAndFlush(repair);
+        eventPublisher.publishEvent(new RepairChangedEvent(before, RepairSnapshot.of(updatedRepair)));
         return convertToResponseDTO(updatedRepair);
     }
 
@@ -333,15 +642,142 @@ public class RepairService {
      * @param newStatus nuevo estado
      * @return RepairResponseDTO actualizado
      */
+    @RetryOnConflict
     public RepairResponseDTO updateStatus(Long repairId, Status newStatus) {
-        Repair repair = repairRepository.findById(repairId)
+        return updateStatus(repairId, newStatus, null);
+    }
+
+    /**
+     * Cambiar el estado de una reparación si sigue en la versión que leyó el cliente
+     * Solo se aceptan las transiciones de RepairStateMachine (COMPLETED -> PENDING se rechaza).
+     *
+     * Un SELECT de solo columnas y un único UPDATE condicional (status IN estados de origen y
+     * la versión leída), sin cargar la entidad. La lectura da el estado anterior del evento, la
+     * respuesta y los errores: no existe (404), otra versión (412), ya estaba en newStatus
+     * (no cambia nada) o transición no permitida (409). Si el UPDATE no modifica la fila, otra
+     * petición la cambió entre medias y se reintenta sobre la versión actual, salvo que el
+     * cliente exigiera una.
+     *
+     * @param repairId        ID de la reparación
+     * @param newStatus       nuevo estado
+     * @param expectedVersion versión leída por el cliente (If-Match), o null para no comprobarla
+     * @return RepairResponseDTO actualizado
+     * @throws PreconditionFailedException      si la reparación ya no está en expectedVersion
+     * @throws InvalidStatusTransitionException si newStatus no se alcanza desde el estado actual
+     */
+    @RetryOnConflict
+    public RepairResponseDTO updateStatus(Long repairId, Status newStatus, Long expectedVersion) {
+        RepairStateView current = findStateView(repairId);
+        VersionCheck.require("La reparación " + repairId, expectedVersion, current.getVersion());
+        if (current.getStatus() == newStatus) {
+            return toResponseDTO(current);
+        }
+        repairStateMachine.requireTransition(repairId, current.getStatus(), newStatus);
+
+        int updated = repairRepository.updateStatusIfCurrent(
+                repairId, RepairStateMachine.sourcesOf(newStatus), newStatus, current.getVersion());
+        if (updated == 0) {
+            throw new OptimisticLockingFailureException(
+                    "La reparación " + repairId + " cambió de estado durante la actualización"
+            );
+        }
+
+        RepairSnapshot before = toSnapshot(current);
+        eventPublisher.publishEvent(new RepairChangedEvent(before, before.withStatus(newStatus)));
+        RepairResponseDTO response = toResponseDTO(current);
+        response.setStatus(newStatus);
+        response.setVersion(current.getVersion() + 1);
+        return response;
+    }
+
+    /**
+     * Cambiar el estado de varias reparaciones con un único UPDATE (cierre de turno, etc.)
+     * Solo cambian las que admiten la transición (RepairStateMachine); el resto se devuelve en skippedIds.
+     *
+     * @param ids       IDs de las reparaciones (máximo MAX_BULK_UPDATE_SIZE)
+     * @param newStatus nuevo estado
+     * @return BulkUpdateResultDTO con las filas modificadas y los ids omitidos
+     * @throws InvalidRequestException si se piden más de MAX_BULK_UPDATE_SIZE reparaciones
+     */
+    public BulkUpdateResultDTO updateStatuses(Collection<Long> ids, Status newStatus) {
+        Set<Long> requested = distinctIds(ids);
+        Set<Status> sources = RepairStateMachine.sourcesOf(newStatus);
+
+        List<RepairSnapshot> eligible = new ArrayList<>();
+        for (RepairSnapshot snapshot : lockSnapshots(requested)) {
+            if (sources.contains(snapshot.getStatus())) {
+                eligible.add(snapshot);
+            } else if (snapshot.getStatus() != newStatus) {
+                repairStateMachine.rejected(snapshot.getStatus(), newStatus);
+            }
+        }
+        if (!eligible.isEmpty()) {
+            int updated = repairRepository.updateStatusByIdIn(idsOf(eligible), sources, newStatus);
+            requireAllUpdated(updated, eligible.size());
+            for (RepairSnapshot before : eligible) {
+                eventPublisher.publishEvent(new RepairChangedEvent(before, before.withStatus(newStatus)));
+            }
+        }
+        return bulkResult(requested, eligible);
+    }
+
+    /**
+     * Asignar un técnico a varias reparaciones con un único UPDATE
+     * Solo se asignan las abiertas (PENDING pasa a IN_PROGRESS, como en assignTechnician);
+     * las cerradas y las que ya están en curso con ese técnico se devuelven en skippedIds.
+     *
+     * @param ids          IDs de las reparaciones (máximo MAX_BULK_UPDATE_SIZE)
+     * @param technicianId ID del técnico
+     * @return BulkUpdateResultDTO con las filas modificadas y los ids omitidos
+     * @throws ResourceNotFoundException si el técnico no existe
+     * @throws InvalidRequestException  si se piden más de MAX_BULK_UPDATE_SIZE reparaciones
+     */
+    public BulkUpdateResultDTO assignTechnicianBulk(Collection<Long> ids, Long technicianId) {
+        Set<Long> requested = distinctIds(ids);
+        User technician = userRepository.findById(technicianId)
                 .orElseThrow(() -> new ResourceNotFoundException(
-                        "Reparación no encontrada con ID: " + repairId
+                        "Técnico no encontrado con ID: " + technicianId
                 ));
 
-        repair.setStatus(newStatus);
-        Repair updatedRepair = repairRepository.save(repair);
-        return convertToResponseDTO(updatedRepair);
+        List<RepairSnapshot> eligible = new ArrayList<>();
+        for (RepairSnapshot snapshot : lockSnapshots(requested)) {
+            boolean changes = snapshot.getStatus() == Status.PENDING
+                    || !technicianId.equals(snapshot.getTechnicianId());
+            if (RepairStateMachine.isOpen(snapshot.getStatus()) && changes) {
+                eligible.add(snapshot);
+            }
+        }
+        if (!eligible.isEmpty()) {
+            int updated = repairRepository.assignTechnicianByIdIn(idsOf(eligible), technician,
+                    OPEN_STATUSES, Status.PENDING, Status.IN_PROGRESS);
+            requireAllUpdated(updated, eligible.size());
+            for (RepairSnapshot before : eligible) {
+                Status status = before.getStatus() == Status.PENDING ? Status.IN_PROGRESS : before.getStatus();
+                eventPublisher.publishEvent(new RepairChangedEvent(before, before.withTechnician(technicianId, status)));
+            }
+        }
+        return bulkResult(requested, eligible);
+    }
+
+    /**
+     * Cancelar las reparaciones PENDING solicitadas antes de una fecha, con un único UPDATE
+     * Como las operaciones por ids, bloquea y cancela como mucho MAX_BULK_UPDATE_SIZE por llamada
+     * (las más antiguas): si updated == MAX_BULK_UPDATE_SIZE puede haber más y se repite la llamada.
+     *
+     * @param before fecha límite (exclusiva)
+     * @return BulkUpdateResultDTO con las reparaciones canceladas
+     */
+    public BulkUpdateResultDTO cancelPendingRequestedBefore(LocalDate before) {
+        List<RepairSnapshot> pending = repairRepository.findSnapshotsForUpdateByStatusAndRequestDateBefore(
+                Status.PENDING, before, Limit.of(MAX_BULK_UPDATE_SIZE));
+        if (!pending.isEmpty()) {
+            int updated = repairRepository.updateStatusByIdIn(idsOf(pending), Set.of(Status.PENDING), Status.CANCELLED);
+            requireAllUpdated(updated, pending.size());
+            for (RepairSnapshot snapshot : pending) {
+                eventPublisher.publishEvent(new RepairChangedEvent(snapshot, snapshot.withStatus(Status.CANCELLED)));
+            }
+        }
+        return new BulkUpdateResultDTO(pending.size(), pending.size(), List.of());
     }
 
     /**
@@ -351,17 +787,191 @@ public class RepairService {
      * @throws ResourceNotFoundException si no se encuentra la reparación
      */
     public void deleteRepair(Long id) {
-        // Verificar que la reparación existe
-        if (!repairRepository.existsById(id)) {
+        // Verificar que la reparación existe (se carga para publicar su estado anterior)
+        Repair repair = repairRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException(
+                        "Reparación no encontrada con ID: " + id
+                ));
+
+        RepairSnapshot before = RepairSnapshot.of(repair);
+        repairRepository.delete(repair);
+        eventPublisher.publishEvent(RepairChangedEvent.deleted(before));
+    }
+
+    // ============== MÉTODOS AUXILIARES ==============
+
+    /**
+     * Carga de getRepairsByDeviceId cuando no está en caché
+     */
+    private List<RepairResponseDTO> loadRepairsByDeviceId(Long deviceId) {
+        List<RepairResponseDTO> repairs = repairRepository.findResponseDTOsByDeviceId(deviceId);
+
+        // Verificar que el dispositivo existe (solo hace falta si no hay resultados)
+        if (repairs.isEmpty() && !deviceRepository.existsById(deviceId)) {
             throw new ResourceNotFoundException(
-                    "Reparación no encontrada con ID: " + id
+                    "Dispositivo no encontrado con ID: " + deviceId
             );
         }
 
-        repairRepository.deleteById(id);
+        return repairs;
     }
 
-    // ============== MÉTODOS AUXILIARES ==============
+    /**
+     * Carga de getRepairsByOwnerId cuando no está en caché
+     */
+    private List<RepairResponseDTO> loadRepairsByOwnerId(Long ownerId) {
+        List<RepairResponseDTO> repairs = repairRepository.findResponseDTOsByDeviceOwnerId(ownerId);
+
+        // Verificar que el propietario existe (solo hace falta si no hay resultados)
+        if (repairs.isEmpty() && !userRepository.existsById(ownerId)) {
+            throw new ResourceNotFoundException(
+                    "Propietario no encontrado con ID: " + ownerId
+            );
+        }
+
+        return repairs;
+    }
+
+    private RepairStateView findStateView(Long repairId) {
+        return repairRepository.findStateViewById(repairId)
+                .orElseThrow(() -> new ResourceNotFoundException(
+                        "Reparación no encontrada con ID: " + repairId
+                ));
+    }
+
+    private static RepairSnapshot toSnapshot(RepairStateView view) {
+        return new RepairSnapshot(view.getId(), view.getDeviceId(), view.getOwnerId(), view.getTechnicianId(),
+                view.getStatus(), view.getCost(), view.getRequestDate(), view.getEstimatedDate());
+    }
+
+    private static RepairResponseDTO toResponseDTO(RepairStateView view) {
+        return new RepairResponseDTO(
+                view.getId(),
+                view.getDescription(),
+                view.getRequestDate(),
+                view.getEstimatedDate(),
+                view.getStatus(),
+                view.getCost(),
+                view.getDeviceId(),
+                view.getDeviceBrand(),
+                view.getDeviceModel(),
+                view.getTechnicianId(),
+                view.getTechnicianUsername(),
+                view.getVersion()
+        );
+    }
+
+    /**
+     * Ids sin repetir, en el orden recibido, validando el tamaño máximo de una operación masiva
+     */
+    private Set<Long> distinctIds(Collection<Long> ids) {
+        Set<Long> distinct = new LinkedHashSet<>(ids);
+        distinct.remove(null);
+        if (distinct.size() > MAX_BULK_UPDATE_SIZE) {
+            throw new InvalidRequestException(
+                    "No se pueden modificar más de " + MAX_BULK_UPDATE_SIZE + " reparaciones por operación"
+            );
+        }
+        return distinct;
+    }
+
+    /**
+     * Lee y bloquea (SELECT ... FOR UPDATE) las reparaciones antes de un UPDATE masivo
+     * Con las filas bloqueadas, el UPDATE modifica exactamente las que se eligieron aquí
+     * y cada RepairChangedEvent lleva el estado real anterior.
+     */
+    private List<RepairSnapshot> lockSnapshots(Set<Long> ids) {
+        return ids.isEmpty() ? List.of() : repairRepository.findSnapshotsForUpdateByIdIn(ids);
+    }
+
+    private static List<Long> idsOf(List<RepairSnapshot> snapshots) {
+        return snapshots.stream().map(RepairSnapshot::getId).collect(Collectors.toList());
+    }
+
+    private static void requireAllUpdated(int updated, int expected) {
+        if (updated != expected) {
+            // No debería pasar con las filas bloqueadas; el rollback evita publicar eventos incorrectos
+            throw new IllegalStateException(
+                    "La operación masiva modificó " + updated + " reparaciones de " + expected + ", vuelva a intentarlo"
+            );
+        }
+    }
+
+    private static BulkUpdateResultDTO bulkResult(Set<Long> requested, List<RepairSnapshot> updated) {
+        Set<Long> skipped = new LinkedHashSet<>(requested);
+        updated.forEach(snapshot -> skipped.remove(snapshot.getId()));
+        return new BulkUpdateResultDTO(requested.size(), updated.size(), new ArrayList<>(skipped));
+    }
+
+    /**
+     * Crea una entidad Repair (sin guardar) a partir del request
+     * Si el request no trae estado, se usa PENDING
+     */
+    private Repair buildRepair(RepairRequestDTO repairRequestDTO, Device device, User technician) {
+        Repair repair = new Repair();
+        repair.setDescription(repairRequestDTO.getDescription());
+        repair.setEstimatedDate(repairRequestDTO.getEstimatedDate());
+        repair.setCost(repairRequestDTO.getCost());
+        repair.setDevice(device);
+        repair.setTechnician(technician);
+        repair.setStatus(repairRequestDTO.getStatus() != null ? repairRequestDTO.getStatus() : Status.PENDING);
+        return repair;
+    }
+
+    /**
+     * Carga varias entidades por id en una sola consulta y verifica que existan todas
+     *
+     * @throws ResourceNotFoundException con el primer id que no exista
+     */
+    private <E> Map<Long, E> findAllByIds(Set<Long> ids, Function<Set<Long>, List<E>> loader,
+                                          Function<E, Long> idOf, String notFoundMessage) {
+        if (ids.contains(null)) {
+            throw new ResourceNotFoundException(notFoundMessage + null);
+        }
+
+        Map<Long, E> found = ids.isEmpty() ? Map.of()
+                : loader.apply(ids).stream().collect(Collectors.toMap(idOf, Function.identity()));
+
+        for (Long id : ids) {
+            if (!found.containsKey(id)) {
+                throw new ResourceNotFoundException(notFoundMessage + id);
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Consulta paginada por la clave (requestDate, id) descendente
+     */
+    @FunctionalInterface
+    private interface RequestDatePageQuery {
+        List<RepairResponseDTO> find(LocalDate afterDate, Long afterId, Limit limit);
+    }
+
+    /**
+     * Ejecuta una consulta paginada por (requestDate, id) a partir del cursor recibido
+     *
+     * @param cursor cursor de la página anterior (null o vacío para la primera página)
+     * @param size   tamaño de página pedido
+     * @param query  consulta keyset a ejecutar
+     * @return página de RepairResponseDTO
+     */
+    private CursorPageDTO<RepairResponseDTO> requestDatePage(String cursor, int size, RequestDatePageQuery query) {
+        int pageSize = KeysetPagination.pageSize(size);
+        LocalDate afterDate = FIRST_PAGE_REQUEST_DATE;
+        Long afterId = Long.MAX_VALUE;
+
+        if (cursor != null && !cursor.isBlank()) {
+            Object[] key = KeysetPagination.decodeCursor(cursor, 2,
+                    parts -> new Object[]{LocalDate.parse(parts[0]), Long.valueOf(parts[1])});
+            afterDate = (LocalDate) key[0];
+            afterId = (Long) key[1];
+        }
+
+        List<RepairResponseDTO> rows = query.find(afterDate, afterId, KeysetPagination.limitFor(pageSize));
+        return KeysetPagination.toPage(rows, pageSize,
+                last -> KeysetPagination.encodeCursor(last.getRequestDate(), last.getId()));
+    }
 
     /**
      * Convierte un Entity Repair a RepairResponseDTO
@@ -384,7 +994,8 @@ public class RepairService {
                 device.getBrand(),
                 device.getModel(),
                 technician != null ? technician.getId() : null,
-                technician != null ? technician.getUsername() : null
+                technician != null ? technician.getUsername() : null,
+                repair.getVersion()
         );
     }
 }
\ No newline at end of file
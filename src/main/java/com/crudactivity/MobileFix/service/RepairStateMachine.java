@@ -0,0 +1,145 @@
+package com.crudactivity.MobileFix.service;
+
+import com.crudactivity.MobileFix.event.RepairChangedEvent;
+import com.crudactivity.MobileFix.exception.InvalidStatusTransitionException;
+import com.crudactivity.MobileFix.model.Status;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Transiciones de estado permitidas para una reparación
+ *
+ * PENDING     -> IN_PROGRESS, CANCELLED
+ * IN_PROGRESS -> PENDING (vuelve a la cola), COMPLETED, CANCELLED
+ * COMPLETED y CANCELLED son finales
+ *
+ * Las tablas se calculan una vez, en las dos direcciones (EnumSet es un bitset de un long):
+ * los UPDATE condicionales necesitan los estados de origen desde los que se llega a uno dado.
+ *
+ * Métrica mobilefix.repair.transitions, tags from, to y outcome:
+ * - applied: transición confirmada (cuenta todas las vías: individual, masiva, despacho...)
+ * - rejected: transición rechazada por no estar permitida
+ * Los contadores se registran al arrancar, así que cada par aparece aunque valga 0.
+ */
+@Component
+class RepairStateMachine {
+
+    static final String TRANSITIONS_METRIC = "mobilefix.repair.transitions";
+
+    private static final Map<Status, Set<Status>> TARGETS = new EnumMap<>(Status.class);
+    private static final Map<Status, Set<Status>> SOURCES = new EnumMap<>(Status.class);
+
+    static {
+        allow(Status.PENDING, Status.IN_PROGRESS, Status.CANCELLED);
+        allow(Status.IN_PROGRESS, Status.PENDING, Status.COMPLETED, Status.CANCELLED);
+        allow(Status.COMPLETED);
+        allow(Status.CANCELLED);
+        TARGETS.replaceAll((status, set) -> Collections.unmodifiableSet(set));
+        SOURCES.replaceAll((status, set) -> Collections.unmodifiableSet(set));
+    }
+
+    // Contadores por origen y destino: applied solo para las transiciones permitidas
+    private final Map<Status, Map<Status, Counter>> applied = new EnumMap<>(Status.class);
+    private final Map<Status, Map<Status, Counter>> rejected = new EnumMap<>(Status.class);
+
+    RepairStateMachine(MeterRegistry meterRegistry) {
+        for (Status from : Status.values()) {
+            Map<Status, Counter> appliedFrom = new EnumMap<>(Status.class);
+            Map<Status, Counter> rejectedFrom = new EnumMap<>(Status.class);
+            for (Status to : Status.values()) {
+                if (canTransition(from, to)) {
+                    appliedFrom.put(to, counter(meterRegistry, from, to, "applied"));
+                } else {
+                    rejectedFrom.put(to, counter(meterRegistry, from, to, "rejected"));
+                }
+            }
+            applied.put(from, appliedFrom);
+            rejected.put(from, rejectedFrom);
+        }
+    }
+
+    /**
+     * true si una reparación en from puede pasar a to
+     */
+    static boolean canTransition(Status from, Status to) {
+        return TARGETS.get(from).contains(to);
+    }
+
+    /**
+     * Estados desde los que se puede pasar a target (conjunto inmutable)
+     */
+    static Set<Status> sourcesOf(Status target) {
+        return SOURCES.get(target);
+    }
+
+    /**
+     * true si la reparación sigue abierta (admite algún cambio de estado)
+     */
+    static boolean isOpen(Status status) {
+        return !TARGETS.get(status).isEmpty();
+    }
+
+    /**
+     * Verificar que una reparación puede pasar de from a to (el mismo estado no es una transición)
+     *
+     * @throws InvalidStatusTransitionException si la transición no está permitida
+     */
+    void requireTransition(Long repairId, Status from, Status to) {
+        if (from != to && !canTransition(from, to)) {
+            rejected(from, to);
+            throw new InvalidStatusTransitionException(repairId, from, to);
+        }
+    }
+
+    /**
+     * Contar una transición rechazada (también las omitidas en operaciones masivas)
+     */
+    void rejected(Status from, Status to) {
+        Counter counter = rejected.get(from).get(to);
+        if (counter != null) {
+            counter.increment();
+        }
+    }
+
+    /**
+     * Contar las transiciones que llegaron a confirmarse
+     */
+    @TransactionalEventListener
+    public void onRepairChanged(RepairChangedEvent event) {
+        if (event.getBefore() == null || event.getAfter() == null) {
+            return;
+        }
+        Counter counter = applied.get(event.getBefore().getStatus()).get(event.getAfter().getStatus());
+        if (counter != null) {
+            counter.increment();
+        }
+    }
+
+    // ============== MÉTODOS AUXILIARES ==============
+
+    private static void allow(Status from, Status... targets) {
+        Set<Status> allowed = EnumSet.noneOf(Status.class);
+        for (Status target : targets) {
+            allowed.add(target);
+            SOURCES.computeIfAbsent(target, t -> EnumSet.noneOf(Status.class)).add(from);
+        }
+        TARGETS.put(from, allowed);
+        SOURCES.putIfAbsent(from, EnumSet.noneOf(Status.class));
+    }
+
+    private static Counter counter(MeterRegistry meterRegistry, Status from, Status to, String outcome) {
+        return Counter.builder(TRANSITIONS_METRIC)
+                .tag("from", from.name())
+                .tag("to", to.name())
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,189 @@
+package com.crudactivity.MobileFix.service;
+
+import com.crudactivity.MobileFix.dto.CursorPageDTO;
+import com.crudactivity.MobileFix.dto.RepairResponseDTO;
+import com.crudactivity.MobileFix.exception.StreamCapacityExceededException;
+import jakarta.annotation.PreDestroy;
+import jakarta.servlet.http.HttpServletRequest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Envío de las reparaciones de un propietario como Server-Sent Events
+ *
+ * Las reparaciones se leen por páginas con el cursor de RepairService.getRepairsByOwnerIdPage
+ * y cada una se envía como un evento "repair" en cuanto está disponible; al final se envía
+ * un evento "end". La siguiente página solo se pide cuando la anterior se ha escrito en el
+ * socket: si el cliente lee despacio, el envío se bloquea y no se acumulan páginas en memoria
+ * (contrapresión). Como mucho hay una página en memoria por stream.
+ *
+ * Cada stream ocupa un hilo mientras dura, así que los streams tienen su propio pool
+ * (repair-stream-*) de mobilefix.stream.max-concurrent hilos y no comparten
+ * applicationTaskExecutor con GET /api/users/{id}/overview: los clientes lentos no frenan
+ * el resto de peticiones. El hueco se reserva en el hilo de la petición junto con la
+ * lectura de la primera página, así que un propietario inexistente responde 404 y un pool
+ * lleno responde 503 (StreamCapacityExceededException) antes de abrir el stream.
+ *
+ * El envío empieza en startPendingStream(), que WebConfig llama cuando Spring MVC ya ha
+ * inicializado el emisor con la respuesta (afterConcurrentHandlingStarted): hasta entonces
+ * SseEmitter guardaría cada evento en un búfer interno sin límite y sin contrapresión.
+ */
+@Service
+public class RepairStreamService {
+
+    private static final Logger log = LoggerFactory.getLogger(RepairStreamService.class);
+
+    static final String REPAIR_EVENT = "repair";
+    static final String END_EVENT = "end";
+
+    private static final String PENDING_STREAM_ATTRIBUTE = RepairStreamService.class.getName() + ".pendingStream";
+
+    private final RepairService repairService;
+    private final ThreadPoolTaskExecutor streamExecutor;
+    private final Semaphore slots;
+    private final int maxConcurrent;
+    private final int pageSize;
+    private final Duration timeout;
+
+    @Autowired
+    public RepairStreamService(RepairService repairService,
+                               ObjectProvider<TaskDecorator> taskDecorator,
+                               @Value("${mobilefix.stream.max-concurrent:32}") int maxConcurrent,
+                               @Value("${mobilefix.stream.page-size:50}") int pageSize,
+                               @Value("${mobilefix.stream.timeout:10m}") Duration timeout) {
+        this.repairService = repairService;
+        this.slots = new Semaphore(maxConcurrent);
+        this.maxConcurrent = maxConcurrent;
+        this.pageSize = pageSize;
+        this.timeout = timeout;
+
+        // No es un bean: con cualquier Executor en el contexto Spring Boot deja de crear applicationTaskExecutor.
+        // La cola solo absorbe la carrera entre liberar el hueco y devolver el hilo al pool;
+        // el número de streams lo limita el semáforo
+        this.streamExecutor = new ThreadPoolTaskExecutor();
+        streamExecutor.setThreadNamePrefix("repair-stream-");
+        streamExecutor.setCorePoolSize(maxConcurrent);
+        streamExecutor.setMaxPoolSize(maxConcurrent);
+        streamExecutor.setQueueCapacity(maxConcurrent);
+        streamExecutor.setAllowCoreThreadTimeOut(true);
+        taskDecorator.ifUnique(streamExecutor::setTaskDecorator);
+        streamExecutor.initialize();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        streamExecutor.shutdown();
+    }
+
+    /**
+     * Abrir un stream SSE con todas las reparaciones de un propietario
+     *
+     * El envío queda pendiente hasta startPendingStream()
+     *
+     * @param ownerId ID del propietario
+     * @return emisor SSE que el controlador devuelve como cuerpo de la respuesta
+     * @throws StreamCapacityExceededException si ya hay mobilefix.stream.max-concurrent streams abiertos
+     */
+    public SseEmitter streamRepairsByOwnerId(Long ownerId) {
+        CursorPageDTO<RepairResponseDTO> firstPage = repairService.getRepairsByOwnerIdPage(ownerId, null, pageSize);
+        if (!slots.tryAcquire()) {
+            throw new StreamCapacityExceededException(maxConcurrent);
+        }
+
+        SseEmitter emitter = new SseEmitter(timeout.toMillis());
+        AtomicBoolean closed = new AtomicBoolean();
+        emitter.onTimeout(() -> closed.set(true));
+        emitter.onError(ex -> closed.set(true));
+        emitter.onCompletion(() -> closed.set(true));
+
+        Runnable pump = () -> {
+            try {
+                pump(ownerId, firstPage, emitter, closed);
+            } finally {
+                slots.release();
+            }
+        };
+        RequestContextHolder.currentRequestAttributes()
+                .setAttribute(PENDING_STREAM_ATTRIBUTE, pump, RequestAttributes.SCOPE_REQUEST);
+        return emitter;
+    }
+
+    /**
+     * Empezar el envío del stream abierto en esta petición, si lo hay
+     *
+     * Se llama cuando el emisor ya está inicializado con la respuesta
+     *
+     * @param request petición que abrió el stream
+     */
+    public void startPendingStream(HttpServletRequest request) {
+        Runnable pump = (Runnable) request.getAttribute(PENDING_STREAM_ATTRIBUTE);
+        if (pump == null) {
+            return;
+        }
+        request.removeAttribute(PENDING_STREAM_ATTRIBUTE);
+        try {
+            streamExecutor.execute(pump);
+        } catch (TaskRejectedException ex) {
+            // Solo si el pool se está cerrando: el semáforo ya limita los streams
+            slots.release();
+            throw ex;
+        }
+    }
+
+    /**
+     * Liberar el hueco de un stream que se abrió pero no llegó a empezar
+     * (la petición terminó sin procesamiento asíncrono)
+     *
+     * @param request petición que abrió el stream
+     */
+    public void discardPendingStream(HttpServletRequest request) {
+        if (request.getAttribute(PENDING_STREAM_ATTRIBUTE) != null) {
+            request.removeAttribute(PENDING_STREAM_ATTRIBUTE);
+            slots.release();
+        }
+    }
+
+    private void pump(Long ownerId, CursorPageDTO<RepairResponseDTO> firstPage,
+                      SseEmitter emitter, AtomicBoolean closed) {
+        try {
+            CursorPageDTO<RepairResponseDTO> page = firstPage;
+            while (true) {
+                for (RepairResponseDTO repair : page.getItems()) {
+                    if (closed.get()) {
+                        return;
+                    }
+                    emitter.send(SseEmitter.event()
+                            .name(REPAIR_EVENT)
+                            .id(repair.getId().toString())
+                            .data(repair));
+                }
+                if (!page.isHasNext()) {
+                    break;
+                }
+                page = repairService.getRepairsByOwnerIdPage(ownerId, page.getNextCursor(), pageSize);
+            }
+            emitter.send(SseEmitter.event().name(END_EVENT).data(""));
+            emitter.complete();
+        } catch (IOException ex) {
+            // El cliente cerró la conexión: no hay a quién enviar el error
+            log.debug("Stream de reparaciones del propietario {} cerrado por el cliente: {}", ownerId, ex.getMessage());
+        } catch (RuntimeException ex) {
+            emitter.completeWithError(ex);
+        }
+    }
+}
@@ -0,0 +1,227 @@
+package com.crudactivity.MobileFix.service;
+
+import com.crudactivity.MobileFix.config.ReadYourWritesContext;
+import com.crudactivity.MobileFix.dto.RepairResponseDTO;
+import com.crudactivity.MobileFix.event.RepairChangedEvent;
+import com.crudactivity.MobileFix.event.RepairSnapshot;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Function;
+
+/**
+ * Caché en memoria (L1, por instancia) de las listas de reparaciones por dispositivo
+ * y por propietario, las vistas que los clientes consultan constantemente
+ *
+ * - Un fallo de caché carga la lista una sola vez aunque lleguen muchas peticiones
+ *   a la vez para la misma clave: el resto espera a esa carga (Caffeine.get)
+ * - Cada RepairChangedEvent invalida solo el dispositivo y el propietario afectados
+ *   (antes y después del cambio), después del commit y una vez por transacción
+ * - Una invalidación espera a que termine la carga en curso de esa clave y la descarta,
+ *   así que una lectura que empezó antes del commit no deja en caché datos antiguos
+ * - Con réplica de lectura, las cargas leen siempre de la primaria (ReadYourWritesContext.readFromPrimary):
+ *   una réplica retrasada volvería a llenar la entrada recién invalidada con la lista anterior
+ *   y se serviría a todos, también al cliente que acaba de escribir, hasta el TTL
+ * - Con un RepairViewInvalidationBus las invalidaciones se difunden a las demás
+ *   instancias; la expiración por TTL acota el tiempo que una instancia sin aviso
+ *   puede servir datos antiguos
+ *
+ * Métricas cache.gets / cache.evictions / cache.size con cache=repairs-by-device|repairs-by-owner.
+ */
+@Component
+public class RepairViewCache {
+
+    static final String BY_DEVICE = "repairs-by-device";
+    static final String BY_OWNER = "repairs-by-owner";
+
+    // Identificador de esta instancia en los mensajes del canal de invalidación
+    private final String nodeId = UUID.randomUUID().toString();
+
+    private final Object pendingKey = new Object();
+
+    private final Cache<Long, List<RepairResponseDTO>> byDevice;
+    private final Cache<Long, List<RepairResponseDTO>> byOwner;
+    private final RepairViewInvalidationBus invalidationBus;
+
+    // Solo con réplica de lectura (perfil replica)
+    private final ReadYourWritesContext readYourWritesContext;
+
+    @Autowired
+    public RepairViewCache(@Value("${mobilefix.repair-cache.maximum-size:10000}") long maximumSize,
+                           @Value("${mobilefix.repair-cache.expire-after-write:10m}") Duration expireAfterWrite,
+                           MeterRegistry meterRegistry,
+                           ObjectProvider<RepairViewInvalidationBus> invalidationBus,
+                           ObjectProvider<ReadYourWritesContext> readYourWritesContext) {
+        this(maximumSize, expireAfterWrite, meterRegistry, invalidationBus.getIfAvailable(),
+                readYourWritesContext.getIfAvailable());
+    }
+
+    RepairViewCache(long maximumSize, Duration expireAfterWrite, MeterRegistry meterRegistry,
+                    RepairViewInvalidationBus invalidationBus) {
+        this(maximumSize, expireAfterWrite, meterRegistry, invalidationBus, null);
+    }
+
+    RepairViewCache(long maximumSize, Duration expireAfterWrite, MeterRegistry meterRegistry,
+                    RepairViewInvalidationBus invalidationBus, ReadYourWritesContext readYourWritesContext) {
+        this.byDevice = CaffeineCacheMetrics.monitor(meterRegistry, newCache(maximumSize, expireAfterWrite), BY_DEVICE);
+        this.byOwner = CaffeineCacheMetrics.monitor(meterRegistry, newCache(maximumSize, expireAfterWrite), BY_OWNER);
+        this.invalidationBus = invalidationBus;
+        this.readYourWritesContext = readYourWritesContext;
+        if (invalidationBus != null) {
+            invalidationBus.subscribe(this::onRemoteInvalidation);
+        }
+    }
+
+    /**
+     * Reparaciones de un dispositivo, desde la caché o con loader si no están
+     * Si loader lanza una excepción no se guarda nada y la excepción llega al llamador.
+     */
+    public List<RepairResponseDTO> getByDevice(Long deviceId, Function<Long, List<RepairResponseDTO>> loader) {
+        return byDevice.get(deviceId, id -> load(loader, id));
+    }
+
+    /**
+     * Reparaciones de los dispositivos de un propietario, desde la caché o con loader si no están
+     */
+    public List<RepairResponseDTO> getByOwner(Long ownerId, Function<Long, List<RepairResponseDTO>> loader) {
+        return byOwner.get(ownerId, id -> load(loader, id));
+    }
+
+    /**
+     * Invalidar el dispositivo y el propietario de la reparación, antes y después del cambio
+     */
+    @EventListener
+    public void onRepairChanged(RepairChangedEvent event) {
+        Set<Long> deviceIds = new HashSet<>(2);
+        Set<Long> ownerIds = new HashSet<>(2);
+        collectKeys(event.getBefore(), deviceIds, ownerIds);
+        collectKeys(event.getAfter(), deviceIds, ownerIds);
+        invalidate(deviceIds, ownerIds);
+    }
+
+    /**
+     * Invalidar dispositivos y propietarios concretos al hacer commit de la transacción en curso
+     * (o ya mismo si no hay transacción). Para cambios que no pasan por RepairChangedEvent,
+     * como la marca/modelo o el propietario de un dispositivo.
+     */
+    public void invalidate(Collection<Long> deviceIds, Collection<Long> ownerIds) {
+        Pending pending = pending();
+        if (pending == null) {
+            apply(deviceIds, ownerIds, false, true);
+            return;
+        }
+        pending.deviceIds.addAll(deviceIds);
+        pending.ownerIds.addAll(ownerIds);
+    }
+
+    /**
+     * Invalidar todas las entradas al hacer commit (o ya mismo si no hay transacción)
+     * Para cambios que pueden aparecer en cualquier lista, como el username de un técnico.
+     */
+    public void invalidateAll() {
+        Pending pending = pending();
+        if (pending == null) {
+            apply(Set.of(), Set.of(), true, true);
+            return;
+        }
+        pending.all = true;
+    }
+
+    // ============== MÉTODOS AUXILIARES ==============
+
+    private List<RepairResponseDTO> load(Function<Long, List<RepairResponseDTO>> loader, Long id) {
+        if (readYourWritesContext == null) {
+            return List.copyOf(loader.apply(id));
+        }
+        return readYourWritesContext.readFromPrimary(() -> List.copyOf(loader.apply(id)));
+    }
+
+    private static Cache<Long, List<RepairResponseDTO>> newCache(long maximumSize, Duration expireAfterWrite) {
+        return Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .build();
+    }
+
+    private static void collectKeys(RepairSnapshot snapshot, Set<Long> deviceIds, Set<Long> ownerIds) {
+        if (snapshot == null) {
+            return;
+        }
+        if (snapshot.getDeviceId() != null) {
+            deviceIds.add(snapshot.getDeviceId());
+        }
+        if (snapshot.getOwnerId() != null) {
+            ownerIds.add(snapshot.getOwnerId());
+        }
+    }
+
+    /**
+     * Claves pendientes de la transacción en curso (se registran la primera vez)
+     * null si no hay transacción y hay que invalidar inmediatamente
+     */
+    private Pending pending() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return null;
+        }
+        Pending pending = (Pending) TransactionSynchronizationManager.getResource(pendingKey);
+        if (pending == null) {
+            Pending created = new Pending();
+            TransactionSynchronizationManager.bindResource(pendingKey, created);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    apply(created.deviceIds, created.ownerIds, created.all, true);
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(pendingKey);
+                }
+            });
+            pending = created;
+        }
+        return pending;
+    }
+
+    private void apply(Collection<Long> deviceIds, Collection<Long> ownerIds, boolean all, boolean broadcast) {
+        if (all) {
+            byDevice.invalidateAll();
+            byOwner.invalidateAll();
+        } else {
+            byDevice.invalidateAll(deviceIds);
+            byOwner.invalidateAll(ownerIds);
+        }
+        if (broadcast && invalidationBus != null && (all || !deviceIds.isEmpty() || !ownerIds.isEmpty())) {
+            invalidationBus.publish(new RepairViewInvalidation(nodeId, deviceIds, ownerIds, all));
+        }
+    }
+
+    private void onRemoteInvalidation(RepairViewInvalidation invalidation) {
+        if (nodeId.equals(invalidation.getOrigin())) {
+            return;
+        }
+        apply(invalidation.getDeviceIds(), invalidation.getOwnerIds(), invalidation.isAll(), false);
+    }
+
+    private static final class Pending {
+        private final Set<Long> deviceIds = new HashSet<>();
+        private final Set<Long> ownerIds = new HashSet<>();
+        private boolean all;
+    }
+}
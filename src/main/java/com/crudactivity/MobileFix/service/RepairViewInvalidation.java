@@ -0,0 +1,43 @@
+package com.crudactivity.MobileFix.service;
+
+import java.util.Collection;
+import java.util.Set;
+
+/**
+ * Mensaje de invalidación de RepairViewCache que se difunde a las demás instancias
+ *
+ * - deviceIds / ownerIds: claves a descartar en las vistas por dispositivo y por propietario
+ * - all: descartar todo (cambios que afectan a claves desconocidas, p. ej. renombrar un técnico)
+ * - origin: instancia que lo envió, que ya se invalidó a sí misma y lo ignora
+ */
+public final class RepairViewInvalidation {
+
+    private final String origin;
+    private final Set<Long> deviceIds;
+    private final Set<Long> ownerIds;
+    private final boolean all;
+
+    public RepairViewInvalidation(String origin, Collection<Long> deviceIds, Collection<Long> ownerIds, boolean all) {
+        this.origin = origin;
+        this.deviceIds = Set.copyOf(deviceIds);
+        this.ownerIds = Set.copyOf(ownerIds);
+        this.all = all;
+    }
+
+    // Getters
+    public String getOrigin() {
+        return origin;
+    }
+
+    public Set<Long> getDeviceIds() {
+        return deviceIds;
+    }
+
+    public Set<Long> getOwnerIds() {
+        return ownerIds;
+    }
+
+    public boolean isAll() {
+        return all;
+    }
+}
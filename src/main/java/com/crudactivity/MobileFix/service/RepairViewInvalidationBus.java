@@ -0,0 +1,24 @@
+package com.crudactivity.MobileFix.service;
+
+import java.util.function.Consumer;
+
+/**
+ * Canal para difundir las invalidaciones de RepairViewCache entre instancias
+ *
+ * Es opcional: sin ningún bean de este tipo cada instancia solo invalida su propia
+ * caché y las demás dependen de la expiración (mobilefix.repair-cache.expire-after-write).
+ * Una implementación real publica en un broker (Redis pub/sub, Kafka...) y entrega a los
+ * suscriptores los mensajes de todas las instancias, incluidos los propios.
+ */
+public interface RepairViewInvalidationBus {
+
+    /**
+     * Enviar una invalidación al resto de instancias
+     */
+    void publish(RepairViewInvalidation invalidation);
+
+    /**
+     * Registrar un receptor de las invalidaciones que lleguen por el canal
+     */
+    void subscribe(Consumer<RepairViewInvalidation> listener);
+}
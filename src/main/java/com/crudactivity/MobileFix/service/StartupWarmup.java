@@ -0,0 +1,348 @@
+package com.crudactivity.MobileFix.service;
+
+import com.crudactivity.MobileFix.dto.CursorPageDTO;
+import com.crudactivity.MobileFix.dto.DeviceResponseDTO;
+import com.crudactivity.MobileFix.dto.RepairRequestDTO;
+import com.crudactivity.MobileFix.dto.RepairResponseDTO;
+import com.crudactivity.MobileFix.dto.UserResponseDTO;
+import com.crudactivity.MobileFix.model.Role;
+import com.crudactivity.MobileFix.model.Status;
+import com.crudactivity.MobileFix.repositories.DeviceRepository;
+import com.crudactivity.MobileFix.repositories.OutboxEventRepository;
+import com.crudactivity.MobileFix.repositories.RepairRepository;
+import com.crudactivity.MobileFix.repositories.RepairStatusArchiveRepository;
+import com.crudactivity.MobileFix.repositories.RepairStatusEventRepository;
+import com.crudactivity.MobileFix.repositories.UserRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Calentamiento de consultas y rutas de conversión al arrancar
+ *
+ * La primera ejecución de cada consulta paga el análisis del JPQL (o la construcción del
+ * Criteria de las consultas derivadas), la traducción a SQL, el prepare de la sentencia y el
+ * JIT de las rutas de conversión. Aquí se ejecuta cada consulta que usan los servicios con
+ * parámetros de sonda que no devuelven filas (ids -1, fechas de 1900, Limit de 1), así que
+ * el calentamiento es de solo lectura y no depende del volumen de datos.
+ * Las consultas de repositorio van en una transacción marcada rollback-only.
+ *
+ * Se ejecuta en ApplicationReadyEvent: Spring Boot publica la disponibilidad ACCEPTING_TRAFFIC
+ * (/actuator/health/readiness = UP) después de que terminen estos listeners, así que el
+ * tráfico solo llega con el calentamiento hecho.
+ *
+ * Cada sonda se registra en el timer mobilefix.warmup (tag probe) y en el log:
+ * tiempo de la primera ejecución y media de las siguientes.
+ * Las listas completas sin parámetros (findAll..., sumBy...) no se calientan: recorrerían toda la
+ * tabla, y las que usan los agregados y la cola ya se ejecutan al reconstruirlos.
+ *
+ * mobilefix.warmup.enabled=false lo desactiva; mobilefix.warmup.iterations fija las ejecuciones por sonda.
+ */
+@Component
+public class StartupWarmup {
+
+    private static final Logger log = LoggerFactory.getLogger(StartupWarmup.class);
+
+    static final String WARMUP_METRIC = "mobilefix.warmup";
+
+    // Valores de sonda: no coinciden con ninguna fila
+    private static final Long NO_ID = -1L;
+    private static final String NO_TEXT = "";
+    private static final LocalDate NO_DATE = LocalDate.of(1900, 1, 1);
+    private static final Instant NO_INSTANT = Instant.EPOCH;
+    // Clave de inicio de página por (requestDate, id) descendente, como en RepairService
+    private static final LocalDate FIRST_PAGE_DATE = LocalDate.of(9999, 12, 31);
+    private static final Limit ONE = Limit.of(1);
+
+    private final RepairRepository repairRepository;
+    private final DeviceRepository deviceRepository;
+    private final UserRepository userRepository;
+    private final RepairStatusEventRepository repairStatusEventRepository;
+    private final RepairStatusArchiveRepository repairStatusArchiveRepository;
+    private final OutboxEventRepository outboxEventRepository;
+    private final RepairService repairService;
+    private final DeviceService deviceService;
+    private final UserService userService;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final int iterations;
+
+    @Autowired
+    public StartupWarmup(RepairRepository repairRepository,
+                         DeviceRepository deviceRepository,
+                         UserRepository userRepository,
+                         RepairStatusEventRepository repairStatusEventRepository,
+                         RepairStatusArchiveRepository repairStatusArchiveRepository,
+                         OutboxEventRepository outboxEventRepository,
+                         RepairService repairService,
+                         DeviceService deviceService,
+                         UserService userService,
+                         ObjectMapper objectMapper,
+                         MeterRegistry meterRegistry,
+                         PlatformTransactionManager transactionManager,
+                         @Value("${mobilefix.warmup.enabled:true}") boolean enabled,
+                         @Value("${mobilefix.warmup.iterations:5}") int iterations) {
+        this.repairRepository = repairRepository;
+        this.deviceRepository = deviceRepository;
+        this.userRepository = userRepository;
+        this.repairStatusEventRepository = repairStatusEventRepository;
+        this.repairStatusArchiveRepository = repairStatusArchiveRepository;
+        this.outboxEventRepository = outboxEventRepository;
+        this.repairService = repairService;
+        this.deviceService = deviceService;
+        this.userService = userService;
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.enabled = enabled;
+        this.iterations = Math.max(1, iterations);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (enabled) {
+            run();
+        }
+    }
+
+    /**
+     * Ejecutar todas las sondas y registrar sus tiempos
+     * Una sonda que falla se registra en el log y no detiene el resto ni el arranque.
+     *
+     * @return resultado de cada sonda, en orden de ejecución
+     */
+    public List<ProbeResult> run() {
+        long start = System.nanoTime();
+        List<ProbeResult> results = new ArrayList<>();
+        for (Probe probe : probes()) {
+            ProbeResult result = execute(probe);
+            results.add(result);
+            if (result.isFailed()) {
+                log.warn("Calentamiento {}: falló ({})", result.getName(), result.getError());
+            } else {
+                log.info("Calentamiento {}: primera {} ms, siguientes {} ms de media", result.getName(),
+                        millis(result.getFirstNanos()), millis(result.getAverageNanos()));
+            }
+        }
+        long failed = results.stream().filter(ProbeResult::isFailed).count();
+        log.info("Calentamiento terminado: {} sondas x {} ejecuciones en {} ms ({} fallidas)",
+                results.size(), iterations, millis(System.nanoTime() - start), failed);
+        return results;
+    }
+
+    // ============== SONDAS ==============
+
+    private List<Probe> probes() {
+        List<Probe> probes = new ArrayList<>();
+
+        // Reparaciones: lecturas por id, listados y páginas por (requestDate, id)
+        query(probes, "RepairRepository.findResponseDTOById", () -> repairRepository.findResponseDTOById(NO_ID));
+        query(probes, "RepairRepository.findStateViewById", () -> repairRepository.findStateViewById(NO_ID));
+        query(probes, "RepairRepository.findResponseDTOsByIdIn", () -> repairRepository.findResponseDTOsByIdIn(List.of(NO_ID)));
+        query(probes, "RepairRepository.findResponseDTOsByDeviceId", () -> repairRepository.findResponseDTOsByDeviceId(NO_ID));
+        query(probes, "RepairRepository.findResponseDTOsByDeviceOwnerId", () -> repairRepository.findResponseDTOsByDeviceOwnerId(NO_ID));
+        query(probes, "RepairRepository.findResponseDTOsByTechnicianId", () -> repairRepository.findResponseDTOsByTechnicianId(NO_ID));
+        query(probes, "RepairRepository.findResponseDTOsByRequestDateBetween",
+                () -> repairRepository.findResponseDTOsByRequestDateBetween(NO_DATE, NO_DATE));
+        query(probes, "RepairRepository.findPage", () -> repairRepository.findPage(FIRST_PAGE_DATE, Long.MAX_VALUE, ONE));
+        query(probes, "RepairRepository.findPageByDeviceId",
+                () -> repairRepository.findPageByDeviceId(NO_ID, FIRST_PAGE_DATE, Long.MAX_VALUE, ONE));
+        query(probes, "RepairRepository.findPageByStatus",
+                () -> repairRepository.findPageByStatus(Status.PENDING, FIRST_PAGE_DATE, Long.MAX_VALUE, ONE));
+        query(probes, "RepairRepository.findPageByTechnicianId",
+                () -> repairRepository.findPageByTechnicianId(NO_ID, FIRST_PAGE_DATE, Long.MAX_VALUE, ONE));
+        query(probes, "RepairRepository.findPageByDeviceOwnerId",
+                () -> repairRepository.findPageByDeviceOwnerId(NO_ID, FIRST_PAGE_DATE, Long.MAX_VALUE, ONE));
+        query(probes, "RepairRepository.findPageByTechnicianIsNull",
+                () -> repairRepository.findPageByTechnicianIsNull(FIRST_PAGE_DATE, Long.MAX_VALUE, ONE));
+        query(probes, "RepairRepository.findPageByTechnicianIsNotNull",
+                () -> repairRepository.findPageByTechnicianIsNotNull(FIRST_PAGE_DATE, Long.MAX_VALUE, ONE));
+        query(probes, "RepairRepository.findPageByRequestDateBetween",
+                () -> repairRepository.findPageByRequestDateBetween(NO_DATE, NO_DATE, FIRST_PAGE_DATE, Long.MAX_VALUE, ONE));
+        query(probes, "RepairRepository.findPageOrderByCostDesc",
+                () -> repairRepository.findPageOrderByCostDesc(Double.MAX_VALUE, Long.MAX_VALUE, ONE));
+        query(probes, "RepairRepository.streamByRequestDateBetween",
+                () -> repairRepository.streamByRequestDateBetween(NO_DATE, NO_DATE));
+        query(probes, "RepairRepository.countByTechnicianIdAndStatusIn",
+                () -> repairRepository.countByTechnicianIdAndStatusIn(NO_ID, List.of(Status.PENDING, Status.IN_PROGRESS)));
+        query(probes, "RepairRepository.findSnapshotsForUpdateByIdIn",
+                () -> repairRepository.findSnapshotsForUpdateByIdIn(List.of(NO_ID)));
+        query(probes, "RepairRepository.findSnapshotsForUpdateByStatusAndRequestDateBefore",
+                () -> repairRepository.findSnapshotsForUpdateByStatusAndRequestDateBefore(Status.PENDING, NO_DATE, ONE));
+
+        // Historial y outbox
+        query(probes, "RepairStatusEventRepository.findHistoryByRepairId",
+                () -> repairStatusEventRepository.findHistoryByRepairId(NO_ID));
+        query(probes, "RepairStatusEventRepository.findTimelines",
+                () -> repairStatusEventRepository.findTimelines(List.of(NO_ID)));
+        query(probes, "RepairStatusEventRepository.streamDurations",
+                () -> repairStatusEventRepository.streamDurations(NO_INSTANT, NO_INSTANT));
+        query(probes, "RepairStatusArchiveRepository.streamSegments",
+                () -> repairStatusArchiveRepository.streamSegments(NO_DATE, NO_DATE));
+        query(probes, "OutboxEventRepository.findBatchToDispatch",
+                () -> outboxEventRepository.findBatchToDispatch(NO_INSTANT, ONE));
+
+        // Dispositivos y usuarios (consultas derivadas)
+        query(probes, "DeviceRepository.findWithOwnerById", () -> deviceRepository.findWithOwnerById(NO_ID));
+        query(probes, "DeviceRepository.findByOwnerId", () -> deviceRepository.findByOwnerId(NO_ID));
+        query(probes, "DeviceRepository.findByBrandAndModel", () -> deviceRepository.findByBrandAndModel(NO_TEXT, NO_TEXT));
+        query(probes, "DeviceRepository.findByIdGreaterThanOrderByIdAsc",
+                () -> deviceRepository.findByIdGreaterThanOrderByIdAsc(Long.MAX_VALUE, ONE));
+        query(probes, "DeviceRepository.findByOwnerIdAndIdGreaterThanOrderByIdAsc",
+                () -> deviceRepository.findByOwnerIdAndIdGreaterThanOrderByIdAsc(NO_ID, Long.MAX_VALUE, ONE));
+        query(probes, "DeviceRepository.findByBrandAndModelAndIdGreaterThanOrderByIdAsc",
+                () -> deviceRepository.findByBrandAndModelAndIdGreaterThanOrderByIdAsc(NO_TEXT, NO_TEXT, Long.MAX_VALUE, ONE));
+        query(probes, "UserRepository.findByUsername", () -> userRepository.findByUsername(NO_TEXT));
+        query(probes, "UserRepository.findByEmail", () -> userRepository.findByEmail(NO_TEXT));
+        query(probes, "UserRepository.existsByUsername", () -> userRepository.existsByUsername(NO_TEXT));
+        query(probes, "UserRepository.existsByEmail", () -> userRepository.existsByEmail(NO_TEXT));
+        query(probes, "UserRepository.findByIdForUpdate", () -> userRepository.findByIdForUpdate(NO_ID));
+        query(probes, "UserRepository.findByRoleAndIdGreaterThanOrderByIdAsc",
+                () -> userRepository.findByRoleAndIdGreaterThanOrderByIdAsc(Role.TECH, Long.MAX_VALUE, ONE));
+
+        // Servicios: proxies (transacción, métricas, QueryGuard) y conversión a DTO de la primera página
+        probes.add(new Probe("RepairService.getRepairsPage", () -> repairService.getRepairsPage(null, 1)));
+        probes.add(new Probe("RepairService.getRepairsByStatusPage",
+                () -> repairService.getRepairsByStatusPage(Status.IN_PROGRESS, null, 1)));
+        probes.add(new Probe("DeviceService.getDevicesPage", () -> deviceService.getDevicesPage(null, 1)));
+        probes.add(new Probe("UserService.getUsersPage", () -> userService.getUsersPage(null, 1)));
+
+        // Serialización JSON de las respuestas y lectura de las peticiones más frecuentes
+        RepairResponseDTO repair = new RepairResponseDTO(NO_ID, NO_TEXT, NO_DATE, NO_DATE, Status.PENDING, 0.0,
+                NO_ID, NO_TEXT, NO_TEXT, NO_ID, NO_TEXT, 0L);
+        probes.add(new Probe("json.RepairResponseDTO", () -> objectMapper.writeValueAsBytes(repair)));
+        probes.add(new Probe("json.CursorPageDTO", () -> objectMapper.writeValueAsBytes(
+                new CursorPageDTO<>(List.of(repair), 1, NO_TEXT, true))));
+        probes.add(new Probe("json.UserResponseDTO", () -> objectMapper.writeValueAsBytes(
+                new UserResponseDTO(NO_ID, NO_TEXT, NO_TEXT, Role.USER, 0L))));
+        probes.add(new Probe("json.DeviceResponseDTO", () -> objectMapper.writeValueAsBytes(
+                new DeviceResponseDTO(NO_ID, NO_TEXT, NO_TEXT, NO_ID, NO_TEXT))));
+        byte[] request = "{\"description\":\"\",\"estimatedDate\":\"1900-01-01\",\"cost\":0.0,\"deviceId\":-1}"
+                .getBytes();
+        probes.add(new Probe("json.RepairRequestDTO", () -> objectMapper.readValue(request, RepairRequestDTO.class)));
+
+        return probes;
+    }
+
+    // ============== MÉTODOS AUXILIARES ==============
+
+    /**
+     * Sonda de repositorio: en una transacción rollback-only (las consultas con bloqueo la necesitan)
+     * Los Stream se recorren y se cierran dentro de la transacción
+     */
+    private void query(List<Probe> probes, String name, Supplier<?> action) {
+        probes.add(new Probe(name, () -> transactionTemplate.executeWithoutResult(status -> {
+            status.setRollbackOnly();
+            Object result = action.get();
+            if (result instanceof Stream<?> stream) {
+                try (stream) {
+                    stream.forEach(row -> {
+                    });
+                }
+            }
+        })));
+    }
+
+    private ProbeResult execute(Probe probe) {
+        Timer timer = Timer.builder(WARMUP_METRIC)
+                .description("Duración de cada ejecución de una sonda de calentamiento")
+                .tag("probe", probe.name)
+                .register(meterRegistry);
+        long first = 0;
+        long rest = 0;
+        try {
+            for (int i = 0; i < iterations; i++) {
+                long start = System.nanoTime();
+                probe.action.run();
+                long elapsed = System.nanoTime() - start;
+                timer.record(elapsed, TimeUnit.NANOSECONDS);
+                if (i == 0) {
+                    first = elapsed;
+                } else {
+                    rest += elapsed;
+                }
+            }
+        } catch (Exception ex) {
+            return new ProbeResult(probe.name, first, 0, ex.toString());
+        }
+        return new ProbeResult(probe.name, first, iterations > 1 ? rest / (iterations - 1) : first, null);
+    }
+
+    private static String millis(long nanos) {
+        return String.format("%.2f", nanos / 1_000_000.0);
+    }
+
+    @FunctionalInterface
+    private interface ProbeAction {
+        void run() throws Exception;
+    }
+
+    private static final class Probe {
+
+        final String name;
+        final ProbeAction action;
+
+        Probe(String name, ProbeAction action) {
+            this.name = name;
+            this.action = action;
+        }
+    }
+
+    /**
+     * Tiempos de una sonda: primera ejecución (en frío) y media de las siguientes
+     */
+    public static final class ProbeResult {
+
+        private final String name;
+        private final long firstNanos;
+        private final long averageNanos;
+        private final String error;
+
+        ProbeResult(String name, long firstNanos, long averageNanos, String error) {
+            this.name = name;
+            this.firstNanos = firstNanos;
+            this.averageNanos = averageNanos;
+            this.error = error;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public long getFirstNanos() {
+            return firstNanos;
+        }
+
+        public long getAverageNanos() {
+            return averageNanos;
+        }
+
+        public String getError() {
+            return error;
+        }
+
+        public boolean isFailed() {
+            return error != null;
+        }
+    }
+}
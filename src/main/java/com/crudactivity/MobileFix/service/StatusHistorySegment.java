@@ -0,0 +1,241 @@
+package com.crudactivity.MobileFix.service;
+
+import com.crudactivity.MobileFix.model.RepairStatusEvent;
+import com.crudactivity.MobileFix.model.Status;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.time.Instant;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Segmento columnar comprimido con los eventos de estado de un día
+ * (se guarda como BLOB en repair_status_archives, ver RepairHistoryArchive)
+ *
+ * Formato (todo dentro de un flujo GZIP):
+ * - cabecera: MAGIC, número de filas y diccionario de estados (nombre de cada código)
+ * - una columna detrás de otra, cada valor como entero de longitud variable:
+ *   occurredAt (delta con la fila anterior), repairId (delta con signo), technicianId,
+ *   fromStatus, toStatus, durationMillis y cycleMillis (0 = null, el resto valor + 1)
+ *
+ * Al ir por columnas, valores parecidos quedan juntos y los deltas son pequeños,
+ * así que un día ocupa unos pocos bytes por evento. En memoria se guarda igual:
+ * un array por columna, sin un objeto por fila.
+ */
+final class StatusHistorySegment {
+
+    private static final int MAGIC = 0x52534831; // "RSH1"
+
+    private static final Status[] STATUSES = Status.values();
+
+    private final int size;
+    private final long[] occurredAt;
+    private final long[] repairIds;
+    private final long[] technicianIds; // 0 = null, resto id + 1
+    private final byte[] fromStatus;    // 0 = null, resto ordinal + 1
+    private final byte[] toStatus;
+    private final long[] durations;     // 0 = null, resto valor + 1
+    private final long[] cycles;
+
+    private StatusHistorySegment(int size) {
+        this.size = size;
+        this.occurredAt = new long[size];
+        this.repairIds = new long[size];
+        this.technicianIds = new long[size];
+        this.fromStatus = new byte[size];
+        this.toStatus = new byte[size];
+        this.durations = new long[size];
+        this.cycles = new long[size];
+    }
+
+    /**
+     * Construir el segmento a partir de eventos ordenados por occurredAt
+     */
+    static StatusHistorySegment of(List<RepairStatusEvent> events) {
+        StatusHistorySegment segment = new StatusHistorySegment(events.size());
+        for (int i = 0; i < events.size(); i++) {
+            RepairStatusEvent event = events.get(i);
+            segment.occurredAt[i] = event.getOccurredAt().toEpochMilli();
+            segment.repairIds[i] = event.getRepairId();
+            segment.technicianIds[i] = encodeNullable(event.getTechnicianId());
+            segment.fromStatus[i] = encodeStatus(event.getFromStatus());
+            segment.toStatus[i] = encodeStatus(event.getToStatus());
+            segment.durations[i] = encodeNullable(event.getDurationMillis());
+            segment.cycles[i] = encodeNullable(event.getCycleMillis());
+        }
+        return segment;
+    }
+
+    // ============== LECTURA DE FILAS ==============
+
+    int size() {
+        return size;
+    }
+
+    Instant occurredAt(int row) {
+        return Instant.ofEpochMilli(occurredAt[row]);
+    }
+
+    long repairId(int row) {
+        return repairIds[row];
+    }
+
+    Long technicianId(int row) {
+        return decodeNullable(technicianIds[row]);
+    }
+
+    Status fromStatus(int row) {
+        return decodeStatus(fromStatus[row]);
+    }
+
+    Status toStatus(int row) {
+        return decodeStatus(toStatus[row]);
+    }
+
+    Long durationMillis(int row) {
+        return decodeNullable(durations[row]);
+    }
+
+    Long cycleMillis(int row) {
+        return decodeNullable(cycles[row]);
+    }
+
+    // ============== SERIALIZACIÓN ==============
+
+    byte[] toBytes() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(new GZIPOutputStream(bytes, 64 * 1024)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(size);
+            out.writeByte(STATUSES.length);
+            for (Status status : STATUSES) {
+                out.writeUTF(status.name());
+            }
+
+            long previous = 0;
+            for (long value : occurredAt) {
+                writeVarLong(out, value - previous);
+                previous = value;
+            }
+            previous = 0;
+            for (long value : repairIds) {
+                writeVarLong(out, zigZag(value - previous));
+                previous = value;
+            }
+            for (long value : technicianIds) {
+                writeVarLong(out, value);
+            }
+            out.write(fromStatus);
+            out.write(toStatus);
+            for (long value : durations) {
+                writeVarLong(out, value);
+            }
+            for (long value : cycles) {
+                writeVarLong(out, value);
+            }
+        }
+        return bytes.toByteArray();
+    }
+
+    static StatusHistorySegment fromBytes(byte[] data) throws IOException {
+        try (DataInputStream in = new DataInputStream(
+                new BufferedInputStream(new GZIPInputStream(new ByteArrayInputStream(data), 64 * 1024)))) {
+            if (in.readInt() != MAGIC) {
+                throw new IOException("No es un segmento de historial de estados");
+            }
+            StatusHistorySegment segment = new StatusHistorySegment(in.readInt());
+
+            // Los códigos del segmento se traducen por nombre: el orden del enum puede cambiar
+            int statusCount = in.readUnsignedByte();
+            byte[] statusCodes = new byte[statusCount + 1];
+            for (int code = 1; code <= statusCount; code++) {
+                statusCodes[code] = encodeStatus(Status.valueOf(in.readUTF()));
+            }
+
+            long previous = 0;
+            for (int i = 0; i < segment.size; i++) {
+                previous += readVarLong(in);
+                segment.occurredAt[i] = previous;
+            }
+            previous = 0;
+            for (int i = 0; i < segment.size; i++) {
+                previous += unZigZag(readVarLong(in));
+                segment.repairIds[i] = previous;
+            }
+            for (int i = 0; i < segment.size; i++) {
+                segment.technicianIds[i] = readVarLong(in);
+            }
+            in.readFully(segment.fromStatus);
+            in.readFully(segment.toStatus);
+            for (int i = 0; i < segment.size; i++) {
+                segment.fromStatus[i] = statusCodes[segment.fromStatus[i]];
+                segment.toStatus[i] = statusCodes[segment.toStatus[i]];
+            }
+            for (int i = 0; i < segment.size; i++) {
+                segment.durations[i] = readVarLong(in);
+            }
+            for (int i = 0; i < segment.size; i++) {
+                segment.cycles[i] = readVarLong(in);
+            }
+            return segment;
+        }
+    }
+
+    // ============== CODIFICACIÓN ==============
+
+    private static long encodeNullable(Long value) {
+        return value == null ? 0 : value + 1;
+    }
+
+    private static Long decodeNullable(long value) {
+        return value == 0 ? null : value - 1;
+    }
+
+    private static byte encodeStatus(Status status) {
+        return status == null ? 0 : (byte) (status.ordinal() + 1);
+    }
+
+    private static Status decodeStatus(byte code) {
+        return code == 0 ? null : STATUSES[code - 1];
+    }
+
+    private static long zigZag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unZigZag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    /**
+     * Entero sin signo en grupos de 7 bits (1 byte para valores < 128)
+     */
+    private static void writeVarLong(DataOutputStream out, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.writeByte((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.writeByte((int) value);
+    }
+
+    private static long readVarLong(DataInputStream in) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new EOFException("Entero de longitud variable corrupto");
+    }
+}
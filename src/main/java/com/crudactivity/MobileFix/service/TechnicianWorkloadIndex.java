@@ -0,0 +1,197 @@
+package com.crudactivity.MobileFix.service;
+
+import com.crudactivity.MobileFix.dto.TechnicianWorkloadDTO;
+import com.crudactivity.MobileFix.event.RepairChangedEvent;
+import com.crudactivity.MobileFix.event.RepairSnapshot;
+import com.crudactivity.MobileFix.model.Status;
+import com.crudactivity.MobileFix.repositories.RepairRepository;
+import com.crudactivity.MobileFix.repositories.RepairRepository.TechnicianAssignment;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * Índice en memoria de las reparaciones de cada técnico por estado
+ *
+ * Para cada técnico guarda, por estado, el conjunto de ids de reparación (LongHashSet,
+ * sin objetos Long por id); el recuento de un estado es el tamaño de su conjunto.
+ * La matriz técnico x estado del dashboard de despacho se sirve desde aquí en lugar
+ * de lanzar un countByTechnicianAndStatus por técnico y estado.
+ *
+ * Se carga al arrancar (y con rebuild()) recorriendo las reparaciones asignadas y
+ * después se mantiene con los RepairChangedEvent confirmados, igual que RepairAggregateService.
+ *
+ * NOTA: el índice es local a cada instancia. Con varias instancias, los cambios
+ * hechos en otra instancia solo se reflejan tras un rebuild().
+ */
+@Service
+public class TechnicianWorkloadIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(TechnicianWorkloadIndex.class);
+
+    private static final Status[] STATUSES = Status.values();
+
+    private final RepairRepository repairRepository;
+
+    // El rebuild toma el lock de escritura; las actualizaciones incrementales, el de lectura
+    private final ReadWriteLock rebuildLock = new ReentrantReadWriteLock();
+
+    private volatile Map<Long, Workload> byTechnician = new ConcurrentHashMap<>();
+
+    @Autowired
+    public TechnicianWorkloadIndex(RepairRepository repairRepository) {
+        this.repairRepository = repairRepository;
+    }
+
+    /**
+     * Matriz técnico x estado con todos los técnicos que tienen alguna reparación
+     *
+     * @return lista ordenada por ID de técnico
+     */
+    public List<TechnicianWorkloadDTO> getWorkloads() {
+        List<TechnicianWorkloadDTO> workloads = new ArrayList<>(byTechnician.size());
+        byTechnician.forEach((technicianId, workload) ->
+                workloads.add(new TechnicianWorkloadDTO(technicianId, toCountMap(workload.counts()))));
+        workloads.sort(Comparator.comparing(TechnicianWorkloadDTO::getTechnicianId));
+        return workloads;
+    }
+
+    /**
+     * Número de reparaciones de un técnico en un estado
+     */
+    public long countByTechnicianAndStatus(Long technicianId, Status status) {
+        Workload workload = byTechnician.get(technicianId);
+        return workload != null ? workload.count(status) : 0;
+    }
+
+    /**
+     * IDs de las reparaciones de un técnico en un estado, de menor a mayor
+     */
+    public long[] getRepairIds(Long technicianId, Status status) {
+        Workload workload = byTechnician.get(technicianId);
+        return workload != null ? workload.ids(status) : new long[0];
+    }
+
+    /**
+     * Reconstruir el índice desde la base de datos
+     * Se ejecuta al arrancar y puede lanzarse manualmente si se sospecha que se ha desincronizado.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void rebuild() {
+        rebuildLock.writeLock().lock();
+        try (Stream<TechnicianAssignment> assignments = repairRepository.streamTechnicianAssignments()) {
+            Map<Long, Workload> loaded = new ConcurrentHashMap<>();
+            assignments.forEach(row -> loaded.computeIfAbsent(row.getTechnicianId(), id -> new Workload())
+                    .add(row.getStatus(), row.getId()));
+            byTechnician = loaded;
+            log.info("Índice de carga por técnico reconstruido: {} técnicos", loaded.size());
+        } finally {
+            rebuildLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Aplica un cambio de reparación al índice, solo si la transacción hizo commit
+     * Quita la reparación de su (técnico, estado) anterior y la añade al nuevo
+     */
+    @TransactionalEventListener
+    public void onRepairChanged(RepairChangedEvent event) {
+        RepairSnapshot before = event.getBefore();
+        RepairSnapshot after = event.getAfter();
+        if (before != null && after != null && before.getStatus() == after.getStatus()
+                && Objects.equals(before.getTechnicianId(), after.getTechnicianId())) {
+            return;
+        }
+        rebuildLock.readLock().lock();
+        try {
+            if (before != null && before.getTechnicianId() != null) {
+                byTechnician.computeIfPresent(before.getTechnicianId(), (id, workload) ->
+                        workload.remove(before.getStatus(), before.getId()) ? null : workload);
+            }
+            if (after != null && after.getTechnicianId() != null) {
+                byTechnician.compute(after.getTechnicianId(), (id, workload) -> {
+                    Workload updated = workload != null ? workload : new Workload();
+                    updated.add(after.getStatus(), after.getId());
+                    return updated;
+                });
+            }
+        } finally {
+            rebuildLock.readLock().unlock();
+        }
+    }
+
+    // ============== MÉTODOS AUXILIARES ==============
+
+    private static Map<Status, Long> toCountMap(long[] counts) {
+        Map<Status, Long> countMap = new EnumMap<>(Status.class);
+        for (Status status : STATUSES) {
+            countMap.put(status, counts[status.ordinal()]);
+        }
+        return countMap;
+    }
+
+    /**
+     * Reparaciones de un técnico, un conjunto de ids por estado (indexado por ordinal)
+     * Las escrituras llegan dentro de compute() del mapa; las lecturas sincronizan con ellas
+     */
+    private static final class Workload {
+
+        private final LongHashSet[] idsByStatus = new LongHashSet[STATUSES.length];
+
+        Workload() {
+            for (int i = 0; i < idsByStatus.length; i++) {
+                idsByStatus[i] = new LongHashSet();
+            }
+        }
+
+        synchronized void add(Status status, long repairId) {
+            idsByStatus[status.ordinal()].add(repairId);
+        }
+
+        /**
+         * @return true si el técnico se quedó sin reparaciones
+         */
+        synchronized boolean remove(Status status, long repairId) {
+            idsByStatus[status.ordinal()].remove(repairId);
+            for (LongHashSet ids : idsByStatus) {
+                if (!ids.isEmpty()) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        synchronized long count(Status status) {
+            return idsByStatus[status.ordinal()].size();
+        }
+
+        synchronized long[] counts() {
+            long[] counts = new long[idsByStatus.length];
+            for (int i = 0; i < counts.length; i++) {
+                counts[i] = idsByStatus[i].size();
+            }
+            return counts;
+        }
+
+        synchronized long[] ids(Status status) {
+            return idsByStatus[status.ordinal()].toSortedArray();
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package com.crudactivity.MobileFix.service;
+
+import com.crudactivity.MobileFix.config.MetricsConfig;
+import com.crudactivity.MobileFix.repositories.UserRepository;
+import io.micrometer.core.annotation.Timed;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * Filtros de Bloom en memoria con los usernames y emails registrados
+ *
+ * Permiten responder "no existe" a /exists/username y /exists/email sin ir a la base de datos.
+ * Un "puede existir" se confirma con la consulta habitual (cacheada).
+ *
+ * UserService añade el username y el email ANTES de insertar o actualizar el usuario,
+ * así que nunca hay falsos negativos para los datos de esta instancia: si la transacción
+ * hace rollback, solo queda un falso positivo inofensivo. Los usuarios borrados o
+ * renombrados también quedan como falsos positivos hasta el siguiente rebuild().
+ *
+ * NOTA: igual que RepairAggregateService, los filtros son locales a cada instancia.
+ * Los usuarios creados o renombrados en otra instancia solo se incorporan con rebuild(),
+ * que se repite cada mobilefix.user-filter.refresh-interval-ms (60 s por defecto). Con varias
+ * instancias, /exists/* puede responder "no existe" para un usuario recién creado en otra
+ * instancia durante como mucho ese intervalo más lo que tarde el rebuild. Con una sola
+ * instancia la respuesta es exacta.
+ */
+@Service
+@Timed(MetricsConfig.SERVICE_TIMER)
+public class UserExistenceFilter {
+
+    private static final Logger log = LoggerFactory.getLogger(UserExistenceFilter.class);
+
+    private final UserRepository userRepository;
+    private final long expectedUsers;
+    private final double falsePositiveRate;
+
+    // Altas anteriores a este margen respecto al inicio del rebuild ya están confirmadas en la base
+    private static final long REPLAY_MARGIN_MILLIS = 60_000;
+
+    // El cambio de filtros toma el lock de escritura; las altas, el de lectura
+    private final ReadWriteLock rebuildLock = new ReentrantReadWriteLock();
+
+    // Altas recientes: el rebuild las vuelve a aplicar porque su transacción puede no
+    // haber hecho commit cuando se leyó la base (si no, serían falsos negativos)
+    private final Queue<RecentAdd> recentAdds = new ConcurrentLinkedQueue<>();
+
+    private volatile BloomFilter usernames;
+    private volatile BloomFilter emails;
+
+    // Mientras no se haya sembrado el filtro se responde siempre "puede existir"
+    private volatile boolean ready;
+
+    @Autowired
+    public UserExistenceFilter(UserRepository userRepository,
+                               @Value("${mobilefix.user-filter.expected-users:1000000}") long expectedUsers,
+                               @Value("${mobilefix.user-filter.false-positive-rate:0.01}") double falsePositiveRate) {
+        this.userRepository = userRepository;
+        this.expectedUsers = expectedUsers;
+        this.falsePositiveRate = falsePositiveRate;
+        this.usernames = new BloomFilter(expectedUsers, falsePositiveRate);
+        this.emails = new BloomFilter(expectedUsers, falsePositiveRate);
+    }
+
+    /**
+     * @return false si el username seguro que no está registrado
+     */
+    public boolean mightContainUsername(String username) {
+        return !ready || usernames.mightContain(username);
+    }
+
+    /**
+     * @return false si el email seguro que no está registrado
+     */
+    public boolean mightContainEmail(String email) {
+        return !ready || emails.mightContain(email);
+    }
+
+    /**
+     * Registrar el username y el email de un usuario que se va a guardar
+     */
+    public void add(String username, String email) {
+        rebuildLock.readLock().lock();
+        try {
+            usernames.put(username);
+            emails.put(email);
+            recentAdds.add(new RecentAdd(System.currentTimeMillis(), username, email));
+        } finally {
+            rebuildLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Reconstruir los filtros desde la base de datos
+     * Se ejecuta al arrancar y cada refresh-interval-ms para incorporar los usuarios de otras
+     * instancias; el tamaño se ajusta si ya hay más usuarios de los previstos.
+     * La lectura se hace sin bloquear las altas: solo el cambio de filtros toma el lock.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${mobilefix.user-filter.refresh-interval-ms:60000}",
+            initialDelayString = "${mobilefix.user-filter.refresh-interval-ms:60000}")
+    @Transactional(readOnly = true)
+    public void rebuild() {
+        long startedAt = System.currentTimeMillis();
+        long users = userRepository.count();
+        long capacity = Math.max(expectedUsers, users * 2);
+        BloomFilter rebuiltUsernames = new BloomFilter(capacity, falsePositiveRate);
+        BloomFilter rebuiltEmails = new BloomFilter(capacity, falsePositiveRate);
+
+        try (Stream<UserRepository.UserKeys> keys = userRepository.streamAllKeys()) {
+            keys.forEach(key -> {
+                rebuiltUsernames.put(key.getUsername());
+                rebuiltEmails.put(key.getEmail());
+            });
+        }
+
+        rebuildLock.writeLock().lock();
+        try {
+            long replayFrom = startedAt - REPLAY_MARGIN_MILLIS;
+            recentAdds.removeIf(add -> add.addedAt() < replayFrom);
+            for (RecentAdd add : recentAdds) {
+                rebuiltUsernames.put(add.username());
+                rebuiltEmails.put(add.email());
+            }
+
+            usernames = rebuiltUsernames;
+            emails = rebuiltEmails;
+            ready = true;
+        } finally {
+            rebuildLock.writeLock().unlock();
+        }
+        log.debug("Filtros de existencia de usuarios reconstruidos: {} usuarios (capacidad {})", users, capacity);
+    }
+
+    private record RecentAdd(long addedAt, String username, String email) {
+    }
+}
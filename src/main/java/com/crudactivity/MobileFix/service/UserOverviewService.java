@@ -0,0 +1,69 @@
+package com.crudactivity.MobileFix.service;
+
+import com.crudactivity.MobileFix.config.MetricsConfig;
+import com.crudactivity.MobileFix.dto.DeviceResponseDTO;
+import com.crudactivity.MobileFix.dto.RepairResponseDTO;
+import com.crudactivity.MobileFix.dto.UserOverviewDTO;
+import com.crudactivity.MobileFix.dto.UserResponseDTO;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Vista combinada de un usuario para las pantallas de la app móvil que cargan
+ * usuario, dispositivos y reparaciones a la vez
+ *
+ * Las tres lecturas son independientes: se lanzan en paralelo en applicationTaskExecutor
+ * (hilos virtuales con el perfil virtual-threads) y el resultado se compone al terminar
+ * la última, así que la latencia es la de la lectura más lenta y no la suma de las tres.
+ * Cada lectura usa su propia transacción de solo lectura (y su propia conexión del pool).
+ *
+ * El controlador devuelve el CompletableFuture: el hilo de Tomcat se libera mientras
+ * se espera y la respuesta se escribe cuando las tres lecturas terminan.
+ */
+@Service
+@Timed(MetricsConfig.SERVICE_TIMER)
+public class UserOverviewService {
+
+    private final UserService userService;
+    private final DeviceService deviceService;
+    private final RepairService repairService;
+    private final AsyncTaskExecutor taskExecutor;
+
+    @Autowired
+    public UserOverviewService(UserService userService,
+                               DeviceService deviceService,
+                               RepairService repairService,
+                               @Qualifier("applicationTaskExecutor") AsyncTaskExecutor taskExecutor) {
+        this.userService = userService;
+        this.deviceService = deviceService;
+        this.repairService = repairService;
+        this.taskExecutor = taskExecutor;
+    }
+
+    /**
+     * Obtener usuario, dispositivos y reparaciones de un usuario en paralelo
+     *
+     * @param userId ID del usuario
+     * @return futuro con el UserOverviewDTO; falla con ResourceNotFoundException si el usuario no existe
+     */
+    public CompletableFuture<UserOverviewDTO> getOverview(Long userId) {
+        CompletableFuture<UserResponseDTO> user =
+                CompletableFuture.supplyAsync(() -> userService.getUserById(userId), taskExecutor);
+        CompletableFuture<List<DeviceResponseDTO>> devices =
+                CompletableFuture.supplyAsync(() -> deviceService.getDevicesByOwnerId(userId), taskExecutor);
+        CompletableFuture<List<RepairResponseDTO>> repairs =
+                CompletableFuture.supplyAsync(() -> repairService.getRepairsByOwnerId(userId), taskExecutor);
+
+        return user.thenCombine(devices, (u, d) -> new UserOverviewDTO(u, d, null))
+                .thenCombine(repairs, (overview, r) -> {
+                    overview.setRepairs(r);
+                    return overview;
+                });
+    }
+}
@@ -1,44 +1,62 @@
 package com.crudactivity.MobileFix.service;
 
 
+import com.crudactivity.MobileFix.config.CacheConfig;
+import com.crudactivity.MobileFix.config.MetricsConfig;
+import com.crudactivity.MobileFix.config.RetryOnConflict;
+import com.crudactivity.MobileFix.dto.CursorPageDTO;
 import com.crudactivity.MobileFix.dto.UserRequestDTO;
 import com.crudactivity.MobileFix.dto.UserResponseDTO;
+import com.crudactivity.MobileFix.event.RepairChangedEvent;
+import com.crudactivity.MobileFix.event.RepairSnapshot;
+import com.crudactivity.MobileFix.exception.InvalidRequestException;
 import com.crudactivity.MobileFix.exception.ResourceNotFoundException;
+import com.crudactivity.MobileFix.model.Device;
 import com.crudactivity.MobileFix.model.Role;
 import com.crudactivity.MobileFix.model.User;
 import com.crudactivity.MobileFix.repositories.UserRepository;
+import io.micrometer.core.annotation.Timed;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.transaction.TransactionAwareCacheDecorator;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
+import java.util.Locale;
 import java.util.stream.Collectors;
 
 @Service
+@Timed(MetricsConfig.SERVICE_TIMER)
 @Transactional
 public class UserService {
 
     private final UserRepository userRepository;
+    private final CacheManager cacheManager;
+    private final ApplicationEventPublisher eventPublisher;
+    private final UserExistenceFilter userExistenceFilter;
+    private final RepairViewCache repairViewCache;
 
     @Autowired
-    public UserService(UserRepository userRepository) {
+    public UserService(UserRepository userRepository, CacheManager cacheManager,
+                       ApplicationEventPublisher eventPublisher, UserExistenceFilter userExistenceFilter,
+                       RepairViewCache repairViewCache) {
         this.userRepository = userRepository;
+        this.cacheManager = cacheManager;
+        this.eventPublisher = eventPublisher;
+        this.userExistenceFilter = userExistenceFilter;
+        this.repairViewCache = repairViewCache;
     }
 
-    //Crear un nuevo usuario - Valida que username y email sean unicos
+    //Crear un nuevo usuario - username y email únicos
+    //La unicidad la garantizan las restricciones uk_users_username/uk_users_email:
+    //un solo INSERT, sin consultas exists* previas y sin carreras entre altas concurrentes
     public UserResponseDTO createUser(UserRequestDTO userRequestDTO) {
-        //Valida que el username no exista
-        if(userRepository.existsByUserName(userRequestDTO.getUsername())){
-            throw new IllegalArgumentException(
-                    "El nombre de usuario "  + userRequestDTO.getUsername() + " ya existe"
-            );
-        }
-        if(userRepository.existsByEmail(userRequestDTO.getEmail())){
-            throw new IllegalArgumentException(
-                    "El email "  + userRequestDTO.getEmail() + " ya existe"
-            );
-        }
-
         //Convertir DTO a Entity
         User user = new User();
         user.setUsername(userRequestDTO.getUsername());
@@ -46,8 +64,21 @@ public class UserService {
         user.setPassword(userRequestDTO.getPassword());
         user.setRole(userRequestDTO.getRole());
 
-        //Guardar en bd
-        User savedUser = userRepository.save(user);
+        //Registrar en el filtro antes del INSERT para que /exists nunca dé un falso negativo
+        userExistenceFilter.add(user.getUsername(), user.getEmail());
+
+        //Guardar en bd (flush inmediato para detectar aquí la violación de unicidad)
+        User savedUser;
+        try {
+            savedUser = userRepository.saveAndFlush(user);
+        } catch (DataIntegrityViolationException ex) {
+            throw translateUniqueViolation(ex,
+                    "El nombre de usuario "  + userRequestDTO.getUsername() + " ya existe",
+                    "El email "  + userRequestDTO.getEmail() + " ya existe");
+        }
+
+        //Los exists* cacheados para este username/email ya no son válidos
+        evictCachedUser(null, savedUser.getUsername(), savedUser.getEmail());
 
         //Convertir entity a ResponseDTO
         return convertToResponseDTO(savedUser);
@@ -56,6 +87,7 @@ public class UserService {
 
     //Obtener un User por su ID
     @Transactional(readOnly = true)
+    @Cacheable(cacheNames = CacheConfig.USERS_BY_ID, key = "#id")
     public UserResponseDTO getUserById(Long id){
         User user =  userRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException(
@@ -66,8 +98,9 @@ public class UserService {
 
     //Buscar usuario por username
     @Transactional(readOnly = true)
+    @Cacheable(cacheNames = CacheConfig.USERS_BY_USERNAME, key = "#username")
     public UserResponseDTO getUserByUsername(String username) {
-        User user = userRepository.findByUserName(username)
+        User user = userRepository.findByUsername(username)
                 .orElseThrow(() -> new ResourceNotFoundException(
                         "Usuario no encontrado con username: " + username
                 ));
@@ -76,6 +109,7 @@ public class UserService {
 
     //Buscar usuario por email
     @Transactional(readOnly = true)
+    @Cacheable(cacheNames = CacheConfig.USERS_BY_EMAIL, key = "#email")
     public UserResponseDTO getUserByEmail(String email) {
         User user = userRepository.findByEmail(email)
                 .orElseThrow(() -> new ResourceNotFoundException(
@@ -102,30 +136,48 @@ public class UserService {
                 .collect(Collectors.toList());
     }
 
+    //Obtener una página de usuarios ordenados por ID (paginación por cursor)
+    @Transactional(readOnly = true)
+    public CursorPageDTO<UserResponseDTO> getUsersPage(String cursor, int size) {
+        int pageSize = KeysetPagination.pageSize(size);
+        List<User> rows = userRepository.findByIdGreaterThanOrderByIdAsc(
+                KeysetPagination.afterId(cursor), KeysetPagination.limitFor(pageSize));
+        return toPage(rows, pageSize);
+    }
+
+    //Obtener una página de usuarios de un rol (paginación por cursor)
+    @Transactional(readOnly = true)
+    public CursorPageDTO<UserResponseDTO> getUsersByRolePage(Role role, String cursor, int size) {
+        int pageSize = KeysetPagination.pageSize(size);
+        List<User> rows = userRepository.findByRoleAndIdGreaterThanOrderByIdAsc(
+                role, KeysetPagination.afterId(cursor), KeysetPagination.limitFor(pageSize));
+        return toPage(rows, pageSize);
+    }
+
     //Actualizar un usuario existente
+    @RetryOnConflict(maxAttempts = 1)
     public UserResponseDTO updateUser(Long id, UserRequestDTO userRequestDTO) {
+        return updateUser(id, userRequestDTO, null);
+    }
+
+    //Actualizar un usuario si sigue en la versión que leyó el cliente (If-Match; null = sin comprobar)
+    //Reemplaza todos los campos, así que un conflicto no se reintenta (409)
+    @RetryOnConflict(maxAttempts = 1)
+    public UserResponseDTO updateUser(Long id, UserRequestDTO userRequestDTO, Long expectedVersion) {
         // Buscar el usuario existente
         User existingUser = userRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException(
                         "Usuario no encontrado con ID: " + id
                 ));
+        VersionCheck.require("El usuario " + id, expectedVersion, existingUser.getVersion());
 
-        // Validar username único (si cambió)
-        if (!existingUser.getUsername().equals(userRequestDTO.getUsername())) {
-            if (userRepository.existsByUserName(userRequestDTO.getUsername())) {
-                throw new IllegalArgumentException(
-                        "El nombre de usuario '" + userRequestDTO.getUsername() + "' ya existe"
-                );
-            }
-        }
+        // Invalidar la caché con los valores anteriores y los nuevos
+        evictCachedUser(id, existingUser.getUsername(), existingUser.getEmail());
+        evictCachedUser(id, userRequestDTO.getUsername(), userRequestDTO.getEmail());
 
-        // Validar email único (si cambió)
-        if (!existingUser.getEmail().equals(userRequestDTO.getEmail())) {
-            if (userRepository.existsByEmail(userRequestDTO.getEmail())) {
-                throw new IllegalArgumentException(
-                        "El email '" + userRequestDTO.getEmail() + "' ya está registrado"
-                );
-            }
+        // El username del técnico aparece en las reparaciones en caché de cualquier propietario
+        if (!existingUser.getUsername().equals(userRequestDTO.getUsername())) {
+            repairViewCache.invalidateAll();
         }
 
         // Actualizar los campos
@@ -139,34 +191,105 @@ public class UserService {
 
         existingUser.setRole(userRequestDTO.getRole());
 
-        // Guardar cambios
-        User updatedUser = userRepository.save(existingUser);
+        // Guardar cambios (username/email únicos por restricción, como en createUser)
+        userExistenceFilter.add(existingUser.getUsername(), existingUser.getEmail());
+        User updatedUser;
+        try {
+            updatedUser = userRepository.saveAndFlush(existingUser);
+        } catch (DataIntegrityViolationException ex) {
+            throw translateUniqueViolation(ex,
+                    "El nombre de usuario '" + userRequestDTO.getUsername() + "' ya existe",
+                    "El email '" + userRequestDTO.getEmail() + "' ya está registrado");
+        }
 
         return convertToResponseDTO(updatedUser);
     }
 
     //Eliminar usuario por ID
     public void deleteUser(Long id) {
-        // Verificar que el usuario existe
-        if (!userRepository.existsById(id)) {
-            throw new ResourceNotFoundException(
-                    "Usuario no encontrado con ID: " + id
-            );
-        }
+        // Verificar que el usuario existe (se carga para conocer las claves de caché)
+        User user = userRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException(
+                        "Usuario no encontrado con ID: " + id
+                ));
+
+        // Dispositivos y reparaciones se eliminan en cascada: avisar a las vistas derivadas
+        List<RepairSnapshot> removedRepairs = user.getDevices().stream()
+                .flatMap(device -> device.getRepairs().stream())
+                .map(RepairSnapshot::of)
+                .collect(Collectors.toList());
 
-        userRepository.deleteById(id);
+        evictCachedUser(id, user.getUsername(), user.getEmail());
+        repairViewCache.invalidate(
+                user.getDevices().stream().map(Device::getId).collect(Collectors.toList()), List.of(id));
+        userRepository.delete(user);
+        removedRepairs.forEach(repair -> eventPublisher.publishEvent(RepairChangedEvent.deleted(repair)));
     }
 
     //Verificar si existe un usuario con un username específico
+    //El filtro de Bloom responde los "no existe" sin consulta; solo se cachean los "existe"
     @Transactional(readOnly = true)
+    @Cacheable(cacheNames = CacheConfig.USER_EXISTS_BY_USERNAME, key = "#username", unless = "!#result")
     public boolean existsByUsername(String username) {
-        return userRepository.existsByUserName(username);
+        return userExistenceFilter.mightContainUsername(username) && userRepository.existsByUsername(username);
     }
 
     //Verificar si existe un usuario con un email específico
     @Transactional(readOnly = true)
+    @Cacheable(cacheNames = CacheConfig.USER_EXISTS_BY_EMAIL, key = "#email", unless = "!#result")
     public boolean existsByEmail(String email) {
-        return userRepository.existsByEmail(email);
+        return userExistenceFilter.mightContainEmail(email) && userRepository.existsByEmail(email);
+    }
+
+    //Elimina de la caché las entradas de un usuario (por id, username y email)
+    //La eliminación se aplica después del commit para que otra petición no vuelva
+    //a cachear los datos antiguos mientras la transacción sigue abierta
+    private void evictCachedUser(Long id, String username, String email) {
+        evict(CacheConfig.USERS_BY_ID, id);
+        evict(CacheConfig.USERS_BY_USERNAME, username);
+        evict(CacheConfig.USER_EXISTS_BY_USERNAME, username);
+        evict(CacheConfig.USERS_BY_EMAIL, email);
+        evict(CacheConfig.USER_EXISTS_BY_EMAIL, email);
+    }
+
+    private void evict(String cacheName, Object key) {
+        Cache cache = cacheManager.getCache(cacheName);
+        if (cache != null && key != null) {
+            new TransactionAwareCacheDecorator(cache).evict(key);
+        }
+    }
+
+    //Traduce la violación de una restricción única de users al mensaje de error de la API (400)
+    //Si la violación es de otra restricción se relanza sin cambios
+    private RuntimeException translateUniqueViolation(DataIntegrityViolationException ex,
+                                                      String usernameMessage, String emailMessage) {
+        String constraint = violatedConstraint(ex);
+        if (constraint.contains(User.UK_USERNAME)) {
+            return new InvalidRequestException(usernameMessage);
+        }
+        if (constraint.contains(User.UK_EMAIL)) {
+            return new InvalidRequestException(emailMessage);
+        }
+        return ex;
+    }
+
+    private static String violatedConstraint(DataIntegrityViolationException ex) {
+        String name = ex.getCause() instanceof ConstraintViolationException violation
+                ? violation.getConstraintName()
+                : null;
+        if (name == null) {
+            name = ex.getMostSpecificCause().getMessage();
+        }
+        return name != null ? name.toLowerCase(Locale.ROOT) : "";
+    }
+
+    //Convierte las filas de una consulta keyset en una página de UserResponseDTO
+    private CursorPageDTO<UserResponseDTO> toPage(List<User> rows, int pageSize) {
+        List<UserResponseDTO> dtos = rows.stream()
+                .map(this::convertToResponseDTO)
+                .collect(Collectors.toList());
+        return KeysetPagination.toPage(dtos, pageSize,
+                last -> KeysetPagination.encodeCursor(last.getId()));
     }
 
     //Convierte un Entity User a UserResponseDTO
@@ -176,7 +299,8 @@ public class UserService {
                 user.getId(),
                 user.getUsername(),
                 user.getEmail(),
-                user.getRole()
+                user.getRole(),
+                user.getVersion()
         );
     }
 
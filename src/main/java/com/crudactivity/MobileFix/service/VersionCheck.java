@@ -0,0 +1,25 @@
+package com.crudactivity.MobileFix.service;
+
+import com.crudactivity.MobileFix.exception.PreconditionFailedException;
+
+/**
+ * Comprobación de la versión esperada por el cliente (cabecera If-Match)
+ */
+final class VersionCheck {
+
+    private VersionCheck() {
+    }
+
+    /**
+     * @param resource        descripción del recurso para el mensaje, p. ej. "La reparación 12"
+     * @param expectedVersion versión que el cliente leyó, o null si no la envió (no se comprueba)
+     * @param currentVersion  versión actual de la entidad
+     * @throws PreconditionFailedException si las versiones no coinciden
+     */
+    static void require(String resource, Long expectedVersion, Long currentVersion) {
+        if (expectedVersion != null && !expectedVersion.equals(currentVersion)) {
+            throw new PreconditionFailedException(resource + " fue modificado por otra petición (versión "
+                    + currentVersion + ", se esperaba " + expectedVersion + ")");
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.crudactivity.MobileFix.config;
+
+import com.crudactivity.MobileFix.dto.RepairResponseDTO;
+import com.crudactivity.MobileFix.event.RepairSnapshot;
+import com.crudactivity.MobileFix.repositories.RepairRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.framework.AopProxyUtils;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.predicate.RuntimeHintsPredicates;
+import org.springframework.data.projection.TargetAware;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Verifica las pistas que la imagen nativa necesita y AOT no deduce por sí solo
+ */
+class NativeHintsConfigTest {
+
+	private final RuntimeHints hints = new RuntimeHints();
+
+	@Test
+	void registersJpqlConstructorsProjectionProxiesAndDtoBindings() throws Exception {
+		new NativeHintsConfig.MobileFixRuntimeHints().registerHints(hints, getClass().getClassLoader());
+
+		for (Class<?> result : NativeHintsConfig.JPQL_CONSTRUCTOR_RESULTS) {
+			assertThat(result.getConstructors()).allSatisfy(constructor ->
+					assertThat(RuntimeHintsPredicates.reflection().onConstructor(constructor)).accepts(hints));
+		}
+		assertThat(RuntimeHintsPredicates.proxies().forInterfaces(AopProxyUtils.completeJdkProxyInterfaces(
+				RepairRepository.RepairStateView.class, TargetAware.class))).accepts(hints);
+		assertThat(RuntimeHintsPredicates.reflection()
+				.onMethod(RepairResponseDTO.class.getMethod("getTechnicianUsername"))).accepts(hints);
+		assertThat(RuntimeHintsPredicates.reflection().onType(RepairSnapshot.class)).accepts(hints);
+	}
+}
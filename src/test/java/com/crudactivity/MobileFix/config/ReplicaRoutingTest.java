@@ -0,0 +1,138 @@
+package com.crudactivity.MobileFix.config;
+
+import com.crudactivity.MobileFix.dto.DeviceRequestDTO;
+import com.crudactivity.MobileFix.model.Role;
+import com.crudactivity.MobileFix.model.User;
+import com.crudactivity.MobileFix.repositories.DeviceRepository;
+import com.crudactivity.MobileFix.repositories.UserRepository;
+import com.crudactivity.MobileFix.service.DeviceService;
+import com.crudactivity.MobileFix.service.RepairService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.task.AsyncTaskExecutor;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Verifica que las lecturas readOnly van a la réplica y que, tras escribir,
+ * las lecturas de la misma sesión vuelven a la primaria
+ * (las dos "bases" son dos pools contra la misma H2 en memoria)
+ */
+@SpringBootTest(properties = {
+		"mobilefix.datasource.replica.enabled=true",
+		"spring.datasource.url=jdbc:h2:mem:replica-routing-test;DB_CLOSE_DELAY=-1",
+		"mobilefix.datasource.replica.url=jdbc:h2:mem:replica-routing-test;DB_CLOSE_DELAY=-1",
+		"mobilefix.datasource.replica.lag-tolerance=1m"
+})
+class ReplicaRoutingTest {
+
+	@Autowired
+	private DeviceService deviceService;
+
+	@Autowired
+	private RepairService repairService;
+
+	@Autowired
+	private ReadYourWritesContext readYourWritesContext;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	@Autowired
+	@Qualifier("applicationTaskExecutor")
+	private AsyncTaskExecutor taskExecutor;
+
+	@Autowired
+	private DeviceRepository deviceRepository;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	private User owner;
+
+	@BeforeEach
+	void setUp() {
+		owner = userRepository.save(new User("owner", "owner@mobilefix.com", "secret123", Role.USER));
+	}
+
+	@AfterEach
+	void tearDown() {
+		deviceRepository.deleteAllInBatch();
+		userRepository.deleteAllInBatch();
+	}
+
+	@Test
+	void readOnlyTransactionsUseTheReplica() {
+		double replica = connections("replica");
+		double primary = connections("primary");
+
+		deviceService.getAllDevices();
+
+		assertThat(connections("replica")).isEqualTo(replica + 1);
+		assertThat(connections("primary")).isEqualTo(primary);
+	}
+
+	@Test
+	void sharedCacheLoadsReadFromThePrimary() {
+		double replica = connections("replica");
+		double primary = connections("primary");
+
+		// RepairViewCache: la lista cargada se sirve a todos, así que no puede venir de una réplica retrasada
+		assertThat(repairService.getRepairsByOwnerId(owner.getId())).isEmpty();
+
+		assertThat(connections("replica")).isEqualTo(replica);
+		assertThat(connections("primary")).isGreaterThan(primary);
+	}
+
+	@Test
+	void readsAfterAWriteStayOnThePrimaryForTheSameSession() {
+		try (ReadYourWritesContext.Scope scope = readYourWritesContext.open("client-1")) {
+			deviceService.createDevice(newDevice());
+		}
+
+		double replica = connections("replica");
+		try (ReadYourWritesContext.Scope scope = readYourWritesContext.open("client-1")) {
+			assertThat(deviceService.getAllDevices()).hasSize(1);
+		}
+		assertThat(connections("replica")).isEqualTo(replica);
+
+		// Otra sesión sí lee de la réplica
+		try (ReadYourWritesContext.Scope scope = readYourWritesContext.open("client-2")) {
+			deviceService.getAllDevices();
+		}
+		assertThat(connections("replica")).isEqualTo(replica + 1);
+	}
+
+	// El TaskDecorator de ReplicaRoutingConfig propaga el contexto a applicationTaskExecutor
+	@Test
+	void asyncTasksInheritTheRequestContext() throws Exception {
+		double replica;
+		try (ReadYourWritesContext.Scope scope = readYourWritesContext.open("client-3")) {
+			deviceService.createDevice(newDevice());
+			replica = connections("replica");
+			CompletableFuture.runAsync(deviceService::getAllDevices, taskExecutor)
+					.get(10, TimeUnit.SECONDS);
+		}
+		assertThat(connections("replica")).isEqualTo(replica);
+	}
+
+	private double connections(String target) {
+		return meterRegistry.counter("mobilefix.datasource.connections", "target", target).count();
+	}
+
+	private DeviceRequestDTO newDevice() {
+		DeviceRequestDTO request = new DeviceRequestDTO();
+		request.setBrand("Google");
+		request.setModel("Pixel 8");
+		request.setOwnerId(owner.getId());
+		return request;
+	}
+}
@@ -0,0 +1,61 @@
+package com.crudactivity.MobileFix.repositories;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Verifica con EXPLAIN de H2 que las consultas de RepairRepository y DeviceRepository
+ * usan los índices declarados en @Table(indexes = ...) en lugar de recorrer la tabla
+ */
+@SpringBootTest
+class RepairRepositoryIndexTest {
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Test
+	void statusQueueOrderedByDateUsesStatusRequestDateIndex() {
+		assertThat(explain("SELECT * FROM repairs WHERE status = 'PENDING' ORDER BY request_date DESC"))
+				.contains("IDX_REPAIRS_STATUS_REQUEST_DATE");
+	}
+
+	@Test
+	void technicianAndStatusLookupsUseTechnicianStatusIndex() {
+		assertThat(explain("SELECT * FROM repairs WHERE status = 'IN_PROGRESS' AND technician_id = 1"))
+				.contains("IDX_REPAIRS_TECHNICIAN_STATUS");
+		assertThat(explain("SELECT COUNT(*) FROM repairs WHERE technician_id = 1 AND status = 'COMPLETED'"))
+				.contains("IDX_REPAIRS_TECHNICIAN_STATUS");
+		// H2 puede elegir el índice de la FK technician_id: basta con que no recorra la tabla
+		assertThat(explain("SELECT * FROM repairs WHERE technician_id IS NULL"))
+				.doesNotContain("tableScan");
+	}
+
+	@Test
+	void dateRangeUsesRequestDateIndex() {
+		assertThat(explain("SELECT * FROM repairs WHERE request_date BETWEEN DATE '2025-01-01' AND DATE '2025-12-31'"))
+				.contains("IDX_REPAIRS_REQUEST_DATE");
+	}
+
+	@Test
+	void deviceHistoryUsesDeviceIndex() {
+		assertThat(explain("SELECT * FROM repairs WHERE device_id = 1"))
+				.contains("IDX_REPAIRS_DEVICE");
+	}
+
+	@Test
+	void deviceLookupsUseDeviceIndexes() {
+		assertThat(explain("SELECT * FROM devices WHERE owner_id = 1"))
+				.contains("IDX_DEVICES_OWNER");
+		assertThat(explain("SELECT * FROM devices WHERE brand = 'Apple' AND model = 'iPhone 13'"))
+				.contains("IDX_DEVICES_BRAND_MODEL");
+	}
+
+	private String explain(String sql) {
+		return jdbcTemplate.queryForObject("EXPLAIN " + sql, String.class);
+	}
+
+}
@@ -0,0 +1,133 @@
+package com.crudactivity.MobileFix.service;
+
+import com.crudactivity.MobileFix.dto.DeviceResponseDTO;
+import com.crudactivity.MobileFix.exception.QueryGuardViolationException;
+import com.crudactivity.MobileFix.model.Device;
+import com.crudactivity.MobileFix.model.Repair;
+import com.crudactivity.MobileFix.model.Role;
+import com.crudactivity.MobileFix.model.User;
+import com.crudactivity.MobileFix.repositories.DeviceRepository;
+import com.crudactivity.MobileFix.repositories.RepairRepository;
+import com.crudactivity.MobileFix.repositories.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Con QueryGuard en modo estricto (src/test/resources/config/application.properties),
+ * cualquier carga LAZY por fila en los listados de dispositivos hace fallar estos tests
+ * y un método que escribe con infracciones hace rollback
+ */
+@SpringBootTest
+@Import(DeviceServiceQueryGuardTest.NPlusOneWriter.class)
+class DeviceServiceQueryGuardTest {
+
+	private static final int OWNERS = 8;
+
+	@Autowired
+	private DeviceService deviceService;
+
+	@Autowired
+	private UserService userService;
+
+	@Autowired
+	private NPlusOneWriter nPlusOneWriter;
+
+	@Autowired
+	private RepairRepository repairRepository;
+
+	@Autowired
+	private DeviceRepository deviceRepository;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	private User firstOwner;
+
+	@BeforeEach
+	void setUp() {
+		for (int i = 0; i < OWNERS; i++) {
+			User owner = userRepository.save(new User("owner" + i, "owner" + i + "@mobilefix.com", "secret123", Role.USER));
+			Device device = deviceRepository.save(new Device("Apple", "iPhone 13", owner));
+			deviceRepository.save(new Device("Samsung", "Galaxy S21", owner));
+			repairRepository.save(new Repair("Pantalla rota", LocalDate.now().plusDays(3), 120.0, device));
+			if (i == 0) {
+				firstOwner = owner;
+			}
+		}
+	}
+
+	@AfterEach
+	void tearDown() {
+		repairRepository.deleteAllInBatch();
+		deviceRepository.deleteAllInBatch();
+		userRepository.deleteAllInBatch();
+	}
+
+	@Test
+	void deviceListsLoadOwnersWithoutPerRowQueries() {
+		assertThat(deviceService.getAllDevices()).hasSize(OWNERS * 2);
+		assertThat(deviceService.getDevicesByBrand("Apple")).hasSize(OWNERS);
+		assertThat(deviceService.getDevicesByBrandAndModel("Samsung", "Galaxy S21")).hasSize(OWNERS);
+
+		List<DeviceResponseDTO> ownerDevices = deviceService.getDevicesByOwnerId(firstOwner.getId());
+		assertThat(ownerDevices).hasSize(2);
+		assertThat(deviceService.getDeviceById(ownerDevices.get(0).getId()).getOwnerUsername()).isEqualTo("owner0");
+	}
+
+	@Test
+	void deletingAnOwnerLoadsDeviceRepairsInBatches() {
+		User owner = userRepository.save(new User("collector", "collector@mobilefix.com", "secret123", Role.USER));
+		for (int i = 0; i < OWNERS; i++) {
+			Device device = deviceRepository.save(new Device("Xiaomi", "Redmi " + i, owner));
+			repairRepository.save(new Repair("Batería no carga", LocalDate.now().plusDays(2), 60.0, device));
+		}
+
+		userService.deleteUser(owner.getId());
+
+		assertThat(userRepository.existsById(owner.getId())).isFalse();
+	}
+
+	@Test
+	void strictViolationRollsBackTheWrite() {
+		long devices = deviceRepository.count();
+
+		assertThatThrownBy(() -> nPlusOneWriter.createDeviceWithRepeatedSelects(firstOwner.getId()))
+				.isInstanceOf(QueryGuardViolationException.class);
+
+		assertThat(deviceRepository.count()).isEqualTo(devices);
+	}
+
+	/**
+	 * Servicio de prueba que guarda un dispositivo y repite el mismo SELECT (N+1)
+	 */
+	@Transactional
+	static class NPlusOneWriter {
+
+		private final DeviceRepository deviceRepository;
+		private final UserRepository userRepository;
+
+		NPlusOneWriter(DeviceRepository deviceRepository, UserRepository userRepository) {
+			this.deviceRepository = deviceRepository;
+			this.userRepository = userRepository;
+		}
+
+		public void createDeviceWithRepeatedSelects(Long ownerId) {
+			User owner = userRepository.getReferenceById(ownerId);
+			deviceRepository.save(new Device("Google", "Pixel 8", owner));
+			for (long id = 1; id <= 5; id++) {
+				userRepository.existsByUsername("missing" + id);
+			}
+		}
+	}
+}
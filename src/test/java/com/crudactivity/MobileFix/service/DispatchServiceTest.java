@@ -0,0 +1,177 @@
+package com.crudactivity.MobileFix.service;
+
+import com.crudactivity.MobileFix.dto.RepairRequestDTO;
+import com.crudactivity.MobileFix.dto.RepairResponseDTO;
+import com.crudactivity.MobileFix.exception.InvalidRequestException;
+import com.crudactivity.MobileFix.exception.TechnicianCapacityExceededException;
+import com.crudactivity.MobileFix.model.Device;
+import com.crudactivity.MobileFix.model.Repair;
+import com.crudactivity.MobileFix.model.Role;
+import com.crudactivity.MobileFix.model.Status;
+import com.crudactivity.MobileFix.model.User;
+import com.crudactivity.MobileFix.repositories.DeviceRepository;
+import com.crudactivity.MobileFix.repositories.RepairRepository;
+import com.crudactivity.MobileFix.repositories.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Verifica que la cola de despacho reparte cada reparación pendiente a un único técnico,
+ * en orden de antigüedad, aunque los técnicos pidan trabajo a la vez
+ */
+@SpringBootTest(properties = "mobilefix.dispatch.max-open-per-technician=100")
+class DispatchServiceTest {
+
+	private static final int REPAIRS = 40;
+	private static final int TECHNICIANS = 4;
+
+	@Autowired
+	private DispatchService dispatchService;
+
+	@Autowired
+	private RepairService repairService;
+
+	@Autowired
+	private RepairRepository repairRepository;
+
+	@Autowired
+	private DeviceRepository deviceRepository;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	private final List<User> technicians = new ArrayList<>();
+	private Device device;
+
+	@BeforeEach
+	void setUp() {
+		User owner = userRepository.save(new User("owner", "owner@mobilefix.com", "secret123", Role.USER));
+		device = deviceRepository.save(new Device("Apple", "iPhone 13", owner));
+		for (int i = 0; i < TECHNICIANS; i++) {
+			technicians.add(userRepository.save(
+					new User("tech" + i, "tech" + i + "@mobilefix.com", "secret123", Role.TECH)));
+		}
+		dispatchService.rebuild();
+	}
+
+	@AfterEach
+	void tearDown() {
+		repairRepository.deleteAllInBatch();
+		deviceRepository.deleteAllInBatch();
+		userRepository.deleteAllInBatch();
+		dispatchService.rebuild();
+	}
+
+	@Test
+	void concurrentClaimsNeverAssignTheSameRepairTwice() throws Exception {
+		createPendingRepairs(REPAIRS);
+		assertThat(dispatchService.getQueueSize()).isEqualTo(REPAIRS);
+
+		ConcurrentLinkedQueue<Long> claimed = new ConcurrentLinkedQueue<>();
+		ExecutorService executor = Executors.newFixedThreadPool(TECHNICIANS);
+		List<Future<?>> workers = new ArrayList<>();
+		for (User technician : technicians) {
+			workers.add(executor.submit(() -> {
+				Optional<RepairResponseDTO> next;
+				while ((next = dispatchService.claimNext(technician.getId())).isPresent()) {
+					assertThat(next.get().getTechnicianId()).isEqualTo(technician.getId());
+					claimed.add(next.get().getId());
+				}
+			}));
+		}
+		for (Future<?> worker : workers) {
+			worker.get();
+		}
+		executor.shutdown();
+
+		assertThat(claimed).hasSize(REPAIRS).doesNotHaveDuplicates();
+		assertThat(dispatchService.getQueueSize()).isZero();
+		assertThat(repairRepository.findAll())
+				.allSatisfy(repair -> assertThat(repair.getStatus()).isEqualTo(Status.IN_PROGRESS));
+	}
+
+	@Test
+	void concurrentClaimsOfOneTechnicianNeverExceedTheCap() throws Exception {
+		int cap = dispatchService.getMaxOpenPerTechnician();
+		createPendingRepairs(cap + 10);
+		Long technicianId = technicians.get(0).getId();
+
+		ConcurrentLinkedQueue<Long> claimed = new ConcurrentLinkedQueue<>();
+		ExecutorService executor = Executors.newFixedThreadPool(8);
+		List<Future<?>> workers = new ArrayList<>();
+		for (int i = 0; i < 8; i++) {
+			workers.add(executor.submit(() -> {
+				try {
+					while (true) {
+						dispatchService.claimNext(technicianId).ifPresent(repair -> claimed.add(repair.getId()));
+					}
+				} catch (TechnicianCapacityExceededException ex) {
+					// Límite alcanzado: el hilo termina
+				}
+			}));
+		}
+		for (Future<?> worker : workers) {
+			worker.get();
+		}
+		executor.shutdown();
+
+		assertThat(claimed).hasSize(cap);
+		assertThat(repairRepository.countByTechnicianIdAndStatusIn(technicianId, List.of(Status.PENDING, Status.IN_PROGRESS)))
+				.isEqualTo(cap);
+	}
+
+	@Test
+	void claimsOldestFirstAndSkipsManuallyAssignedRepairs() {
+		List<RepairResponseDTO> repairs = createPendingRepairs(3);
+		Repair oldest = repairRepository.findById(repairs.get(2).getId()).orElseThrow();
+		oldest.setRequestDate(LocalDate.now().minusDays(10));
+		repairRepository.save(oldest);
+		dispatchService.rebuild();
+
+		// Asignación manual fuera de la cola: la reparación debe desaparecer de ella
+		repairService.assignTechnician(repairs.get(0).getId(), technicians.get(1).getId());
+
+		Long technicianId = technicians.get(0).getId();
+		assertThat(dispatchService.claimNext(technicianId)).get()
+				.extracting(RepairResponseDTO::getId).isEqualTo(oldest.getId());
+		assertThat(dispatchService.claimNext(technicianId)).get()
+				.extracting(RepairResponseDTO::getId).isEqualTo(repairs.get(1).getId());
+		assertThat(dispatchService.claimNext(technicianId)).isEmpty();
+	}
+
+	@Test
+	void rejectsUsersWithoutTechnicianRole() {
+		User owner = userRepository.findByUsername("owner").orElseThrow();
+
+		assertThatThrownBy(() -> dispatchService.claimNext(owner.getId()))
+				.isInstanceOf(InvalidRequestException.class);
+	}
+
+	private List<RepairResponseDTO> createPendingRepairs(int count) {
+		List<RepairRequestDTO> requests = new ArrayList<>();
+		for (int i = 0; i < count; i++) {
+			RepairRequestDTO request = new RepairRequestDTO();
+			request.setDescription("Pantalla rota " + i);
+			request.setEstimatedDate(LocalDate.now().plusDays(3));
+			request.setCost(100.0 + i);
+			request.setDeviceId(device.getId());
+			requests.add(request);
+		}
+		return repairService.createRepairs(requests);
+	}
+}
@@ -0,0 +1,162 @@
+package com.crudactivity.MobileFix.service;
+
+import com.crudactivity.MobileFix.dto.RepairRequestDTO;
+import com.crudactivity.MobileFix.dto.RepairResponseDTO;
+import com.crudactivity.MobileFix.event.RepairEventConsumer;
+import com.crudactivity.MobileFix.event.RepairOutboxMessage;
+import com.crudactivity.MobileFix.model.Device;
+import com.crudactivity.MobileFix.model.OutboxEventType;
+import com.crudactivity.MobileFix.model.Role;
+import com.crudactivity.MobileFix.model.Status;
+import com.crudactivity.MobileFix.model.User;
+import com.crudactivity.MobileFix.repositories.DeviceRepository;
+import com.crudactivity.MobileFix.repositories.OutboxEventRepository;
+import com.crudactivity.MobileFix.repositories.RepairRepository;
+import com.crudactivity.MobileFix.repositories.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+/**
+ * Verifica que los cambios de reparación llegan a los consumidores a través del outbox,
+ * en orden, y que un consumidor que falla recibe el evento otra vez
+ */
+@SpringBootTest
+class OutboxDispatcherTest {
+
+	@TestConfiguration
+	static class RecordingConsumerConfig {
+
+		@Bean
+		RecordingConsumer recordingConsumer() {
+			return new RecordingConsumer();
+		}
+	}
+
+	static class RecordingConsumer implements RepairEventConsumer {
+
+		final List<RepairOutboxMessage> received = new CopyOnWriteArrayList<>();
+		final AtomicBoolean failNext = new AtomicBoolean();
+
+		@Override
+		public void onEvent(RepairOutboxMessage message) {
+			if (failNext.compareAndSet(true, false)) {
+				throw new IllegalStateException("Consumidor no disponible");
+			}
+			received.add(message);
+		}
+	}
+
+	@Autowired
+	private OutboxDispatcher outboxDispatcher;
+
+	@Autowired
+	private RecordingConsumer consumer;
+
+	@Autowired
+	private RepairService repairService;
+
+	@Autowired
+	private OutboxEventRepository outboxEventRepository;
+
+	@Autowired
+	private RepairRepository repairRepository;
+
+	@Autowired
+	private DeviceRepository deviceRepository;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	private Device device;
+	private User technician;
+
+	@BeforeEach
+	void setUp() {
+		User owner = userRepository.save(new User("owner", "owner@mobilefix.com", "secret123", Role.USER));
+		technician = userRepository.save(new User("tech", "tech@mobilefix.com", "secret123", Role.TECH));
+		device = deviceRepository.save(new Device("Samsung", "Galaxy S22", owner));
+	}
+
+	@AfterEach
+	void tearDown() {
+		outboxEventRepository.deleteAllInBatch();
+		repairRepository.deleteAllInBatch();
+		deviceRepository.deleteAllInBatch();
+		userRepository.deleteAllInBatch();
+		consumer.received.clear();
+	}
+
+	@Test
+	void deliversRepairEventsInOrderAndEmptiesTheOutbox() {
+		RepairResponseDTO repair = repairService.createRepair(newRequest());
+		repairService.assignTechnician(repair.getId(), technician.getId());
+		repairService.updateStatus(repair.getId(), Status.COMPLETED);
+
+		// Nada se entrega dentro de la petición
+		assertThat(consumer.received).isEmpty();
+		assertThat(outboxEventRepository.count()).isEqualTo(4);
+
+		assertThat(outboxDispatcher.drain()).isEqualTo(4);
+
+		assertThat(consumer.received)
+				.extracting(RepairOutboxMessage::getType, RepairOutboxMessage::getRepairId,
+						RepairOutboxMessage::getTechnicianId, RepairOutboxMessage::getStatus)
+				.containsExactly(
+						tuple(OutboxEventType.REPAIR_CREATED, repair.getId(), null, Status.PENDING),
+						// Asignar un técnico pasa la reparación a IN_PROGRESS: dos eventos del mismo cambio
+						tuple(OutboxEventType.TECHNICIAN_ASSIGNED, repair.getId(), technician.getId(), Status.IN_PROGRESS),
+						tuple(OutboxEventType.REPAIR_STATUS_CHANGED, repair.getId(), technician.getId(), Status.IN_PROGRESS),
+						tuple(OutboxEventType.REPAIR_STATUS_CHANGED, repair.getId(), technician.getId(), Status.COMPLETED));
+		assertThat(consumer.received.get(3).getPreviousStatus()).isEqualTo(Status.IN_PROGRESS);
+		assertThat(outboxEventRepository.count()).isZero();
+	}
+
+	@Test
+	void failedDeliveryStaysInTheOutboxForRetry() {
+		RepairResponseDTO repair = repairService.createRepair(newRequest());
+		consumer.failNext.set(true);
+
+		assertThat(outboxDispatcher.drain()).isZero();
+		assertThat(outboxDispatcher.getBacklog()).isEqualTo(1);
+		assertThat(outboxEventRepository.findAll())
+				.singleElement()
+				.satisfies(event -> {
+					assertThat(event.getAttempts()).isEqualTo(1);
+					assertThat(event.getRepairId()).isEqualTo(repair.getId());
+				});
+
+		// Se adelanta el reintento en lugar de esperar la espera exponencial
+		outboxEventRepository.findAll().forEach(event -> {
+			event.setAvailableAt(event.getOccurredAt());
+			outboxEventRepository.save(event);
+		});
+
+		assertThat(outboxDispatcher.drain()).isEqualTo(1);
+		assertThat(consumer.received).singleElement()
+				.satisfies(message -> assertThat(message.getAttempt()).isEqualTo(2));
+		assertThat(outboxEventRepository.count()).isZero();
+		assertThat(outboxDispatcher.getBacklog()).isZero();
+	}
+
+	private RepairRequestDTO newRequest() {
+		RepairRequestDTO request = new RepairRequestDTO();
+		request.setDescription("Batería hinchada");
+		request.setEstimatedDate(LocalDate.now().plusDays(2));
+		request.setCost(80.0);
+		request.setDeviceId(device.getId());
+		return request;
+	}
+}
@@ -0,0 +1,127 @@
+package com.crudactivity.MobileFix.service;
+
+import com.crudactivity.MobileFix.dto.RepairRequestDTO;
+import com.crudactivity.MobileFix.event.RepairChangedEvent;
+import com.crudactivity.MobileFix.event.RepairSnapshot;
+import com.crudactivity.MobileFix.model.Device;
+import com.crudactivity.MobileFix.model.Role;
+import com.crudactivity.MobileFix.model.User;
+import com.crudactivity.MobileFix.repositories.DeviceRepository;
+import com.crudactivity.MobileFix.repositories.OutboxEventRepository;
+import com.crudactivity.MobileFix.repositories.RepairRepository;
+import com.crudactivity.MobileFix.repositories.RepairStatusEventRepository;
+import com.crudactivity.MobileFix.repositories.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.AdditionalAnswers.delegatesTo;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Verifica que un cambio que hace commit mientras se reconstruyen los agregados
+ * se cuenta una sola vez
+ */
+@SpringBootTest
+class RepairAggregateServiceTest {
+
+	@Autowired
+	private RepairService repairService;
+
+	@Autowired
+	private RepairAggregateService repairAggregateService;
+
+	@Autowired
+	private DispatchService dispatchService;
+
+	@Autowired
+	private TechnicianWorkloadIndex technicianWorkloadIndex;
+
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	@Autowired
+	private RepairStatusEventRepository repairStatusEventRepository;
+
+	@Autowired
+	private OutboxEventRepository outboxEventRepository;
+
+	@Autowired
+	private RepairRepository repairRepository;
+
+	@Autowired
+	private DeviceRepository deviceRepository;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	private Device device;
+
+	@BeforeEach
+	void setUp() {
+		User owner = userRepository.save(new User("owner", "owner@mobilefix.com", "secret123", Role.USER));
+		device = deviceRepository.save(new Device("Xiaomi", "Redmi Note 12", owner));
+		repairService.createRepair(newRequest());
+	}
+
+	@AfterEach
+	void tearDown() {
+		repairStatusEventRepository.deleteAllInBatch();
+		outboxEventRepository.deleteAllInBatch();
+		repairRepository.deleteAllInBatch();
+		deviceRepository.deleteAllInBatch();
+		userRepository.deleteAllInBatch();
+		repairAggregateService.rebuild();
+		dispatchService.rebuild();
+		technicianWorkloadIndex.rebuild();
+	}
+
+	@Test
+	void changeCommittedDuringRebuildIsCountedOnce() throws Exception {
+		// Instancia propia: su repositorio lanza la escritura justo cuando el rebuild va a leer
+		RepairRepository repository = mock(RepairRepository.class, delegatesTo(repairRepository));
+		RepairAggregateService aggregates = new RepairAggregateService(repository);
+		aggregates.rebuild();
+		assertThat(aggregates.getDeviceAggregate(device.getId()).getOpenCount()).isEqualTo(1L);
+
+		AtomicReference<CompletableFuture<Void>> writer = new AtomicReference<>();
+		doAnswer(invocation -> {
+			long before = repairRepository.count();
+			writer.set(CompletableFuture.runAsync(() -> transactionTemplate.executeWithoutResult(status -> {
+				Long id = repairService.createRepair(newRequest()).getId();
+				aggregates.onRepairChanged(RepairChangedEvent.created(
+						RepairSnapshot.of(repairRepository.findById(id).orElseThrow())));
+			})));
+			// Dar tiempo a que la escritura haga commit antes de la lectura del rebuild
+			long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(1);
+			while (repairRepository.count() == before && System.nanoTime() < deadline) {
+				Thread.sleep(10);
+			}
+			return repairRepository.sumByDeviceAndStatus();
+		}).when(repository).sumByDeviceAndStatus();
+
+		aggregates.rebuild();
+		writer.get().get(10, TimeUnit.SECONDS);
+
+		assertThat(aggregates.getDeviceAggregate(device.getId()).getOpenCount()).isEqualTo(2L);
+	}
+
+	private RepairRequestDTO newRequest() {
+		RepairRequestDTO request = new RepairRequestDTO();
+		request.setDescription("Pantalla rota");
+		request.setEstimatedDate(LocalDate.now().plusDays(3));
+		request.setCost(60.0);
+		request.setDeviceId(device.getId());
+		return request;
+	}
+}
@@ -0,0 +1,142 @@
+package com.crudactivity.MobileFix.service;
+
+import com.crudactivity.MobileFix.dto.BulkUpdateResultDTO;
+import com.crudactivity.MobileFix.dto.RepairRequestDTO;
+import com.crudactivity.MobileFix.dto.RepairResponseDTO;
+import com.crudactivity.MobileFix.model.Device;
+import com.crudactivity.MobileFix.model.Role;
+import com.crudactivity.MobileFix.model.Status;
+import com.crudactivity.MobileFix.model.User;
+import com.crudactivity.MobileFix.repositories.DeviceRepository;
+import com.crudactivity.MobileFix.repositories.OutboxEventRepository;
+import com.crudactivity.MobileFix.repositories.RepairRepository;
+import com.crudactivity.MobileFix.repositories.RepairStatusEventRepository;
+import com.crudactivity.MobileFix.repositories.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Verifica que las operaciones masivas respetan las transiciones permitidas
+ * y mantienen al día las vistas derivadas (agregados, cola de despacho, caché)
+ */
+@SpringBootTest
+class RepairBulkUpdateTest {
+
+	private static final int REPAIRS = 30;
+	private static final Long MISSING_ID = -1L;
+
+	@Autowired
+	private RepairService repairService;
+
+	@Autowired
+	private RepairAggregateService repairAggregateService;
+
+	@Autowired
+	private DispatchService dispatchService;
+
+	@Autowired
+	private RepairStatusEventRepository repairStatusEventRepository;
+
+	@Autowired
+	private OutboxEventRepository outboxEventRepository;
+
+	@Autowired
+	private RepairRepository repairRepository;
+
+	@Autowired
+	private DeviceRepository deviceRepository;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	private User owner;
+	private User technician;
+	private List<Long> repairIds;
+
+	@BeforeEach
+	void setUp() {
+		owner = userRepository.save(new User("owner", "owner@mobilefix.com", "secret123", Role.USER));
+		technician = userRepository.save(new User("tech", "tech@mobilefix.com", "secret123", Role.TECH));
+		Device device = deviceRepository.save(new Device("Google", "Pixel 8", owner));
+
+		List<RepairRequestDTO> requests = new ArrayList<>();
+		for (int i = 0; i < REPAIRS; i++) {
+			RepairRequestDTO request = new RepairRequestDTO();
+			request.setDescription("Reparación " + i);
+			request.setEstimatedDate(LocalDate.now().plusDays(2));
+			request.setCost(10.0);
+			request.setDeviceId(device.getId());
+			requests.add(request);
+		}
+		repairIds = repairService.createRepairs(requests).stream()
+				.map(RepairResponseDTO::getId)
+				.collect(Collectors.toList());
+		dispatchService.rebuild();
+	}
+
+	@AfterEach
+	void tearDown() {
+		repairStatusEventRepository.deleteAllInBatch();
+		outboxEventRepository.deleteAllInBatch();
+		repairRepository.deleteAllInBatch();
+		deviceRepository.deleteAllInBatch();
+		userRepository.deleteAllInBatch();
+		repairAggregateService.rebuild();
+		dispatchService.rebuild();
+	}
+
+	@Test
+	void bulkAssignmentSkipsClosedRepairsAndUpdatesDerivedViews() {
+		repairService.updateStatus(repairIds.get(0), Status.IN_PROGRESS);
+		repairService.updateStatus(repairIds.get(0), Status.COMPLETED);
+		repairService.getRepairsByOwnerId(owner.getId());
+
+		List<Long> ids = new ArrayList<>(repairIds);
+		ids.add(MISSING_ID);
+		BulkUpdateResultDTO result = repairService.assignTechnicianBulk(ids, technician.getId());
+
+		assertThat(result.getRequested()).isEqualTo(REPAIRS + 1);
+		assertThat(result.getUpdated()).isEqualTo(REPAIRS - 1);
+		assertThat(result.getSkippedIds()).containsExactly(repairIds.get(0), MISSING_ID);
+
+		assertThat(repairService.getRepairsByOwnerId(owner.getId()))
+				.filteredOn(repair -> repair.getStatus() == Status.IN_PROGRESS)
+				.hasSize(REPAIRS - 1)
+				.allSatisfy(repair -> {
+					assertThat(repair.getTechnicianId()).isEqualTo(technician.getId());
+					assertThat(repair.getVersion()).isEqualTo(1L);
+				});
+		assertThat(repairAggregateService.getTechnicianAggregate(technician.getId()).getOpenCount())
+				.isEqualTo(REPAIRS - 1);
+		assertThat(dispatchService.getQueueSize()).isZero();
+	}
+
+	@Test
+	void bulkStatusChangeOnlyAppliesLegalTransitions() {
+		repairService.assignTechnicianBulk(repairIds.subList(0, 10), technician.getId());
+
+		// Solo las 10 IN_PROGRESS pueden completarse; las PENDING se omiten
+		BulkUpdateResultDTO completed = repairService.updateStatuses(repairIds, Status.COMPLETED);
+		assertThat(completed.getUpdated()).isEqualTo(10);
+		assertThat(completed.getSkippedIds()).containsExactlyElementsOf(repairIds.subList(10, REPAIRS));
+
+		BulkUpdateResultDTO cancelled = repairService.cancelPendingRequestedBefore(LocalDate.now().plusDays(1));
+		assertThat(cancelled.getUpdated()).isEqualTo(REPAIRS - 10);
+
+		assertThat(repairService.getRepairsByStatus(Status.COMPLETED)).hasSize(10);
+		assertThat(repairService.getRepairsByStatus(Status.CANCELLED)).hasSize(REPAIRS - 10);
+		assertThat(repairAggregateService.getTechnicianAggregate(technician.getId()).getCompletedCount())
+				.isEqualTo(10L);
+		assertThat(dispatchService.getQueueSize()).isZero();
+	}
+}
@@ -0,0 +1,115 @@
+package com.crudactivity.MobileFix.service;
+
+import com.crudactivity.MobileFix.dto.RepairRequestDTO;
+import com.crudactivity.MobileFix.dto.RepairResponseDTO;
+import com.crudactivity.MobileFix.exception.PreconditionFailedException;
+import com.crudactivity.MobileFix.model.Device;
+import com.crudactivity.MobileFix.model.Role;
+import com.crudactivity.MobileFix.model.Status;
+import com.crudactivity.MobileFix.model.User;
+import com.crudactivity.MobileFix.repositories.DeviceRepository;
+import com.crudactivity.MobileFix.repositories.RepairRepository;
+import com.crudactivity.MobileFix.repositories.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Verifica que las actualizaciones concurrentes de una reparación no se pierden
+ * (se reintentan sobre la versión actual) y que If-Match rechaza versiones antiguas
+ */
+@SpringBootTest
+class RepairConcurrencyTest {
+
+	private static final int THREADS = 3;
+	private static final int ASSIGNMENTS_PER_THREAD = 5;
+
+	@Autowired
+	private RepairService repairService;
+
+	@Autowired
+	private RepairRepository repairRepository;
+
+	@Autowired
+	private DeviceRepository deviceRepository;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	private RepairResponseDTO repair;
+
+	@BeforeEach
+	void setUp() {
+		User owner = userRepository.save(new User("owner", "owner@mobilefix.com", "secret123", Role.USER));
+		Device device = deviceRepository.save(new Device("Motorola", "Edge 40", owner));
+
+		RepairRequestDTO request = new RepairRequestDTO();
+		request.setDescription("No enciende");
+		request.setEstimatedDate(LocalDate.now().plusDays(5));
+		request.setCost(120.0);
+		request.setDeviceId(device.getId());
+		repair = repairService.createRepair(request);
+	}
+
+	@AfterEach
+	void tearDown() {
+		repairRepository.deleteAllInBatch();
+		deviceRepository.deleteAllInBatch();
+		userRepository.deleteAllInBatch();
+	}
+
+	@Test
+	void concurrentAssignmentsAreAllApplied() throws Exception {
+		List<List<User>> techniciansByThread = new ArrayList<>();
+		for (int t = 0; t < THREADS; t++) {
+			List<User> technicians = new ArrayList<>();
+			for (int i = 0; i < ASSIGNMENTS_PER_THREAD; i++) {
+				String name = "tech" + t + "-" + i;
+				technicians.add(userRepository.save(new User(name, name + "@mobilefix.com", "secret123", Role.TECH)));
+			}
+			techniciansByThread.add(technicians);
+		}
+
+		ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+		List<Future<?>> workers = new ArrayList<>();
+		for (List<User> technicians : techniciansByThread) {
+			workers.add(executor.submit(() -> {
+				for (User technician : technicians) {
+					repairService.assignTechnician(repair.getId(), technician.getId());
+				}
+			}));
+		}
+		for (Future<?> worker : workers) {
+			worker.get();
+		}
+		executor.shutdown();
+
+		// Cada asignación cambia de técnico: ninguna se perdió si la versión avanzó una vez por asignación
+		RepairResponseDTO updated = repairService.getRepairById(repair.getId());
+		assertThat(updated.getVersion()).isEqualTo(repair.getVersion() + THREADS * ASSIGNMENTS_PER_THREAD);
+		assertThat(updated.getStatus()).isEqualTo(Status.IN_PROGRESS);
+	}
+
+	@Test
+	void staleIfMatchVersionIsRejected() {
+		Long readVersion = repair.getVersion();
+		RepairResponseDTO updated = repairService.updateStatus(repair.getId(), Status.IN_PROGRESS, readVersion);
+		assertThat(updated.getVersion()).isEqualTo(readVersion + 1);
+
+		assertThatThrownBy(() -> repairService.updateStatus(repair.getId(), Status.CANCELLED, readVersion))
+				.isInstanceOf(PreconditionFailedException.class);
+		assertThat(repairService.getRepairById(repair.getId()).getStatus()).isEqualTo(Status.IN_PROGRESS);
+	}
+}
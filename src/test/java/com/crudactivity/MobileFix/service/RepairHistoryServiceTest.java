@@ -0,0 +1,155 @@
+package com.crudactivity.MobileFix.service;
+
+import com.crudactivity.MobileFix.dto.CycleTimeStatsDTO;
+import com.crudactivity.MobileFix.dto.RepairRequestDTO;
+import com.crudactivity.MobileFix.dto.RepairResponseDTO;
+import com.crudactivity.MobileFix.dto.RepairStatusHistoryDTO;
+import com.crudactivity.MobileFix.model.Device;
+import com.crudactivity.MobileFix.model.Role;
+import com.crudactivity.MobileFix.model.Status;
+import com.crudactivity.MobileFix.model.User;
+import com.crudactivity.MobileFix.repositories.DeviceRepository;
+import com.crudactivity.MobileFix.repositories.OutboxEventRepository;
+import com.crudactivity.MobileFix.repositories.RepairRepository;
+import com.crudactivity.MobileFix.repositories.RepairStatusArchiveRepository;
+import com.crudactivity.MobileFix.repositories.RepairStatusEventRepository;
+import com.crudactivity.MobileFix.repositories.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+/**
+ * Verifica que el historial registra cada transición con su duración y que los percentiles
+ * son los mismos antes y después de archivar los eventos, aunque dos instancias archiven a la vez
+ */
+@SpringBootTest
+class RepairHistoryServiceTest {
+
+	private static final int REPAIRS = 20;
+
+	@Autowired
+	private RepairHistoryService repairHistoryService;
+
+	@Autowired
+	private RepairHistoryArchive repairHistoryArchive;
+
+	@Autowired
+	private RepairService repairService;
+
+	@Autowired
+	private RepairStatusEventRepository repairStatusEventRepository;
+
+	@Autowired
+	private RepairStatusArchiveRepository repairStatusArchiveRepository;
+
+	@Autowired
+	private OutboxEventRepository outboxEventRepository;
+
+	@Autowired
+	private RepairRepository repairRepository;
+
+	@Autowired
+	private DeviceRepository deviceRepository;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	private Device device;
+	private User technician;
+
+	@BeforeEach
+	void setUp() {
+		User owner = userRepository.save(new User("owner", "owner@mobilefix.com", "secret123", Role.USER));
+		technician = userRepository.save(new User("tech", "tech@mobilefix.com", "secret123", Role.TECH));
+		device = deviceRepository.save(new Device("Xiaomi", "Redmi Note 12", owner));
+	}
+
+	@AfterEach
+	void tearDown() {
+		repairStatusEventRepository.deleteAllInBatch();
+		repairStatusArchiveRepository.deleteAllInBatch();
+		outboxEventRepository.deleteAllInBatch();
+		repairRepository.deleteAllInBatch();
+		deviceRepository.deleteAllInBatch();
+		userRepository.deleteAllInBatch();
+	}
+
+	@Test
+	void recordsEachTransitionWithTheTimeSpentInThePreviousStatus() {
+		RepairResponseDTO repair = repairService.createRepair(newRequest(0));
+		repairService.assignTechnician(repair.getId(), technician.getId());
+		repairService.updateStatus(repair.getId(), Status.COMPLETED);
+
+		List<RepairStatusHistoryDTO> history = repairHistoryService.getHistory(repair.getId());
+
+		assertThat(history)
+				.extracting(RepairStatusHistoryDTO::getFromStatus, RepairStatusHistoryDTO::getToStatus,
+						RepairStatusHistoryDTO::getTechnicianId)
+				.containsExactly(
+						tuple(null, Status.PENDING, null),
+						tuple(Status.PENDING, Status.IN_PROGRESS, null),
+						tuple(Status.IN_PROGRESS, Status.COMPLETED, technician.getId()));
+		assertThat(history.get(0).getDurationMillis()).isNull();
+		assertThat(history.get(1).getDurationMillis()).isNotNull().isNotNegative();
+		assertThat(history.get(2).getDurationMillis()).isNotNull().isNotNegative();
+	}
+
+	@Test
+	void cycleTimesAreTheSameAfterArchivingTheEvents() throws Exception {
+		List<RepairResponseDTO> repairs = new ArrayList<>();
+		for (int i = 0; i < REPAIRS; i++) {
+			repairs.add(repairService.createRepair(newRequest(i)));
+		}
+		for (RepairResponseDTO repair : repairs) {
+			repairService.assignTechnician(repair.getId(), technician.getId());
+			repairService.updateStatus(repair.getId(), repair.getId() % 2 == 0 ? Status.COMPLETED : Status.CANCELLED);
+		}
+
+		LocalDate today = LocalDate.now(ZoneOffset.UTC);
+		List<CycleTimeStatsDTO> live = repairHistoryService.getCycleTimes(today, today.plusDays(1));
+
+		assertThat(live)
+				.extracting(CycleTimeStatsDTO::getTechnicianId, CycleTimeStatsDTO::getStatus, CycleTimeStatsDTO::getCount)
+				.containsExactly(
+						tuple(null, Status.PENDING.name(), (long) REPAIRS),
+						tuple(technician.getId(), Status.IN_PROGRESS.name(), (long) REPAIRS),
+						tuple(technician.getId(), CycleTimeStatsDTO.TOTAL, (long) REPAIRS));
+
+		// Dos instancias archivando a la vez: cada evento se archiva una sola vez
+		ExecutorService executor = Executors.newFixedThreadPool(2);
+		Future<Integer> first = executor.submit(() -> repairHistoryArchive.rollupBefore(today.plusDays(1)));
+		Future<Integer> second = executor.submit(() -> repairHistoryArchive.rollupBefore(today.plusDays(1)));
+		assertThat(first.get() + second.get()).isEqualTo(REPAIRS * 3);
+		executor.shutdown();
+
+		assertThat(repairStatusEventRepository.count()).isZero();
+		assertThat(repairStatusArchiveRepository.findAll()).singleElement()
+				.satisfies(archive -> assertThat(archive.getEvents()).isEqualTo(REPAIRS * 3));
+
+		assertThat(repairHistoryService.getCycleTimes(today, today.plusDays(1)))
+				.usingRecursiveFieldByFieldElementComparator()
+				.containsExactlyElementsOf(live);
+	}
+
+	private RepairRequestDTO newRequest(int i) {
+		RepairRequestDTO request = new RepairRequestDTO();
+		request.setDescription("Puerto de carga " + i);
+		request.setEstimatedDate(LocalDate.now().plusDays(4));
+		request.setCost(60.0 + i);
+		request.setDeviceId(device.getId());
+		return request;
+	}
+}
@@ -0,0 +1,93 @@
+package com.crudactivity.MobileFix.service;
+
+import com.crudactivity.MobileFix.dto.DeviceRequestDTO;
+import com.crudactivity.MobileFix.dto.RepairResponseDTO;
+import com.crudactivity.MobileFix.model.Device;
+import com.crudactivity.MobileFix.model.Repair;
+import com.crudactivity.MobileFix.model.Role;
+import com.crudactivity.MobileFix.model.User;
+import com.crudactivity.MobileFix.repositories.DeviceRepository;
+import com.crudactivity.MobileFix.repositories.RepairRepository;
+import com.crudactivity.MobileFix.repositories.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Verifica la búsqueda de texto completo: relevancia, tolerancia a errores de tipeo
+ * y actualización del índice con las escrituras
+ */
+@SpringBootTest
+class RepairSearchServiceTest {
+
+	@Autowired
+	private RepairSearchService repairSearchService;
+
+	@Autowired
+	private DeviceService deviceService;
+
+	@Autowired
+	private RepairRepository repairRepository;
+
+	@Autowired
+	private DeviceRepository deviceRepository;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	private Repair iphoneScreen;
+	private Repair samsungBattery;
+	private Device iphone;
+
+	@BeforeEach
+	void setUp() {
+		User owner = userRepository.save(new User("marta", "marta@mobilefix.com", "secret123", Role.USER));
+		iphone = deviceRepository.save(new Device("Apple", "iPhone 13", owner));
+		Device samsung = deviceRepository.save(new Device("Samsung", "Galaxy S21", owner));
+
+		iphoneScreen = repairRepository.save(new Repair("Pantalla rota", LocalDate.now().plusDays(3), 120.0, iphone));
+		samsungBattery = repairRepository.save(new Repair("Batería no carga", LocalDate.now().plusDays(2), 60.0, samsung));
+		repairRepository.save(new Repair("Cámara borrosa", LocalDate.now().plusDays(5), 80.0, iphone));
+	}
+
+	@AfterEach
+	void tearDown() {
+		repairRepository.deleteAll();
+		deviceRepository.deleteAll();
+		userRepository.deleteAll();
+	}
+
+	@Test
+	void ranksRepairsMatchingAllTermsFirst() {
+		List<RepairResponseDTO> results = repairSearchService.search("pantalla rota iphone 13", 10);
+
+		assertThat(results).isNotEmpty();
+		assertThat(results.get(0).getId()).isEqualTo(iphoneScreen.getId());
+	}
+
+	@Test
+	void toleratesTyposAndMissingAccents() {
+		assertThat(repairSearchService.search("bateria samsumg", 10))
+				.extracting(RepairResponseDTO::getId)
+				.first().isEqualTo(samsungBattery.getId());
+
+		assertThat(repairSearchService.search("pantala", 10))
+				.extracting(RepairResponseDTO::getId)
+				.containsExactly(iphoneScreen.getId());
+	}
+
+	@Test
+	void indexFollowsDeviceUpdates() {
+		deviceService.updateDevice(iphone.getId(),
+				new DeviceRequestDTO("Apple", "iPhone 15 Pro", iphone.getOwner().getId()));
+
+		assertThat(repairSearchService.search("pro", 10)).hasSize(2);
+	}
+}
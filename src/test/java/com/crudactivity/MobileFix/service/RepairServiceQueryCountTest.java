@@ -0,0 +1,105 @@
+package com.crudactivity.MobileFix.service;
+
+import com.crudactivity.MobileFix.model.Device;
+import com.crudactivity.MobileFix.model.Repair;
+import com.crudactivity.MobileFix.model.Role;
+import com.crudactivity.MobileFix.model.Status;
+import com.crudactivity.MobileFix.model.User;
+import com.crudactivity.MobileFix.repositories.DeviceRepository;
+import com.crudactivity.MobileFix.repositories.RepairRepository;
+import com.crudactivity.MobileFix.repositories.UserRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Verifica que los listados de RepairService ejecutan un único SELECT
+ * sin importar cuántas filas devuelvan (sin cargas LAZY por fila)
+ */
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class RepairServiceQueryCountTest {
+
+	@Autowired
+	private RepairService repairService;
+
+	@Autowired
+	private RepairRepository repairRepository;
+
+	@Autowired
+	private DeviceRepository deviceRepository;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	private User owner;
+	private User technician;
+	private Device device;
+
+	@BeforeEach
+	void setUp() {
+		owner = userRepository.save(new User("owner", "owner@mobilefix.com", "secret123", Role.USER));
+		technician = userRepository.save(new User("tech", "tech@mobilefix.com", "secret123", Role.TECH));
+		device = deviceRepository.save(new Device("Apple", "iPhone 13", owner));
+	}
+
+	@AfterEach
+	void tearDown() {
+		repairRepository.deleteAllInBatch();
+		deviceRepository.deleteAllInBatch();
+		userRepository.deleteAllInBatch();
+	}
+
+	@ParameterizedTest
+	@ValueSource(ints = {1, 25})
+	void listCallsRunOneStatementRegardlessOfRowCount(int rows) {
+		seedRepairs(rows);
+		LocalDate today = LocalDate.now();
+
+		assertSingleStatement(() -> repairService.getAllRepairs(), rows);
+		assertSingleStatement(() -> repairService.getRepairsByStatus(Status.IN_PROGRESS), rows);
+		assertSingleStatement(() -> repairService.getRepairsByDeviceId(device.getId()), rows);
+		assertSingleStatement(() -> repairService.getRepairsByTechnicianId(technician.getId()), rows);
+		assertSingleStatement(() -> repairService.getRepairsByOwnerId(owner.getId()), rows);
+		assertSingleStatement(() -> repairService.getAssignedRepairs(), rows);
+		assertSingleStatement(() -> repairService.getRepairsByDateRange(today.minusDays(1), today), rows);
+		assertSingleStatement(() -> repairService.getUnassignedRepairs(), 0);
+	}
+
+	private void seedRepairs(int rows) {
+		List<Repair> repairs = new ArrayList<>();
+		for (int i = 0; i < rows; i++) {
+			Repair repair = new Repair("Pantalla rota " + i, LocalDate.now().plusDays(3), 100.0 + i, device);
+			repair.setStatus(Status.IN_PROGRESS);
+			repair.setTechnician(technician);
+			repairs.add(repair);
+		}
+		repairRepository.saveAll(repairs);
+	}
+
+	private void assertSingleStatement(Supplier<List<?>> call, int expectedRows) {
+		Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		statistics.clear();
+
+		List<?> result = call.get();
+
+		assertThat(result).hasSize(expectedRows);
+		assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+	}
+
+}
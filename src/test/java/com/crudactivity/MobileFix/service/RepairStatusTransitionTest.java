@@ -0,0 +1,129 @@
+package com.crudactivity.MobileFix.service;
+
+import com.crudactivity.MobileFix.dto.RepairRequestDTO;
+import com.crudactivity.MobileFix.dto.RepairResponseDTO;
+import com.crudactivity.MobileFix.exception.InvalidStatusTransitionException;
+import com.crudactivity.MobileFix.exception.PreconditionFailedException;
+import com.crudactivity.MobileFix.model.Device;
+import com.crudactivity.MobileFix.model.Role;
+import com.crudactivity.MobileFix.model.Status;
+import com.crudactivity.MobileFix.model.User;
+import com.crudactivity.MobileFix.repositories.DeviceRepository;
+import com.crudactivity.MobileFix.repositories.OutboxEventRepository;
+import com.crudactivity.MobileFix.repositories.RepairRepository;
+import com.crudactivity.MobileFix.repositories.RepairStatusEventRepository;
+import com.crudactivity.MobileFix.repositories.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Verifica que updateStatus y assignTechnician solo aplican las transiciones de
+ * RepairStateMachine, que distinguen los motivos de rechazo y que cuentan cada transición
+ */
+@SpringBootTest
+class RepairStatusTransitionTest {
+
+	@Autowired
+	private RepairService repairService;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	@Autowired
+	private RepairStatusEventRepository repairStatusEventRepository;
+
+	@Autowired
+	private OutboxEventRepository outboxEventRepository;
+
+	@Autowired
+	private RepairRepository repairRepository;
+
+	@Autowired
+	private DeviceRepository deviceRepository;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	private RepairResponseDTO repair;
+
+	@BeforeEach
+	void setUp() {
+		User owner = userRepository.save(new User("owner", "owner@mobilefix.com", "secret123", Role.USER));
+		Device device = deviceRepository.save(new Device("OnePlus", "Nord 3", owner));
+
+		RepairRequestDTO request = new RepairRequestDTO();
+		request.setDescription("Conector de carga");
+		request.setEstimatedDate(LocalDate.now().plusDays(2));
+		request.setCost(30.0);
+		request.setDeviceId(device.getId());
+		repair = repairService.createRepair(request);
+	}
+
+	@AfterEach
+	void tearDown() {
+		repairStatusEventRepository.deleteAllInBatch();
+		outboxEventRepository.deleteAllInBatch();
+		repairRepository.deleteAllInBatch();
+		deviceRepository.deleteAllInBatch();
+		userRepository.deleteAllInBatch();
+	}
+
+	@Test
+	void legalTransitionsApplyAndIllegalOnesAreRejected() {
+		double applied = count(Status.IN_PROGRESS, Status.COMPLETED, "applied");
+		double rejected = count(Status.COMPLETED, Status.PENDING, "rejected");
+
+		repairService.updateStatus(repair.getId(), Status.IN_PROGRESS);
+		RepairResponseDTO completed = repairService.updateStatus(repair.getId(), Status.COMPLETED);
+		assertThat(completed.getStatus()).isEqualTo(Status.COMPLETED);
+		assertThat(completed.getVersion()).isEqualTo(2L);
+
+		// Repetir el mismo estado no es una transición: no cambia la versión
+		assertThat(repairService.updateStatus(repair.getId(), Status.COMPLETED).getVersion()).isEqualTo(2L);
+
+		assertThatThrownBy(() -> repairService.updateStatus(repair.getId(), Status.PENDING))
+				.isInstanceOf(InvalidStatusTransitionException.class);
+		assertThatThrownBy(() -> repairService.updateStatus(repair.getId(), Status.CANCELLED, 1L))
+				.isInstanceOf(PreconditionFailedException.class);
+
+		assertThat(repairService.getRepairById(repair.getId()).getStatus()).isEqualTo(Status.COMPLETED);
+		assertThat(count(Status.IN_PROGRESS, Status.COMPLETED, "applied")).isEqualTo(applied + 1);
+		assertThat(count(Status.COMPLETED, Status.PENDING, "rejected")).isEqualTo(rejected + 1);
+	}
+
+	@Test
+	void closedRepairsCannotBeReassigned() {
+		User technician = userRepository.save(new User("tech", "tech@mobilefix.com", "secret123", Role.TECH));
+
+		// PENDING -> CANCELLED: uno de los dos estados de origen de CANCELLED
+		RepairResponseDTO cancelled = repairService.updateStatus(repair.getId(), Status.CANCELLED);
+		assertThat(cancelled.getStatus()).isEqualTo(Status.CANCELLED);
+		assertThat(cancelled.getVersion()).isEqualTo(1L);
+
+		assertThatThrownBy(() -> repairService.assignTechnician(repair.getId(), technician.getId()))
+				.isInstanceOf(InvalidStatusTransitionException.class);
+
+		RepairResponseDTO current = repairService.getRepairById(repair.getId());
+		assertThat(current.getStatus()).isEqualTo(Status.CANCELLED);
+		assertThat(current.getTechnicianId()).isNull();
+		assertThat(current.getVersion()).isEqualTo(1L);
+	}
+
+	private double count(Status from, Status to, String outcome) {
+		return meterRegistry.get(RepairStateMachine.TRANSITIONS_METRIC)
+				.tag("from", from.name())
+				.tag("to", to.name())
+				.tag("outcome", outcome)
+				.counter()
+				.count();
+	}
+}
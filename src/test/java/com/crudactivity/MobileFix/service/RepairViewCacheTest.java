@@ -0,0 +1,201 @@
+package com.crudactivity.MobileFix.service;
+
+import com.crudactivity.MobileFix.dto.RepairRequestDTO;
+import com.crudactivity.MobileFix.dto.RepairResponseDTO;
+import com.crudactivity.MobileFix.model.Device;
+import com.crudactivity.MobileFix.model.Role;
+import com.crudactivity.MobileFix.model.Status;
+import com.crudactivity.MobileFix.model.User;
+import com.crudactivity.MobileFix.repositories.DeviceRepository;
+import com.crudactivity.MobileFix.repositories.RepairRepository;
+import com.crudactivity.MobileFix.repositories.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Verifica que las vistas por propietario y dispositivo se sirven desde RepairViewCache,
+ * que los cambios las invalidan en esta instancia y en las demás (canal en memoria)
+ * y que los fallos simultáneos de una misma clave cargan una sola vez
+ */
+@SpringBootTest
+class RepairViewCacheTest {
+
+	@Autowired
+	private RepairService repairService;
+
+	@Autowired
+	private RepairRepository repairRepository;
+
+	@Autowired
+	private DeviceRepository deviceRepository;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	@Autowired
+	private InMemoryInvalidationBus invalidationBus;
+
+	private User owner;
+	private Device device;
+	private RepairResponseDTO repair;
+
+	@BeforeEach
+	void setUp() {
+		owner = userRepository.save(new User("owner", "owner@mobilefix.com", "secret123", Role.USER));
+		device = deviceRepository.save(new Device("Xiaomi", "Redmi Note 12", owner));
+
+		RepairRequestDTO request = new RepairRequestDTO();
+		request.setDescription("Cambio de batería");
+		request.setEstimatedDate(LocalDate.now().plusDays(3));
+		request.setCost(45.0);
+		request.setDeviceId(device.getId());
+		repair = repairService.createRepair(request);
+	}
+
+	@AfterEach
+	void tearDown() {
+		repairRepository.deleteAllInBatch();
+		deviceRepository.deleteAllInBatch();
+		userRepository.deleteAllInBatch();
+	}
+
+	@Test
+	void hotReadsRunNoStatementsAndWritesInvalidateTheAffectedKeys() {
+		User technician = userRepository.save(new User("tech", "tech@mobilefix.com", "secret123", Role.TECH));
+		Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+		repairService.getRepairsByOwnerId(owner.getId());
+		repairService.getRepairsByDeviceId(device.getId());
+
+		long before = statistics.getPrepareStatementCount();
+		repairService.getRepairsByOwnerId(owner.getId());
+		repairService.getRepairsByDeviceId(device.getId());
+		assertThat(statistics.getPrepareStatementCount()).isEqualTo(before);
+
+		repairService.assignTechnician(repair.getId(), technician.getId());
+
+		assertThat(repairService.getRepairsByOwnerId(owner.getId()))
+				.singleElement()
+				.satisfies(dto -> {
+					assertThat(dto.getTechnicianUsername()).isEqualTo("tech");
+					assertThat(dto.getStatus()).isEqualTo(Status.IN_PROGRESS);
+				});
+		assertThat(repairService.getRepairsByDeviceId(device.getId()))
+				.singleElement()
+				.extracting(RepairResponseDTO::getTechnicianUsername)
+				.isEqualTo("tech");
+	}
+
+	@Test
+	void invalidationsReachOtherNodes() {
+		RepairViewCache otherNode = new RepairViewCache(100, Duration.ofMinutes(10), new SimpleMeterRegistry(),
+				invalidationBus);
+		AtomicInteger loads = new AtomicInteger();
+
+		otherNode.getByOwner(owner.getId(), id -> {
+			loads.incrementAndGet();
+			return List.of();
+		});
+		otherNode.getByOwner(owner.getId(), id -> {
+			loads.incrementAndGet();
+			return List.of();
+		});
+		assertThat(loads).hasValue(1);
+
+		repairService.updateStatus(repair.getId(), Status.IN_PROGRESS);
+
+		otherNode.getByOwner(owner.getId(), id -> {
+			loads.incrementAndGet();
+			return List.of();
+		});
+		assertThat(loads).hasValue(2);
+	}
+
+	@Test
+	void concurrentMissesForTheSameKeyLoadOnce() throws Exception {
+		RepairViewCache cache = new RepairViewCache(100, Duration.ofMinutes(10), new SimpleMeterRegistry(),
+				(RepairViewInvalidationBus) null);
+		AtomicInteger loads = new AtomicInteger();
+		CountDownLatch release = new CountDownLatch(1);
+
+		ExecutorService executor = Executors.newFixedThreadPool(8);
+		List<Future<List<RepairResponseDTO>>> readers = new ArrayList<>();
+		for (int i = 0; i < 8; i++) {
+			readers.add(executor.submit(() -> cache.getByDevice(device.getId(), id -> {
+				loads.incrementAndGet();
+				await(release);
+				return List.of(repair);
+			})));
+		}
+		Thread.sleep(100);
+		release.countDown();
+		for (Future<List<RepairResponseDTO>> reader : readers) {
+			assertThat(reader.get(5, TimeUnit.SECONDS)).containsExactly(repair);
+		}
+		executor.shutdown();
+
+		assertThat(loads).hasValue(1);
+	}
+
+	private static void await(CountDownLatch latch) {
+		try {
+			latch.await(5, TimeUnit.SECONDS);
+		} catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * Sustituto en memoria de un broker pub/sub: entrega cada mensaje a todos los suscriptores
+	 */
+	static class InMemoryInvalidationBus implements RepairViewInvalidationBus {
+
+		private final List<Consumer<RepairViewInvalidation>> listeners = new CopyOnWriteArrayList<>();
+
+		@Override
+		public void publish(RepairViewInvalidation invalidation) {
+			listeners.forEach(listener -> listener.accept(invalidation));
+		}
+
+		@Override
+		public void subscribe(Consumer<RepairViewInvalidation> listener) {
+			listeners.add(listener);
+		}
+	}
+
+	@TestConfiguration
+	static class InvalidationBusConfig {
+
+		@Bean
+		InMemoryInvalidationBus invalidationBus() {
+			return new InMemoryInvalidationBus();
+		}
+	}
+}
@@ -0,0 +1,37 @@
+package com.crudactivity.MobileFix.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Verifica que todas las sondas de calentamiento se ejecutan sin errores
+ * (también con QueryGuard en modo estricto) y que cada una registra su tiempo
+ */
+@SpringBootTest
+class StartupWarmupTest {
+
+	@Autowired
+	private StartupWarmup startupWarmup;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	@Test
+	void everyProbeRunsAndReportsItsTime() {
+		List<StartupWarmup.ProbeResult> results = startupWarmup.run();
+
+		assertThat(results).isNotEmpty().noneMatch(StartupWarmup.ProbeResult::isFailed);
+		assertThat(results).extracting(StartupWarmup.ProbeResult::getName)
+				.contains("RepairRepository.findPageByStatus", "UserRepository.existsByUsername",
+						"RepairService.getRepairsPage", "json.RepairResponseDTO");
+		assertThat(meterRegistry.get(StartupWarmup.WARMUP_METRIC)
+				.tag("probe", "RepairRepository.findSnapshotsForUpdateByIdIn")
+				.timer().count()).isPositive();
+	}
+}
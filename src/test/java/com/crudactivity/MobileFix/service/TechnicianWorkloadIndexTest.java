@@ -0,0 +1,129 @@
+package com.crudactivity.MobileFix.service;
+
+import com.crudactivity.MobileFix.dto.RepairRequestDTO;
+import com.crudactivity.MobileFix.dto.RepairResponseDTO;
+import com.crudactivity.MobileFix.dto.TechnicianWorkloadDTO;
+import com.crudactivity.MobileFix.model.Device;
+import com.crudactivity.MobileFix.model.Role;
+import com.crudactivity.MobileFix.model.Status;
+import com.crudactivity.MobileFix.model.User;
+import com.crudactivity.MobileFix.repositories.DeviceRepository;
+import com.crudactivity.MobileFix.repositories.OutboxEventRepository;
+import com.crudactivity.MobileFix.repositories.RepairRepository;
+import com.crudactivity.MobileFix.repositories.RepairStatusEventRepository;
+import com.crudactivity.MobileFix.repositories.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Verifica que el índice técnico x estado sigue los cambios de RepairService
+ * y coincide con lo que cuenta la base de datos
+ */
+@SpringBootTest
+class TechnicianWorkloadIndexTest {
+
+	@Autowired
+	private TechnicianWorkloadIndex technicianWorkloadIndex;
+
+	@Autowired
+	private RepairService repairService;
+
+	@Autowired
+	private RepairAggregateService repairAggregateService;
+
+	@Autowired
+	private DispatchService dispatchService;
+
+	@Autowired
+	private RepairStatusEventRepository repairStatusEventRepository;
+
+	@Autowired
+	private OutboxEventRepository outboxEventRepository;
+
+	@Autowired
+	private RepairRepository repairRepository;
+
+	@Autowired
+	private DeviceRepository deviceRepository;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	private User ana;
+	private User luis;
+	private List<Long> repairIds;
+
+	@BeforeEach
+	void setUp() {
+		User owner = userRepository.save(new User("owner", "owner@mobilefix.com", "secret123", Role.USER));
+		ana = userRepository.save(new User("ana", "ana@mobilefix.com", "secret123", Role.TECH));
+		luis = userRepository.save(new User("luis", "luis@mobilefix.com", "secret123", Role.TECH));
+		Device device = deviceRepository.save(new Device("Motorola", "Edge 40", owner));
+
+		repairIds = new ArrayList<>();
+		for (int i = 0; i < 6; i++) {
+			RepairRequestDTO request = new RepairRequestDTO();
+			request.setDescription("Reparación " + i);
+			request.setEstimatedDate(LocalDate.now().plusDays(2));
+			request.setCost(20.0);
+			request.setDeviceId(device.getId());
+			repairIds.add(repairService.createRepair(request).getId());
+		}
+		technicianWorkloadIndex.rebuild();
+	}
+
+	@AfterEach
+	void tearDown() {
+		repairStatusEventRepository.deleteAllInBatch();
+		outboxEventRepository.deleteAllInBatch();
+		repairRepository.deleteAllInBatch();
+		deviceRepository.deleteAllInBatch();
+		userRepository.deleteAllInBatch();
+		repairAggregateService.rebuild();
+		dispatchService.rebuild();
+		technicianWorkloadIndex.rebuild();
+	}
+
+	@Test
+	void indexFollowsWritesAndMatchesTheDatabase() {
+		repairService.assignTechnicianBulk(repairIds.subList(0, 4), ana.getId());
+		repairService.assignTechnician(repairIds.get(4), luis.getId());
+		repairService.updateStatus(repairIds.get(0), Status.COMPLETED);
+		repairService.updateStatus(repairIds.get(1), Status.CANCELLED);
+		// Reasignar mueve la reparación de un técnico a otro
+		RepairResponseDTO moved = repairService.assignTechnician(repairIds.get(2), luis.getId());
+		repairService.deleteRepair(repairIds.get(3));
+
+		assertMatchesDatabase();
+		assertThat(technicianWorkloadIndex.getRepairIds(luis.getId(), Status.IN_PROGRESS))
+				.containsExactly(moved.getId(), repairIds.get(4));
+
+		technicianWorkloadIndex.rebuild();
+		assertMatchesDatabase();
+	}
+
+	private void assertMatchesDatabase() {
+		List<TechnicianWorkloadDTO> workloads = technicianWorkloadIndex.getWorkloads();
+		assertThat(workloads).extracting(TechnicianWorkloadDTO::getTechnicianId)
+				.containsExactly(ana.getId(), luis.getId());
+
+		for (TechnicianWorkloadDTO workload : workloads) {
+			User technician = workload.getTechnicianId().equals(ana.getId()) ? ana : luis;
+			for (Map.Entry<Status, Long> count : workload.getCounts().entrySet()) {
+				assertThat(count.getValue())
+						.as("%s %s", technician.getUsername(), count.getKey())
+						.isEqualTo(repairRepository.countByTechnicianAndStatus(technician, count.getKey()));
+			}
+		}
+	}
+}
@@ -0,0 +1,177 @@
+package com.crudactivity.MobileFix.service;
+
+import com.crudactivity.MobileFix.dto.RepairRequestDTO;
+import com.crudactivity.MobileFix.dto.UserOverviewDTO;
+import com.crudactivity.MobileFix.exception.ResourceNotFoundException;
+import com.crudactivity.MobileFix.model.Device;
+import com.crudactivity.MobileFix.model.Role;
+import com.crudactivity.MobileFix.model.User;
+import com.crudactivity.MobileFix.repositories.DeviceRepository;
+import com.crudactivity.MobileFix.repositories.OutboxEventRepository;
+import com.crudactivity.MobileFix.repositories.RepairRepository;
+import com.crudactivity.MobileFix.repositories.RepairStatusEventRepository;
+import com.crudactivity.MobileFix.repositories.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.time.LocalDate;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Verifica la vista combinada de un usuario (lecturas en paralelo) y el stream SSE
+ * de sus reparaciones, que debe recorrer todas las páginas y terminar con "end"
+ * y responder 503 cuando no quedan huecos en su pool
+ */
+@SpringBootTest(properties = {"mobilefix.stream.page-size=2", "mobilefix.stream.max-concurrent=1"})
+@AutoConfigureMockMvc
+class UserOverviewServiceTest {
+
+	@Autowired
+	private UserOverviewService userOverviewService;
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private RepairStreamService repairStreamService;
+
+	@Autowired
+	private RepairService repairService;
+
+	@Autowired
+	private RepairAggregateService repairAggregateService;
+
+	@Autowired
+	private DispatchService dispatchService;
+
+	@Autowired
+	private TechnicianWorkloadIndex technicianWorkloadIndex;
+
+	@Autowired
+	private RepairStatusEventRepository repairStatusEventRepository;
+
+	@Autowired
+	private OutboxEventRepository outboxEventRepository;
+
+	@Autowired
+	private RepairRepository repairRepository;
+
+	@Autowired
+	private DeviceRepository deviceRepository;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	private User owner;
+
+	@BeforeEach
+	void setUp() {
+		owner = userRepository.save(new User("owner", "owner@mobilefix.com", "secret123", Role.USER));
+		Device device = deviceRepository.save(new Device("Samsung", "Galaxy S23", owner));
+		deviceRepository.save(new Device("Apple", "iPhone 13", owner));
+
+		for (int i = 0; i < 5; i++) {
+			RepairRequestDTO request = new RepairRequestDTO();
+			request.setDescription("Reparación " + i);
+			request.setEstimatedDate(LocalDate.now().plusDays(3));
+			request.setCost(40.0);
+			request.setDeviceId(device.getId());
+			repairService.createRepair(request);
+		}
+	}
+
+	@AfterEach
+	void tearDown() {
+		repairStatusEventRepository.deleteAllInBatch();
+		outboxEventRepository.deleteAllInBatch();
+		repairRepository.deleteAllInBatch();
+		deviceRepository.deleteAllInBatch();
+		userRepository.deleteAllInBatch();
+		repairAggregateService.rebuild();
+		dispatchService.rebuild();
+		technicianWorkloadIndex.rebuild();
+	}
+
+	@Test
+	void overviewCombinesUserDevicesAndRepairs() throws Exception {
+		UserOverviewDTO overview = userOverviewService.getOverview(owner.getId()).get(10, TimeUnit.SECONDS);
+
+		assertThat(overview.getUser().getUsername()).isEqualTo("owner");
+		assertThat(overview.getDevices()).hasSize(2);
+		assertThat(overview.getRepairs()).hasSize(5);
+
+		assertThatThrownBy(() -> userOverviewService.getOverview(-1L).get(10, TimeUnit.SECONDS))
+				.isInstanceOf(ExecutionException.class)
+				.hasCauseInstanceOf(ResourceNotFoundException.class);
+
+		MvcResult missing = mockMvc.perform(get("/api/users/{id}/overview", -1L))
+				.andExpect(request().asyncStarted())
+				.andReturn();
+		mockMvc.perform(asyncDispatch(missing)).andExpect(status().isNotFound());
+
+		MvcResult found = mockMvc.perform(get("/api/users/{id}/overview", owner.getId()))
+				.andExpect(request().asyncStarted())
+				.andReturn();
+		mockMvc.perform(asyncDispatch(found))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.repairs.length()").value(5));
+	}
+
+	@Test
+	void repairStreamSendsEveryPageAndEnds() throws Exception {
+		MvcResult result = mockMvc.perform(get("/api/repairs/owners/{ownerId}/stream", owner.getId())
+						.accept(MediaType.TEXT_EVENT_STREAM))
+				.andExpect(request().asyncStarted())
+				.andReturn();
+		result.getAsyncResult(10_000);
+
+		String body = result.getResponse().getContentAsString();
+		assertThat(body.split("event:repair", -1)).hasSize(6);
+		assertThat(body).endsWith("event:end\ndata:\n\n");
+
+		mockMvc.perform(get("/api/repairs/owners/{ownerId}/stream", -1L).accept(MediaType.TEXT_EVENT_STREAM))
+				.andExpect(status().isNotFound());
+	}
+
+	@Test
+	void repairStreamRespondsServiceUnavailableWhenThePoolIsFull() throws Exception {
+		// Un stream abierto que todavía no ha empezado ocupa el único hueco
+		MockHttpServletRequest pending = new MockHttpServletRequest();
+		RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(pending));
+		try {
+			repairStreamService.streamRepairsByOwnerId(owner.getId());
+		} finally {
+			RequestContextHolder.resetRequestAttributes();
+		}
+
+		mockMvc.perform(get("/api/repairs/owners/{ownerId}/stream", owner.getId()).accept(MediaType.TEXT_EVENT_STREAM))
+				.andExpect(status().isServiceUnavailable());
+
+		repairStreamService.discardPendingStream(pending);
+		MvcResult result = mockMvc.perform(get("/api/repairs/owners/{ownerId}/stream", owner.getId())
+						.accept(MediaType.TEXT_EVENT_STREAM))
+				.andExpect(request().asyncStarted())
+				.andReturn();
+		result.getAsyncResult(10_000);
+		assertThat(result.getResponse().getContentAsString()).endsWith("event:end\ndata:\n\n");
+	}
+}
@@ -0,0 +1,134 @@
+package com.crudactivity.MobileFix.service;
+
+import com.crudactivity.MobileFix.dto.UserRequestDTO;
+import com.crudactivity.MobileFix.dto.UserResponseDTO;
+import com.crudactivity.MobileFix.exception.InvalidRequestException;
+import com.crudactivity.MobileFix.model.Role;
+import com.crudactivity.MobileFix.model.User;
+import com.crudactivity.MobileFix.repositories.UserRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Verifica que la unicidad de username/email la garantizan las restricciones de la tabla
+ * (sin consultas exists* previas) y que el filtro de Bloom responde los "no existe" sin ir a la base
+ */
+@SpringBootTest
+class UserServiceUniquenessTest {
+
+	@Autowired
+	private UserService userService;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private UserExistenceFilter userExistenceFilter;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	@AfterEach
+	void tearDown() {
+		userRepository.deleteAllInBatch();
+	}
+
+	@Test
+	void duplicateUsernameOrEmailIsRejectedWithTheApiMessage() {
+		userService.createUser(request("ana", "ana@mobilefix.com"));
+		UserResponseDTO luis = userService.createUser(request("luis", "luis@mobilefix.com"));
+
+		assertThatThrownBy(() -> userService.createUser(request("ana", "otra@mobilefix.com")))
+				.isInstanceOf(InvalidRequestException.class)
+				.hasMessage("El nombre de usuario ana ya existe");
+		assertThatThrownBy(() -> userService.createUser(request("otra", "ana@mobilefix.com")))
+				.isInstanceOf(InvalidRequestException.class)
+				.hasMessage("El email ana@mobilefix.com ya existe");
+		assertThatThrownBy(() -> userService.updateUser(luis.getId(), request("luis", "ana@mobilefix.com")))
+				.isInstanceOf(InvalidRequestException.class)
+				.hasMessage("El email 'ana@mobilefix.com' ya está registrado");
+
+		assertThat(userRepository.count()).isEqualTo(2);
+	}
+
+	@Test
+	void concurrentSignupsWithTheSameUsernameCreateOnlyOneUser() throws Exception {
+		int attempts = 8;
+		ExecutorService executor = Executors.newFixedThreadPool(attempts);
+		List<Future<UserResponseDTO>> results = new ArrayList<>();
+		for (int i = 0; i < attempts; i++) {
+			String email = "marta" + i + "@mobilefix.com";
+			Callable<UserResponseDTO> signup = () -> userService.createUser(request("marta", email));
+			results.add(executor.submit(signup));
+		}
+
+		int created = 0;
+		for (Future<UserResponseDTO> result : results) {
+			try {
+				result.get();
+				created++;
+			} catch (Exception ex) {
+				assertThat(ex.getCause()).isInstanceOf(InvalidRequestException.class);
+			}
+		}
+		executor.shutdown();
+
+		assertThat(created).isEqualTo(1);
+		assertThat(userService.existsByUsername("marta")).isTrue();
+	}
+
+	@Test
+	void unknownUsernamesAndEmailsAreAnsweredWithoutQueries() {
+		userService.createUser(request("pablo", "pablo@mobilefix.com"));
+		Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		statistics.clear();
+
+		assertThat(userService.existsByUsername("nadie")).isFalse();
+		assertThat(userService.existsByEmail("nadie@mobilefix.com")).isFalse();
+
+		assertThat(statistics.getPrepareStatementCount()).isZero();
+		assertThat(userService.existsByUsername("pablo")).isTrue();
+		assertThat(userService.existsByEmail("pablo@mobilefix.com")).isTrue();
+	}
+
+	@Test
+	void usersCreatedByAnotherInstanceAppearAfterTheNextRebuild() {
+		// Guardado sin pasar por UserService: como si lo hubiera creado otra instancia
+		userRepository.save(new User("remota", "remota@mobilefix.com", "secret123", Role.USER));
+		// Alta de esta instancia cuya transacción aún no ha hecho commit
+		userExistenceFilter.add("pendiente", "pendiente@mobilefix.com");
+
+		assertThat(userService.existsByUsername("remota")).isFalse();
+
+		userExistenceFilter.rebuild();
+
+		assertThat(userService.existsByUsername("remota")).isTrue();
+		assertThat(userService.existsByEmail("remota@mobilefix.com")).isTrue();
+		assertThat(userExistenceFilter.mightContainUsername("pendiente")).isTrue();
+		assertThat(userExistenceFilter.mightContainEmail("pendiente@mobilefix.com")).isTrue();
+	}
+
+	private static UserRequestDTO request(String username, String email) {
+		UserRequestDTO request = new UserRequestDTO();
+		request.setUsername(username);
+		request.setEmail(email);
+		request.setPassword("secret123");
+		request.setRole(Role.USER);
+		return request;
+	}
+}